@@ -0,0 +1,423 @@
+package com.atexpose.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The purpose of this class is to generate a table of the exposed methods for each class
+ * with @Expose methods. The tables let @Expose set up and invoke the methods without
+ * reflection.
+ * <p>
+ * The following is checked at compile time:
+ * - that the number of argument names is the same as the number of parameters
+ * - that the required argument count is not higher than the number of arguments
+ * - that an alias is not used more than once in a class
+ * - if the option atexpose.arguments is set, that the argument names exist
+ * - if the option atexpose.labels is set, that the label names exist
+ * <p>
+ * No table is generated for a class with a private @Expose method, or for a private, local or
+ * anonymous class, as the table cannot invoke these. Such methods are set up with reflection.
+ * <p>
+ * The options hold comma separated names of the arguments and labels added with
+ * API.addArgument and API.addLabel. The arguments and labels native to @Expose are
+ * always known.
+ */
+@SupportedAnnotationTypes(ExposeProcessor.EXPOSE_ANNOTATION)
+@SupportedOptions({ExposeProcessor.ARGUMENTS_OPTION, ExposeProcessor.LABELS_OPTION})
+public class ExposeProcessor extends AbstractProcessor {
+    static final String EXPOSE_ANNOTATION = "com.atexpose.Expose";
+    static final String ARGUMENTS_OPTION = "atexpose.arguments";
+    static final String LABELS_OPTION = "atexpose.labels";
+    /** Is to be the same as IExposeTable.CLASS_NAME_SUFFIX */
+    static final String CLASS_NAME_SUFFIX = "_ExposeTable";
+    /** The arguments added by API and NativeSetup. Is tested against them in the @Expose tests. */
+    public static final List<String> NATIVE_ARGUMENTS = Collections.unmodifiableList(Arrays.asList(
+            "Float", "Json", "Int", "String", "SearchString", "Options",
+            "FileName", "Port", "WebServerDir", "DispatcherName", "Channel", "AccessLevel",
+            "NoOfThreads", "Timeout", "CacheMaxAge", "UseCachedFiles", "DefaultPage",
+            "ForceDefaultPage", "LogWriter", "LogFormatter", "CryptoKey", "TaskName", "Minutes",
+            "TimeOfDay", "DayOfMonth", "Request", "FromName", "Recipient", "ForceHttps",
+            "Username", "Password", "QueueProducerName", "Message", "TimeZone"));
+    /** The labels added by API and NativeSetup. Is tested against them in the @Expose tests. */
+    public static final List<String> NATIVE_LABELS = Collections.unmodifiableList(Arrays.asList(
+            "API", "@Expose", "Util", "AtExpose", "ScheduledTasks", "Misc", "Logs"));
+
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            //Group the exposed methods per class, in the order they are declared
+            Map<TypeElement, List<ExecutableElement>> methodsPerClass = new LinkedHashMap<>();
+            for (ExecutableElement method : ElementFilter.methodsIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                TypeElement theClass = (TypeElement) method.getEnclosingElement();
+                methodsPerClass.computeIfAbsent(theClass, k -> new ArrayList<>()).add(method);
+            }
+            for (Map.Entry<TypeElement, List<ExecutableElement>> entry : methodsPerClass.entrySet()) {
+                this.processClass(entry.getKey(), entry.getValue());
+            }
+        }
+        return false;
+    }
+
+
+    private void processClass(TypeElement theClass, List<ExecutableElement> methods) {
+        boolean isValid = true;
+        boolean isInvokable = this.isInvokableClass(theClass);
+        Set<String> aliases = new HashSet<>();
+        List<ExposedMethodSource> methodSources = new ArrayList<>();
+        for (ExecutableElement method : methods) {
+            ExposedMethodSource methodSource = new ExposedMethodSource(method, this.getAnnotationValues(method));
+            isValid &= this.isValidMethod(methodSource, aliases);
+            isInvokable &= this.isInvokableMethod(method);
+            methodSources.add(methodSource);
+        }
+        if (isValid && isInvokable) {
+            this.writeTable(theClass, methodSources);
+        }
+    }
+
+
+    /**
+     * @return True if the generated table, which is in the same package, can access the argument class.
+     */
+    private boolean isInvokableClass(TypeElement theClass) {
+        Element element = theClass;
+        while (element instanceof TypeElement) {
+            TypeElement typeElement = (TypeElement) element;
+            if (typeElement.getModifiers().contains(Modifier.PRIVATE)
+                    || (typeElement.getNestingKind() != NestingKind.TOP_LEVEL && typeElement.getNestingKind() != NestingKind.MEMBER)) {
+                this.note(theClass, "No expose table is generated for a private, local or anonymous class. "
+                        + "Its @Expose methods are set up with reflection.");
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+
+    /**
+     * @return True if the generated table can invoke the argument method.
+     */
+    private boolean isInvokableMethod(ExecutableElement method) {
+        if (method.getModifiers().contains(Modifier.PRIVATE)) {
+            this.note(method, "No expose table is generated for a class with a private @Expose method. "
+                    + "The @Expose methods of the class are set up with reflection.");
+            return false;
+        }
+        return true;
+    }
+
+
+    private boolean isValidMethod(ExposedMethodSource method, Set<String> aliasesInClass) {
+        boolean isValid = true;
+        int noOfParameters = method.mElement.getParameters().size();
+        if (method.mArguments.size() != noOfParameters) {
+            this.error(method.mElement, "@Expose has " + method.mArguments.size()
+                    + " arguments but the method has " + noOfParameters + " parameters.");
+            isValid = false;
+        }
+        if (method.mRequiredArgumentCount > method.mArguments.size()) {
+            this.error(method.mElement, "@Expose requiredArgumentCount is " + method.mRequiredArgumentCount
+                    + " but there are only " + method.mArguments.size() + " arguments.");
+            isValid = false;
+        }
+        isValid &= this.isKnown(method, method.mArguments, ARGUMENTS_OPTION, NATIVE_ARGUMENTS, "argument");
+        isValid &= this.isKnown(method, method.mLabels, LABELS_OPTION, NATIVE_LABELS, "label");
+        for (String alias : method.mAliases) {
+            if (!aliasesInClass.add(alias)) {
+                this.error(method.mElement, "The alias '" + alias + "' is used more than once.");
+                isValid = false;
+            }
+        }
+        return isValid;
+    }
+
+
+    /**
+     * @return True if the option is not set or if all the names are known.
+     */
+    private boolean isKnown(ExposedMethodSource method, List<String> names, String option, List<String> nativeNames, String nameType) {
+        String optionValue = processingEnv.getOptions().get(option);
+        //If the names are not to be checked
+        if (optionValue == null) {
+            return true;
+        }
+        Set<String> knownNames = new HashSet<>(nativeNames);
+        for (String name : optionValue.split(",")) {
+            knownNames.add(name.trim());
+        }
+        boolean isKnown = true;
+        for (String name : names) {
+            if (!knownNames.contains(name)) {
+                this.error(method.mElement, "Unknown " + nameType + " '" + name + "'. Known " + nameType
+                        + "s are the native ones and the ones in the option " + option + ".");
+                isKnown = false;
+            }
+        }
+        return isKnown;
+    }
+
+
+    /**
+     * @return The values of the @Expose annotation of the argument method, including default values.
+     */
+    private Map<String, Object> getAnnotationValues(ExecutableElement method) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (AnnotationMirror annotationMirror : method.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(EXPOSE_ANNOTATION)) {
+                Map<? extends ExecutableElement, ? extends AnnotationValue> valuesWithDefaults =
+                        processingEnv.getElementUtils().getElementValuesWithDefaults(annotationMirror);
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : valuesWithDefaults.entrySet()) {
+                    values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+                }
+            }
+        }
+        return values;
+    }
+
+
+    private void writeTable(TypeElement theClass, List<ExposedMethodSource> methods) {
+        PackageElement thePackage = processingEnv.getElementUtils().getPackageOf(theClass);
+        String packageName = thePackage.isUnnamed() ? "" : thePackage.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(theClass).toString();
+        String tableSimpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + CLASS_NAME_SUFFIX;
+        String tableName = packageName.isEmpty() ? tableSimpleName : packageName + "." + tableSimpleName;
+        String className = theClass.getQualifiedName().toString();
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("import com.atexpose.api.ExposedMethod;\n")
+                .append("import com.atexpose.api.IExposeTable;\n\n")
+                .append("import java.util.Arrays;\n")
+                .append("import java.util.List;\n\n")
+                .append("/**\n")
+                .append(" * Generated by the @Expose annotation processor from ").append(className).append(".\n")
+                .append(" * Do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(tableSimpleName).append(" implements IExposeTable {\n\n")
+                .append("    @Override\n")
+                .append("    public List<ExposedMethod> getExposedMethods() {\n")
+                .append("        return Arrays.asList(");
+        for (int i = 0; i < methods.size(); i++) {
+            sb.append(i == 0 ? "\n" : ",\n");
+            methods.get(i).appendTo(sb, className);
+        }
+        sb.append(");\n")
+                .append("    }\n")
+                .append("}\n");
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(tableName, theClass);
+            try (Writer writer = sourceFile.openWriter()) {
+                writer.write(sb.toString());
+            }
+        } catch (IOException e) {
+            this.error(theClass, "Could not write the expose table '" + tableName + "'. " + e.getMessage());
+        }
+    }
+
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+
+    private void note(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+    }
+
+
+    /**
+     * Holds the values of an exposed method and writes the source of its table entry.
+     */
+    private class ExposedMethodSource {
+        private final ExecutableElement mElement;
+        private final String mDescription;
+        private final int mRequiredArgumentCount;
+        private final int mRequiredAccessLevel;
+        private final List<String> mArguments;
+        private final List<String> mLabels;
+        private final List<String> mAliases;
+
+
+        ExposedMethodSource(ExecutableElement element, Map<String, Object> annotationValues) {
+            mElement = element;
+            mDescription = (String) annotationValues.get("description");
+            mRequiredArgumentCount = (Integer) annotationValues.get("requiredArgumentCount");
+            mRequiredAccessLevel = (Integer) annotationValues.get("requiredAccessLevel");
+            mArguments = getStrings(annotationValues.get("arguments"));
+            mLabels = getStrings(annotationValues.get("labels"));
+            mAliases = getStrings(annotationValues.get("aliases"));
+        }
+
+
+        private List<String> getStrings(Object arrayValue) {
+            if (arrayValue == null) {
+                return Collections.emptyList();
+            }
+            List<String> strings = new ArrayList<>();
+            for (Object value : (List<?>) arrayValue) {
+                strings.add((String) ((AnnotationValue) value).getValue());
+            }
+            return strings;
+        }
+
+
+        void appendTo(StringBuilder sb, String className) {
+            String methodName = mElement.getSimpleName().toString();
+            sb.append("                ExposedMethod.builder()\n")
+                    .append("                        .name(").append(quote(methodName)).append(")\n")
+                    .append("                        .description(").append(quote(mDescription)).append(")\n")
+                    .append("                        .requiredArgumentCount(").append(mRequiredArgumentCount).append(")\n")
+                    .append("                        .requiredAccessLevel(").append(mRequiredAccessLevel).append(")\n")
+                    .append("                        .arguments(").append(stringArray(mArguments)).append(")\n")
+                    .append("                        .labels(").append(stringArray(mLabels)).append(")\n")
+                    .append("                        .aliases(").append(stringArray(mAliases)).append(")\n")
+                    .append("                        .returnType(").append(quote(getSimpleName(mElement.getReturnType()))).append(")\n")
+                    .append("                        .methodCall((target, args) -> {\n");
+            //The argument values are cast before the method is invoked, so that values that do
+            //not fit are not reported as thrown by the method
+            List<? extends VariableElement> parameters = mElement.getParameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                TypeMirror type = processingEnv.getTypeUtils().erasure(parameters.get(i).asType());
+                sb.append("                            ").append(type).append(" arg").append(i)
+                        .append(" = (").append(getCastType(type)).append(") args[").append(i).append("];\n");
+            }
+            sb.append("                            try {\n")
+                    .append("                                ");
+            boolean isVoid = mElement.getReturnType().getKind() == TypeKind.VOID;
+            if (!isVoid) {
+                sb.append("return ");
+            }
+            //The method invocation, e.g. ((MyClass) target).myMethod(arg0)
+            if (mElement.getModifiers().contains(Modifier.STATIC)) {
+                sb.append(className);
+            } else {
+                sb.append("((").append(className).append(") target)");
+            }
+            sb.append('.').append(methodName).append('(');
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append("arg").append(i);
+            }
+            sb.append(");\n");
+            if (isVoid) {
+                sb.append("                                return null;\n");
+            }
+            sb.append("                            } catch (Throwable t) {\n")
+                    .append("                                throw new java.lang.reflect.InvocationTargetException(t);\n")
+                    .append("                            }\n")
+                    .append("                        })\n")
+                    .append("                        .build()");
+        }
+
+
+        /**
+         * @return The type to cast an argument value to. Primitives are cast to their box type
+         * and unboxed by the compiler.
+         */
+        private String getCastType(TypeMirror type) {
+            TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+            if (erasure.getKind().isPrimitive()) {
+                return processingEnv.getTypeUtils().boxedClass((PrimitiveType) erasure)
+                        .getQualifiedName().toString();
+            }
+            return erasure.toString();
+        }
+
+
+        /**
+         * @return The same name as Class.getSimpleName, e.g. String, int or String[]
+         */
+        private String getSimpleName(TypeMirror type) {
+            TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+            if (erasure.getKind() == TypeKind.ARRAY) {
+                return getSimpleName(((ArrayType) erasure).getComponentType()) + "[]";
+            }
+            if (erasure.getKind() == TypeKind.DECLARED) {
+                return processingEnv.getTypeUtils().asElement(erasure).getSimpleName().toString();
+            }
+            return erasure.toString();
+        }
+    }
+
+
+    private static String stringArray(List<String> strings) {
+        StringBuilder sb = new StringBuilder("new String[]{");
+        for (int i = 0; i < strings.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(quote(strings.get(i)));
+        }
+        return sb.append('}').toString();
+    }
+
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+}
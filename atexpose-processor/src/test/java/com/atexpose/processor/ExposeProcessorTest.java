@@ -0,0 +1,448 @@
+package com.atexpose.processor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class ExposeProcessorTest {
+    /** Stand-ins for the atexpose classes that the generated tables use */
+    private static final List<String> STUBS = Arrays.asList(
+            "com/atexpose/Expose.java",
+            "com/atexpose/api/ExposedMethod.java",
+            "com/atexpose/api/IExposeTable.java",
+            "com/atexpose/dispatcher/invocation/IMethodCall.java");
+    @Rule public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+    private final DiagnosticCollector<JavaFileObject> mDiagnostics = new DiagnosticCollector<>();
+    private File mClassDir;
+    private File mGeneratedDir;
+
+
+    /**
+     * Compiles the argument source with the processor.
+     *
+     * @return True if the compilation succeeded.
+     */
+    private boolean compile(String fileName, String source, String... options) throws IOException {
+        File sourceDir = mTemporaryFolder.newFolder("src");
+        mClassDir = mTemporaryFolder.newFolder("classes");
+        mGeneratedDir = mTemporaryFolder.newFolder("generated");
+        List<File> sourceFiles = new ArrayList<>();
+        for (String stub : STUBS) {
+            Path stubFile = sourceDir.toPath().resolve(stub);
+            Files.createDirectories(stubFile.getParent());
+            try (InputStream inputStream = ExposeProcessorTest.class.getResourceAsStream("/stubs/" + stub)) {
+                Files.copy(inputStream, stubFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            sourceFiles.add(stubFile.toFile());
+        }
+        Path sourceFile = sourceDir.toPath().resolve(fileName);
+        Files.createDirectories(sourceFile.getParent());
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+        sourceFiles.add(sourceFile.toFile());
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(mDiagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> compilerOptions = new ArrayList<>(Arrays.asList(
+                    "-d", mClassDir.getPath(), "-s", mGeneratedDir.getPath(),
+                    "-processor", ExposeProcessor.class.getName()));
+            compilerOptions.addAll(Arrays.asList(options));
+            return compiler.getTask(null, fileManager, mDiagnostics, compilerOptions, null,
+                    fileManager.getJavaFileObjectsFromFiles(sourceFiles)).call();
+        }
+    }
+
+
+    private String getGeneratedSource(String fileName) throws IOException {
+        return new String(Files.readAllBytes(mGeneratedDir.toPath().resolve(fileName)), StandardCharsets.UTF_8);
+    }
+
+
+    private String getErrors() {
+        StringBuilder sb = new StringBuilder();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : mDiagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                sb.append(diagnostic.getMessage(null)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+
+    /**
+     * @return The entries of the generated table of the argument class.
+     */
+    private List<?> getExposedMethods(String tableClassName) throws Exception {
+        ClassLoader classLoader = new URLClassLoader(new URL[]{mClassDir.toURI().toURL()});
+        Object table = classLoader.loadClass(tableClassName).newInstance();
+        return (List<?>) table.getClass().getMethod("getExposedMethods").invoke(table);
+    }
+
+
+    /**
+     * @return The value of the argument property of the argument exposed method, read with its getter
+     */
+    private static Object get(Object exposedMethod, String propertyName) throws Exception {
+        String getterName = "get" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+        return exposedMethod.getClass().getMethod(getterName).invoke(exposedMethod);
+    }
+
+
+    private static Object call(Object exposedMethod, Object target, Object... args) throws Throwable {
+        Object methodCall = get(exposedMethod, "methodCall");
+        return methodCall.getClass().getClassLoader()
+                .loadClass("com.atexpose.dispatcher.invocation.IMethodCall")
+                .getMethod("call", Object.class, Object[].class)
+                .invoke(methodCall, target, args);
+    }
+
+
+    /**
+     * @return What the method call of the argument exposed method throws
+     */
+    private static Throwable getThrown(Object exposedMethod, Object target, Object... args) throws Throwable {
+        try {
+            call(exposedMethod, target, args);
+        } catch (InvocationTargetException e) {
+            //Thrown by the method call, unwrap the reflection wrapper of the test
+            return e.getCause();
+        }
+        throw new AssertionError("Method call did not throw");
+    }
+
+
+    private static final String MY_CLASS = ""
+            + "package com.example;\n"
+            + "import com.atexpose.Expose;\n"
+            + "public class MyClass {\n"
+            + "    public int mCounter = 0;\n"
+            + "    @Expose(arguments = {\"String\", \"Int\"}, requiredArgumentCount = 1,\n"
+            + "            description = \"Says \\\"hi\\\"\", labels = {\"Util\"}, aliases = {\"hi\"})\n"
+            + "    public String hello(String name, int times) {\n"
+            + "        return name + times;\n"
+            + "    }\n"
+            + "    @Expose\n"
+            + "    void increment() {\n"
+            + "        mCounter++;\n"
+            + "    }\n"
+            + "    @Expose(arguments = {\"Int\"})\n"
+            + "    public static int doubleIt(int i) {\n"
+            + "        return i * 2;\n"
+            + "    }\n"
+            + "    public String notExposed() {\n"
+            + "        return \"\";\n"
+            + "    }\n"
+            + "}\n";
+
+
+    @Test
+    public void process_ExposedClass_TableGenerated() throws Exception {
+        assertThat(this.compile("com/example/MyClass.java", MY_CLASS)).isTrue();
+        assertThat(this.getGeneratedSource("com/example/MyClass_ExposeTable.java"))
+                .contains("public final class MyClass_ExposeTable implements IExposeTable")
+                .contains(".name(\"hello\")")
+                .contains(".name(\"increment\")")
+                .contains(".name(\"doubleIt\")")
+                .doesNotContain("notExposed");
+    }
+
+
+    @Test
+    public void process_ExposedClass_TableHasAnnotationValues() throws Exception {
+        this.compile("com/example/MyClass.java", MY_CLASS);
+        Object hello = this.getExposedMethods("com.example.MyClass_ExposeTable").get(0);
+        assertThat(get(hello, "name")).isEqualTo("hello");
+        assertThat(get(hello, "description")).isEqualTo("Says \"hi\"");
+        assertThat(get(hello, "requiredArgumentCount")).isEqualTo(1);
+        assertThat(get(hello, "requiredAccessLevel")).isEqualTo(1);
+        assertThat((String[]) get(hello, "arguments")).containsExactly("String", "Int");
+        assertThat((String[]) get(hello, "labels")).containsExactly("Util");
+        assertThat((String[]) get(hello, "aliases")).containsExactly("hi");
+        assertThat(get(hello, "returnType")).isEqualTo("String");
+    }
+
+
+    @Test
+    public void process_DefaultAnnotationValues_TableHasDefaults() throws Exception {
+        this.compile("com/example/MyClass.java", MY_CLASS);
+        Object increment = this.getExposedMethods("com.example.MyClass_ExposeTable").get(1);
+        assertThat(get(increment, "description")).isEqualTo("No description available");
+        assertThat((String[]) get(increment, "labels")).containsExactly("Misc");
+        assertThat((String[]) get(increment, "arguments")).isEmpty();
+        assertThat(get(increment, "returnType")).isEqualTo("void");
+    }
+
+
+    @Test
+    public void process_ExposedClass_MethodCallsInvokeMethods() throws Throwable {
+        this.compile("com/example/MyClass.java", MY_CLASS);
+        List<?> exposedMethods = this.getExposedMethods("com.example.MyClass_ExposeTable");
+        ClassLoader classLoader = exposedMethods.get(0).getClass().getClassLoader();
+        Object myObject = classLoader.loadClass("com.example.MyClass").newInstance();
+        assertThat(call(exposedMethods.get(0), myObject, "a", 2)).isEqualTo("a2");
+        assertThat(call(exposedMethods.get(1), myObject)).isNull();
+        assertThat(myObject.getClass().getField("mCounter").get(myObject)).isEqualTo(1);
+        assertThat(call(exposedMethods.get(2), null, 3)).isEqualTo(6);
+    }
+
+
+    @Test
+    public void process_MethodThrows_MethodCallThrowsInvocationTargetException() throws Throwable {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    @Expose(arguments = {\"String\"})\n"
+                + "    public String fail(String s) throws java.io.IOException {\n"
+                + "        throw new java.io.IOException(s);\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source)).isTrue();
+        Object fail = this.getExposedMethods("com.example.MyClass_ExposeTable").get(0);
+        Object myObject = fail.getClass().getClassLoader().loadClass("com.example.MyClass").newInstance();
+        Throwable thrown = getThrown(fail, myObject, "Disk full");
+        assertThat(thrown).isInstanceOf(InvocationTargetException.class);
+        assertThat(thrown.getCause()).isInstanceOf(IOException.class).hasMessage("Disk full");
+    }
+
+
+    @Test
+    public void process_MethodThrowsError_MethodCallThrowsInvocationTargetException() throws Throwable {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    @Expose\n"
+                + "    public String fail() {\n"
+                + "        throw new StackOverflowError();\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source)).isTrue();
+        Object fail = this.getExposedMethods("com.example.MyClass_ExposeTable").get(0);
+        Object myObject = fail.getClass().getClassLoader().loadClass("com.example.MyClass").newInstance();
+        Throwable thrown = getThrown(fail, myObject);
+        assertThat(thrown).isInstanceOf(InvocationTargetException.class);
+        assertThat(thrown.getCause()).isInstanceOf(StackOverflowError.class);
+    }
+
+
+    @Test
+    public void process_ArgumentValueOfWrongType_MethodCallThrowsClassCastException() throws Throwable {
+        this.compile("com/example/MyClass.java", MY_CLASS);
+        Object hello = this.getExposedMethods("com.example.MyClass_ExposeTable").get(0);
+        Object myObject = hello.getClass().getClassLoader().loadClass("com.example.MyClass").newInstance();
+        assertThat(getThrown(hello, myObject, "a", "notAnInt")).isInstanceOf(ClassCastException.class);
+    }
+
+
+    @Test
+    public void process_NestedClass_TableNamedWithEnclosingClass() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class Outer {\n"
+                + "    public static class Inner {\n"
+                + "        @Expose\n"
+                + "        public String ping() {\n"
+                + "            return \"pong\";\n"
+                + "        }\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/Outer.java", source)).isTrue();
+        assertThat(this.getGeneratedSource("com/example/Outer_Inner_ExposeTable.java"))
+                .contains("((com.example.Outer.Inner) target).ping()");
+    }
+
+
+    @Test
+    public void process_WrongNumberOfArguments_CompilationError() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    @Expose(arguments = {\"String\"})\n"
+                + "    public String hello(String name, int times) {\n"
+                + "        return name;\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source)).isFalse();
+        assertThat(this.getErrors()).contains("@Expose has 1 arguments but the method has 2 parameters");
+    }
+
+
+    @Test
+    public void process_RequiredArgumentCountTooHigh_CompilationError() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    @Expose(arguments = {\"String\"}, requiredArgumentCount = 2)\n"
+                + "    public String hello(String name) {\n"
+                + "        return name;\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source)).isFalse();
+        assertThat(this.getErrors()).contains("requiredArgumentCount is 2 but there are only 1 arguments");
+    }
+
+
+    @Test
+    public void process_PrivateMethod_CompiledWithoutTable() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    @Expose\n"
+                + "    private String hello() {\n"
+                + "        return \"\";\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source)).isTrue();
+        assertThat(mGeneratedDir.toPath().resolve("com/example/MyClass_ExposeTable.java")).doesNotExist();
+    }
+
+
+    @Test
+    public void process_PrivateNestedClass_CompiledWithoutTable() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    private static class Nested {\n"
+                + "        @Expose\n"
+                + "        public String hello() {\n"
+                + "            return \"\";\n"
+                + "        }\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source)).isTrue();
+        assertThat(mGeneratedDir.toPath().resolve("com/example/MyClass_Nested_ExposeTable.java")).doesNotExist();
+    }
+
+
+    @Test
+    public void process_AnonymousClass_CompiledWithoutTable() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    Object mExposed = new Object() {\n"
+                + "        @Expose\n"
+                + "        public String hello() {\n"
+                + "            return \"\";\n"
+                + "        }\n"
+                + "    };\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source)).isTrue();
+        assertThat(this.getErrors()).isEmpty();
+    }
+
+
+    @Test
+    public void process_PrivateMethodWithArgumentCountTypo_CompilationError() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    @Expose(arguments = {\"String\"})\n"
+                + "    private String hello() {\n"
+                + "        return \"\";\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source)).isFalse();
+        assertThat(this.getErrors()).contains("@Expose has 1 arguments but the method has 0 parameters");
+    }
+
+
+    @Test
+    public void process_DuplicateAlias_CompilationError() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    @Expose(aliases = {\"a\"})\n"
+                + "    public String hello() {\n"
+                + "        return \"\";\n"
+                + "    }\n"
+                + "    @Expose(aliases = {\"a\"})\n"
+                + "    public String bye() {\n"
+                + "        return \"\";\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source)).isFalse();
+        assertThat(this.getErrors()).contains("The alias 'a' is used more than once");
+    }
+
+
+    @Test
+    public void process_ArgumentTypoAndArgumentsOptionSet_CompilationError() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    @Expose(arguments = {\"Strnig\", \"MyArgument\"})\n"
+                + "    public String hello(String s, String t) {\n"
+                + "        return s;\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source, "-Aatexpose.arguments=MyArgument")).isFalse();
+        assertThat(this.getErrors())
+                .contains("Unknown argument 'Strnig'")
+                .doesNotContain("MyArgument'");
+    }
+
+
+    @Test
+    public void process_ArgumentTypoAndArgumentsOptionNotSet_Compiles() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    @Expose(arguments = {\"Strnig\"})\n"
+                + "    public String hello(String s) {\n"
+                + "        return s;\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source)).isTrue();
+    }
+
+
+    @Test
+    public void process_LabelTypoAndLabelsOptionSet_CompilationError() throws Exception {
+        String source = ""
+                + "package com.example;\n"
+                + "import com.atexpose.Expose;\n"
+                + "public class MyClass {\n"
+                + "    @Expose(labels = {\"Utill\", \"MyLabel\"})\n"
+                + "    public String hello() {\n"
+                + "        return \"\";\n"
+                + "    }\n"
+                + "}\n";
+        assertThat(this.compile("com/example/MyClass.java", source, "-Aatexpose.labels=MyLabel,Other")).isFalse();
+        assertThat(this.getErrors())
+                .contains("Unknown label 'Utill'")
+                .doesNotContain("MyLabel'");
+    }
+
+}
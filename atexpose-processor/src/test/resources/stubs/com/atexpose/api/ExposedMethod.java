@@ -0,0 +1,157 @@
+package com.atexpose.api;
+
+import com.atexpose.dispatcher.invocation.IMethodCall;
+
+/**
+ * A stand-in for the ExposedMethod of the atexpose artifact, as Lombok generates it: private
+ * fields with getters and a builder. Used to compile the generated tables in tests. The
+ * @Expose tests compile and run tables generated against the real class.
+ */
+public class ExposedMethod {
+    private final String mName;
+    private final String mDescription;
+    private final int mRequiredArgumentCount;
+    private final int mRequiredAccessLevel;
+    private final String[] mArguments;
+    private final String[] mLabels;
+    private final String[] mAliases;
+    private final String mReturnType;
+    private final IMethodCall mMethodCall;
+
+
+    private ExposedMethod(String name, String description, int requiredArgumentCount, int requiredAccessLevel,
+                          String[] arguments, String[] labels, String[] aliases, String returnType,
+                          IMethodCall methodCall) {
+        mName = name;
+        mDescription = description;
+        mRequiredArgumentCount = requiredArgumentCount;
+        mRequiredAccessLevel = requiredAccessLevel;
+        mArguments = arguments;
+        mLabels = labels;
+        mAliases = aliases;
+        mReturnType = returnType;
+        mMethodCall = methodCall;
+    }
+
+
+    public static ExposedMethodBuilder builder() {
+        return new ExposedMethodBuilder();
+    }
+
+
+    public String getName() {
+        return mName;
+    }
+
+
+    public String getDescription() {
+        return mDescription;
+    }
+
+
+    public int getRequiredArgumentCount() {
+        return mRequiredArgumentCount;
+    }
+
+
+    public int getRequiredAccessLevel() {
+        return mRequiredAccessLevel;
+    }
+
+
+    public String[] getArguments() {
+        return mArguments;
+    }
+
+
+    public String[] getLabels() {
+        return mLabels;
+    }
+
+
+    public String[] getAliases() {
+        return mAliases;
+    }
+
+
+    public String getReturnType() {
+        return mReturnType;
+    }
+
+
+    public IMethodCall getMethodCall() {
+        return mMethodCall;
+    }
+
+
+    public static class ExposedMethodBuilder {
+        private String name, description, returnType;
+        private int requiredArgumentCount, requiredAccessLevel;
+        private String[] arguments, labels, aliases;
+        private IMethodCall methodCall;
+
+
+        ExposedMethodBuilder() {
+        }
+
+
+        public ExposedMethodBuilder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+
+        public ExposedMethodBuilder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+
+        public ExposedMethodBuilder requiredArgumentCount(int requiredArgumentCount) {
+            this.requiredArgumentCount = requiredArgumentCount;
+            return this;
+        }
+
+
+        public ExposedMethodBuilder requiredAccessLevel(int requiredAccessLevel) {
+            this.requiredAccessLevel = requiredAccessLevel;
+            return this;
+        }
+
+
+        public ExposedMethodBuilder arguments(String[] arguments) {
+            this.arguments = arguments;
+            return this;
+        }
+
+
+        public ExposedMethodBuilder labels(String[] labels) {
+            this.labels = labels;
+            return this;
+        }
+
+
+        public ExposedMethodBuilder aliases(String[] aliases) {
+            this.aliases = aliases;
+            return this;
+        }
+
+
+        public ExposedMethodBuilder returnType(String returnType) {
+            this.returnType = returnType;
+            return this;
+        }
+
+
+        public ExposedMethodBuilder methodCall(IMethodCall methodCall) {
+            this.methodCall = methodCall;
+            return this;
+        }
+
+
+        public ExposedMethod build() {
+            return new ExposedMethod(name, description, requiredArgumentCount, requiredAccessLevel,
+                    arguments, labels, aliases, returnType, methodCall);
+        }
+    }
+}
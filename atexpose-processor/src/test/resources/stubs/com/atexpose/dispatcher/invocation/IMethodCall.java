@@ -0,0 +1,21 @@
+package com.atexpose.dispatcher.invocation;
+
+/**
+ * The purpose of this interface is to invoke a method without reflection. Implementations
+ * are generated at compile time by the @Expose annotation processor.
+ */
+@FunctionalInterface
+public interface IMethodCall {
+
+    /**
+     * @param targetObject   The object to invoke the method on. Not used for static methods.
+     * @param argumentValues The argument values
+     * @return The return of the invoked method. Null if the method is void.
+     * @throws java.lang.reflect.InvocationTargetException If the invoked method throws an
+     *                                                     exception or an error. Holds what was
+     *                                                     thrown.
+     * @throws Throwable                                   Exceptions thrown if the argument values
+     *                                                     do not fit the parameters
+     */
+    Object call(Object targetObject, Object[] argumentValues) throws Throwable;
+}
@@ -59,7 +59,7 @@ public class AtExpose implements IStateNode {
 
 
     /**
-     * Shuts down all dispatchers of this instance.
+     * Shuts down all dispatchers of this instance. The loggers of the dispatchers are closed.
      *
      * @return This for chaining.
      */
@@ -3,7 +3,9 @@ package com.atexpose;
 import com.atexpose.dispatcher.IDispatcher;
 import com.atexpose.dispatcher.logging.Logger;
 import com.atexpose.dispatcher.logging.LoggerType;
+import com.atexpose.dispatcher.logging.format.ILogFormatter;
 import com.atexpose.dispatcher.logging.format.LogFormatterFactory;
+import com.atexpose.dispatcher.logging.writer.ILogWriter;
 import com.atexpose.dispatcher.logging.writer.LogWriterFactory;
 import com.atexpose.dispatcherfactories.ScriptFileReaderFactory;
 import io.schinzel.basicutils.Checker;
@@ -16,6 +18,9 @@ import lombok.Getter;
 import lombok.experimental.Accessors;
 import org.json.JSONObject;
 
+import java.io.Closeable;
+import java.io.IOException;
+
 /**
  * The purpose of this class is to expose @Expose and allow string returns that contain status of
  * the operation
@@ -78,12 +83,27 @@ class ExposedAtExpose {
         ICipher crypto = Checker.isEmpty(cryptoKey)
                 ? new NoCipher()
                 : new Aes256Gcm(cryptoKey);
-        Logger logger = Logger.builder()
-                .loggerType(LoggerType.EVENT)
-                .logFormatter(LogFormatterFactory.get(logFormatter).create())
-                .logWriter(LogWriterFactory.get(logWriter).create())
-                .cipher(crypto)
-                .build();
+        ILogFormatter formatter = LogFormatterFactory.get(logFormatter).create();
+        ILogWriter writer = LogWriterFactory.get(logWriter).create();
+        Logger logger;
+        try {
+            logger = Logger.builder()
+                    .loggerType(loggerType)
+                    .logFormatter(formatter)
+                    .logWriter(writer)
+                    .cipher(crypto)
+                    .build();
+        } catch (RuntimeException e) {
+            //Release the file of a writer that is not used
+            if (writer instanceof Closeable) {
+                try {
+                    ((Closeable) writer).close();
+                } catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            throw e;
+        }
         this.getAtExpose().getDispatchers().get(dispatcherName).addLogger(logger);
         return "Dispatcher " + dispatcherName + " got an " + loggerType.name().toLowerCase() + " logger";
     }
@@ -109,13 +109,13 @@ class NativeSetup {
                 .addArgument(Argument.builder()
                         .name("LogWriter")
                         .dataType(DataType.ALPHNUMSTRING)
-                        .description("Where the log entries will be written")
+                        .description("Where the log entries will be written. system_out, file or binary_file.")
                         .defaultValue("system_out")
                         .build())
                 .addArgument(Argument.builder()
                         .name("LogFormatter")
                         .dataType(DataType.ALPHNUMSTRING)
-                        .description("The format of the log entries")
+                        .description("The format of the log entries. json, single_line, multi_line or binary.")
                         .defaultValue("json")
                         .build())
                 .addArgument(Argument.builder()
@@ -164,29 +164,16 @@ public class API implements IStateNode {
 
 
     private API expose(Class theClass, Object theObject) {
-        Method[] methods = theClass.getDeclaredMethods();
-        for (Method method : methods) {
-            Expose expose = method.getAnnotation(Expose.class);
-            if (expose != null) {
-                try {
-                    List<Argument> arguments = mArguments.get(Arrays.asList(expose.arguments()));
-                    List<Label> labels = mLabels.get(Arrays.asList(expose.labels()));
-                    List<Alias> aliases = this.addAliases(expose.aliases());
-                    AbstractDataType returnDataType = mDataTypes.get(method.getReturnType().getSimpleName());
-                    MethodObject methodObject = MethodObject.builder()
-                            .theObject(theObject)
-                            .method(method)
-                            .description(expose.description())
-                            .noOfRequiredArguments(expose.requiredArgumentCount())
-                            .arguments(arguments)
-                            .accessLevel(expose.requiredAccessLevel())
-                            .labels(labels)
-                            .returnDataType(returnDataType)
-                            .aliases(aliases)
-                            .build();
-                    mMethods.add(methodObject);
-                } catch (Exception e) {
-                    throw new SetUpError("Error when setting up method '" + method.getName() + "' in class '" + theObject.getClass().getSimpleName() + "'. " + e.getMessage());
+        IExposeTable exposeTable = getExposeTable(theClass);
+        //If a table was generated at compile time for the class
+        if (exposeTable != null) {
+            for (ExposedMethod exposedMethod : exposeTable.getExposedMethods()) {
+                this.addMethod(theObject, null, exposedMethod);
+            }
+        } else {
+            for (Method method : theClass.getDeclaredMethods()) {
+                if (method.getAnnotation(Expose.class) != null) {
+                    this.addMethod(theObject, method, ExposedMethod.create(method));
                 }
             }
         }
@@ -194,6 +181,54 @@ public class API implements IStateNode {
     }
 
 
+    /**
+     * @param theObject     The object to invoke the method on
+     * @param method        The method to invoke. Null if the method is invoked with a generated method call.
+     * @param exposedMethod The @Expose settings of the method
+     */
+    private void addMethod(Object theObject, Method method, ExposedMethod exposedMethod) {
+        try {
+            List<Argument> arguments = mArguments.get(Arrays.asList(exposedMethod.getArguments()));
+            List<Label> labels = mLabels.get(Arrays.asList(exposedMethod.getLabels()));
+            List<Alias> aliases = this.addAliases(exposedMethod.getAliases());
+            AbstractDataType returnDataType = mDataTypes.get(exposedMethod.getReturnType());
+            MethodObject methodObject = MethodObject.builder()
+                    .theObject(theObject)
+                    .method(method)
+                    .methodName(exposedMethod.getName())
+                    .methodCall(exposedMethod.getMethodCall())
+                    .description(exposedMethod.getDescription())
+                    .noOfRequiredArguments(exposedMethod.getRequiredArgumentCount())
+                    .arguments(arguments)
+                    .accessLevel(exposedMethod.getRequiredAccessLevel())
+                    .labels(labels)
+                    .returnDataType(returnDataType)
+                    .aliases(aliases)
+                    .build();
+            mMethods.add(methodObject);
+        } catch (Exception e) {
+            throw new SetUpError("Error when setting up method '" + exposedMethod.getName() + "' in class '" + theObject.getClass().getSimpleName() + "'. " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * @param theClass A class with exposed methods
+     * @return The table generated at compile time for the argument class. Null if there is none.
+     */
+    static IExposeTable getExposeTable(Class theClass) {
+        String tableClassName = theClass.getName().replace('$', '_') + IExposeTable.CLASS_NAME_SUFFIX;
+        try {
+            Class<?> tableClass = Class.forName(tableClassName, true, theClass.getClassLoader());
+            return (IExposeTable) tableClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new SetUpError("Could not create the expose table '" + tableClassName + "'. " + e.toString());
+        }
+    }
+
+
     @Override
     public State getState() {
         return State.getBuilder()
@@ -0,0 +1,162 @@
+package com.atexpose.api;
+
+import com.atexpose.api.datatypes.AbstractDataType;
+import io.schinzel.basicutils.Checker;
+import io.schinzel.basicutils.thrower.Thrower;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The purpose of this class is to bind the argument values of a request to the arguments
+ * of a method.
+ * <p>
+ * The plan is created once per method. It holds the data type of each argument, the default
+ * values and a perfect hash table for the look up of argument positions by argument name or
+ * alias. As such, binding a request does not create collections or look ups that can collide.
+ * <p>
+ * The array of argument values is reused by the invoking thread. This is safe as the values
+ * are read from the array before the invoked method starts.
+ */
+class ArgumentBindingPlan {
+    /** The max number of seeds tried per table size */
+    private static final int MAX_SEEDS_PER_SIZE = 64;
+    /** The data type of the argument at each position */
+    private final AbstractDataType[] mDataTypes;
+    /** The default value of the argument at each position */
+    private final Object[] mDefaultValues;
+    /** The argument names and aliases, at their hashed index */
+    private final String[] mNames;
+    /** The argument position of the name at the same index */
+    private final int[] mPositions;
+    /** The table size minus one. The table size is a power of two. */
+    private final int mMask;
+    /** The seed for which the hash has no collisions */
+    private final int mSeed;
+    /** An argument value array per thread */
+    private final ThreadLocal<Object[]> mArgumentValues;
+
+
+    ArgumentBindingPlan(List<Argument> arguments) {
+        int noOfArguments = arguments.size();
+        mDataTypes = new AbstractDataType[noOfArguments];
+        mDefaultValues = new Object[noOfArguments];
+        //The position per argument name and alias. A later name replaces an earlier equal name.
+        Map<String, Integer> namePositions = new LinkedHashMap<>();
+        for (int i = 0; i < noOfArguments; i++) {
+            Argument argument = arguments.get(i);
+            mDataTypes[i] = argument.getDataType();
+            mDefaultValues[i] = argument.getDefaultValue();
+            namePositions.put(argument.getKey(), i);
+            if (!Checker.isEmpty(argument.getAliases())) {
+                for (String alias : argument.getAliases()) {
+                    namePositions.put(alias, i);
+                }
+            }
+        }
+        String[] names = namePositions.keySet().toArray(new String[0]);
+        int noOfNames = names.length;
+        //Double the table size until a seed without collisions is found
+        int tableSize = Integer.highestOneBit(Math.max(1, noOfNames)) * 2;
+        int seed = findSeed(names, tableSize - 1);
+        while (seed == 0) {
+            tableSize *= 2;
+            Thrower.throwIfTrue(tableSize > 64 * noOfNames)
+                    .message("Could not create a look up table for the argument names");
+            seed = findSeed(names, tableSize - 1);
+        }
+        mMask = tableSize - 1;
+        mSeed = seed;
+        mNames = new String[tableSize];
+        mPositions = new int[tableSize];
+        for (int i = 0; i < names.length; i++) {
+            int index = hash(names[i], mSeed) & mMask;
+            mNames[index] = names[i];
+            mPositions[index] = namePositions.get(names[i]);
+        }
+        mArgumentValues = ThreadLocal.withInitial(() -> new Object[noOfArguments]);
+    }
+
+
+    /**
+     * @return A seed for which no two names have the same index. 0 if there is none among
+     * the seeds tried.
+     */
+    private static int findSeed(String[] names, int mask) {
+        for (int seedNo = 0; seedNo < MAX_SEEDS_PER_SIZE; seedNo++) {
+            //An odd seed
+            int seed = 0x9E3779B1 + 2 * seedNo;
+            boolean[] isTaken = new boolean[mask + 1];
+            boolean hasCollision = false;
+            for (String name : names) {
+                int index = hash(name, seed) & mask;
+                if (isTaken[index]) {
+                    hasCollision = true;
+                    break;
+                }
+                isTaken[index] = true;
+            }
+            if (!hasCollision) {
+                return seed;
+            }
+        }
+        return 0;
+    }
+
+
+    private static int hash(String name, int seed) {
+        int hash = seed;
+        for (int i = 0; i < name.length(); i++) {
+            hash = (hash ^ name.charAt(i)) * seed;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+
+    /**
+     * @param argumentName An argument name or alias
+     * @return The position of the argument. -1 if there is no argument with the argument name.
+     */
+    int getPosition(String argumentName) {
+        if (argumentName == null) {
+            return -1;
+        }
+        int index = hash(argumentName, mSeed) & mMask;
+        return argumentName.equals(mNames[index]) ? mPositions[index] : -1;
+    }
+
+
+    /**
+     * @param argumentValues The argument values of a request as strings
+     * @param argumentNames  The names of the argument values. Empty if the values are in the
+     *                       order of the method arguments.
+     * @return The argument values to invoke the method with. Arguments not in the request
+     * have their default values. The array is reused by the next binding in the invoking
+     * thread.
+     */
+    Object[] bind(List<String> argumentValues, List<String> argumentNames) {
+        Thrower.throwIfVarNull(argumentValues, "argumentValues");
+        boolean isNamed = !Checker.isEmpty(argumentNames);
+        //Exceptions are thrown without Thrower so that no messages are created for valid requests
+        if (isNamed && argumentValues.size() != argumentNames.size()) {
+            throw new RuntimeException("ArgumentValues and ArgumentNames need to be of same size");
+        }
+        if (argumentValues.size() > mDataTypes.length) {
+            throw new RuntimeException("Too many arguments. The method takes " + mDataTypes.length + " arguments.");
+        }
+        Object[] boundValues = mArgumentValues.get();
+        System.arraycopy(mDefaultValues, 0, boundValues, 0, mDefaultValues.length);
+        for (int i = 0; i < argumentValues.size(); i++) {
+            int position = i;
+            if (isNamed) {
+                position = this.getPosition(argumentNames.get(i));
+                if (position == -1) {
+                    throw new RuntimeException("No argument named '" + argumentNames.get(i) + "'");
+                }
+            }
+            boundValues[position] = mDataTypes[position].convertFromStringToDataType(argumentValues.get(i));
+        }
+        return boundValues;
+    }
+}
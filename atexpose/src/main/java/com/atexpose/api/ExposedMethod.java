@@ -0,0 +1,75 @@
+package com.atexpose.api;
+
+import com.atexpose.Expose;
+import com.atexpose.dispatcher.invocation.IMethodCall;
+import io.schinzel.basicutils.thrower.Thrower;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.lang.reflect.Method;
+
+/**
+ * The purpose of this class is to hold the @Expose settings of a method. Instances are
+ * created by the tables generated by the @Expose annotation processor, or from the
+ * annotation of a method if there is no generated table.
+ */
+@Accessors(prefix = "m")
+public class ExposedMethod {
+    /** The name of the method */
+    @Getter private final String mName;
+    /** The description of the method */
+    @Getter private final String mDescription;
+    /** How many of the arguments are required */
+    @Getter private final int mRequiredArgumentCount;
+    /** The access level required to invoke the method */
+    @Getter private final int mRequiredAccessLevel;
+    /** The names of the arguments */
+    @Getter private final String[] mArguments;
+    /** The names of the labels of the method */
+    @Getter private final String[] mLabels;
+    /** Alternate names of the method */
+    @Getter private final String[] mAliases;
+    /** The simple name of the return type of the method, e.g. String */
+    @Getter private final String mReturnType;
+    /** Invokes the method. Null if the method is to be invoked with reflection. */
+    @Getter private final IMethodCall mMethodCall;
+
+
+    @Builder
+    private ExposedMethod(String name, String description, int requiredArgumentCount, int requiredAccessLevel,
+                          String[] arguments, String[] labels, String[] aliases, String returnType,
+                          IMethodCall methodCall) {
+        Thrower.throwIfVarEmpty(name, "name");
+        Thrower.throwIfVarEmpty(returnType, "returnType");
+        mName = name;
+        mDescription = (description == null) ? "" : description;
+        mRequiredArgumentCount = requiredArgumentCount;
+        mRequiredAccessLevel = requiredAccessLevel;
+        mArguments = (arguments == null) ? new String[0] : arguments;
+        mLabels = (labels == null) ? new String[0] : labels;
+        mAliases = (aliases == null) ? new String[0] : aliases;
+        mReturnType = returnType;
+        mMethodCall = methodCall;
+    }
+
+
+    /**
+     * @param method A method with an @Expose annotation
+     * @return The settings of the argument method
+     */
+    static ExposedMethod create(Method method) {
+        Expose expose = method.getAnnotation(Expose.class);
+        Thrower.throwIfVarNull(expose, "expose");
+        return ExposedMethod.builder()
+                .name(method.getName())
+                .description(expose.description())
+                .requiredArgumentCount(expose.requiredArgumentCount())
+                .requiredAccessLevel(expose.requiredAccessLevel())
+                .arguments(expose.arguments())
+                .labels(expose.labels())
+                .aliases(expose.aliases())
+                .returnType(method.getReturnType().getSimpleName())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.atexpose.api;
+
+import java.util.List;
+
+/**
+ * The purpose of this interface is to list the exposed methods of a class without reflection.
+ * <p>
+ * Implementations are generated at compile time by the @Expose annotation processor, one
+ * per class with @Expose methods. The generated class is named as the class with the
+ * suffix "_ExposeTable", e.g. MyClass_ExposeTable, and is placed in the same package. For
+ * a nested class the names of the enclosing classes are included, e.g.
+ * Outer_Inner_ExposeTable.
+ */
+public interface IExposeTable {
+    /** The suffix of the names of the generated tables */
+    String CLASS_NAME_SUFFIX = "_ExposeTable";
+
+
+    /**
+     * @return The exposed methods of the class
+     */
+    List<ExposedMethod> getExposedMethods();
+}
@@ -9,9 +9,7 @@ import io.schinzel.basicutils.state.State;
 import org.apache.commons.lang3.ArrayUtils;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Purpose of this class is hold the names and the order of the arguments of a method.
@@ -21,8 +19,8 @@ import java.util.Map;
 public class MethodArguments implements IStateNode {
     //Holds the arguments of this object
     private final ImmutableList<Argument> mArguments;
-    //A collection for CPU efficient up look of argument position
-    private final Map<String, Integer> mArgumentPositions = new HashMap<>(20);
+    //Binds request argument values and looks up argument positions
+    private final ArgumentBindingPlan mBindingPlan;
     private static final MethodArguments EMPTY = new MethodArguments(Collections.emptyList());
 
 
@@ -35,18 +33,8 @@ public class MethodArguments implements IStateNode {
 
     private MethodArguments(List<Argument> arguments) {
         Thrower.throwIfVarNull(arguments, "arguments");
-        //Put arguments and its aliases in a hash map for quick up look of argument position
-        int argumentPosition = 0;
-        for (Argument argument : arguments) {
-            mArgumentPositions.put(argument.getKey(), argumentPosition);
-            if (!Checker.isEmpty(argument.getAliases())) {
-                for (String argumentAlias : argument.getAliases()) {
-                    mArgumentPositions.put(argumentAlias, argumentPosition);
-                }
-            }
-            argumentPosition++;
-        }
         mArguments = ImmutableList.copyOf(arguments);
+        mBindingPlan = new ArgumentBindingPlan(mArguments);
     }
 
 
@@ -71,6 +59,19 @@ public class MethodArguments implements IStateNode {
     }
 
 
+    /**
+     * @param argumentValues The argument values of a request as strings
+     * @param argumentNames  The names of the argument values. Empty or null if the values are
+     *                       in the order of the arguments.
+     * @return The values to invoke the method with. Arguments not in the request have their
+     * default values. The returned array is reused by the next invocation of this method in
+     * the same thread.
+     */
+    public Object[] bind(List<String> argumentValues, List<String> argumentNames) {
+        return mBindingPlan.bind(argumentValues, argumentNames);
+    }
+
+
     /**
      * @param argumentValues A list of argument values as strings
      * @return The argument values cast to to the arguments' data types
@@ -131,9 +132,10 @@ public class MethodArguments implements IStateNode {
      */
     int getArgumentPosition(String argumentName) {
         Thrower.throwIfVarEmpty(argumentName, "argumentName");
-        Thrower.throwIfFalse(mArgumentPositions.containsKey(argumentName))
+        int argumentPosition = mBindingPlan.getPosition(argumentName);
+        Thrower.throwIfTrue(argumentPosition == -1)
                 .message("No argument named '" + argumentName + "'");
-        return mArgumentPositions.get(argumentName);
+        return argumentPosition;
     }
 
 
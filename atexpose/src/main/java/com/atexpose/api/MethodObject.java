@@ -1,6 +1,9 @@
 package com.atexpose.api;
 
 import com.atexpose.api.datatypes.AbstractDataType;
+import com.atexpose.dispatcher.invocation.IMethodCall;
+import com.atexpose.dispatcher.invocation.Invoker;
+import com.atexpose.errors.ExposedInvocationException;
 import io.schinzel.basicutils.Checker;
 import io.schinzel.basicutils.collections.valueswithkeys.IValueWithKey;
 import io.schinzel.basicutils.state.IStateNode;
@@ -34,8 +37,10 @@ public class MethodObject implements IValueWithKey, IStateNode {
     @Getter private final boolean mAuthRequired;
     //The object that is to be invoked
     @Getter private final Object mObject;
-    //The method that this object defines
+    //The method that this object defines. Null if the method is invoked with a generated method call.
     @Getter private final Method mMethod;
+    //Invokes the method. Is created once as creating it is slow and invoking it is fast.
+    private final Invoker mInvoker;
     //Holds a description of the method.
     private final String mDescription;
     //How many of the arguments are required.
@@ -48,21 +53,40 @@ public class MethodObject implements IValueWithKey, IStateNode {
     private List<Alias> mAliases = new ArrayList<>();
 
 
+    /**
+     * Either a method or a method name and a method call is to be set.
+     *
+     * @param method     The method to invoke with a method handle.
+     * @param methodName The name of the method to invoke with the method call.
+     * @param methodCall A method call generated at compile time.
+     */
     @Builder
-    private MethodObject(Object theObject, Method method, String description, int noOfRequiredArguments,
+    private MethodObject(Object theObject, Method method, String methodName, IMethodCall methodCall,
+                         String description, int noOfRequiredArguments,
                          List<Argument> arguments, int accessLevel, List<Label> labels,
                          AbstractDataType returnDataType, List<Alias> aliases, boolean requireAuthentication) {
         Thrower.throwIfVarNull(theObject, "theObject");
-        Thrower.throwIfVarNull(method, "method");
+        if (methodCall == null) {
+            Thrower.throwIfVarNull(method, "method");
+        } else {
+            Thrower.throwIfVarEmpty(methodName, "methodName");
+        }
         Thrower.throwIfVarNull(description, "description");
         Thrower.throwIfVarNull(returnDataType, "returnDataType");
         Thrower.throwIfTrue(noOfRequiredArguments > arguments.size())
                 .message("Number of required arguments is higher than the actual number of arguments");
-        this.mKey = method.getName();
         mObject = theObject;
         mMethod = method;
         mDescription = description;
-        mMethod.setAccessible(true);
+        //If there is no method call generated at compile time
+        if (methodCall == null) {
+            this.mKey = method.getName();
+            mMethod.setAccessible(true);
+            mInvoker = Invoker.create(mMethod, mObject);
+        } else {
+            this.mKey = methodName;
+            mInvoker = Invoker.create(methodCall, mObject);
+        }
         mReturnDataType = returnDataType;
         mNoOfRequiredArguments = noOfRequiredArguments;
         mAccessLevelRequiredToUseThisMethod = accessLevel;
@@ -85,6 +109,16 @@ public class MethodObject implements IValueWithKey, IStateNode {
     }
 
 
+    /**
+     * @param argumentValuesAsObjects The argument values
+     * @return The return of the invoked method
+     * @throws ExposedInvocationException If the invoked method throws an exception
+     */
+    public Object invoke(Object[] argumentValuesAsObjects) throws ExposedInvocationException {
+        return mInvoker.invoke(argumentValuesAsObjects);
+    }
+
+
     /**
      * Sample return
      * String help([String SearchString], [String Options])
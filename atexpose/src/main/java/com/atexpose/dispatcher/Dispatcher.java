@@ -0,0 +1,438 @@
+package com.atexpose.dispatcher;
+
+import com.atexpose.api.API;
+import com.atexpose.api.MethodObject;
+import com.atexpose.dispatcher.channels.IChannel;
+import com.atexpose.dispatcher.logging.LogEntry;
+import com.atexpose.dispatcher.logging.LoggedBytes;
+import com.atexpose.dispatcher.logging.Logger;
+import com.atexpose.dispatcher.parser.IParser;
+import com.atexpose.dispatcher.parser.Request;
+import com.atexpose.dispatcher.wrapper.IWrapper;
+import com.atexpose.errors.IExceptionProperties;
+import com.atexpose.util.ByteStorage;
+import com.atexpose.util.IResponseBody;
+import io.schinzel.basicutils.thrower.Thrower;
+import io.schinzel.basicutils.state.State;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The dispatcher is the central cog wheel.
+ * <p>
+ * From the assigned channel the dispatcher pulls an incoming messages.
+ * The parser extracts method name and argument values from the incoming message.
+ * The incoming request is executed.
+ * The response is wrapped with the assigned wrapper.
+ * The wrapped response is sent with the assigned channel.
+ * <p>
+ * The log data is sent to the assigned loggers (zero, one or many).
+ *
+ * @author Schinzel
+ */
+@Accessors(prefix = "m")
+public class Dispatcher implements Runnable, IDispatcher {
+    /** The name as part of the IValueWithKey interface. Is the name of the Dispatchers. */
+    @Getter final String mKey;
+    /** The API that is exposed. */
+    private API mAPI;
+    /** Receives incoming messages and sends wrapped responses. */
+    @Getter
+    private final IChannel mChannel;
+    /** Parses the incoming messages. */
+    @Getter private final IParser mParser;
+    /** Wraps the responses to send. */
+    @Getter private final IWrapper mWrapper;
+    /**
+     * The access level of this dispatcher. The dispatcher can invoke methods with the same access
+     * level or lower.
+     **/
+    @Getter private final int mAccessLevel;
+    /** Says which thread this object is. Useful for debugging and diagnostics. */
+    @Getter private final int mThreadNumber;
+    /** The thread that this dispatcher executes in. */
+    private Thread mThread;
+    /** The loggers assigned to this dispatcher. */
+    @Getter private List<Logger> mLoggers = new ArrayList<>();
+    /**
+     * If this dispatcher runs as a background services like a web server or it executes and then
+     * returns like a script file dispatcher. If true, the dispatcher is to run in the invoking
+     * thread. If false, the dispatcher will start a new thread and execute in this.
+     */
+    @Getter private final boolean mIsSynchronized;
+    /**
+     * Contains a reference to the next dispatcher if this dispatcher is
+     * multi-threaded. Multi-threaded dispatchers are stored as a linked-list.
+     * This variable is a reference to the next dispatcher in the list. If it is
+     * null, it is the last in the list or the it is single-threaded.
+     */
+    private Dispatcher mNextDispatcher;
+    /**
+     * If set, this dispatcher is the only thread that reads requests and the requests are
+     * executed in the worker pool. If null, each thread of this dispatcher reads and executes
+     * its own requests.
+     */
+    private final WorkerPool mWorkerPool;
+    /** The parser of each worker thread */
+    private final ThreadLocal<IParser> mWorkerParser;
+    /** The buffer each thread writes its wrapped responses to */
+    private static final ThreadLocal<ByteStorage> RESPONSE_SINK = ThreadLocal.withInitial(ByteStorage::new);
+    // ------------------------------------
+    // - CONSTRUCTOR
+    // ------------------------------------
+
+
+    /**
+     * Sets up a dispatcher.
+     *
+     * @param workerPool     If set, the requests are read by one thread and executed in the
+     *                       argument pool. The number of threads has to be 1. Requires a channel
+     *                       that can hand off requests.
+     * @param virtualThreads If true, the requests are read by one thread and each request is
+     *                       executed in a virtual thread. The number of threads is the max number
+     *                       of requests executed at the same time. Requires Java 21 or later and
+     *                       a channel that can hand off requests.
+     */
+    @Builder
+    private Dispatcher(String name, int noOfThreads, int accessLevel, boolean isSynchronized, IChannel channel, IParser parser, IWrapper wrapper, WorkerPool workerPool, boolean virtualThreads) {
+        mKey = name;
+        Thrower.throwIfVarTooSmall(noOfThreads, "noOfThreads", 1);
+        Thrower.throwIfVarEmpty(name, "name");
+        Thrower.throwIfVarOutsideRange(accessLevel, "accessLevel", 1, 3);
+        Thrower.throwIfTrue(workerPool != null && virtualThreads, "A dispatcher cannot have both a worker pool and virtual threads");
+        Thrower.throwIfTrue(workerPool != null && noOfThreads > 1, "A dispatcher with a worker pool can only have one thread");
+        if (virtualThreads) {
+            workerPool = WorkerPool.builder()
+                    .name(name)
+                    .poolSize(noOfThreads)
+                    .executor(VirtualThreads.newExecutor(name))
+                    .build();
+            noOfThreads = 1;
+        }
+        mThreadNumber = noOfThreads;
+        mAccessLevel = accessLevel;
+        mIsSynchronized = isSynchronized;
+        mChannel = channel;
+        mParser = parser;
+        mWrapper = wrapper;
+        mWorkerPool = workerPool;
+        mWorkerParser = ThreadLocal.withInitial(mParser::getClone);
+        //If more than one dispatcher to set up
+        if (mThreadNumber > 1) {
+            //Set up the next dispatcher
+            mNextDispatcher = Dispatcher.builder()
+                    .name(this.getKey())
+                    .accessLevel(mAccessLevel)
+                    .isSynchronized(mIsSynchronized)
+                    .channel(mChannel.getClone())
+                    .parser(mParser.getClone())
+                    .wrapper(mWrapper)
+                    .noOfThreads(mThreadNumber - 1)
+                    .build();
+        }
+    }
+    // ------------------------------------
+    // - START & STOP
+    // ------------------------------------
+
+
+    /**
+     * Starts the messaging and tells the next dispatcher to start its messaging recursively until
+     * all dispatchers of that a siblings to this have been started.
+     */
+    public Dispatcher commenceMessaging(API api) {
+        mAPI = api;
+        //If there is a next dispatcher
+        if (mNextDispatcher != null) {
+            //Tell the next dispatcher to start its messaging.
+            mNextDispatcher.commenceMessaging(api);
+        }
+        //If this is a synchronized execution
+        if (mIsSynchronized) {
+            //Run in the requesting thread.
+            this.run();
+        }//Else, i.e. should run in a new separate thread.
+        else {
+            //Start a new thread and let this dispatcher execute in this thread.
+            mThread = new Thread(this);
+            mThread.setName(this.getKey() + ":" + mThreadNumber);
+            mThread.start();
+        }
+        return this;
+    }
+
+
+    /**
+     * Shutdown this and the next dispatcher. The loggers are closed.
+     */
+    public void shutdown() {
+        //If there was a next dispatchers
+        if (this.mNextDispatcher != null) {
+            //Tell the next dispatcher to shutdown
+            this.mNextDispatcher.shutdown();
+        }
+        //Tell the channel to shut down. Send this thread as it is required for some channels to interrupt listening.
+        this.mChannel.shutdown(mThread);
+        if (mWorkerPool != null) {
+            mWorkerPool.shutdown();
+        }
+        mLoggers.forEach(Logger::close);
+    }
+
+
+    // ------------------------------------
+    // - REQUEST HANDLING
+    // ------------------------------------
+    @Override
+    public void run() {
+        ByteStorage incomingRequest = new ByteStorage();
+        while (true) {
+            Instant timeOfIncomingRequest = null;
+            Exception readError = null;
+            try {
+                if (!mChannel.getRequest(incomingRequest)) {
+                    break;
+                }
+                timeOfIncomingRequest = Instant.now();
+            } catch (Exception e) {
+                readError = e;
+            }
+            //If the request was read and is to be executed by the worker pool
+            if (mWorkerPool != null && readError == null) {
+                this.handOff(incomingRequest, timeOfIncomingRequest);
+                incomingRequest = new ByteStorage();
+            } else {
+                this.respond(mChannel, mParser, incomingRequest, timeOfIncomingRequest, readError);
+                //A large request returns its buffer to the pool
+                incomingRequest.clear();
+            }
+        }
+    }
+
+
+    /**
+     * Hands the argument request to the worker pool, so that this thread can read the next request.
+     */
+    private void handOff(ByteStorage incomingRequest, Instant timeOfIncomingRequest) {
+        IChannel channel = mChannel.handOff();
+        mWorkerPool.execute(
+                () -> {
+                    this.respond(channel, mWorkerParser.get(), incomingRequest, timeOfIncomingRequest, null);
+                    incomingRequest.release();
+                },
+                () -> {
+                    this.respond(channel, mParser, incomingRequest, timeOfIncomingRequest,
+                            new RuntimeException("The server is too busy to handle the request. Try again later."));
+                    incomingRequest.release();
+                });
+    }
+
+
+    /**
+     * Executes a request, writes the response and logs the request.
+     *
+     * @param channel               The channel to write the response to
+     * @param parser                The parser to use
+     * @param incomingRequest       The request read
+     * @param timeOfIncomingRequest When the request was read. Null if the read failed.
+     * @param readError             The error if the read failed, else null
+     */
+    private void respond(IChannel channel, IParser parser, ByteStorage incomingRequest, Instant timeOfIncomingRequest, Exception readError) {
+        Object responseAsStrings;
+        ByteStorage wrappedResponse = RESPONSE_SINK.get();
+        wrappedResponse.clear();
+        //A body not on the heap, e.g. a large file, is written after the wrapped response
+        IResponseBody responseBody = null;
+        boolean isError = false;
+        Request request = Request.EMPTY;
+        try {
+            if (readError != null) {
+                throw readError;
+            }
+            //Send the incoming request to the protocol for extracting method name and arguments
+            request = parser.getRequestFromBytes(incomingRequest);
+            //if is a file request
+            if (request.isFileRequest()) {
+                responseBody = mWrapper.wrapFile(request.getFileName(), request, wrappedResponse);
+            } // Else must be a method call 
+            else {
+                MethodObject methodObject = mAPI.getMethodObject(request.getMethodName());
+                // is the dispatcher authorized to access this method
+                checkAccessLevel(methodObject.getAccessLevelRequiredToUseThisMethod());
+                Object[] requestArgumentValues = methodObject.getMethodArguments()
+                        .bind(request.getArgumentValues(), request.getArgumentNames());
+                Object responseAsObject = methodObject.invoke(requestArgumentValues);
+                //If return type is Json
+                if (methodObject.getReturnDataType().isJson()) {
+                    //Do json wrapping
+                    mWrapper.wrapJSON((JSONObject) responseAsObject, request, wrappedResponse);
+                } else {
+                    responseAsStrings = methodObject.getReturnDataType().convertFromDataTypeToString(responseAsObject);
+                    mWrapper.wrapResponse((String) responseAsStrings, request, wrappedResponse);
+                }
+            }
+        } catch (Exception e) {
+            isError = true;
+            //Discard what was wrapped before the error
+            wrappedResponse.clear();
+            responseBody = null;
+            //If the exception has properties
+            if (e instanceof IExceptionProperties) {
+                mWrapper.wrapError(((IExceptionProperties) e).getProperties(), wrappedResponse);
+            } else {
+                mWrapper.wrapError(Collections.singletonMap("error_message", e.getMessage()), wrappedResponse);
+            }
+        } finally {
+            timeOfIncomingRequest = (timeOfIncomingRequest == null) ? Instant.now() : timeOfIncomingRequest;
+        }
+        //If no logger logs this request, nothing is captured for the log
+        boolean isToLog = this.isToLog(isError);
+        //The response is only copied if there is someone to log it. File responses are not logged.
+        LoggedBytes loggedResponse = (!isToLog || (request.isFileRequest() && !isError))
+                ? null
+                : this.capture(wrappedResponse, LogEntry.KEY_RESPONSE, isError);
+        //The channel can add to the response, e.g. headers, as it is written
+        channel.writeStoredResponse(wrappedResponse, responseBody);
+        //If the response was large, its buffer is returned to the pool instead of being kept for the next response
+        wrappedResponse.clear();
+        if (!isToLog) {
+            return;
+        }
+        LogEntry logEntry = LogEntry.builder()
+                .isError(isError)
+                .timeOfIncomingRequest(timeOfIncomingRequest)
+                .loggedRequest(this.capture(incomingRequest, LogEntry.KEY_REQUEST_STRING, isError))
+                .loggedResponse(loggedResponse)
+                .threadNumber(mThreadNumber)
+                .requestReadTime(channel.requestReadTime())
+                .execTime(timeOfIncomingRequest.until(Instant.now(), ChronoUnit.MILLIS))
+                .responseWriteTime(channel.responseWriteTime())
+                .senderInfo(channel.senderInfo())
+                .argNames(request.getArgumentNames())
+                .argValues(request.getArgumentValues())
+                .isFileRequest(request.isFileRequest())
+                .fileName(request.getFileName())
+                .methodName(request.getMethodName())
+                .build();
+        this.log(logEntry);
+    }
+
+
+    /**
+     * @return True if any logger of this dispatcher logs a request that is or is not an error
+     */
+    private boolean isToLog(boolean isError) {
+        for (Logger logger : mLoggers) {
+            if (logger.isToLog(isError)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * @param storage A request or a response
+     * @param key     The log data key of the argument storage
+     * @return The bytes of the argument storage, up to the largest max of the loggers that
+     * log them. Null if no logger logs them.
+     */
+    private LoggedBytes capture(ByteStorage storage, String key, boolean isError) {
+        boolean isLogged = false;
+        int maxLength = 0;
+        for (Logger logger : mLoggers) {
+            if (logger.isToLog(isError) && logger.isKeyLogged(key)) {
+                //If this logger logs all bytes, all are captured
+                if (logger.getMaxBodyLength() == 0) {
+                    return LoggedBytes.capture(storage, 0);
+                }
+                isLogged = true;
+                maxLength = Math.max(maxLength, logger.getMaxBodyLength());
+            }
+        }
+        return isLogged ? LoggedBytes.capture(storage, maxLength) : null;
+    }
+
+
+    private void checkAccessLevel(int methodAccessLevel) {
+        if (methodAccessLevel > this.mAccessLevel) {
+            throw new RuntimeException("Cannot access the requested method through this dispatcher. Method requires access level "
+                    + methodAccessLevel + " and the used dispatcher only has access level " + this.mAccessLevel + ".");
+        }
+    }
+    // ------------------------------------
+    // - Logger
+    // ------------------------------------
+
+
+    /**
+     * Adds a logger to this dispatcher.
+     *
+     * @param logger The logger to add.
+     * @return This for chaining
+     */
+    public Dispatcher addLogger(Logger logger) {
+        mLoggers.add(logger);
+        if (mNextDispatcher != null) {
+            mNextDispatcher.addLogger(logger);
+        }
+        return this;
+    }
+
+
+    /**
+     * Removes all loggers from this dispatcher and closes them.
+     */
+    public Dispatcher removeLoggers() {
+        List<Logger> loggers = mLoggers;
+        mLoggers = new ArrayList<>();
+        if (mNextDispatcher != null) {
+            mNextDispatcher.removeLoggers();
+        }
+        //The loggers are closed once no dispatcher logs to them
+        loggers.forEach(Logger::close);
+        return this;
+    }
+
+
+    /**
+     * Logs the argument log entry all attached (if any) loggers.
+     *
+     * @param logEntry The entry to add to logs.
+     */
+    private void log(LogEntry logEntry) {
+        //Go through all logger attached to this dispatcher
+        for (Logger logger : mLoggers) {
+            //Log event
+            logger.log(logEntry);
+        }
+    }
+    // ------------------------------------
+    // - State
+    // ------------------------------------
+
+
+    public State getState() {
+        State state = State.getBuilder()
+                .add("Name", this.getKey())
+                .add("AccessLevel", mAccessLevel)
+                .add("Threads", this.mThreadNumber)
+                .addChild("Parser", mParser)
+                .addChild("Wrapper", mWrapper)
+                .addChild("Channel", mChannel)
+                .addChildren("Loggers", mLoggers)
+                .build();
+        return (mWorkerPool == null)
+                ? state
+                : State.getBuilder(state).addChild("WorkerPool", mWorkerPool).build();
+    }
+
+}
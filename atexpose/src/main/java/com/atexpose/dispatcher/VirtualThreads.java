@@ -0,0 +1,54 @@
+package com.atexpose.dispatcher;
+
+import io.schinzel.basicutils.thrower.Thrower;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The purpose of this class is to create executors that run each task in a new
+ * virtual thread.
+ * <p>
+ * This library is compiled for Java 8. As such the Java 21 thread builder API is looked
+ * up when the first executor is created, and virtual threads are only available if the
+ * library runs on Java 21 or later.
+ */
+class VirtualThreads {
+
+    /**
+     * @return True if virtual threads are supported by the running Java version.
+     */
+    static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+
+    /**
+     * @param name The name prefix of the virtual threads. The threads are numbered.
+     * @return An executor that runs each task in a new virtual thread.
+     */
+    static ExecutorService newExecutor(String name) {
+        Thrower.throwIfFalse(isSupported(), "Virtual threads require Java 21 or later. Running Java is "
+                + System.getProperty("java.version") + ".");
+        try {
+            //Thread.ofVirtual().name(name + ":virtual:", 1).factory()
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + ":virtual:", 1L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            //Executors.newThreadPerTaskExecutor(threadFactory)
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Could not create virtual thread executor. " + e.getMessage());
+        }
+    }
+
+}
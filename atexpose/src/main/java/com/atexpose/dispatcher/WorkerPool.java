@@ -0,0 +1,148 @@
+package com.atexpose.dispatcher;
+
+import io.schinzel.basicutils.state.IStateNode;
+import io.schinzel.basicutils.state.State;
+import io.schinzel.basicutils.thrower.Thrower;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The purpose of this class is to execute the requests read by the single thread of a
+ * dispatcher in a pool of worker threads.
+ * <p>
+ * At most pool size plus queue capacity requests are in the pool at any one time. A request
+ * that does not fit is handled as set by the rejection policy. The bound is kept by this
+ * class and not by the executor, so any executor service can drain the queue, for example
+ * a ForkJoinPool.
+ */
+@Accessors(prefix = "m")
+public class WorkerPool implements IStateNode {
+    /** What to do with a request that does not fit in the pool */
+    public enum RejectionPolicy {
+        /** The reading thread executes the request. This slows down the reading of new requests. */
+        CALLER_RUNS,
+        /** The request is answered with an error */
+        ABORT
+    }
+
+    /** The number of worker threads */
+    @Getter private final int mPoolSize;
+    /** The max number of requests waiting for a worker */
+    @Getter private final int mQueueCapacity;
+    /** What to do with a request that does not fit in the pool */
+    @Getter private final RejectionPolicy mRejectionPolicy;
+    /** Executes the requests */
+    private final ExecutorService mExecutor;
+    /** One permit per request that can be in the pool */
+    private final Semaphore mPermits;
+    /** The number of requests being executed */
+    private final AtomicInteger mNoOfActive = new AtomicInteger(0);
+    /** The number of requests that did not fit in the pool */
+    private final AtomicLong mNoOfRejected = new AtomicLong(0);
+
+
+    /**
+     * @param name            Used to name the worker threads. Not used if an executor is set.
+     * @param poolSize        The number of worker threads.
+     * @param queueCapacity   The max number of requests waiting for a worker.
+     * @param rejectionPolicy What to do with a request that does not fit. If not set, CALLER_RUNS.
+     * @param executor        Executes the requests. If not set, a fixed thread pool of the pool size is used.
+     */
+    @Builder
+    private WorkerPool(String name, int poolSize, int queueCapacity, RejectionPolicy rejectionPolicy,
+                       ExecutorService executor) {
+        Thrower.throwIfVarTooSmall(poolSize, "poolSize", 1);
+        Thrower.throwIfVarTooSmall(queueCapacity, "queueCapacity", 0);
+        mPoolSize = poolSize;
+        mQueueCapacity = queueCapacity;
+        mRejectionPolicy = (rejectionPolicy == null) ? RejectionPolicy.CALLER_RUNS : rejectionPolicy;
+        mExecutor = (executor == null)
+                ? Executors.newFixedThreadPool(poolSize, getThreadFactory(name))
+                : executor;
+        mPermits = new Semaphore(poolSize + queueCapacity);
+    }
+
+
+    private static ThreadFactory getThreadFactory(String name) {
+        AtomicInteger threadNumber = new AtomicInteger(0);
+        return runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName(name + ":worker:" + threadNumber.incrementAndGet());
+            return thread;
+        };
+    }
+
+
+    /**
+     * @param task       The request to execute
+     * @param onRejected Is run by the invoking thread if the request does not fit in the pool
+     *                   and the rejection policy is ABORT, or if the pool has been shut down.
+     */
+    void execute(Runnable task, Runnable onRejected) {
+        //If the pool is full
+        if (!mPermits.tryAcquire()) {
+            mNoOfRejected.incrementAndGet();
+            if (mRejectionPolicy == RejectionPolicy.CALLER_RUNS) {
+                task.run();
+            } else {
+                onRejected.run();
+            }
+            return;
+        }
+        try {
+            mExecutor.execute(() -> {
+                mNoOfActive.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    mNoOfActive.decrementAndGet();
+                    mPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            mPermits.release();
+            onRejected.run();
+        }
+    }
+
+
+    /**
+     * @return The number of requests waiting for a worker.
+     */
+    public int getQueueDepth() {
+        int noOfRequestsInPool = mPoolSize + mQueueCapacity - mPermits.availablePermits();
+        return Math.max(0, noOfRequestsInPool - mNoOfActive.get());
+    }
+
+
+    /**
+     * Stops accepting requests. Requests already in the pool are executed.
+     */
+    void shutdown() {
+        mExecutor.shutdown();
+    }
+
+
+    @Override
+    public State getState() {
+        return State.getBuilder()
+                .add("PoolSize", mPoolSize)
+                .add("QueueCapacity", mQueueCapacity)
+                .add("QueueDepth", this.getQueueDepth())
+                .add("Active", mNoOfActive.get())
+                .add("RejectionPolicy", mRejectionPolicy.name())
+                .add("Rejected", mNoOfRejected.get())
+                .add("Executor", mExecutor.getClass().getSimpleName())
+                .build();
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.atexpose.dispatcher.channels;
 
 import com.atexpose.util.ByteStorage;
+import com.atexpose.util.IResponseBody;
 import io.schinzel.basicutils.state.IStateNode;
 
 /**
@@ -32,6 +33,33 @@ public interface IChannel extends IStateNode {
     void writeResponse(byte[] response);
 
 
+    /**
+     * Writes a response. Channels that can write the response without copying it
+     * override this method. The argument response can be changed by the channel.
+     *
+     * @param response The response to write.
+     */
+    default void writeStoredResponse(ByteStorage response) {
+        this.writeResponse(response.getBytes());
+    }
+
+
+    /**
+     * Writes a response whose body is not on the heap, e.g. a region of a file. Channels that
+     * can write such a body without copying it to the heap override this method.
+     *
+     * @param response     The response to write. The body is written after it.
+     * @param responseBody The body to write after the response. Null if the whole response is
+     *                     in the first argument.
+     */
+    default void writeStoredResponse(ByteStorage response, IResponseBody responseBody) {
+        if (responseBody != null) {
+            responseBody.addTo(response);
+        }
+        this.writeStoredResponse(response);
+    }
+
+
     /**
      * @return The time it took to write a response in milliseconds.
      */
@@ -57,6 +85,18 @@ public interface IChannel extends IStateNode {
     IChannel getClone();
 
 
+    /**
+     * Hands off the request last read, so that another thread can write the response while
+     * this channel reads the next request. Is used by dispatchers with a worker pool.
+     * Channels that do not support this throw an exception.
+     *
+     * @return A channel that writes the response to the request last read.
+     */
+    default IChannel handOff() {
+        throw new RuntimeException("The channel " + this.getClass().getSimpleName() + " cannot hand off requests to a worker pool.");
+    }
+
+
     /**
      * Returns the time from when the connection was made till when the last
      * byte was transferred.
@@ -0,0 +1,194 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The purpose of this class is to multiplex reads and writes of many client connections
+ * in a single thread.
+ * <p>
+ * All changes to the selector are done in the thread of the event loop. Other threads
+ * hand such changes to the event loop as tasks.
+ */
+class EventLoop implements Runnable {
+    /** How often, at most, connections are checked for read timeouts */
+    private static final int TIMEOUT_CHECK_INTERVAL_IN_MILLIS = 50;
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private final Selector mSelector;
+    /** The server this event loop reads requests for */
+    private final NioServer mServer;
+    /** Tasks from other threads to execute in the event loop thread */
+    private final Queue<Runnable> mTasks = new ConcurrentLinkedQueue<>();
+    /** Buffer that all connections of this event loop read into */
+    private final ByteBuffer mReadBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+
+    EventLoop(NioServer server) {
+        mServer = server;
+        try {
+            mSelector = Selector.open();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open selector. " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * @return The selector of this event loop.
+     */
+    Selector getSelector() {
+        return mSelector;
+    }
+
+
+    /**
+     * @param task A task to execute in the event loop thread.
+     */
+    void execute(Runnable task) {
+        mTasks.add(task);
+        mSelector.wakeup();
+    }
+
+
+    /**
+     * Starts reading from the argument socket.
+     *
+     * @param socketChannel A newly accepted connection
+     */
+    void register(SocketChannel socketChannel) {
+        this.execute(() -> {
+            NioConnection connection = new NioConnection(socketChannel, this,
+                    mServer.getKeepAlive(), mServer.getRequestBuffer().getClone());
+            try {
+                connection.setKey(socketChannel.register(mSelector, SelectionKey.OP_READ, connection));
+            } catch (IOException e) {
+                connection.close();
+            }
+        });
+    }
+
+
+    /**
+     * @return The number of connections of this event loop.
+     */
+    int getNoOfConnections() {
+        try {
+            return mSelector.keys().size();
+        } catch (ClosedSelectorException e) {
+            return 0;
+        }
+    }
+
+
+    /**
+     * Wakes the event loop so that it can see that the server has been closed.
+     */
+    void wakeup() {
+        mSelector.wakeup();
+    }
+
+
+    @Override
+    public void run() {
+        long lastTimeoutCheck = System.currentTimeMillis();
+        try {
+            while (mServer.isOpen()) {
+                mSelector.select(TIMEOUT_CHECK_INTERVAL_IN_MILLIS);
+                this.executeTasks();
+                this.handleSelectedKeys();
+                long now = System.currentTimeMillis();
+                if (now - lastTimeoutCheck >= TIMEOUT_CHECK_INTERVAL_IN_MILLIS) {
+                    this.closeTimedOutConnections(now);
+                    lastTimeoutCheck = now;
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            //The selector failed or was closed. Fall through to close.
+        } finally {
+            this.closeAll();
+        }
+    }
+
+
+    private void executeTasks() {
+        Runnable task;
+        while ((task = mTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+
+    private void handleSelectedKeys() {
+        Iterator<SelectionKey> iterator = mSelector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                mServer.accept();
+                continue;
+            }
+            NioConnection connection = (NioConnection) key.attachment();
+            if (key.isReadable()) {
+                this.read(connection);
+            } else if (key.isWritable()) {
+                connection.writePending();
+            }
+        }
+    }
+
+
+    private void read(NioConnection connection) {
+        try {
+            //If a whole request has been read
+            if (connection.read(mReadBuffer)) {
+                this.addReadyConnection(connection);
+            }
+        } catch (Exception e) {
+            mReadBuffer.clear();
+            connection.close();
+        }
+    }
+
+
+    /**
+     * @param connection A connection that has read a complete request.
+     */
+    void addReadyConnection(NioConnection connection) {
+        mServer.addReadyConnection(connection);
+    }
+
+
+    private void closeTimedOutConnections(long now) {
+        for (SelectionKey key : mSelector.keys()) {
+            if (key.attachment() instanceof NioConnection) {
+                NioConnection connection = (NioConnection) key.attachment();
+                if (connection.isTimedOut(now, mServer.getReadTimeout(), mServer.getKeepAlive().getIdleTimeout())) {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+
+    private void closeAll() {
+        try {
+            for (SelectionKey key : mSelector.keys()) {
+                key.channel().close();
+            }
+            mSelector.close();
+        } catch (IOException | ClosedSelectorException e) {
+            //Nothing to do if the close failed
+        }
+    }
+
+}
@@ -0,0 +1,320 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import com.atexpose.util.ByteStorage;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The purpose of this class is to tell where a http request ends in bytes
+ * read from a connection.
+ * <p>
+ * A request ends after the number of body bytes given by the Content-Length header,
+ * or after the last chunk if the body is chunked.
+ * <p>
+ * Bytes that cannot be the start of a GET or POST request are considered a complete
+ * request as is. This so that ghost calls and other non http requests are handed over
+ * to the parser which will produce a suitable error response.
+ */
+class HttpFraming {
+    /** Returned if more bytes are required for a complete request */
+    static final int INCOMPLETE = -1;
+    /** Marks the delimiter between header and body. */
+    private static final byte[] HEADER_BODY_DELIMITER = {'\r', '\n', '\r', '\n'};
+    /** The header that holds the length of the body. */
+    private static final String CONTENT_LENGTH = "content-length:";
+    /** The header that tells if the body is chunked */
+    private static final String TRANSFER_ENCODING = "transfer-encoding";
+    private static final String CHUNKED = "chunked";
+    /** The protocol version that has persistent connections by default */
+    private static final String HTTP_11 = "HTTP/1.1";
+    /** The request lines that this framing recognizes */
+    private static final String[] REQUEST_STARTS = {"GET ", "POST "};
+
+
+    private HttpFraming() {
+    }
+
+
+    /**
+     * @param bytes  Bytes read from a connection.
+     * @param length The number of bytes in the argument array that are read.
+     * @return The number of bytes of the first request in the argument bytes.
+     * INCOMPLETE if more bytes are required.
+     */
+    static int getRequestLength(byte[] bytes, int length) {
+        return getFrame(bytes, length).getRequestLength();
+    }
+
+
+    /**
+     * @param bytes  Bytes read from a connection.
+     * @param length The number of bytes in the argument array that are read.
+     * @return The frame of the first request in the argument bytes.
+     */
+    static Frame getFrame(byte[] bytes, int length) {
+        if (length == 0) {
+            return new Frame(INCOMPLETE, 0, INCOMPLETE, false);
+        }
+        //If the bytes cannot be the start of a http request, hand them over as they are
+        if (!isHttpRequestStart(bytes, length)) {
+            return new Frame(0, 0, length, false);
+        }
+        int headerLength = getHeaderLength(bytes, length);
+        if (headerLength == INCOMPLETE) {
+            return new Frame(INCOMPLETE, 0, INCOMPLETE, false);
+        }
+        if (getHeaderValue(bytes, headerLength, TRANSFER_ENCODING).toLowerCase().contains(CHUNKED)) {
+            return getChunkedFrame(bytes, length, headerLength);
+        }
+        int contentLength = getContentLength(bytes, headerLength);
+        long requestLength = (long) headerLength + contentLength;
+        return new Frame(headerLength, contentLength, (length >= requestLength) ? (int) requestLength : INCOMPLETE, false);
+    }
+
+
+    /**
+     * Steps from chunk header to chunk header. The chunk data is not scanned.
+     *
+     * @return The frame of a request with a chunked body.
+     */
+    private static Frame getChunkedFrame(byte[] bytes, int length, int headerLength) {
+        int position = headerLength;
+        long bodyLength = 0;
+        while (true) {
+            int sizeLineEnd = indexOfLineBreak(bytes, position, length);
+            if (sizeLineEnd == -1) {
+                return new Frame(headerLength, bodyLength, INCOMPLETE, true);
+            }
+            int chunkSize = parseChunkSize(bytes, position, sizeLineEnd);
+            position = sizeLineEnd + 2;
+            //If this is the last chunk
+            if (chunkSize == 0) {
+                //Skip any trailer headers up to the empty line
+                int trailerEnd = (position + 1 < length && bytes[position] == '\r' && bytes[position + 1] == '\n')
+                        ? position + 2
+                        : getHeaderEnd(bytes, position, length);
+                return new Frame(headerLength, bodyLength, trailerEnd, true);
+            }
+            bodyLength += chunkSize;
+            //If the whole chunk and its line break has not been read
+            if ((long) position + chunkSize + 2 > length) {
+                return new Frame(headerLength, bodyLength, INCOMPLETE, true);
+            }
+            position += chunkSize + 2;
+        }
+    }
+
+
+    /**
+     * Decodes a request with a chunked body.
+     *
+     * @param bytes         A complete request with a chunked body.
+     * @param requestLength The length of the request.
+     * @param output        The header and the decoded body are added to this argument.
+     */
+    static void decodeChunkedRequest(byte[] bytes, int requestLength, ByteStorage output) {
+        int headerLength = getHeaderLength(bytes, requestLength);
+        output.add(bytes, 0, headerLength);
+        int position = headerLength;
+        int chunkSize;
+        do {
+            int sizeLineEnd = indexOfLineBreak(bytes, position, requestLength);
+            chunkSize = parseChunkSize(bytes, position, sizeLineEnd);
+            position = sizeLineEnd + 2;
+            output.add(bytes, position, chunkSize);
+            position += chunkSize + 2;
+        } while (chunkSize > 0);
+    }
+
+
+    /**
+     * @return True if the argument bytes are, or can become, the start of a request
+     * line of a supported http method.
+     */
+    static boolean isHttpRequestStart(byte[] bytes, int length) {
+        for (String requestStart : REQUEST_STARTS) {
+            int noOfBytesToCompare = Math.min(length, requestStart.length());
+            boolean isMatch = true;
+            for (int i = 0; i < noOfBytesToCompare && isMatch; i++) {
+                isMatch = (bytes[i] == requestStart.charAt(i));
+            }
+            if (isMatch) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * @return The length of the header including the header-body delimiter.
+     * INCOMPLETE if the end of the header has not been read.
+     */
+    static int getHeaderLength(byte[] bytes, int length) {
+        return getHeaderEnd(bytes, 0, length);
+    }
+
+
+    /**
+     * @return The position after the first empty line from the argument position.
+     * INCOMPLETE if there is no empty line.
+     */
+    private static int getHeaderEnd(byte[] bytes, int position, int length) {
+        for (int i = position; i <= length - HEADER_BODY_DELIMITER.length; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r' && bytes[i + 3] == '\n') {
+                return i + HEADER_BODY_DELIMITER.length;
+            }
+        }
+        return INCOMPLETE;
+    }
+
+
+    /**
+     * @return The position of the first line break from the argument position. -1 if none.
+     */
+    private static int indexOfLineBreak(byte[] bytes, int position, int length) {
+        for (int i = position; i < length - 1; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * @return The size of a chunk from a hex size line. Any chunk extensions are ignored.
+     */
+    private static int parseChunkSize(byte[] bytes, int position, int end) {
+        long chunkSize = 0;
+        int noOfDigits = 0;
+        for (int i = position; i < end && bytes[i] != ';' && bytes[i] != ' '; i++) {
+            int digit = Character.digit(bytes[i], 16);
+            if (digit == -1 || ++noOfDigits > 8) {
+                throw new RuntimeException("Invalid chunk size in request body");
+            }
+            chunkSize = chunkSize * 16 + digit;
+        }
+        if (noOfDigits == 0 || chunkSize > Integer.MAX_VALUE) {
+            throw new RuntimeException("Invalid chunk size in request body");
+        }
+        return (int) chunkSize;
+    }
+
+
+    /**
+     * @param bytes        A request.
+     * @param headerLength The length of the header of the request.
+     * @return The value of the content length header. 0 if there is no such header.
+     */
+    static int getContentLength(byte[] bytes, int headerLength) {
+        int valueStart = getHeaderValueStart(bytes, headerLength, CONTENT_LENGTH);
+        return (valueStart == -1) ? 0 : parseNumber(bytes, valueStart, headerLength);
+    }
+
+
+    /**
+     * @param bytes               A request.
+     * @param headerLength        The length of the header of the request.
+     * @param headerNameLowerCase The name of a header in lower case. E.g. "connection"
+     * @return The trimmed value of the argument header. Empty string if there is no such header.
+     */
+    static String getHeaderValue(byte[] bytes, int headerLength, String headerNameLowerCase) {
+        int valueStart = getHeaderValueStart(bytes, headerLength, headerNameLowerCase + ":");
+        if (valueStart == -1) {
+            return "";
+        }
+        int valueEnd = valueStart;
+        while (valueEnd < headerLength && bytes[valueEnd] != '\r' && bytes[valueEnd] != '\n') {
+            valueEnd++;
+        }
+        return new String(bytes, valueStart, valueEnd - valueStart, StandardCharsets.ISO_8859_1).trim();
+    }
+
+
+    /**
+     * @return True if the request line of the argument request ends with HTTP/1.1
+     */
+    static boolean isHttp11(byte[] bytes, int headerLength) {
+        int lineEnd = getNextLineStart(bytes, 0, headerLength) - 2;
+        int versionStart = lineEnd - HTTP_11.length();
+        return versionStart > 0
+                && new String(bytes, versionStart, HTTP_11.length(), StandardCharsets.ISO_8859_1).equals(HTTP_11);
+    }
+
+
+    /**
+     * @return The position of the first byte after the argument header prefix. -1 if there
+     * is no such header.
+     */
+    private static int getHeaderValueStart(byte[] bytes, int headerLength, String headerPrefix) {
+        //Start on the line after the request line
+        int lineStart = getNextLineStart(bytes, 0, headerLength);
+        while (lineStart < headerLength) {
+            if (startsWithIgnoreCase(bytes, lineStart, headerLength, headerPrefix)) {
+                return lineStart + headerPrefix.length();
+            }
+            lineStart = getNextLineStart(bytes, lineStart, headerLength);
+        }
+        return -1;
+    }
+
+
+    private static int getNextLineStart(byte[] bytes, int position, int headerLength) {
+        while (position < headerLength && bytes[position] != '\n') {
+            position++;
+        }
+        return position + 1;
+    }
+
+
+    private static boolean startsWithIgnoreCase(byte[] bytes, int offset, int end, String prefix) {
+        if (offset + prefix.length() > end) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase((char) bytes[offset + i]) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static int parseNumber(byte[] bytes, int position, int end) {
+        while (position < end && bytes[position] == ' ') {
+            position++;
+        }
+        long number = 0;
+        while (position < end && bytes[position] >= '0' && bytes[position] <= '9') {
+            number = number * 10 + (bytes[position] - '0');
+            if (number > Integer.MAX_VALUE) {
+                throw new RuntimeException("Content-Length is too large");
+            }
+            position++;
+        }
+        return (int) number;
+    }
+
+
+    /**
+     * The purpose of this class is to hold where the parts of a request end.
+     */
+    @Accessors(prefix = "m")
+    @AllArgsConstructor
+    @Getter
+    static class Frame {
+        /** The length of the header including the header-body delimiter. INCOMPLETE if not read. */
+        private final int mHeaderLength;
+        /** The declared body length, or for chunked bodies the length of the chunks so far. */
+        private final long mBodyLength;
+        /** The length of the whole request. INCOMPLETE if not read. */
+        private final int mRequestLength;
+        /** True if the body is chunked */
+        private final boolean mChunked;
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+import io.schinzel.basicutils.thrower.Thrower;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * The purpose of this class is to decide if a connection is to be kept open after
+ * a response has been written, and to tell the client the decision in the response
+ * header.
+ * <p>
+ * HTTP/1.1 connections are kept open unless the client asks for the connection to be
+ * closed. HTTP/1.0 connections are kept open only if the client asks for it.
+ */
+@Accessors(prefix = "m")
+class KeepAlive {
+    /** All connections are closed after the response */
+    static final KeepAlive DISABLED = new KeepAlive(false, 0, 0);
+    private static final byte[] CLOSE_HEADER = UTF8.getBytes("Connection: close\r\n");
+    /** If false, all connections are closed after the response */
+    @Getter private final boolean mEnabled;
+    /** Max number of milliseconds an open connection can be idle between two requests */
+    @Getter private final int mIdleTimeout;
+    /** Max number of requests served on one connection */
+    @Getter private final int mMaxRequests;
+    /** The header added to responses after which the connection is kept open */
+    private final byte[] mKeepAliveHeader;
+
+
+    private KeepAlive(boolean enabled, int idleTimeout, int maxRequests) {
+        mEnabled = enabled;
+        mIdleTimeout = idleTimeout;
+        mMaxRequests = maxRequests;
+        mKeepAliveHeader = UTF8.getBytes("Connection: keep-alive\r\n"
+                + "Keep-Alive: timeout=" + Math.max(1, idleTimeout / 1000) + "\r\n");
+    }
+
+
+    /**
+     * @param enabled     If false, all connections are closed after the response
+     * @param idleTimeout Max number of milliseconds an open connection can be idle
+     * @param maxRequests Max number of requests served on one connection
+     * @return A new instance
+     */
+    static KeepAlive create(boolean enabled, int idleTimeout, int maxRequests) {
+        if (!enabled) {
+            return DISABLED;
+        }
+        Thrower.throwIfVarOutsideRange(idleTimeout, "keepAliveTimeout", 50, 600000);
+        Thrower.throwIfVarTooSmall(maxRequests, "maxRequestsPerConnection", 1);
+        return new KeepAlive(true, idleTimeout, maxRequests);
+    }
+
+
+    /**
+     * @param request          Bytes that start with a request.
+     * @param requestLength    The length of the request.
+     * @param noOfRequestsRead The number of requests read on the connection, including the argument one.
+     * @return True if the connection is to be kept open after the response to the argument request.
+     */
+    boolean isToKeepAlive(byte[] request, int requestLength, int noOfRequestsRead) {
+        if (!mEnabled || noOfRequestsRead >= mMaxRequests
+                || !HttpFraming.isHttpRequestStart(request, requestLength)) {
+            return false;
+        }
+        int headerLength = HttpFraming.getHeaderLength(request, requestLength);
+        if (headerLength == HttpFraming.INCOMPLETE) {
+            return false;
+        }
+        String connection = HttpFraming.getHeaderValue(request, headerLength, "connection").toLowerCase();
+        return HttpFraming.isHttp11(request, headerLength)
+                ? !connection.contains("close")
+                : connection.contains("keep-alive");
+    }
+
+
+    /**
+     * @param response  A http response.
+     * @param keepAlive If the connection is kept open after the response.
+     * @return The argument response with a connection header added after the status line.
+     * If keep alive is disabled or the response is not http, the argument response is returned.
+     */
+    byte[] addConnectionHeader(byte[] response, boolean keepAlive) {
+        if (!mEnabled || response == null || !isHttpResponse(response)) {
+            return response;
+        }
+        int statusLineLength = getStatusLineLength(response);
+        if (statusLineLength == -1) {
+            return response;
+        }
+        byte[] header = keepAlive ? mKeepAliveHeader : CLOSE_HEADER;
+        byte[] responseWithHeader = new byte[response.length + header.length];
+        System.arraycopy(response, 0, responseWithHeader, 0, statusLineLength);
+        System.arraycopy(header, 0, responseWithHeader, statusLineLength, header.length);
+        System.arraycopy(response, statusLineLength, responseWithHeader, statusLineLength + header.length,
+                response.length - statusLineLength);
+        return responseWithHeader;
+    }
+
+
+    /**
+     * Inserts a connection header after the status line of the argument response. The response
+     * is not copied. Nothing is inserted if keep alive is disabled or the response is not http.
+     *
+     * @param response  A http response.
+     * @param keepAlive If the connection is kept open after the response.
+     */
+    void addConnectionHeader(ByteStorage response, boolean keepAlive) {
+        int noOfBytes = response.getNoOfBytesStored();
+        if (!mEnabled || noOfBytes <= 5 || response.getByte(0) != 'H' || response.getByte(1) != 'T'
+                || response.getByte(2) != 'T' || response.getByte(3) != 'P' || response.getByte(4) != '/') {
+            return;
+        }
+        for (int i = 0; i < noOfBytes - 1; i++) {
+            if (response.getByte(i) == '\r' && response.getByte(i + 1) == '\n') {
+                response.insert(i + 2, keepAlive ? mKeepAliveHeader : CLOSE_HEADER);
+                return;
+            }
+        }
+    }
+
+
+    private static boolean isHttpResponse(byte[] response) {
+        return response.length > 5 && response[0] == 'H' && response[1] == 'T'
+                && response[2] == 'T' && response[3] == 'P' && response[4] == '/';
+    }
+
+
+    /**
+     * @return The length of the status line including the line break. -1 if there is no line break.
+     */
+    private static int getStatusLineLength(byte[] response) {
+        for (int i = 0; i < response.length - 1; i++) {
+            if (response[i] == '\r' && response[i + 1] == '\n') {
+                return i + 2;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,335 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import com.atexpose.util.ByteStorage;
+import com.atexpose.util.IBodyTransfer;
+import com.atexpose.util.IResponseBody;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The purpose of this class is to hold the state of one client connection of a
+ * non-blocking web channel.
+ * <p>
+ * Reading is done by the event loop that owns the connection. Once a request is complete
+ * the connection stops reading and is handed to a dispatcher thread which writes the
+ * response. Any part of the response that the socket does not accept right away is
+ * written by the event loop. If the connection is kept open, any pipelined request
+ * already read is handed over next, so that pipelined requests are answered in order.
+ */
+@Accessors(prefix = "m")
+class NioConnection {
+    /** The connection to the client */
+    @Getter private final SocketChannel mSocketChannel;
+    /** The event loop that reads from and writes to this connection */
+    private final EventLoop mEventLoop;
+    /** The ip and port of the client */
+    @Getter private final String mSenderInfo;
+    /** Decides if the connection is kept open after a response */
+    private final KeepAlive mKeepAlive;
+    /** The key of this connection in the selector of the event loop */
+    private SelectionKey mKey;
+    /** Holds the bytes read that have not yet been answered */
+    private final RequestBuffer mRequestBuffer;
+    /** True if a request, complete or rejected, waits for its response */
+    private boolean mIsAwaitingResponse = false;
+    /** If the request was rejected while read, the reason. Else null. */
+    @Getter private String mReadError;
+    /** When the first byte of the current request was read */
+    private long mRequestStartTime;
+    /** When the connection started waiting for the first byte of the current request */
+    private long mIdleSince;
+    /** The number of requests read on this connection */
+    private int mNoOfRequestsRead = 0;
+    /** If true the connection is kept open after the response to the current request */
+    private boolean mIsToKeepAlive = false;
+    /** The time it took to read the last request. For logging and stats */
+    @Getter private long mRequestReadTime;
+    /** Response bytes that the socket did not accept when the response was written */
+    private ByteBuffer[] mPendingWrites;
+    /** The body of a response not yet written. Null if the response has no such body. */
+    private IBodyTransfer mPendingTransfer;
+
+
+    NioConnection(SocketChannel socketChannel, EventLoop eventLoop, KeepAlive keepAlive, RequestBuffer requestBuffer) {
+        mSocketChannel = socketChannel;
+        mEventLoop = eventLoop;
+        mKeepAlive = keepAlive;
+        mRequestBuffer = requestBuffer;
+        mSenderInfo = getSenderInfo(socketChannel);
+        mIdleSince = System.currentTimeMillis();
+        mRequestStartTime = mIdleSince;
+    }
+
+
+    private static String getSenderInfo(SocketChannel socketChannel) {
+        try {
+            return String.valueOf(socketChannel.getRemoteAddress()).replace("/", "");
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+
+    //------------------------------------------------------------------------
+    // EVENT LOOP SIDE
+    //------------------------------------------------------------------------
+
+
+    /**
+     * Is invoked by the event loop when the connection has been registered with its selector.
+     */
+    void setKey(SelectionKey key) {
+        mKey = key;
+    }
+
+
+    /**
+     * Reads the bytes available on the connection.
+     *
+     * @param readBuffer A buffer owned by the event loop.
+     * @return True if a complete request has been read.
+     * @throws IOException If the client closed the connection or the read failed
+     */
+    boolean read(ByteBuffer readBuffer) throws IOException {
+        int bytesRead;
+        while ((bytesRead = mSocketChannel.read(readBuffer)) > 0) {
+            //If this is the first byte of a request on a kept open connection
+            if (mRequestBuffer.getNoOfBytes() == 0 && mNoOfRequestsRead > 0) {
+                mRequestStartTime = System.currentTimeMillis();
+            }
+            readBuffer.flip();
+            mRequestBuffer.append(readBuffer.array(), readBuffer.arrayOffset(), bytesRead);
+            readBuffer.clear();
+        }
+        if (bytesRead == -1) {
+            throw new IOException("Connection closed by client");
+        }
+        return this.isRequestComplete();
+    }
+
+
+    /**
+     * @return True if the bytes read holds a complete request, or a request that was
+     * rejected as too large. If so, the connection stops reading until the response
+     * has been written.
+     */
+    private boolean isRequestComplete() {
+        try {
+            if (!mRequestBuffer.isRequestComplete()) {
+                return false;
+            }
+            mNoOfRequestsRead++;
+            mIsToKeepAlive = mKeepAlive.isToKeepAlive(mRequestBuffer.getBytes(),
+                    mRequestBuffer.getRequestLength(), mNoOfRequestsRead);
+        } catch (RuntimeException e) {
+            //Hand over the rejected request so that the error is answered like other errors
+            mReadError = e.getMessage();
+            mIsToKeepAlive = false;
+        }
+        mRequestReadTime = System.currentTimeMillis() - mRequestStartTime;
+        mIsAwaitingResponse = true;
+        //Stop reading until the response to this request has been written
+        mKey.interestOps(0);
+        return true;
+    }
+
+
+    /**
+     * @param now         The current time
+     * @param readTimeout Max milliseconds to read a request
+     * @param idleTimeout Max milliseconds a kept open connection can wait for the next request
+     * @return True if the connection has waited for too long for a complete request.
+     */
+    boolean isTimedOut(long now, int readTimeout, int idleTimeout) {
+        //If a complete request has been read and the connection waits for the response
+        if (mIsAwaitingResponse) {
+            return false;
+        }
+        //If a request has been started
+        if (mRequestBuffer.getNoOfBytes() > 0) {
+            return (now - mRequestStartTime > readTimeout);
+        }
+        int timeout = (mNoOfRequestsRead == 0) ? readTimeout : idleTimeout;
+        return (now - mIdleSince > timeout);
+    }
+
+
+    /**
+     * Prepares a kept open connection for the next request. Is invoked in the event loop
+     * thread after a response has been written.
+     */
+    private void prepareForNextRequest() {
+        if (!mKey.isValid()) {
+            return;
+        }
+        //Remove the request answered and keep any bytes of pipelined requests
+        mRequestBuffer.removeRequest();
+        mIsAwaitingResponse = false;
+        mIdleSince = System.currentTimeMillis();
+        mRequestStartTime = mIdleSince;
+        //If a whole pipelined request has already been read
+        if (this.isRequestComplete()) {
+            mEventLoop.addReadyConnection(this);
+        } else {
+            mKey.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+
+    /**
+     * Is invoked by the event loop when the socket can accept more of a response.
+     */
+    void writePending() {
+        try {
+            if (this.writeAccepted(mPendingWrites, mPendingTransfer)) {
+                mPendingWrites = null;
+                mPendingTransfer = null;
+                this.onResponseWritten();
+            }
+        } catch (IOException e) {
+            this.close();
+        }
+    }
+
+
+    //------------------------------------------------------------------------
+    // DISPATCHER THREAD SIDE
+    //------------------------------------------------------------------------
+
+
+    /**
+     * @param request The complete request read is added to this argument.
+     */
+    void copyRequestTo(ByteStorage request) {
+        mRequestBuffer.copyRequestTo(request);
+    }
+
+
+    /**
+     * Writes as much of the argument response as the socket accepts and leaves
+     * the rest to the event loop.
+     *
+     * @param response The response to write.
+     */
+    void write(byte[] response) throws IOException {
+        response = mKeepAlive.addConnectionHeader(response == null ? new byte[0] : response, mIsToKeepAlive);
+        this.write(new ByteBuffer[]{ByteBuffer.wrap(response)}, null);
+    }
+
+
+    /**
+     * The connection header is inserted in the argument response. The bytes are written
+     * from the argument storage. Only bytes not written at once are copied, as they are
+     * written later by the event loop and the storage is reused.
+     *
+     * @param response     The response to write.
+     * @param responseBody A body to write after the response, e.g. a region of a file. The
+     *                     body is transferred to the socket without being copied to the heap.
+     *                     Null if there is no body to write.
+     */
+    void write(ByteStorage response, IResponseBody responseBody) throws IOException {
+        mKeepAlive.addConnectionHeader(response, mIsToKeepAlive);
+        ByteBuffer[] buffers = {response.asByteBuffer()};
+        this.write(buffers, responseBody == null ? null : responseBody.openTransfer());
+    }
+
+
+    /**
+     * @param buffers Buffers that are copied if they are not written at once, as they can be
+     *                views of storages that are reused
+     */
+    private void write(ByteBuffer[] buffers, IBodyTransfer transfer) throws IOException {
+        boolean isWritten;
+        try {
+            isWritten = this.writeAccepted(buffers, transfer);
+        } catch (IOException e) {
+            if (transfer != null) {
+                transfer.close();
+            }
+            throw e;
+        }
+        //If the whole response was written
+        if (isWritten) {
+            this.onResponseWritten();
+        } else {
+            ByteBuffer[] pendingWrites = copyRemaining(buffers);
+            mEventLoop.execute(() -> {
+                mPendingWrites = pendingWrites;
+                mPendingTransfer = transfer;
+                mKey.interestOps(SelectionKey.OP_WRITE);
+            });
+        }
+    }
+
+
+    /**
+     * @return The bytes not yet written in the argument buffers, copied to a buffer of their own
+     */
+    private static ByteBuffer[] copyRemaining(ByteBuffer[] buffers) {
+        int noOfBytes = 0;
+        for (ByteBuffer buffer : buffers) {
+            noOfBytes += buffer.remaining();
+        }
+        ByteBuffer copy = ByteBuffer.allocate(noOfBytes);
+        for (ByteBuffer buffer : buffers) {
+            copy.put(buffer);
+        }
+        copy.flip();
+        return new ByteBuffer[]{copy};
+    }
+
+
+    /**
+     * Writes as much of the argument buffers, and then of the argument body transfer, as the
+     * socket accepts. The body transfer is closed once done.
+     *
+     * @return True if the whole response has been written
+     */
+    private boolean writeAccepted(ByteBuffer[] buffers, IBodyTransfer transfer) throws IOException {
+        ByteBuffer lastBuffer = buffers[buffers.length - 1];
+        while (lastBuffer.hasRemaining() && mSocketChannel.write(buffers) > 0) {
+        }
+        if (lastBuffer.hasRemaining()) {
+            return false;
+        }
+        if (transfer == null) {
+            return true;
+        }
+        boolean isTransferred = transfer.transferTo(mSocketChannel);
+        if (isTransferred) {
+            transfer.close();
+        }
+        return isTransferred;
+    }
+
+
+    /**
+     * Closes the connection. Can be invoked by any thread.
+     */
+    void close() {
+        IBodyTransfer pendingTransfer = mPendingTransfer;
+        if (pendingTransfer != null) {
+            pendingTransfer.close();
+        }
+        try {
+            mSocketChannel.close();
+        } catch (IOException e) {
+            //Nothing to do if the close failed
+        }
+    }
+
+
+    private void onResponseWritten() {
+        if (mIsToKeepAlive) {
+            mEventLoop.execute(this::prepareForNextRequest);
+        } else {
+            this.close();
+        }
+    }
+
+}
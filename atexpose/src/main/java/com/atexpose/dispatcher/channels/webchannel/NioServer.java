@@ -0,0 +1,189 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The purpose of this class is to accept and read client connections with a small
+ * number of event loop threads. Connections with a complete request are put on a queue
+ * from which the dispatcher threads take them. Idle and slow clients thus do not hold
+ * a dispatcher thread.
+ * <p>
+ * Is shared by all clones of a non-blocking web channel.
+ */
+@Accessors(prefix = "m")
+class NioServer {
+    /** Max number of connections the operating system queues before they are accepted */
+    private static final int MAX_PENDING_CONNECTIONS = 1024;
+    /** How often a dispatcher thread waiting for a request checks if the server is closed */
+    private static final int CLOSED_CHECK_INTERVAL_IN_MILLIS = 500;
+    /** The server socket. */
+    private final ServerSocketChannel mServerSocketChannel;
+    /** The event loops. The first one also accepts new connections. */
+    private final EventLoop[] mEventLoops;
+    /** The threads the event loops execute in */
+    private final Thread[] mEventLoopThreads;
+    /** Connections with a complete request waiting for a dispatcher thread */
+    private final BlockingQueue<NioConnection> mReadyConnections = new LinkedBlockingQueue<>();
+    /** The port to listen to */
+    @Getter private final int mPort;
+    /** Max time in milliseconds a connection can take to send a complete request */
+    @Getter private final int mReadTimeout;
+    /** Decides if connections are kept open after a response */
+    @Getter private final KeepAlive mKeepAlive;
+    /** An empty buffer with the request size limits. Each connection gets a clone. */
+    @Getter private final RequestBuffer mRequestBuffer;
+    /** The index of the event loop to hand the next accepted connection to */
+    private int mNextEventLoop = 0;
+    private volatile boolean mOpen = true;
+
+
+    NioServer(int port, int readTimeout, int noOfEventLoops, KeepAlive keepAlive, RequestBuffer requestBuffer) {
+        mPort = port;
+        mReadTimeout = readTimeout;
+        mKeepAlive = keepAlive;
+        mRequestBuffer = requestBuffer;
+        try {
+            mServerSocketChannel = ServerSocketChannel.open();
+            mServerSocketChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            mServerSocketChannel.bind(new InetSocketAddress(port), MAX_PENDING_CONNECTIONS);
+            mServerSocketChannel.configureBlocking(false);
+        } catch (IOException ioe) {
+            throw new RuntimeException("Error starting thread on port " + port + ". Most likely the port is busy. " + ioe.getMessage());
+        }
+        mEventLoops = new EventLoop[noOfEventLoops];
+        for (int i = 0; i < noOfEventLoops; i++) {
+            mEventLoops[i] = new EventLoop(this);
+        }
+        try {
+            mServerSocketChannel.register(mEventLoops[0].getSelector(), SelectionKey.OP_ACCEPT);
+        } catch (IOException ioe) {
+            throw new RuntimeException("Error registering server socket on port " + port + ". " + ioe.getMessage());
+        }
+        mEventLoopThreads = new Thread[noOfEventLoops];
+        for (int i = 0; i < noOfEventLoops; i++) {
+            mEventLoopThreads[i] = new Thread(mEventLoops[i], "NioWebChannel_" + port + ":" + (i + 1));
+            mEventLoopThreads[i].setDaemon(true);
+            mEventLoopThreads[i].start();
+        }
+    }
+
+
+    /**
+     * Accepts all pending connections and distributes them over the event loops.
+     * Is invoked by the first event loop.
+     */
+    void accept() {
+        try {
+            SocketChannel socketChannel;
+            while ((socketChannel = mServerSocketChannel.accept()) != null) {
+                socketChannel.configureBlocking(false);
+                socketChannel.socket().setTcpNoDelay(true);
+                mEventLoops[mNextEventLoop].register(socketChannel);
+                mNextEventLoop = (mNextEventLoop + 1) % mEventLoops.length;
+            }
+        } catch (IOException ioe) {
+            //If the accept failed there is nothing to do but to wait for the next connection
+        }
+    }
+
+
+    /**
+     * @param connection A connection that has read a complete request.
+     */
+    void addReadyConnection(NioConnection connection) {
+        mReadyConnections.add(connection);
+    }
+
+
+    /**
+     * Waits for a connection with a complete request.
+     *
+     * @return A connection with a complete request. Null if the server was closed.
+     */
+    NioConnection takeReadyConnection() {
+        try {
+            while (mOpen) {
+                NioConnection connection = mReadyConnections.poll(CLOSED_CHECK_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
+                if (connection != null) {
+                    return connection;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+
+    boolean isOpen() {
+        return mOpen;
+    }
+
+
+    /**
+     * Stops accepting connections and closes all open connections. Can be invoked
+     * more than once.
+     */
+    void close() {
+        if (!mOpen) {
+            return;
+        }
+        mOpen = false;
+        try {
+            mServerSocketChannel.close();
+        } catch (IOException ioe) {
+            System.out.println("Error while closing socket");
+        }
+        for (EventLoop eventLoop : mEventLoops) {
+            eventLoop.wakeup();
+        }
+        //Wait for the event loops to close their selectors, as the port is not released before that
+        for (Thread thread : mEventLoopThreads) {
+            try {
+                if (thread != Thread.currentThread()) {
+                    thread.join(CLOSED_CHECK_INTERVAL_IN_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /**
+     * @return The number of requests waiting for a dispatcher thread.
+     */
+    int getQueueSize() {
+        return mReadyConnections.size();
+    }
+
+
+    /**
+     * @return The number of open client connections.
+     */
+    int getNoOfConnections() {
+        int noOfConnections = 0;
+        for (EventLoop eventLoop : mEventLoops) {
+            noOfConnections += eventLoop.getNoOfConnections();
+        }
+        //Do not count the server socket
+        return Math.max(0, noOfConnections - 1);
+    }
+
+
+    int getNoOfEventLoops() {
+        return mEventLoops.length;
+    }
+
+}
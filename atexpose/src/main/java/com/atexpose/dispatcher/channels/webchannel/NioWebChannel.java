@@ -0,0 +1,199 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import com.atexpose.dispatcher.channels.IChannel;
+import com.atexpose.dispatcher.channels.webchannel.redirect.Redirects;
+import com.atexpose.dispatcher.parser.urlparser.httprequest.HttpRequest;
+import com.atexpose.util.ByteStorage;
+import com.atexpose.util.IResponseBody;
+import io.schinzel.basicutils.Checker;
+import io.schinzel.basicutils.UTF8;
+import io.schinzel.basicutils.state.State;
+import io.schinzel.basicutils.thrower.Thrower;
+import lombok.Builder;
+import lombok.experimental.Accessors;
+
+import java.io.IOException;
+
+/**
+ * The purpose of this class is to listen for and read incoming requests on
+ * a certain port and write responses to the requests without a thread per
+ * connection.
+ * <p>
+ * A small number of event loop threads multiplex the client connections. Once a
+ * request has been completely read, it is handed to one of the dispatcher threads.
+ * As such, slow and idle clients do not hold a dispatcher thread.
+ *
+ * @author Schinzel
+ */
+@Accessors(prefix = "m")
+public class NioWebChannel implements IChannel {
+    /** Accepts and reads connections. Shared by all clones. */
+    private final NioServer mServer;
+    /** Holds the redirects. File, host and https redirects. */
+    private final Redirects mRedirects;
+    /** The connection of the request last read. */
+    private NioConnection mConnection;
+    /** For logging and stats, hold the time it took to read the message from first to last byte. */
+    private long mLogRequestReadTime;
+    /** The response write time. For logging and stats */
+    private long mResponseWriteTime = 0L;
+
+
+    //------------------------------------------------------------------------
+    // CONSTRUCTORS AND SHUTDOWN
+    //------------------------------------------------------------------------
+    @SuppressWarnings("unused")
+    @Builder(builderClassName = "NioWebChannelBuilder")
+    NioWebChannel(int port, int timeout, int noOfEventLoops, Redirects redirects,
+                  boolean keepAlive, int keepAliveTimeout, int maxRequestsPerConnection,
+                  int maxHeaderSize, int maxBodySize) {
+        this(newServer(port, timeout, noOfEventLoops,
+                KeepAlive.create(keepAlive, keepAliveTimeout, maxRequestsPerConnection),
+                new RequestBuffer(maxHeaderSize, maxBodySize)), redirects);
+    }
+
+
+    private static NioServer newServer(int port, int timeout, int noOfEventLoops, KeepAlive keepAlive,
+                                       RequestBuffer requestBuffer) {
+        Thrower.throwIfVarOutsideRange(port, "port", 1, 65535);
+        Thrower.throwIfVarOutsideRange(timeout, "timeout", 50, 30000);
+        Thrower.throwIfVarOutsideRange(noOfEventLoops, "noOfEventLoops", 1, 64);
+        return new NioServer(port, timeout, noOfEventLoops, keepAlive, requestBuffer);
+    }
+
+
+    private NioWebChannel(NioServer server, Redirects redirects) {
+        mServer = server;
+        mRedirects = redirects;
+    }
+
+
+    @Override
+    public IChannel getClone() {
+        return new NioWebChannel(mServer, mRedirects);
+    }
+
+
+    @Override
+    public IChannel handOff() {
+        NioWebChannel handOff = new NioWebChannel(mServer, mRedirects);
+        handOff.mConnection = mConnection;
+        handOff.mLogRequestReadTime = mLogRequestReadTime;
+        return handOff;
+    }
+
+
+    @Override
+    public void shutdown(Thread thread) {
+        mServer.close();
+    }
+
+
+    //------------------------------------------------------------------------
+    // MESSAGING
+    //------------------------------------------------------------------------
+    @Override
+    public boolean getRequest(ByteStorage request) {
+        boolean keepReading;
+        do {
+            keepReading = false;
+            mConnection = mServer.takeReadyConnection();
+            //If the server was closed
+            if (mConnection == null) {
+                return false;
+            }
+            mLogRequestReadTime = mConnection.getRequestReadTime();
+            //If the request was rejected while read
+            if (mConnection.getReadError() != null) {
+                throw new RuntimeException("Error while reading from socket. " + mConnection.getReadError());
+            }
+            mConnection.copyRequestTo(request);
+            try {
+                HttpRequest httpRequest = new HttpRequest(request.getArray(), request.getNoOfBytesStored());
+                //Get direct response (empty string if there is no direct response)
+                String directResponse = WebChannel.getDirectResponse(httpRequest, mRedirects);
+                //If there was a direct response
+                if (!Checker.isEmpty(directResponse)) {
+                    this.writeResponse(UTF8.getBytes(directResponse));
+                    request.clear();
+                    keepReading = true;
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("Error while reading from socket. " + e.getMessage());
+            }
+        } while (keepReading);
+        return true;
+    }
+
+
+    @Override
+    public void writeResponse(byte[] response) {
+        mResponseWriteTime = System.currentTimeMillis();
+        try {
+            mConnection.write(response);
+        } catch (IOException ioe) {
+            mConnection.close();
+            throw new RuntimeException("Error while writing to socket " + ioe.getMessage());
+        } finally {
+            mResponseWriteTime = (System.currentTimeMillis() - mResponseWriteTime);
+        }
+    }
+
+
+    @Override
+    public void writeStoredResponse(ByteStorage response) {
+        this.writeStoredResponse(response, null);
+    }
+
+
+    @Override
+    public void writeStoredResponse(ByteStorage response, IResponseBody responseBody) {
+        mResponseWriteTime = System.currentTimeMillis();
+        try {
+            mConnection.write(response, responseBody);
+        } catch (IOException ioe) {
+            mConnection.close();
+            throw new RuntimeException("Error while writing to socket " + ioe.getMessage());
+        } finally {
+            mResponseWriteTime = (System.currentTimeMillis() - mResponseWriteTime);
+        }
+    }
+
+
+    //------------------------------------------------------------------------
+    // LOGGING & STATS
+    //------------------------------------------------------------------------
+    @Override
+    public long responseWriteTime() {
+        return mResponseWriteTime;
+    }
+
+
+    @Override
+    public long requestReadTime() {
+        return mLogRequestReadTime;
+    }
+
+
+    @Override
+    public String senderInfo() {
+        return mConnection.getSenderInfo();
+    }
+    //------------------------------------------------------------------------
+    // STATUS
+    //------------------------------------------------------------------------
+
+
+    @Override
+    public State getState() {
+        return State.getBuilder()
+                .add("Port", mServer.getPort())
+                .add("Timeout", mServer.getReadTimeout())
+                .add("EventLoops", mServer.getNoOfEventLoops())
+                .add("Connections", mServer.getNoOfConnections())
+                .add("Queue", mServer.getQueueSize())
+                .add("KeepAlive", mServer.getKeepAlive().isEnabled())
+                .build();
+    }
+
+}
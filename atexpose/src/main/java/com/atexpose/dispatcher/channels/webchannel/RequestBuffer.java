@@ -0,0 +1,171 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import com.atexpose.util.BufferPool;
+import com.atexpose.util.ByteStorage;
+
+/**
+ * The purpose of this class is to hold the bytes read from a client connection and
+ * to tell when they hold a complete request.
+ * <p>
+ * Bytes read beyond the first request are kept when the request is removed, so that
+ * pipelined requests are answered in order. Requests with a header or a body larger
+ * than the set limits are rejected as soon as the size is known.
+ */
+class RequestBuffer {
+    /** The default max size of a request header in bytes */
+    static final int DEFAULT_MAX_HEADER_SIZE = 16 * 1024;
+    /** The default max size of a request body in bytes */
+    static final int DEFAULT_MAX_BODY_SIZE = 10 * 1024 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    /** Buffers larger than this are returned to the pool when cleared */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+    /** Max size of a request header in bytes */
+    private final int mMaxHeaderSize;
+    /** Max size of a request body in bytes */
+    private final int mMaxBodySize;
+    /** Holds the bytes read that have not yet been removed */
+    private byte[] mBuffer = BufferPool.acquire(INITIAL_BUFFER_SIZE);
+    /** The number of bytes in the buffer */
+    private int mNoOfBytes = 0;
+    /** The frame of the first request in the buffer. Null if not computed since the last change. */
+    private HttpFraming.Frame mFrame;
+
+
+    /**
+     * @param maxHeaderSize Max size of a request header in bytes. If 0 or less the default is used.
+     * @param maxBodySize   Max size of a request body in bytes. If 0 or less the default is used.
+     */
+    RequestBuffer(int maxHeaderSize, int maxBodySize) {
+        mMaxHeaderSize = (maxHeaderSize > 0) ? maxHeaderSize : DEFAULT_MAX_HEADER_SIZE;
+        mMaxBodySize = (maxBodySize > 0) ? maxBodySize : DEFAULT_MAX_BODY_SIZE;
+    }
+
+
+    /**
+     * @return A new empty buffer with the same limits as this.
+     */
+    RequestBuffer getClone() {
+        return new RequestBuffer(mMaxHeaderSize, mMaxBodySize);
+    }
+
+
+    /**
+     * Adds bytes read from the connection.
+     */
+    void append(byte[] bytes, int offset, int length) {
+        if (mNoOfBytes + length > mBuffer.length) {
+            this.increaseSize(mNoOfBytes + length);
+        }
+        System.arraycopy(bytes, offset, mBuffer, mNoOfBytes, length);
+        mNoOfBytes += length;
+        mFrame = null;
+    }
+
+
+    /**
+     * @return True if the buffer holds a complete request.
+     * @throws RuntimeException If the request header or body is larger than allowed.
+     */
+    boolean isRequestComplete() {
+        HttpFraming.Frame frame = this.getFrame();
+        //If the header has not ended, the size read so far is the smallest the header can be
+        int headerLength = (frame.getHeaderLength() == HttpFraming.INCOMPLETE)
+                ? mNoOfBytes
+                : frame.getHeaderLength();
+        if (headerLength > mMaxHeaderSize) {
+            throw new RuntimeException("Request header is larger than the max " + mMaxHeaderSize + " bytes.");
+        }
+        if (frame.getBodyLength() > mMaxBodySize) {
+            throw new RuntimeException("Request body is larger than the max " + mMaxBodySize + " bytes.");
+        }
+        boolean isRequestComplete = (frame.getRequestLength() != HttpFraming.INCOMPLETE);
+        //If the header has been read and declares the length of the body, make room for the whole request at once
+        if (!isRequestComplete && frame.getHeaderLength() != HttpFraming.INCOMPLETE && !frame.isChunked()
+                && frame.getHeaderLength() + frame.getBodyLength() > mBuffer.length) {
+            this.increaseSize((int) (frame.getHeaderLength() + frame.getBodyLength()));
+        }
+        return isRequestComplete;
+    }
+
+
+    /**
+     * Moves the bytes to an array from the pool that holds at least the argument number of bytes.
+     */
+    private void increaseSize(int minSize) {
+        byte[] buffer = BufferPool.acquire(Math.max(mBuffer.length * 2, minSize));
+        System.arraycopy(mBuffer, 0, buffer, 0, mNoOfBytes);
+        BufferPool.release(mBuffer);
+        mBuffer = buffer;
+    }
+
+
+    /**
+     * @return The length of the first request. INCOMPLETE if there is no complete request.
+     */
+    int getRequestLength() {
+        return this.getFrame().getRequestLength();
+    }
+
+
+    /**
+     * @return The internal array. Is not copied, so is to be read only and only up to
+     * the number of bytes stored.
+     */
+    byte[] getBytes() {
+        return mBuffer;
+    }
+
+
+    /**
+     * @return The number of bytes in the buffer.
+     */
+    int getNoOfBytes() {
+        return mNoOfBytes;
+    }
+
+
+    /**
+     * @param request The first request is added to this argument. Chunked bodies are decoded.
+     */
+    void copyRequestTo(ByteStorage request) {
+        HttpFraming.Frame frame = this.getFrame();
+        if (frame.isChunked()) {
+            HttpFraming.decodeChunkedRequest(mBuffer, frame.getRequestLength(), request);
+        } else {
+            request.add(mBuffer, 0, frame.getRequestLength());
+        }
+    }
+
+
+    /**
+     * Removes the first request and keeps any bytes read beyond it.
+     */
+    void removeRequest() {
+        int requestLength = this.getRequestLength();
+        mNoOfBytes -= requestLength;
+        System.arraycopy(mBuffer, requestLength, mBuffer, 0, mNoOfBytes);
+        mFrame = null;
+    }
+
+
+    /**
+     * Removes all bytes. If the buffer has grown large, it is returned to the pool.
+     */
+    void clear() {
+        mNoOfBytes = 0;
+        mFrame = null;
+        if (mBuffer.length > MAX_RETAINED_BUFFER_SIZE) {
+            BufferPool.release(mBuffer);
+            mBuffer = BufferPool.acquire(INITIAL_BUFFER_SIZE);
+        }
+    }
+
+
+    private HttpFraming.Frame getFrame() {
+        if (mFrame == null) {
+            mFrame = HttpFraming.getFrame(mBuffer, mNoOfBytes);
+        }
+        return mFrame;
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import com.atexpose.util.BufferPool;
+import com.atexpose.util.ByteStorage;
+import com.atexpose.util.IResponseBody;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.channels.Channels;
+
+
+/**
+ * The purpose of this class is to read from and write to sockets.
+ * <p>
+ * Created by Schinzel on 2017-03-08.
+ */
+class SocketRW {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+
+    /**
+     * Reads from a socket until the argument buffer holds a whole request. Blocks
+     * until the request has been read, the socket times out or the client closes
+     * the connection.
+     *
+     * @param requestBuffer Holds any bytes already read. The bytes read are added to this argument.
+     * @param socket        The socket to read from.
+     * @param readTimeout   The socket timeout to use once the first byte has been read.
+     * @throws EOFException If the client closed the connection before a whole request was read.
+     */
+    public static void read(RequestBuffer requestBuffer, Socket socket, int readTimeout) throws IOException {
+        InputStream inputStream = socket.getInputStream();
+        byte[] arr = BufferPool.acquire(BUFFER_SIZE);
+        try {
+            while (!requestBuffer.isRequestComplete()) {
+                int bytesRead = inputStream.read(arr);
+                if (bytesRead == -1) {
+                    throw new EOFException("Connection closed by client");
+                }
+                //If this was the first bytes read
+                if (requestBuffer.getNoOfBytes() == 0) {
+                    socket.setSoTimeout(readTimeout);
+                }
+                requestBuffer.append(arr, 0, bytesRead);
+            }
+        } finally {
+            BufferPool.release(arr);
+        }
+    }
+
+
+    /**
+     * @param socket   The socket to write to.
+     * @param response The message to write to the socket.
+     */
+    public static void write(Socket socket, byte[] response) throws IOException {
+        OutputStream outputStream = socket.getOutputStream();
+        if (response == null) {
+            response = new byte[0];
+        }
+        outputStream.write(response);
+        outputStream.flush();
+    }
+
+
+    /**
+     * @param socket   The socket to write to.
+     * @param response The message to write to the socket. Is written without being copied.
+     */
+    public static void write(Socket socket, ByteStorage response) throws IOException {
+        OutputStream outputStream = socket.getOutputStream();
+        response.writeTo(outputStream);
+        outputStream.flush();
+    }
+
+
+    /**
+     * @param socket       The socket to write to.
+     * @param response     The message to write to the socket. Is written without being copied.
+     * @param responseBody A body to write after the message, e.g. a region of a file. Is
+     *                     written without being copied to the heap as a whole. Null if there is
+     *                     no body to write.
+     */
+    public static void write(Socket socket, ByteStorage response, IResponseBody responseBody) throws IOException {
+        OutputStream outputStream = socket.getOutputStream();
+        response.writeTo(outputStream);
+        if (responseBody != null) {
+            outputStream.flush();
+            //If the socket has a channel the body is sent to the socket without heap copies.
+            //Blocking sockets, as of the default web channel, have no channel. The body is then
+            //copied through heap buffers. The channels are not closed as that would close the socket.
+            responseBody.writeTo(socket.getChannel() != null
+                    ? socket.getChannel()
+                    : Channels.newChannel(outputStream));
+        }
+        outputStream.flush();
+    }
+
+}
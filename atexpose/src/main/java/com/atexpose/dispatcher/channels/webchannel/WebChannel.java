@@ -4,6 +4,7 @@ import com.atexpose.dispatcher.channels.IChannel;
 import com.atexpose.dispatcher.channels.webchannel.redirect.Redirects;
 import com.atexpose.dispatcher.parser.urlparser.httprequest.HttpRequest;
 import com.atexpose.util.ByteStorage;
+import com.atexpose.util.IResponseBody;
 import com.atexpose.util.httpresponse.HttpResponse302;
 import com.atexpose.util.httpresponse.HttpResponseString;
 import io.schinzel.basicutils.Checker;
@@ -13,11 +14,13 @@ import io.schinzel.basicutils.thrower.Thrower;
 import lombok.Builder;
 import lombok.experimental.Accessors;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 
 /**
@@ -41,6 +44,14 @@ public class WebChannel implements IChannel {
     private final int mSocketTimeout;
     /** Holds the redirects. File, host and https redirects. */
     private final Redirects mRedirects;
+    /** Decides if the client connection is kept open after a response */
+    private final KeepAlive mKeepAlive;
+    /** The number of requests read on the current client connection */
+    private int mNoOfRequestsOnConnection = 0;
+    /** If true the client connection is kept open after the response to the current request */
+    private volatile boolean mIsToKeepAlive = false;
+    /** Holds the bytes read from the client connection */
+    private final RequestBuffer mRequestBuffer;
 
 
     //------------------------------------------------------------------------
@@ -48,8 +59,11 @@ public class WebChannel implements IChannel {
     //------------------------------------------------------------------------
     @SuppressWarnings("unused")
     @Builder(builderClassName = "WebChannelBuilder")
-    WebChannel(int port, int timeout, Redirects redirects) {
-        this(getServerSocket(port), redirects, timeout);
+    WebChannel(int port, int timeout, Redirects redirects, boolean keepAlive, int keepAliveTimeout,
+               int maxRequestsPerConnection, int maxHeaderSize, int maxBodySize) {
+        this(getServerSocket(port), redirects, timeout,
+                KeepAlive.create(keepAlive, keepAliveTimeout, maxRequestsPerConnection),
+                new RequestBuffer(maxHeaderSize, maxBodySize));
         Thrower.throwIfVarOutsideRange(port, "port", 1, 65535);
         Thrower.throwIfVarOutsideRange(timeout, "timeout", 50, 30000);
     }
@@ -65,10 +79,13 @@ public class WebChannel implements IChannel {
 
 
     @Builder(builderClassName = "WebChannelCloneBuilder", builderMethodName = "cloneBuilder", buildMethodName = "buildClone")
-    private WebChannel(ServerSocket serverSocket, Redirects redirects, int timeout) {
+    private WebChannel(ServerSocket serverSocket, Redirects redirects, int timeout, KeepAlive keepAlive,
+                       RequestBuffer requestBuffer) {
         mServerSocket = serverSocket;
         mSocketTimeout = timeout;
         mRedirects = redirects;
+        mKeepAlive = keepAlive;
+        mRequestBuffer = requestBuffer;
     }
 
 
@@ -78,10 +95,34 @@ public class WebChannel implements IChannel {
                 .redirects(mRedirects)
                 .timeout(mSocketTimeout)
                 .serverSocket(mServerSocket)
+                .keepAlive(mKeepAlive)
+                .requestBuffer(mRequestBuffer.getClone())
                 .buildClone();
     }
 
 
+    /**
+     * The connection of a handed off request is closed after the response. If not, the
+     * next request on the connection could be answered before the one handed off.
+     */
+    @Override
+    public IChannel handOff() {
+        WebChannel handOff = WebChannel.cloneBuilder()
+                .redirects(mRedirects)
+                .timeout(mSocketTimeout)
+                .serverSocket(mServerSocket)
+                .keepAlive(mKeepAlive)
+                //The channel handed off only writes and as such does not use the buffer
+                .requestBuffer(mRequestBuffer)
+                .buildClone();
+        handOff.mClientSocket = mClientSocket;
+        handOff.mLogRequestReadTime = mLogRequestReadTime;
+        //Accept a new connection on the next read
+        mIsToKeepAlive = false;
+        return handOff;
+    }
+
+
     @Override
     public void shutdown(Thread thread) {
         try {
@@ -89,6 +130,10 @@ public class WebChannel implements IChannel {
         } catch (IOException ex) {
             System.out.println("Error while closing socket");
         }
+        //Close any kept open connection that the thread of this channel waits to read from
+        if (mIsToKeepAlive) {
+            this.closeClientSocket();
+        }
     }
 
 
@@ -100,21 +145,35 @@ public class WebChannel implements IChannel {
         boolean keepReadingFromSocket;
         do {
             keepReadingFromSocket = false;
-            try {
-                mClientSocket = mServerSocket.accept();
-            } catch (SocketException se) {
-                //If socket is closed, most likely the shutdown method was used.
-                if (mServerSocket.isClosed()) {
+            //If there is no connection kept open from the previous request
+            if (!mIsToKeepAlive) {
+                try {
+                    mClientSocket = mServerSocket.accept();
+                    mNoOfRequestsOnConnection = 0;
+                    mRequestBuffer.clear();
+                } catch (SocketException se) {
+                    //If socket is closed, most likely the shutdown method was used.
+                    if (mServerSocket.isClosed()) {
+                        return false;
+                    }
+                } catch (IOException ioe) {
+                    //If an error was thrown while waiting for accept the shutdown method in this object was probably(hopefully) invoked.
                     return false;
                 }
-            } catch (IOException ioe) {
-                //If an error was thrown while waiting for accept the shutdown method in this object was probably(hopefully) invoked.
-                return false;
             }
             try {
                 mLogRequestReadTime = System.currentTimeMillis();
-                mClientSocket.setSoTimeout(mSocketTimeout);
-                HttpRequest httpRequest = SocketRW.read(request, mClientSocket);
+                HttpRequest httpRequest = this.read(request);
+                //If the client closed the connection or it was idle for too long
+                if (httpRequest == null) {
+                    mIsToKeepAlive = false;
+                    this.closeClientSocket();
+                    if (mServerSocket.isClosed()) {
+                        return false;
+                    }
+                    keepReadingFromSocket = true;
+                    continue;
+                }
                 //Get direct response (empty string if there is no direct response)
                 String directResponse = this.getDirectResponse(httpRequest);
                 //If there was no direct response
@@ -128,8 +187,9 @@ public class WebChannel implements IChannel {
                 }
             }//Catch read timeout errors
             catch (InterruptedIOException iioe) {
+                mIsToKeepAlive = false;
                 mLogRequestReadTime = System.currentTimeMillis() - mLogRequestReadTime;
-                String err = "Server got interrupted exception when reading from client socket. No of bytes read: " + request.getNoOfBytesStored() + ".";
+                String err = "Server got interrupted exception when reading from client socket. No of bytes read: " + mRequestBuffer.getNoOfBytes() + ".";
                 try {
                     mClientSocket.close();
                 } catch (IOException e) {
@@ -138,6 +198,7 @@ public class WebChannel implements IChannel {
                 err += " Exception message: '" + iioe.getMessage() + "'";
                 throw new RuntimeException(err);
             } catch (Exception e) {
+                mIsToKeepAlive = false;
                 mLogRequestReadTime = System.currentTimeMillis() - mLogRequestReadTime;
                 throw new RuntimeException("Error while reading from socket. " + e.getMessage());
             }
@@ -147,6 +208,45 @@ public class WebChannel implements IChannel {
     }
 
 
+    /**
+     * Reads the next request from the client connection. Bytes read beyond the request
+     * are kept for the next read, so that pipelined requests are answered in order.
+     *
+     * @param request The request read is added to this argument.
+     * @return The request read. Null if the client closed the connection, or if a kept
+     * open connection was idle for too long.
+     */
+    private HttpRequest read(ByteStorage request) throws IOException {
+        mNoOfRequestsOnConnection++;
+        boolean isKeptOpenConnection = (mNoOfRequestsOnConnection > 1);
+        //If waiting for the next request on a kept open connection, wait no longer than the idle timeout
+        mClientSocket.setSoTimeout((isKeptOpenConnection && mRequestBuffer.getNoOfBytes() == 0)
+                ? mKeepAlive.getIdleTimeout()
+                : mSocketTimeout);
+        try {
+            SocketRW.read(mRequestBuffer, mClientSocket, mSocketTimeout);
+        } catch (EOFException eofe) {
+            return null;
+        } catch (SocketException se) {
+            //If the connection was closed as the channel was shut down
+            if (mServerSocket.isClosed()) {
+                return null;
+            }
+            throw se;
+        } catch (SocketTimeoutException ste) {
+            if (isKeptOpenConnection && mRequestBuffer.getNoOfBytes() == 0) {
+                return null;
+            }
+            throw ste;
+        }
+        mRequestBuffer.copyRequestTo(request);
+        mIsToKeepAlive = mKeepAlive.isToKeepAlive(mRequestBuffer.getBytes(),
+                mRequestBuffer.getRequestLength(), mNoOfRequestsOnConnection);
+        mRequestBuffer.removeRequest();
+        return new HttpRequest(request.getArray(), request.getNoOfBytesStored());
+    }
+
+
     /**
      * Get any direct response. Direct responses is when the WebChannel send the response directly
      * without involving the rest of @expose. For example, if there is a http to https redirect.
@@ -155,6 +255,16 @@ public class WebChannel implements IChannel {
      * @return Empty string if no direct response is to be sent. Else the direct response to send.
      */
     String getDirectResponse(HttpRequest httpRequest) {
+        return getDirectResponse(httpRequest, mRedirects);
+    }
+
+
+    /**
+     * @param httpRequest A http request
+     * @param redirects   The redirects to apply
+     * @return Empty string if no direct response is to be sent. Else the direct response to send.
+     */
+    static String getDirectResponse(HttpRequest httpRequest, Redirects redirects) {
         if (httpRequest.isGhostCall()) {
             return HttpResponseString.builder()
                     .body("Hi Ghost!")
@@ -162,8 +272,8 @@ public class WebChannel implements IChannel {
                     .getResponse();
         }
         URI uri = httpRequest.getURI();
-        if (mRedirects.shouldRedirect(uri)) {
-            uri = mRedirects.getNewLocation(uri);
+        if (redirects.shouldRedirect(uri)) {
+            uri = redirects.getNewLocation(uri);
             return HttpResponse302.builder()
                     .location(uri.toString())
                     .build()
@@ -176,11 +286,33 @@ public class WebChannel implements IChannel {
 
     @Override
     public void writeResponse(byte[] response) {
-        try (Socket socket = mClientSocket) {
+        this.writeToSocket(() -> SocketRW.write(mClientSocket, mKeepAlive.addConnectionHeader(response, mIsToKeepAlive)));
+    }
+
+
+    @Override
+    public void writeStoredResponse(ByteStorage response) {
+        this.writeStoredResponse(response, null);
+    }
+
+
+    @Override
+    public void writeStoredResponse(ByteStorage response, IResponseBody responseBody) {
+        mKeepAlive.addConnectionHeader(response, mIsToKeepAlive);
+        this.writeToSocket(() -> SocketRW.write(mClientSocket, response, responseBody));
+    }
+
+
+    /**
+     * @param socketWrite Writes the response to the client socket
+     */
+    private void writeToSocket(ISocketWrite socketWrite) {
+        try {
             mResponseWriteTime = System.currentTimeMillis();
             //Send the Response to the client.
-            SocketRW.write(socket, response);
+            socketWrite.write();
         } catch (IOException ioe) {
+            mIsToKeepAlive = false;
             //If not "Error while writing to socket Connection reset by peer: socket write error"
             //Error indicating timeout on client.
             if (ioe.getMessage().compareToIgnoreCase(
@@ -188,11 +320,30 @@ public class WebChannel implements IChannel {
                 throw new RuntimeException("Error while writing to socket " + ioe.getMessage());
             }
         } finally {
+            //If the connection is not to be kept open for the next request
+            if (!mIsToKeepAlive) {
+                this.closeClientSocket();
+            }
             mResponseWriteTime = (System.currentTimeMillis() - mResponseWriteTime);
         }
     }
 
 
+    @FunctionalInterface
+    private interface ISocketWrite {
+        void write() throws IOException;
+    }
+
+
+    private void closeClientSocket() {
+        try {
+            mClientSocket.close();
+        } catch (IOException ioe) {
+            //Nothing to do if the close failed
+        }
+    }
+
+
     //------------------------------------------------------------------------
     // LOGGING & STATS
     //------------------------------------------------------------------------
@@ -223,6 +374,7 @@ public class WebChannel implements IChannel {
                 .add("Port", mServerSocket.getLocalPort())
                 .add("Timeout", mSocketTimeout)
                 .add("Queue", MAX_PENDING_REQUESTS)
+                .add("KeepAlive", mKeepAlive.isEnabled())
                 .build();
     }
 
@@ -0,0 +1,56 @@
+package com.atexpose.dispatcher.invocation;
+
+import com.atexpose.errors.ExposedInvocationException;
+import com.atexpose.errors.IExceptionProperties;
+import com.atexpose.errors.RuntimeError;
+import com.google.common.collect.ImmutableMap;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * The purpose of this class is to invoke methods using reflection and to translate
+ * exceptions thrown by invoked methods. Requests are invoked with {@link Invoker}.
+ * <p>
+ * Created by Schinzel on 2017-12-10
+ */
+
+public class Invocation {
+
+
+    static Object invoke(Method method, Object targetObject, Object[] argumentValuesAsObjects) throws ExposedInvocationException {
+        try {
+            return method.invoke(targetObject, argumentValuesAsObjects);
+        } catch (InvocationTargetException ite) {
+            throw getExposedInvocationException(ite.getCause());
+        } catch (IllegalAccessException iae) {
+            throw new RuntimeError("Access error " + iae.toString());
+        }
+    }
+
+
+    /**
+     * @param cause An exception thrown by an invoked method
+     * @return An exception with the message, method, class and line number of the argument
+     * exception. Plus the properties of the argument exception, if it has any.
+     */
+    static ExposedInvocationException getExposedInvocationException(Throwable cause) {
+        StackTraceElement ste = cause.getStackTrace()[0];
+        Map<String, String> properties = ImmutableMap.<String, String>builder()
+                .put("ErrorMessage", String.valueOf(cause.getMessage()))
+                .put("Method", ste.getMethodName())
+                .put("Class", ste.getClassName())
+                .put("LineNumber", String.valueOf(ste.getLineNumber()))
+                .build();
+        if (cause instanceof IExceptionProperties) {
+            properties = ImmutableMap.<String, String>builder()
+                    .putAll(properties)
+                    .putAll(((IExceptionProperties) cause).getProperties())
+                    .build();
+        }
+        return new ExposedInvocationException(properties);
+    }
+
+
+}
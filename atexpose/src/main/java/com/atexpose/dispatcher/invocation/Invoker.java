@@ -0,0 +1,127 @@
+package com.atexpose.dispatcher.invocation;
+
+import com.atexpose.errors.ExposedInvocationException;
+import com.atexpose.errors.RuntimeError;
+import io.schinzel.basicutils.thrower.Thrower;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * The purpose of this class is to invoke an exposed method faster than reflection does.
+ * <p>
+ * The invoker is created once, when the method is exposed. Methods of classes for which the
+ * annotation processor has generated a table are invoked with the generated method calls.
+ * Other methods are invoked with a method handle that is bound to the object to invoke
+ * and adapted to take the argument values as an object array and return an object. As such
+ * no access checks or argument type lookups are done per invocation.
+ * <p>
+ * As with reflection, exceptions thrown by the invoked method are told apart from argument
+ * values that do not fit the parameters. Errors thrown by the invoked method, such as a stack
+ * overflow, are reported as exceptions thrown by the method, so that the request gets a response.
+ */
+public class Invoker {
+    /** The type of all method handles: Object invoke(Object[] argumentValues) */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+    /** InvocationTargetException wrap(Throwable cause) */
+    private static final MethodHandle WRAP_TARGET_EXCEPTION;
+
+    static {
+        try {
+            WRAP_TARGET_EXCEPTION = MethodHandles.lookup()
+                    .findConstructor(InvocationTargetException.class, MethodType.methodType(void.class, Throwable.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeError("Could not look up InvocationTargetException constructor. " + e.getMessage());
+        }
+    }
+
+    /** Invokes the method */
+    private final IMethodCall mMethodCall;
+    /** The object to invoke the method on */
+    private final Object mTargetObject;
+
+
+    private Invoker(IMethodCall methodCall, Object targetObject) {
+        mMethodCall = methodCall;
+        mTargetObject = targetObject;
+    }
+
+
+    /**
+     * @param methodCall   A method call generated at compile time
+     * @param targetObject The object to invoke the method on. Not used for static methods.
+     * @return An invoker that invokes the argument method call.
+     */
+    public static Invoker create(IMethodCall methodCall, Object targetObject) {
+        Thrower.throwIfVarNull(methodCall, "methodCall");
+        return new Invoker(methodCall, targetObject);
+    }
+
+
+    /**
+     * @param method       The method to invoke. Is to be accessible.
+     * @param targetObject The object to invoke the method on. Not used for static methods.
+     * @return An invoker for the argument method.
+     */
+    public static Invoker create(Method method, Object targetObject) {
+        Thrower.throwIfVarNull(method, "method");
+        try {
+            MethodHandle methodHandle = MethodHandles.lookup().unreflect(method);
+            //If is not a static method, bind it to the object to invoke
+            if (!Modifier.isStatic(method.getModifiers())) {
+                Thrower.throwIfVarNull(targetObject, "targetObject");
+                methodHandle = methodHandle.bindTo(targetObject);
+            }
+            methodHandle = wrapTargetExceptions(methodHandle);
+            //The argument values are cast and unboxed outside the wrapped method handle, so that
+            //argument values that do not fit are not reported as thrown by the method
+            MethodHandle spreadMethodHandle = methodHandle
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKER_TYPE);
+            IMethodCall methodCall = (target, argumentValues) -> (Object) spreadMethodHandle.invokeExact(argumentValues);
+            return new Invoker(methodCall, targetObject);
+        } catch (IllegalAccessException iae) {
+            throw new RuntimeError("Access error " + iae.toString());
+        }
+    }
+
+
+    /**
+     * @return A method handle that throws what the argument method handle throws wrapped in an
+     * InvocationTargetException, errors included.
+     */
+    private static MethodHandle wrapTargetExceptions(MethodHandle methodHandle) {
+        MethodType type = methodHandle.type();
+        MethodHandle handler = MethodHandles.filterArguments(
+                MethodHandles.throwException(type.returnType(), InvocationTargetException.class),
+                0, WRAP_TARGET_EXCEPTION);
+        handler = MethodHandles.dropArguments(handler, 1, type.parameterList());
+        return MethodHandles.catchException(methodHandle, Throwable.class, handler);
+    }
+
+
+    /**
+     * @param argumentValuesAsObjects The argument values
+     * @return The return of the invoked method. Null if the method is void.
+     * @throws ExposedInvocationException If the invoked method throws an exception or an error.
+     * @throws IllegalArgumentException   If the argument values do not fit the parameters of
+     *                                    the method, e.g. a value of another type or null for a primitive.
+     */
+    public Object invoke(Object[] argumentValuesAsObjects) throws ExposedInvocationException {
+        try {
+            return mMethodCall.call(mTargetObject, argumentValuesAsObjects);
+        } catch (InvocationTargetException ite) {
+            throw Invocation.getExposedInvocationException(ite.getCause());
+        } catch (Throwable cause) {
+            //Anything else is thrown as the argument values were cast, unboxed or spread
+            throw new IllegalArgumentException("Argument values do not fit the parameters of the method. "
+                    + cause.toString(), cause);
+        }
+    }
+
+
+}
@@ -0,0 +1,187 @@
+package com.atexpose.dispatcher.logging;
+
+import io.schinzel.basicutils.state.IStateNode;
+import io.schinzel.basicutils.state.State;
+import io.schinzel.basicutils.thrower.Thrower;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * The purpose of this class is to take log entries off the threads that log them, so that a
+ * request thread does not wait for entries to be formatted, encrypted and written.
+ * <p>
+ * The entries are put in a lock free ring buffer. A background thread takes the entries in
+ * batches and hands each batch to the writer. What happens when the buffer is full is set
+ * by the overflow policy.
+ */
+class AsyncLog implements IStateNode {
+    /** The max number of entries written in one batch */
+    static final int MAX_BATCH_SIZE = 256;
+    /** With the sample policy, one in this number of entries is queued once the queue is half full */
+    private static final int SAMPLE_RATE = 10;
+    /** How long the background thread waits for entries before it looks again */
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    /** The entries to write */
+    private final RingBuffer<ILogEntry> mQueue;
+    /** What to do with an entry when the queue is full */
+    private final OverflowPolicy mOverflowPolicy;
+    /** Writes a batch of entries */
+    private final Consumer<List<ILogEntry>> mBatchWriter;
+    /** The thread that writes the entries */
+    private final Thread mThread;
+    /** True while the background thread waits for entries */
+    private volatile boolean mIsWaiting = false;
+    /** Set as the log is closed, which stops the background thread */
+    private volatile boolean mIsClosed = false;
+    /** The number of entries written, or that failed to be written */
+    private final AtomicLong mNoOfWritten = new AtomicLong();
+    /** The number of entries dropped as the queue was full or as they were sampled out */
+    private final AtomicLong mNoOfDropped = new AtomicLong();
+    /** The number of batches that the writer failed to write */
+    private final AtomicLong mNoOfWriteErrors = new AtomicLong();
+    /** Counts the entries offered while sampling */
+    private final AtomicLong mSampleCounter = new AtomicLong();
+
+
+    /**
+     * @param queueSize      The max number of entries waiting to be written
+     * @param overflowPolicy What to do with an entry when the queue is full
+     * @param batchWriter    Writes a batch of entries. Is invoked by the background thread only.
+     */
+    AsyncLog(int queueSize, OverflowPolicy overflowPolicy, Consumer<List<ILogEntry>> batchWriter) {
+        Thrower.throwIfVarNull(overflowPolicy, "overflowPolicy");
+        mQueue = new RingBuffer<>(queueSize);
+        mOverflowPolicy = overflowPolicy;
+        mBatchWriter = batchWriter;
+        mThread = new Thread(this::run, "AtExpose-Logger");
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+
+    /**
+     * Queues an entry to be written. Can be invoked by any number of threads.
+     *
+     * @param logEntry The entry to write
+     */
+    void log(ILogEntry logEntry) {
+        if (mOverflowPolicy == OverflowPolicy.SAMPLE && mQueue.size() >= mQueue.capacity() / 2
+                && mSampleCounter.incrementAndGet() % SAMPLE_RATE != 0) {
+            mNoOfDropped.incrementAndGet();
+            return;
+        }
+        while (!mQueue.offer(logEntry)) {
+            if (mOverflowPolicy != OverflowPolicy.BLOCK) {
+                mNoOfDropped.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(mThread);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        if (mIsWaiting) {
+            LockSupport.unpark(mThread);
+        }
+    }
+
+
+    /**
+     * Waits until the entries queued before this method was invoked have been written.
+     *
+     * @param timeoutMillis The max time to wait
+     * @return True if the entries were written. False if the time ran out.
+     */
+    boolean flush(long timeoutMillis) {
+        long noOfQueued = mQueue.getNoOfAdded();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (mNoOfWritten.get() < noOfQueued) {
+            //If the time ran out or if the log is closed and the entries will not be written
+            if (System.nanoTime() > deadline || !mThread.isAlive()) {
+                return false;
+            }
+            LockSupport.unpark(mThread);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        return true;
+    }
+
+
+    /**
+     * Waits until the entries queued have been written and stops the background thread.
+     * Entries queued after this are not written.
+     *
+     * @param timeoutMillis The max time to wait for the entries to be written
+     * @return True if the entries were written. False if the time ran out.
+     */
+    boolean close(long timeoutMillis) {
+        boolean isFlushed = this.flush(timeoutMillis);
+        mIsClosed = true;
+        LockSupport.unpark(mThread);
+        try {
+            //Wait for a batch being written, so that the writer is not closed while it writes
+            mThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return isFlushed;
+    }
+
+
+    private void run() {
+        List<ILogEntry> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (!mIsClosed) {
+            int noOfEntries = mQueue.drainTo(batch, MAX_BATCH_SIZE);
+            if (noOfEntries > 0) {
+                try {
+                    mBatchWriter.accept(batch);
+                } catch (RuntimeException e) {
+                    //The thread is kept alive so that later entries are written
+                    mNoOfWriteErrors.incrementAndGet();
+                }
+                batch.clear();
+                mNoOfWritten.addAndGet(noOfEntries);
+            } else {
+                mIsWaiting = true;
+                //If an entry was added before the flag was set, it is not waited for
+                if (mQueue.size() == 0) {
+                    LockSupport.parkNanos(IDLE_WAIT_NANOS);
+                }
+                mIsWaiting = false;
+            }
+        }
+    }
+
+
+    /**
+     * @return The number of entries waiting to be written
+     */
+    int getQueueDepth() {
+        return mQueue.size();
+    }
+
+
+    /**
+     * @return The number of entries dropped
+     */
+    long getNoOfDropped() {
+        return mNoOfDropped.get();
+    }
+
+
+    @Override
+    public State getState() {
+        return State.getBuilder()
+                .add("OverflowPolicy", mOverflowPolicy.name().toLowerCase())
+                .add("QueueSize", mQueue.capacity())
+                .add("QueueDepth", this.getQueueDepth())
+                .add("Written", mNoOfWritten.get())
+                .add("Dropped", this.getNoOfDropped())
+                .add("WriteErrors", mNoOfWriteErrors.get())
+                .build();
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.atexpose.dispatcher.logging;
+
+import io.schinzel.crypto.cipher.ICipher;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The purpose of this class is to represent a single log entry.
+ */
+public interface ILogEntry {
+    /**
+     * @param crypto Applied to a subset of the data.
+     * @return An immutable map. Keys are log keys and values are log values. Example
+     * "read_time_in_ms":"12"
+     */
+    Map<String, String> getLogData(ICipher crypto);
+
+
+    /**
+     * Entries that can skip the work of data not asked for override this method.
+     *
+     * @param crypto Applied to a subset of the data.
+     * @param keys   The keys of the data to return. Null if all data is to be returned.
+     * @return An immutable map with the data of the argument keys.
+     */
+    default Map<String, String> getLogData(ICipher crypto, Set<String> keys) {
+        Map<String, String> logData = this.getLogData(crypto);
+        return (keys == null)
+                ? logData
+                : logData.entrySet().stream()
+                .filter(entry -> keys.contains(entry.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+
+    /**
+     * @return True entry is an error. Else false.
+     */
+    boolean isError();
+}
@@ -0,0 +1,51 @@
+package com.atexpose.dispatcher.logging;
+
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.thrower.Thrower;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The purpose of this class is to hold a request or a response to log, as bytes. The bytes
+ * are copied, up to a max number, as the request is handled and are decoded only as the log
+ * entry is written, which can be in a background thread.
+ */
+public class LoggedBytes {
+    /** The bytes copied */
+    private final byte[] mBytes;
+    /** The number of bytes not copied as they were beyond the max */
+    private final int mNoOfBytesTruncated;
+
+
+    private LoggedBytes(byte[] bytes, int noOfBytesTruncated) {
+        mBytes = bytes;
+        mNoOfBytesTruncated = noOfBytesTruncated;
+    }
+
+
+    /**
+     * @param storage   The bytes to log
+     * @param maxLength The max number of bytes to copy. 0 if all bytes are copied.
+     * @return The bytes of the argument storage copied up to the argument max
+     */
+    public static LoggedBytes capture(ByteStorage storage, int maxLength) {
+        Thrower.throwIfVarTooSmall(maxLength, "maxLength", 0);
+        int noOfBytes = storage.getNoOfBytesStored();
+        int noOfBytesCopied = (maxLength == 0) ? noOfBytes : Math.min(noOfBytes, maxLength);
+        return new LoggedBytes(Arrays.copyOf(storage.getArray(), noOfBytesCopied), noOfBytes - noOfBytesCopied);
+    }
+
+
+    /**
+     * @return The bytes decoded as UTF-8. If bytes were truncated, a note of how many.
+     */
+    @Override
+    public String toString() {
+        String string = new String(mBytes, StandardCharsets.UTF_8);
+        return (mNoOfBytesTruncated == 0)
+                ? string
+                : string + "...[" + mNoOfBytesTruncated + " bytes truncated]";
+    }
+
+}
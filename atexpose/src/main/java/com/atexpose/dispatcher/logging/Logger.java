@@ -0,0 +1,291 @@
+package com.atexpose.dispatcher.logging;
+
+import com.atexpose.MyProperties;
+import com.atexpose.dispatcher.logging.format.ILogFormatter;
+import com.atexpose.dispatcher.logging.format.LogFormatterFactory;
+import com.atexpose.dispatcher.logging.writer.IByteLogWriter;
+import com.atexpose.dispatcher.logging.writer.ILogWriter;
+import com.atexpose.dispatcher.logging.writer.LogWriterFactory;
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+import io.schinzel.crypto.cipher.ICipher;
+import io.schinzel.crypto.cipher.NoCipher;
+import io.schinzel.basicutils.state.IStateNode;
+import io.schinzel.basicutils.state.State;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * The purpose of this class is to format and write log entries. For example
+ * the log writer to write to file or system out. The formatter can be for
+ * example JSON.
+ * <p>
+ * An asynchronous logger queues the entries and formats and writes them in batches in a
+ * background thread, so that the thread that logs is not held up.
+ * <p>
+ * A logger is closed as it is removed from its dispatchers, as the dispatchers are shut down
+ * and, at the latest, as the JVM exits. Closing writes the entries logged and closes the log
+ * writer, if it can be closed, so that for example a log file is released.
+ *
+ * @author schinzel
+ */
+@Builder
+@Accessors(prefix = "m")
+public class Logger implements IStateNode {
+    /** The default max number of entries waiting to be written */
+    public static final int DEFAULT_QUEUE_SIZE = 8192;
+    /** How long the entries queued are given to be written as an asynchronous logger is closed */
+    private static final long CLOSE_FLUSH_MILLIS = 5000;
+    private static final byte[] LINE_SEPARATOR = UTF8.getBytes(MyProperties.OS_LINE_SEPARATOR);
+    /** The type of the logger. E.g. error or event */
+    @Getter @Builder.Default
+    LoggerType mLoggerType = LoggerType.EVENT;
+    /** Handles the writing of log entries. */
+    @Builder.Default
+    ILogWriter mLogWriter = LogWriterFactory.SYSTEM_OUT.create();
+    /** Handles the formatting of log entries. */
+    @Builder.Default
+    ILogFormatter mLogFormatter = LogFormatterFactory.JSON.create();
+    /** Used to encrypt part of the log data. */
+    @Builder.Default
+    ICipher mCipher = new NoCipher();
+    /** If true, the entries are formatted and written by a background thread */
+    @Builder.Default
+    boolean mAsync = false;
+    /** For asynchronous loggers, the max number of entries waiting to be written */
+    @Builder.Default
+    int mQueueSize = DEFAULT_QUEUE_SIZE;
+    /** For asynchronous loggers, what to do with an entry when the queue is full */
+    @Builder.Default
+    OverflowPolicy mOverflowPolicy = OverflowPolicy.BLOCK;
+    /**
+     * The max number of bytes of a request and of a response to log. 0 if no limit. If
+     * several loggers log a request, the largest max of these is used.
+     */
+    @Getter @Builder.Default
+    int mMaxBodyLength = 0;
+    /** Queues the entries of an asynchronous logger. Set as the first entry is logged. */
+    private final AtomicReference<AsyncLog> mAsyncLog = new AtomicReference<>();
+    /** The buffer the background thread formats batches of entries to. Reused between batches. */
+    private final ByteStorage mBatchBuffer = new ByteStorage();
+    /** Set as the logger is closed */
+    private final AtomicBoolean mIsClosed = new AtomicBoolean(false);
+    /**
+     * Closes the logger as the JVM exits, so that the entries queued are written before the log
+     * writer is closed and, for example, the last digest of a mail writer is sent.
+     */
+    private final Thread mShutdownHook = new Thread(this::close);
+
+
+    /**
+     * Is invoked by the builder. Throws an exception if the formatter and the writer do not
+     * fit, so that a logger that cannot write its entries is not added.
+     */
+    Logger(LoggerType loggerType, ILogWriter logWriter, ILogFormatter logFormatter, ICipher cipher, boolean async,
+           int queueSize, OverflowPolicy overflowPolicy, int maxBodyLength) {
+        boolean isBinaryWriter = (logWriter instanceof IByteLogWriter) && ((IByteLogWriter) logWriter).isBinary();
+        if (logFormatter.isBinary() && !(logWriter instanceof IByteLogWriter)) {
+            throw new RuntimeException("The log formatter " + logFormatter.getClass().getSimpleName()
+                    + " formats binary records that the log writer " + logWriter.getClass().getSimpleName()
+                    + " cannot write");
+        }
+        if (isBinaryWriter && !logFormatter.isBinary()) {
+            throw new RuntimeException("The log writer " + logWriter.getClass().getSimpleName()
+                    + " writes binary records only and cannot write the entries of the log formatter "
+                    + logFormatter.getClass().getSimpleName());
+        }
+        mLoggerType = loggerType;
+        mLogWriter = logWriter;
+        mLogFormatter = logFormatter;
+        mCipher = cipher;
+        mAsync = async;
+        mQueueSize = queueSize;
+        mOverflowPolicy = overflowPolicy;
+        mMaxBodyLength = maxBodyLength;
+        if (async || logWriter instanceof Closeable) {
+            Runtime.getRuntime().addShutdownHook(mShutdownHook);
+        }
+    }
+
+
+    /**
+     * Format and write a log entry. Entries logged after the logger was closed are not written.
+     *
+     * @param logEntry The entry to add to log.
+     */
+    public void log(ILogEntry logEntry) {
+        if (this.isToLog(logEntry.isError()) && !mIsClosed.get()) {
+            if (mAsync) {
+                this.getAsyncLog().log(logEntry);
+            } else if (mLogWriter instanceof IByteLogWriter) {
+                ByteStorage logEntryAsBytes = new ByteStorage();
+                try {
+                    this.writeBytes(Collections.singletonList(logEntry), logEntryAsBytes);
+                } finally {
+                    logEntryAsBytes.release();
+                }
+            } else {
+                Map<String, String> logData = logEntry.getLogData(mCipher, mLogFormatter.getKeys());
+                String logEntryAsString = mLogFormatter.formatLogEntry(logData);
+                mLogWriter.log(logEntryAsString);
+            }
+        }
+    }
+
+
+    /**
+     * @param isError True if the entry is an error
+     * @return True if this logger logs an entry that is or is not an error
+     */
+    public boolean isToLog(boolean isError) {
+        //If this is an event logger OR (this is an error logger AND this is an error)
+        return mLoggerType == LoggerType.EVENT
+                || (mLoggerType == LoggerType.ERROR && isError);
+    }
+
+
+    /**
+     * @param key A log data key. E.g. response.
+     * @return True if this logger logs the data of the argument key
+     */
+    public boolean isKeyLogged(String key) {
+        Set<String> keys = mLogFormatter.getKeys();
+        return (keys == null) || keys.contains(key);
+    }
+
+
+    /**
+     * Waits until the entries logged have been written.
+     *
+     * @param timeoutMillis The max time to wait
+     * @return True if all entries logged have been written. False if the time ran out.
+     */
+    public boolean flush(long timeoutMillis) {
+        AsyncLog asyncLog = mAsyncLog.get();
+        return (asyncLog == null) || asyncLog.flush(timeoutMillis);
+    }
+
+
+    /**
+     * Writes the entries logged and closes the log writer, if it implements Closeable. Can be
+     * invoked more than once, only the first invocation closes the logger.
+     */
+    public void close() {
+        if (!mIsClosed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(mShutdownHook);
+        } catch (IllegalStateException e) {
+            //The JVM is exiting and this is the shutdown hook
+        }
+        AsyncLog asyncLog = mAsyncLog.get();
+        if (asyncLog != null) {
+            asyncLog.close(CLOSE_FLUSH_MILLIS);
+        }
+        if (mLogWriter instanceof Closeable) {
+            try {
+                ((Closeable) mLogWriter).close();
+            } catch (IOException e) {
+                throw new RuntimeException("Error when closing log writer " + mLogWriter.getClass().getSimpleName()
+                        + ". " + e.getMessage());
+            }
+        }
+    }
+
+
+    private AsyncLog getAsyncLog() {
+        AsyncLog asyncLog = mAsyncLog.get();
+        if (asyncLog == null) {
+            //Only one thread creates the queue and its background thread
+            synchronized (mAsyncLog) {
+                asyncLog = mAsyncLog.get();
+                if (asyncLog == null) {
+                    asyncLog = new AsyncLog(mQueueSize, mOverflowPolicy, this::write);
+                    mAsyncLog.set(asyncLog);
+                }
+            }
+        }
+        return asyncLog;
+    }
+
+
+    /**
+     * Formats and writes a batch of entries. Is invoked by the background thread only.
+     */
+    private void write(List<ILogEntry> logEntries) {
+        if (mLogWriter instanceof IByteLogWriter) {
+            try {
+                this.writeBytes(logEntries, mBatchBuffer);
+            } finally {
+                mBatchBuffer.clear();
+            }
+            return;
+        }
+        List<String> logEntriesAsStrings = new ArrayList<>(logEntries.size());
+        for (ILogEntry logEntry : logEntries) {
+            logEntriesAsStrings.add(mLogFormatter.formatLogEntry(logEntry.getLogData(mCipher, mLogFormatter.getKeys())));
+        }
+        mLogWriter.log(logEntriesAsStrings);
+    }
+
+
+    /**
+     * Formats the argument entries straight to bytes in the argument buffer and writes them
+     * with one write.
+     */
+    private void writeBytes(List<ILogEntry> logEntries, ByteStorage buffer) {
+        Lock writeLock = mLogFormatter.getWriteLock();
+        if (writeLock == null) {
+            this.formatAndWriteBytes(logEntries, buffer);
+            return;
+        }
+        //A lock, not a monitor, so that a virtual thread that writes is not pinned to its carrier
+        writeLock.lock();
+        try {
+            this.formatAndWriteBytes(logEntries, buffer);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+
+    private void formatAndWriteBytes(List<ILogEntry> logEntries, ByteStorage buffer) {
+        for (ILogEntry logEntry : logEntries) {
+            mLogFormatter.formatLogEntry(logEntry.getLogData(mCipher, mLogFormatter.getKeys()), buffer);
+            if (!mLogFormatter.isBinary()) {
+                buffer.add(LINE_SEPARATOR);
+            }
+        }
+        ((IByteLogWriter) mLogWriter).log(buffer);
+    }
+
+
+    @Override
+    public State getState() {
+        State.StateBuilder stateBuilder = State.getBuilder()
+                .add("Type", mLoggerType.name().toLowerCase())
+                .add("Writer", mLogWriter.getClass().getSimpleName())
+                .add("Formatter", mLogFormatter.getClass().getSimpleName())
+                .add("Async", mAsync)
+                .add("Closed", mIsClosed.get());
+        AsyncLog asyncLog = mAsyncLog.get();
+        if (asyncLog != null) {
+            stateBuilder.addChild("Queue", asyncLog);
+        }
+        return stateBuilder.build();
+    }
+
+}
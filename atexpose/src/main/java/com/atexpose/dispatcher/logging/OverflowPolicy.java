@@ -0,0 +1,16 @@
+package com.atexpose.dispatcher.logging;
+
+/**
+ * What an asynchronous logger does with an entry when its queue is full.
+ */
+public enum OverflowPolicy {
+    /** The thread that logs waits until there is room in the queue */
+    BLOCK,
+    /** The entry is dropped */
+    DROP,
+    /**
+     * Once the queue is half full, only every tenth entry is queued and the others are dropped.
+     * If the queue is full, the entry is dropped.
+     */
+    SAMPLE
+}
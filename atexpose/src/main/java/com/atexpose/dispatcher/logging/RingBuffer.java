@@ -0,0 +1,125 @@
+package com.atexpose.dispatcher.logging;
+
+import io.schinzel.basicutils.thrower.Thrower;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The purpose of this class is to pass elements from many producer threads to one consumer
+ * thread without locks.
+ * <p>
+ * The buffer is a bounded ring. Each slot has a sequence number that tells if the slot is free
+ * to write to for a position or holds an element to read. A producer claims a position with a
+ * compare-and-set and then publishes the element by advancing the sequence of the slot.
+ *
+ * @param <E> The type of the elements
+ */
+class RingBuffer<E> {
+    /** The slots */
+    private final AtomicReferenceArray<E> mElements;
+    /** For each slot, the position it can be written for or, one more than that, read for */
+    private final AtomicLongArray mSequences;
+    /** Gives the index of the slot of a position */
+    private final int mMask;
+    /** The next position to write to */
+    private final AtomicLong mTail = new AtomicLong();
+    /** The next position to read from. Only changed by the consumer. */
+    private final AtomicLong mHead = new AtomicLong();
+
+
+    /**
+     * @param capacity The min number of elements the buffer holds. Is rounded up to a power
+     *                 of two.
+     */
+    RingBuffer(int capacity) {
+        Thrower.throwIfVarOutsideRange(capacity, "capacity", 1, 1 << 30);
+        int size = Integer.bitCount(capacity) == 1 ? capacity : Integer.highestOneBit(capacity) << 1;
+        mElements = new AtomicReferenceArray<>(size);
+        mSequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            mSequences.set(i, i);
+        }
+        mMask = size - 1;
+    }
+
+
+    /**
+     * Adds an element. Can be invoked by any number of threads.
+     *
+     * @param element The element to add
+     * @return True if the element was added. False if the buffer is full.
+     */
+    boolean offer(E element) {
+        while (true) {
+            long tail = mTail.get();
+            int index = (int) tail & mMask;
+            long difference = mSequences.get(index) - tail;
+            //If the slot is free for this position
+            if (difference == 0) {
+                if (mTail.compareAndSet(tail, tail + 1)) {
+                    mElements.lazySet(index, element);
+                    mSequences.set(index, tail + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                //The slot still holds the element of the previous lap
+                return false;
+            }
+            //Another producer claimed the position, so try the next
+        }
+    }
+
+
+    /**
+     * Moves elements to the argument list. Is only to be invoked by the consumer thread.
+     *
+     * @param target   The list to add the elements to
+     * @param maxCount The max number of elements to move
+     * @return The number of elements moved
+     */
+    int drainTo(List<E> target, int maxCount) {
+        long head = mHead.get();
+        int count = 0;
+        while (count < maxCount) {
+            int index = (int) head & mMask;
+            //If the producer of the position has not published its element
+            if (mSequences.get(index) != head + 1) {
+                break;
+            }
+            target.add(mElements.get(index));
+            mElements.lazySet(index, null);
+            //Free the slot for the position one lap ahead
+            mSequences.set(index, head + mMask + 1);
+            head++;
+            count++;
+        }
+        mHead.set(head);
+        return count;
+    }
+
+
+    /**
+     * @return The number of elements added that have not been moved to the consumer
+     */
+    int size() {
+        long size = mTail.get() - mHead.get();
+        return (int) Math.max(0, Math.min(size, this.capacity()));
+    }
+
+
+    /**
+     * @return The number of positions claimed by producers since the buffer was created
+     */
+    long getNoOfAdded() {
+        return mTail.get();
+    }
+
+
+    int capacity() {
+        return mMask + 1;
+    }
+
+}
@@ -0,0 +1,242 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.atexpose.dispatcher.logging.LogEntry;
+import com.atexpose.util.ByteStorage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The purpose of this class is to hold the layout of the binary log format, which is written
+ * by the binary formatter and the binary log writer and read by the binary log reader.
+ * <p>
+ * A log is a sequence of records. A record is its length as a varint followed by its body.
+ * The first byte of the body is the record type.
+ * <p>
+ * A scope record starts a dictionary scope. It holds the magic bytes, the format version and
+ * the dictionary definitions known as the scope starts. A segment starts with a scope record,
+ * and a new scope is started each time a writer opens a segment.
+ * <p>
+ * An entry record holds the dictionary definitions the entry is first to use, followed by
+ * its fields. A definition is a dictionary id and a string. A field is a field id followed by
+ * a value encoded as per the field. A field id with the literal flag set is followed by the
+ * value as a string, for values that do not fit the encoding of the field.
+ * <p>
+ * Varints are unsigned LEB128. Strings are their UTF8 length as a varint followed by their
+ * UTF8 bytes.
+ */
+public final class BinaryFormat {
+    /** The bytes that start a scope record after the record type */
+    static final byte[] MAGIC = {'A', 'X', 'L', 'O', 'G'};
+    static final byte VERSION = 1;
+    public static final byte RECORD_SCOPE = 1;
+    public static final byte RECORD_ENTRY = 2;
+    /** Set on a field id if the value is a string, instead of as encoded for the field */
+    static final int LITERAL_FLAG = 0x80;
+    /** A key that is not among the keys with field ids. Followed by the key and the value. */
+    static final int FIELD_OTHER = 0;
+    /** Epoch millis as a varint */
+    static final int FIELD_CALL_TIME = 1;
+    /** Zigzag varints */
+    static final int FIELD_THREAD = 2;
+    static final int FIELD_READ_TIME = 3;
+    static final int FIELD_EXEC_TIME = 4;
+    static final int FIELD_WRITE_TIME = 5;
+    /** The dictionary id of the host and the port plus one as varints. Port 0 if none. */
+    static final int FIELD_SENDER = 6;
+    /** Strings */
+    static final int FIELD_REQUEST_STRING = 7;
+    static final int FIELD_RESPONSE = 8;
+    /** Dictionary ids as varints */
+    static final int FIELD_FILENAME = 9;
+    static final int FIELD_METHOD_NAME = 10;
+    /** A string */
+    static final int FIELD_ARGUMENTS = 11;
+    /** The keys of the field ids. Index is field id. */
+    static final String[] KEYS = {null, LogEntry.KEY_CALL_TIME, LogEntry.KEY_THREAD,
+            LogEntry.KEY_READ_TIME, LogEntry.KEY_EXEC_TIME, LogEntry.KEY_WRITE_TIME, LogEntry.KEY_SENDER,
+            LogEntry.KEY_REQUEST_STRING, LogEntry.KEY_RESPONSE, LogEntry.KEY_FILENAME,
+            LogEntry.KEY_METHOD_NAME, LogEntry.KEY_ARGUMENTS};
+
+
+    private BinaryFormat() {
+    }
+
+
+    /**
+     * @return The field id of the argument key. FIELD_OTHER if the key has no field id.
+     */
+    static int getFieldId(String key) {
+        for (int i = 1; i < KEYS.length; i++) {
+            if (KEYS[i].equals(key)) {
+                return i;
+            }
+        }
+        return FIELD_OTHER;
+    }
+
+
+    public static void writeVarint(long value, ByteStorage out) {
+        while ((value & ~0x7FL) != 0) {
+            out.add((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.add((byte) value);
+    }
+
+
+    /**
+     * @return The argument value as varint bytes
+     */
+    static byte[] getVarintBytes(long value) {
+        int length = 1;
+        for (long rest = value >>> 7; rest != 0; rest >>>= 7) {
+            length++;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length - 1; i++) {
+            bytes[i] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length - 1] = (byte) value;
+        return bytes;
+    }
+
+
+    /**
+     * @param buffer A buffer positioned at a varint. Is positioned after it when returned.
+     * @return The varint
+     */
+    public static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new RuntimeException("Malformed varint in binary log");
+    }
+
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+
+    static void writeString(String value, ByteStorage out) {
+        int utf8Length = getUtf8Length(value);
+        writeVarint(utf8Length, out);
+        out.addUtf8(value, 0, value.length());
+    }
+
+
+    /**
+     * @return The number of bytes of the argument string as UTF8
+     */
+    static int getUtf8Length(CharSequence s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                //Unpaired surrogates are written as '?'
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+
+    /**
+     * @param buffer A buffer positioned at a string. Is positioned after it when returned.
+     * @return The string
+     */
+    static String readString(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+
+    /**
+     * @param buffer A buffer positioned at a string. Is positioned after it when returned.
+     * @return The string as UTF8 bytes
+     */
+    public static byte[] readStringBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[(int) readVarint(buffer)];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+
+    /**
+     * Skips a string.
+     */
+    static void skipString(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        buffer.position(buffer.position() + length);
+    }
+
+
+    /**
+     * Adds a scope record.
+     *
+     * @param ids         The ids of the definitions
+     * @param values      The values of the definitions as UTF8 bytes
+     * @param noOfEntries The number of definitions
+     * @param out         The storage to add the record to
+     */
+    public static void writeScopeRecord(int[] ids, byte[][] values, int noOfEntries, ByteStorage out) {
+        ByteStorage body = new ByteStorage();
+        try {
+            body.add(RECORD_SCOPE);
+            body.add(MAGIC);
+            body.add(VERSION);
+            writeVarint(noOfEntries, body);
+            for (int i = 0; i < noOfEntries; i++) {
+                writeVarint(ids[i], body);
+                writeVarint(values[i].length, body);
+                body.add(values[i]);
+            }
+            writeVarint(body.getNoOfBytesStored(), out);
+            out.add(body.getArray(), 0, body.getNoOfBytesStored());
+        } finally {
+            body.release();
+        }
+    }
+
+
+    /**
+     * @param buffer A buffer positioned after the record type of a scope record
+     * @return The buffer, positioned at the definitions
+     */
+    static ByteBuffer readScopeHeader(ByteBuffer buffer) {
+        for (byte magicByte : MAGIC) {
+            if (buffer.get() != magicByte) {
+                throw new RuntimeException("Not a binary log. Magic bytes missing.");
+            }
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new RuntimeException("Binary log format version " + version + " is not supported");
+        }
+        return buffer;
+    }
+
+}
@@ -0,0 +1,268 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.atexpose.util.ByteStorage;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.atexpose.dispatcher.logging.format.BinaryFormat.*;
+
+/**
+ * The purpose of this class is to format log entries to compact binary records. See
+ * BinaryFormat for the layout. The records are to be written by the binary log writer.
+ * <p>
+ * Times are written as varints, and method names, file names and sender hosts as ids in a
+ * dictionary. The first entry to use a dictionary value holds its definition, so the records
+ * of a formatter are to be written in the order they are formatted. The logger formats and
+ * writes binary records holding the write lock of the formatter.
+ */
+public class BinaryFormatter implements ILogFormatter {
+    /** The max number of values in the dictionary. Values after this are written as strings. */
+    static final int MAX_DICTIONARY_SIZE = 4096;
+    /** Values longer than this are written as strings */
+    private static final int MAX_DICTIONARY_VALUE_LENGTH = 256;
+    /** The format of the call time down to the second. E.g. 2017-03-01 12:34:56 */
+    private static final DateTimeFormatter CALL_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /** The number of chars of a call time up to and including the dot before the milliseconds */
+    private static final int CALL_TIME_SECOND_LENGTH = 20;
+    /** The ids of the dictionary values */
+    private final Map<String, Integer> mDictionary = new ConcurrentHashMap<>();
+    /**
+     * The second of the call time last parsed. As log entries are written close to when they are
+     * logged, consecutive entries mostly share the second.
+     */
+    private final AtomicReference<ParsedSecond> mParsedSecond = new AtomicReference<>(new ParsedSecond("", 0));
+    /** Held as records are formatted and written, so that definitions are written before their use */
+    private final ReentrantLock mWriteLock = new ReentrantLock();
+
+
+    /**
+     * A call time down to the second and its epoch second.
+     */
+    private static class ParsedSecond {
+        final String mCallTime;
+        final long mEpochSecond;
+
+
+        ParsedSecond(String callTime, long epochSecond) {
+            mCallTime = callTime;
+            mEpochSecond = epochSecond;
+        }
+    }
+
+
+    /**
+     * Binary records are not strings.
+     */
+    @Override
+    public String formatLogEntry(Map<String, String> logData) {
+        throw new RuntimeException("The binary formatter formats to bytes only and is to be used with a log writer "
+                + "that writes bytes, such as the binary file log writer.");
+    }
+
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+
+    @Override
+    public Lock getWriteLock() {
+        return mWriteLock;
+    }
+
+
+    @Override
+    public void formatLogEntry(Map<String, String> logData, ByteStorage out) {
+        int recordStart = out.getNoOfBytesStored();
+        out.add(RECORD_ENTRY);
+        int definitionsStart = out.getNoOfBytesStored();
+        int noOfDefinitions = 0;
+        //Add the definitions of the dictionary values this entry is first to use
+        for (Map.Entry<String, String> entry : logData.entrySet()) {
+            String value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+            switch (getFieldId(entry.getKey())) {
+                case FIELD_SENDER:
+                    int portIndex = getPortIndex(value);
+                    String host = (portIndex == -1) ? value : value.substring(0, portIndex - 1);
+                    noOfDefinitions += this.addDefinitionIfNew(host, out) ? 1 : 0;
+                    break;
+                case FIELD_FILENAME:
+                case FIELD_METHOD_NAME:
+                    noOfDefinitions += this.addDefinitionIfNew(value, out) ? 1 : 0;
+                    break;
+                default:
+            }
+        }
+        out.insert(definitionsStart, getVarintBytes(noOfDefinitions));
+        for (Map.Entry<String, String> entry : logData.entrySet()) {
+            if (entry.getValue() != null) {
+                this.addField(entry.getKey(), entry.getValue(), out);
+            }
+        }
+        //Prefix the record with its length
+        out.insert(recordStart, getVarintBytes(out.getNoOfBytesStored() - recordStart));
+    }
+
+
+    private void addField(String key, String value, ByteStorage out) {
+        int fieldId = getFieldId(key);
+        switch (fieldId) {
+            case FIELD_OTHER:
+                out.add((byte) FIELD_OTHER);
+                writeString(key, out);
+                writeString(value, out);
+                return;
+            case FIELD_CALL_TIME:
+                long callTime = this.parseCallTime(value);
+                //If the value is a call time after epoch
+                if (callTime >= 0) {
+                    out.add((byte) fieldId);
+                    writeVarint(callTime, out);
+                    return;
+                }
+                break;
+            case FIELD_THREAD:
+            case FIELD_READ_TIME:
+            case FIELD_EXEC_TIME:
+            case FIELD_WRITE_TIME:
+                if (isCanonicalLong(value)) {
+                    out.add((byte) fieldId);
+                    writeVarint(zigzag(Long.parseLong(value)), out);
+                    return;
+                }
+                break;
+            case FIELD_SENDER:
+                int portIndex = getPortIndex(value);
+                Integer hostId = mDictionary.get((portIndex == -1) ? value : value.substring(0, portIndex - 1));
+                if (hostId != null) {
+                    out.add((byte) fieldId);
+                    writeVarint(hostId, out);
+                    writeVarint((portIndex == -1) ? 0 : Integer.parseInt(value.substring(portIndex)) + 1, out);
+                    return;
+                }
+                break;
+            case FIELD_FILENAME:
+            case FIELD_METHOD_NAME:
+                Integer id = mDictionary.get(value);
+                if (id != null) {
+                    out.add((byte) fieldId);
+                    writeVarint(id, out);
+                    return;
+                }
+                break;
+            default:
+                out.add((byte) fieldId);
+                writeString(value, out);
+                return;
+        }
+        //The value does not fit the encoding of the field
+        out.add((byte) (fieldId | LITERAL_FLAG));
+        writeString(value, out);
+    }
+
+
+    /**
+     * Gives the argument value a dictionary id, and adds the definition, if the value does not
+     * have an id.
+     *
+     * @return True if a definition was added
+     */
+    private boolean addDefinitionIfNew(String value, ByteStorage out) {
+        if (value.length() > MAX_DICTIONARY_VALUE_LENGTH || mDictionary.containsKey(value)) {
+            return false;
+        }
+        int id;
+        synchronized (mDictionary) {
+            if (mDictionary.containsKey(value) || mDictionary.size() >= MAX_DICTIONARY_SIZE) {
+                return false;
+            }
+            id = mDictionary.size();
+            mDictionary.put(value, id);
+        }
+        writeVarint(id, out);
+        writeString(value, out);
+        return true;
+    }
+
+
+    /**
+     * @param callTime A call time. E.g. 2017-03-01 12:34:56.789
+     * @return The call time as epoch millis. Negative if the argument is not a call time.
+     */
+    long parseCallTime(String callTime) {
+        if (callTime.length() != CALL_TIME_SECOND_LENGTH + 3
+                || callTime.charAt(CALL_TIME_SECOND_LENGTH - 1) != '.'
+                || !isDigits(callTime, CALL_TIME_SECOND_LENGTH)) {
+            return -1;
+        }
+        ParsedSecond parsedSecond = mParsedSecond.get();
+        //If the second is not the second last parsed
+        if (!callTime.regionMatches(0, parsedSecond.mCallTime, 0, CALL_TIME_SECOND_LENGTH)) {
+            String second = callTime.substring(0, CALL_TIME_SECOND_LENGTH);
+            try {
+                long epochSecond = LocalDateTime
+                        .parse(second.substring(0, CALL_TIME_SECOND_LENGTH - 1), CALL_TIME_FORMAT)
+                        .toEpochSecond(ZoneOffset.UTC);
+                parsedSecond = new ParsedSecond(second, epochSecond);
+            } catch (DateTimeParseException e) {
+                return -1;
+            }
+            mParsedSecond.set(parsedSecond);
+        }
+        return parsedSecond.mEpochSecond * 1000 + Integer.parseInt(callTime.substring(CALL_TIME_SECOND_LENGTH));
+    }
+
+
+    /**
+     * @param sender A sender. E.g. 127.0.0.1:49818
+     * @return The index of the port of the argument sender. -1 if there is no port.
+     */
+    static int getPortIndex(String sender) {
+        int colon = sender.lastIndexOf(':');
+        //A port is 1 to 5 digits with no leading zero
+        if (colon <= 0 || sender.length() - colon - 1 > 5 || !isCanonicalLong(sender.substring(colon + 1))
+                || sender.charAt(colon + 1) == '-') {
+            return -1;
+        }
+        return colon + 1;
+    }
+
+
+    /**
+     * @return True if the argument is a long written as Long.toString would write it, so that
+     * it is the same when read back.
+     */
+    static boolean isCanonicalLong(String value) {
+        int start = value.startsWith("-") ? 1 : 0;
+        int length = value.length() - start;
+        if (length == 0 || length > 18 || !isDigits(value, start)) {
+            return false;
+        }
+        //No leading zeros and no minus zero
+        return value.charAt(start) != '0' || (length == 1 && start == 0);
+    }
+
+
+    private static boolean isDigits(String value, int start) {
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
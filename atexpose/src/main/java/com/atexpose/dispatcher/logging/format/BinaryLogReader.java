@@ -0,0 +1,380 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.atexpose.MyProperties;
+import com.atexpose.util.ByteStorage;
+import com.atexpose.util.DateTimeStrings;
+import io.schinzel.basicutils.UTF8;
+import lombok.Builder;
+import lombok.Singular;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static com.atexpose.dispatcher.logging.format.BinaryFormat.*;
+
+/**
+ * The purpose of this class is to read binary logs, filter the entries and convert them to
+ * JSON. Reads both segments and gzipped rolled segments.
+ * <p>
+ * A segment is read in two passes. The first collects the dictionary of each scope, so that
+ * an entry can use a value whose definition was written after it by a concurrent thread. The
+ * second decodes the entries. The call time and the filtered fields are read first, and the
+ * other fields are only decoded if the entry passes the filter.
+ * <p>
+ * An entry that refers to a dictionary value not defined in its segment, such as an entry of a
+ * log written by a crashed process, is skipped and counted. The other entries are read.
+ * <p>
+ * Run from the command line with:
+ * java -cp [classpath] com.atexpose.dispatcher.logging.format.BinaryLogReader
+ * [--from "yyyy-MM-dd HH:mm:ss"] [--to "yyyy-MM-dd HH:mm:ss"] [key=value ...] file ...
+ */
+public class BinaryLogReader {
+    private static final DateTimeFormatter ARGUMENT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final byte[] LINE_SEPARATOR = UTF8.getBytes(MyProperties.OS_LINE_SEPARATOR);
+    /** Entries logged before this are skipped. In epoch millis. */
+    private final long mFrom;
+    /** Entries logged at or after this are skipped. In epoch millis. */
+    private final long mTo;
+    /** The keys and values entries are to have */
+    private final Map<String, String> mFilters;
+
+
+    /**
+     * @param from    Entries logged before this are skipped. Null if no lower limit.
+     * @param to      Entries logged at or after this are skipped. Null if no upper limit.
+     * @param filters The keys and values entries are to have, e.g. method_name=ping
+     */
+    @Builder
+    BinaryLogReader(Instant from, Instant to, @Singular Map<String, String> filters) {
+        mFrom = (from == null) ? Long.MIN_VALUE : from.toEpochMilli();
+        mTo = (to == null) ? Long.MAX_VALUE : to.toEpochMilli();
+        mFilters = filters;
+    }
+
+
+    /**
+     * @param file     A binary log. Gzipped if the name ends with .gz.
+     * @param consumer Is given the data of each entry that passes the filter, in order
+     * @return The number of entries skipped as they refer to dictionary values not defined
+     * @throws IOException If the file could not be read
+     */
+    public int read(Path file, Consumer<Map<String, String>> consumer) throws IOException {
+        return this.read(ByteBuffer.wrap(readFile(file)), consumer);
+    }
+
+
+    /**
+     * Writes the entries that pass the filter as JSON, one entry per line.
+     *
+     * @param file A binary log. Gzipped if the name ends with .gz.
+     * @param out  The stream to write to
+     * @return The number of entries skipped as they refer to dictionary values not defined
+     * @throws IOException If the file could not be read or the stream written
+     */
+    public int toJson(Path file, OutputStream out) throws IOException {
+        JsonFormatter jsonFormatter = new JsonFormatter();
+        ByteStorage buffer = new ByteStorage(64 * 1024);
+        IOException[] writeException = new IOException[1];
+        int noOfSkippedEntries = this.read(file, logData -> {
+            jsonFormatter.formatLogEntry(logData, buffer);
+            buffer.add(LINE_SEPARATOR);
+            if (buffer.getNoOfBytesStored() >= 60 * 1024 && writeException[0] == null) {
+                try {
+                    buffer.writeTo(out);
+                } catch (IOException e) {
+                    writeException[0] = e;
+                }
+                buffer.clear();
+            }
+        });
+        if (writeException[0] != null) {
+            throw writeException[0];
+        }
+        buffer.writeTo(out);
+        buffer.release();
+        out.flush();
+        return noOfSkippedEntries;
+    }
+
+
+    private static byte[] readFile(Path file) throws IOException {
+        if (!file.getFileName().toString().endsWith(".gz")) {
+            return Files.readAllBytes(file);
+        }
+        ByteStorage storage = new ByteStorage(64 * 1024);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+            byte[] buffer = new byte[64 * 1024];
+            int noOfBytes;
+            while ((noOfBytes = in.read(buffer)) != -1) {
+                storage.add(buffer, 0, noOfBytes);
+            }
+        }
+        byte[] bytes = storage.getBytes();
+        storage.release();
+        return bytes;
+    }
+
+
+    int read(ByteBuffer log, Consumer<Map<String, String>> consumer) {
+        List<Map<Integer, String>> dictionaries = readDictionaries(log.duplicate());
+        int scopeIndex = -1;
+        int noOfSkippedEntries = 0;
+        //The positions of the fields of the current entry. Reused between entries.
+        int[] fieldIds = new int[16];
+        int[] fieldPositions = new int[16];
+        while (log.hasRemaining()) {
+            int recordEnd = (int) readVarint(log) + log.position();
+            byte recordType = log.get();
+            if (recordType == RECORD_SCOPE) {
+                scopeIndex++;
+            } else if (recordType == RECORD_ENTRY && scopeIndex >= 0) {
+                //Skip the definitions, as they were read in the first pass
+                long noOfDefinitions = readVarint(log);
+                for (long i = 0; i < noOfDefinitions; i++) {
+                    readVarint(log);
+                    skipString(log);
+                }
+                int noOfFields = 0;
+                while (log.position() < recordEnd) {
+                    if (noOfFields == fieldIds.length) {
+                        fieldIds = Arrays.copyOf(fieldIds, noOfFields * 2);
+                        fieldPositions = Arrays.copyOf(fieldPositions, noOfFields * 2);
+                    }
+                    fieldIds[noOfFields] = log.get() & 0xFF;
+                    fieldPositions[noOfFields] = log.position();
+                    skipValue(log, fieldIds[noOfFields]);
+                    noOfFields++;
+                }
+                Map<Integer, String> dictionary = dictionaries.get(scopeIndex);
+                if (this.isMatch(log, fieldIds, fieldPositions, noOfFields, dictionary)) {
+                    Map<String, String> logData = new LinkedHashMap<>();
+                    for (int i = 0; i < noOfFields; i++) {
+                        log.position(fieldPositions[i]);
+                        addValue(log, fieldIds[i], dictionary, logData);
+                    }
+                    //If the entry refers to a value that is not defined
+                    if (logData.containsValue(null)) {
+                        noOfSkippedEntries++;
+                    } else {
+                        consumer.accept(logData);
+                    }
+                }
+            } else if (scopeIndex < 0) {
+                throw new RuntimeException("Not a binary log. The log does not start with a scope record.");
+            }
+            log.position(recordEnd);
+        }
+        return noOfSkippedEntries;
+    }
+
+
+    /**
+     * @return The dictionary of each scope, in order
+     */
+    private static List<Map<Integer, String>> readDictionaries(ByteBuffer log) {
+        List<Map<Integer, String>> dictionaries = new ArrayList<>();
+        Map<Integer, String> dictionary = null;
+        while (log.hasRemaining()) {
+            int recordEnd = (int) readVarint(log) + log.position();
+            byte recordType = log.get();
+            if (recordType == RECORD_SCOPE) {
+                readScopeHeader(log);
+                dictionary = new HashMap<>();
+                dictionaries.add(dictionary);
+            }
+            if (dictionary != null && (recordType == RECORD_SCOPE || recordType == RECORD_ENTRY)) {
+                long noOfDefinitions = readVarint(log);
+                for (long i = 0; i < noOfDefinitions; i++) {
+                    int id = (int) readVarint(log);
+                    dictionary.put(id, readString(log));
+                }
+            }
+            log.position(recordEnd);
+        }
+        return dictionaries;
+    }
+
+
+    /**
+     * @return True if the entry with the argument fields passes the time and the key filters
+     */
+    private boolean isMatch(ByteBuffer log, int[] fieldIds, int[] fieldPositions, int noOfFields,
+                            Map<Integer, String> dictionary) {
+        if (mFrom != Long.MIN_VALUE || mTo != Long.MAX_VALUE) {
+            long callTime = getCallTime(log, fieldIds, fieldPositions, noOfFields);
+            if (callTime < mFrom || callTime >= mTo) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, String> filter : mFilters.entrySet()) {
+            Map<String, String> logData = new HashMap<>(2);
+            int fieldId = getFieldId(filter.getKey());
+            for (int i = 0; i < noOfFields; i++) {
+                //If this field is the filtered key, or a key without a field id to compare by key
+                if ((fieldIds[i] & ~LITERAL_FLAG) == fieldId) {
+                    log.position(fieldPositions[i]);
+                    addValue(log, fieldIds[i], dictionary, logData);
+                }
+            }
+            if (!filter.getValue().equals(logData.get(filter.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * @return The call time of the entry in epoch millis. Long.MIN_VALUE if not known.
+     */
+    private static long getCallTime(ByteBuffer log, int[] fieldIds, int[] fieldPositions, int noOfFields) {
+        for (int i = 0; i < noOfFields; i++) {
+            if (fieldIds[i] == FIELD_CALL_TIME) {
+                log.position(fieldPositions[i]);
+                return readVarint(log);
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+
+    /**
+     * Moves the argument buffer past a field value.
+     */
+    private static void skipValue(ByteBuffer log, int fieldId) {
+        if ((fieldId & LITERAL_FLAG) != 0) {
+            skipString(log);
+            return;
+        }
+        switch (fieldId) {
+            case FIELD_OTHER:
+                skipString(log);
+                skipString(log);
+                break;
+            case FIELD_CALL_TIME:
+            case FIELD_THREAD:
+            case FIELD_READ_TIME:
+            case FIELD_EXEC_TIME:
+            case FIELD_WRITE_TIME:
+            case FIELD_FILENAME:
+            case FIELD_METHOD_NAME:
+                readVarint(log);
+                break;
+            case FIELD_SENDER:
+                readVarint(log);
+                readVarint(log);
+                break;
+            default:
+                skipString(log);
+        }
+    }
+
+
+    /**
+     * Decodes the field value the argument buffer is positioned at and adds it to the argument
+     * log data. A value that refers to a dictionary value that is not defined is added as null.
+     */
+    private static void addValue(ByteBuffer log, int fieldId, Map<Integer, String> dictionary,
+                                 Map<String, String> logData) {
+        if ((fieldId & LITERAL_FLAG) != 0) {
+            logData.put(getKey(fieldId & ~LITERAL_FLAG), readString(log));
+            return;
+        }
+        switch (fieldId) {
+            case FIELD_OTHER:
+                String key = readString(log);
+                logData.put(key, readString(log));
+                break;
+            case FIELD_CALL_TIME:
+                logData.put(KEYS[fieldId], DateTimeStrings.getDateTimeUTC(Instant.ofEpochMilli(readVarint(log))));
+                break;
+            case FIELD_THREAD:
+            case FIELD_READ_TIME:
+            case FIELD_EXEC_TIME:
+            case FIELD_WRITE_TIME:
+                logData.put(KEYS[fieldId], String.valueOf(unzigzag(readVarint(log))));
+                break;
+            case FIELD_SENDER:
+                String host = dictionary.get((int) readVarint(log));
+                long port = readVarint(log);
+                logData.put(KEYS[fieldId], (port == 0 || host == null) ? host : host + ":" + (port - 1));
+                break;
+            case FIELD_FILENAME:
+            case FIELD_METHOD_NAME:
+                logData.put(KEYS[fieldId], dictionary.get((int) readVarint(log)));
+                break;
+            default:
+                logData.put(getKey(fieldId), readString(log));
+        }
+    }
+
+
+    private static String getKey(int fieldId) {
+        return (fieldId < KEYS.length) ? KEYS[fieldId] : "field_" + fieldId;
+    }
+
+
+    /**
+     * Writes the entries of the argument binary logs as JSON to system out, one entry per line.
+     *
+     * @param args [--from "yyyy-MM-dd HH:mm:ss"] [--to "yyyy-MM-dd HH:mm:ss"] [key=value ...] file ...
+     * The times are in UTC.
+     * @throws IOException If a file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        BinaryLogReaderBuilder builder = BinaryLogReader.builder();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--from") && i + 1 < args.length) {
+                builder.from(parseArgumentTime(args[++i]));
+            } else if (args[i].equals("--to") && i + 1 < args.length) {
+                builder.to(parseArgumentTime(args[++i]));
+            } else if (args[i].contains("=")) {
+                int equals = args[i].indexOf('=');
+                builder.filter(args[i].substring(0, equals), args[i].substring(equals + 1));
+            } else {
+                files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: BinaryLogReader [--from \"yyyy-MM-dd HH:mm:ss\"] [--to \"yyyy-MM-dd HH:mm:ss\"] "
+                    + "[key=value ...] file ...");
+            return;
+        }
+        BinaryLogReader reader = builder.build();
+        OutputStream out = new BufferedOutputStream(System.out, 64 * 1024);
+        for (Path file : files) {
+            int noOfSkippedEntries = reader.toJson(file, out);
+            if (noOfSkippedEntries > 0) {
+                out.flush();
+                System.err.println(file + ": skipped " + noOfSkippedEntries
+                        + " entries that refer to dictionary values not defined");
+            }
+        }
+        out.flush();
+    }
+
+
+    private static Instant parseArgumentTime(String time) {
+        return LocalDateTime.parse(time, ARGUMENT_TIME_FORMAT).toInstant(ZoneOffset.UTC);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.atexpose.util.ByteStorage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * The purpose of this class is to take a set of log data values and its keys
+ * and format these for adding to a log.
+ *
+ * @author schinzel
+ */
+public interface ILogFormatter {
+
+    String formatLogEntry(Map<String, String> logData);
+
+
+    /**
+     * Adds a log entry as UTF8 bytes to the argument storage. Formatters override this method
+     * to escape and add each value without building the entry as a string first.
+     *
+     * @param logData The data to format
+     * @param out     The storage to add the entry to
+     */
+    default void formatLogEntry(Map<String, String> logData, ByteStorage out) {
+        out.add(this.formatLogEntry(logData));
+    }
+
+
+    /**
+     * @return True if the entries are binary records, which are not followed by line separators
+     * when written.
+     */
+    default boolean isBinary() {
+        return false;
+    }
+
+
+    /**
+     * Formatters whose entries are to be written in the order they are formatted override this
+     * method. The logger holds the lock as it formats and writes entries.
+     *
+     * @return The lock to hold as entries are formatted and written. Null if entries can be
+     * written in any order.
+     */
+    default Lock getWriteLock() {
+        return null;
+    }
+
+
+    /**
+     * Formatters that use a subset of the log data override this method, so that the data
+     * not used is neither captured nor computed.
+     *
+     * @return The keys of the log data this formatter uses. Null if all data is used.
+     */
+    default Set<String> getKeys() {
+        return null;
+    }
+
+}
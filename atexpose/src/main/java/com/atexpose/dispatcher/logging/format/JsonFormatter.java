@@ -0,0 +1,102 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.atexpose.util.ByteStorage;
+
+import java.util.Map;
+
+/**
+ * The purpose of this class is to format log entries to a JSON object.
+ * <p>
+ * The keys and values are escaped and added as UTF8 bytes straight to the output, without
+ * first building a JSON object or a string.
+ *
+ * @author schinzel
+ */
+public class JsonFormatter implements ILogFormatter {
+    private static final byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+
+    /**
+     * @param logData - Contains the data to be rendered
+     * @return A log entry to be added to a log.
+     */
+    @Override
+    public String formatLogEntry(Map<String, String> logData) {
+        ByteStorage storage = new ByteStorage();
+        this.formatLogEntry(logData, storage);
+        return storage.getAsString();
+    }
+
+
+    /**
+     * Entries with a null value are left out, as with JSONObject.
+     */
+    @Override
+    public void formatLogEntry(Map<String, String> logData, ByteStorage out) {
+        out.add((byte) '{');
+        boolean isFirst = true;
+        for (Map.Entry<String, String> entry : logData.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            if (!isFirst) {
+                out.add((byte) ',');
+            }
+            isFirst = false;
+            addString(entry.getKey(), out);
+            out.add((byte) ':');
+            addString(entry.getValue(), out);
+        }
+        out.add((byte) '}');
+    }
+
+
+    /**
+     * Adds the argument string as a quoted and escaped JSON string.
+     */
+    private static void addString(String s, ByteStorage out) {
+        out.add((byte) '"');
+        //The start of the chars not yet added that need no escaping
+        int runStart = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            //If the char does not need escaping
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.addUtf8(s, runStart, i);
+            runStart = i + 1;
+            out.add((byte) '\\');
+            switch (c) {
+                case '"':
+                case '\\':
+                    out.add((byte) c);
+                    break;
+                case '\b':
+                    out.add((byte) 'b');
+                    break;
+                case '\f':
+                    out.add((byte) 'f');
+                    break;
+                case '\n':
+                    out.add((byte) 'n');
+                    break;
+                case '\r':
+                    out.add((byte) 'r');
+                    break;
+                case '\t':
+                    out.add((byte) 't');
+                    break;
+                default:
+                    out.add((byte) 'u');
+                    out.add((byte) '0');
+                    out.add((byte) '0');
+                    out.add(HEX_DIGITS[c >> 4]);
+                    out.add(HEX_DIGITS[c & 0xF]);
+            }
+        }
+        out.addUtf8(s, runStart, s.length());
+        out.add((byte) '"');
+    }
+
+}
@@ -6,6 +6,8 @@ package com.atexpose.dispatcher.logging.format;
  * @author schinzel
  */
 public enum LogFormatterFactory {
+    /** Formats the log entry as a compact binary record. To be written with the binary file log writer. **/
+    BINARY(BinaryFormatter.class),
     /** Formats the log entry as JSON. **/
     JSON(JsonFormatter.class),
     /** Formats the log entry as a easier to read for humans multi-line entry. **/
@@ -1,5 +1,8 @@
 package com.atexpose.dispatcher.logging.format;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * A multi line log format
  *
@@ -31,12 +34,12 @@ public class MultiLineFormatter extends SingleLineFormatter {
     }
 
 
+    /**
+     * Carriage returns are removed. Line breaks are kept, so that values span lines.
+     */
     @Override
-    public String escapeValue(String value) {
-        if (value == null) {
-            return null;
-        }
-        return value.replace("\r", "");
+    Map<String, String> getEscapes() {
+        return Collections.singletonMap("\r", "");
     }
 
 }
@@ -0,0 +1,215 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single line log format. Example Call time,Sender,Thread,Read time,Execution
+ * time,Write time,Method name,Arguments,Filename,Response,Request
+ * '2014-11-29
+ * 17:56:31','127.0.0.1:49818','4','2','2','-1','throwError','-','','Error:
+ * Requested error thrown','GET /call/throwError HTTP/1.1 Host:
+ * 127.0.0.1:5555 User-Agent: Mozilla/5.0 (Macintosh; Intel Mac OS X 10.10;
+ * rv:33.0) Gecko/20100101 Firefox/33.0 Accept:
+ * text/html,application/xhtml+xml,application/xml;q=0.9,;q=0.8 Accept-Language:
+ * en-US,en;q=0.5 Accept-Encoding: gzip, deflate Connection: keep-alive
+ * ' '2014-11-29
+ * 17:56:31','127.0.0.1:49819','9','0','5','-1','','-','favicon.ico','','GET
+ * /favicon.ico HTTP/1.1 Host: 127.0.0.1:5555 User-Agent:
+ * Mozilla/5.0 (Macintosh; Intel Mac OS X 10.10; rv:33.0) Gecko/20100101
+ * Firefox/33.0 Accept:
+ * text/html,application/xhtml+xml,application/xml;q=0.9,;q=0.8 Accept-Language:
+ * en-US,en;q=0.5 Accept-Encoding: gzip, deflate Connection: keep-alive
+ * '
+ * <p>
+ * The delimiters and the escapes are read once, as the formatter is created. Entries are
+ * escaped and added as UTF8 bytes straight to the output.
+ *
+ * @author schinzel
+ */
+public class SingleLineFormatter implements ILogFormatter {
+    private static final byte[] NULL = UTF8.getBytes("null");
+    /** Null if the keys are not written */
+    private final byte[] mKeyToValueDelimiter;
+    private final byte[] mValueDelimiter;
+    private final byte[] mEntryDelimiter;
+    private final byte[] mValueQualifier;
+    /** The strings in values to escape, in order of precedence */
+    private final String[] mEscaped;
+    /** The replacements of the strings to escape, as UTF8 bytes */
+    private final byte[][] mReplacements;
+
+
+    public SingleLineFormatter() {
+        mKeyToValueDelimiter = (this.getEntryKeyToValueDelimiter() == null)
+                ? null
+                : UTF8.getBytes(this.getEntryKeyToValueDelimiter());
+        mValueDelimiter = UTF8.getBytes(this.getEntryValueDelimiter());
+        mEntryDelimiter = UTF8.getBytes(this.getEntryDelimiter());
+        mValueQualifier = UTF8.getBytes(this.getEntryValueQualifier());
+        Map<String, String> escapes = this.getEscapes();
+        mEscaped = new String[escapes.size()];
+        mReplacements = new byte[escapes.size()][];
+        int i = 0;
+        for (Map.Entry<String, String> escape : escapes.entrySet()) {
+            mEscaped[i] = escape.getKey();
+            mReplacements[i] = UTF8.getBytes(escape.getValue());
+            i++;
+        }
+    }
+
+
+    // ------------------------------------
+    // - LOG ENTRY
+    // ------------------------------------
+    /**
+     * Example: MethodName[Delimiter]getTime
+     *
+     * @return The delimiter between key and value.
+     */
+    public String getEntryKeyToValueDelimiter() {
+        return null;
+    }
+
+
+    /**
+     * Example: MethodName:getTime[Delimiter]MethodName:ping
+     *
+     * @return The delimiter between values.
+     */
+    public String getEntryValueDelimiter() {
+        return ",";
+    }
+
+
+    /**
+     *
+     * @return The delimiter between log entries. For example line break.
+     */
+    public String getEntryDelimiter() {
+        return "\n";
+    }
+
+
+    /**
+     * Example MethodName[Qualifier]getTime[Qualifier]
+     *
+     * @return The qualifier for values.
+     */
+    public String getEntryValueQualifier() {
+        return "";
+    }
+
+
+    // ------------------------------------
+    // - LOG COMPILATION
+    // ------------------------------------
+    /**
+     * @return The strings in values to escape and their replacements, in order of precedence.
+     */
+    Map<String, String> getEscapes() {
+        Map<String, String> escapes = new LinkedHashMap<>();
+        escapes.put(this.getEntryValueDelimiter(), "[ValueDelimiter]");
+        escapes.putIfAbsent(this.getEntryValueQualifier(), "[EntryQualifier]");
+        escapes.putIfAbsent(this.getEntryDelimiter(), "[EntryDelimiter]");
+        escapes.putIfAbsent("\r", "[CarriageReturn]");
+        escapes.remove("");
+        return escapes;
+    }
+
+
+    /**
+     *
+     *
+     * @param value The value to escape
+     * @return The argument string escaped.
+     */
+    String escapeValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        ByteStorage storage = new ByteStorage();
+        this.addEscapedValue(value, storage);
+        return storage.getAsString();
+    }
+
+
+    /**
+     * Adds the argument value escaped as UTF8 bytes. The chars that need no escaping are
+     * added in runs.
+     */
+    private void addEscapedValue(String value, ByteStorage out) {
+        int runStart = 0;
+        int i = 0;
+        while (i < value.length()) {
+            int escapeIndex = this.getEscapeIndex(value, i);
+            //If there is nothing to escape at this index
+            if (escapeIndex == -1) {
+                i++;
+                continue;
+            }
+            out.addUtf8(value, runStart, i);
+            out.add(mReplacements[escapeIndex]);
+            i += mEscaped[escapeIndex].length();
+            runStart = i;
+        }
+        out.addUtf8(value, runStart, value.length());
+    }
+
+
+    /**
+     * @return The index of the string to escape that the argument value has at the argument
+     * index. -1 if none.
+     */
+    private int getEscapeIndex(String value, int index) {
+        char c = value.charAt(index);
+        for (int i = 0; i < mEscaped.length; i++) {
+            if (mEscaped[i].charAt(0) == c && value.startsWith(mEscaped[i], index)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     *
+     * @param logData - Contains the data to be rendered
+     * @return A log entry to be added to a log.
+     */
+    @Override
+    public String formatLogEntry(Map<String, String> logData) {
+        ByteStorage storage = new ByteStorage();
+        this.formatLogEntry(logData, storage);
+        return storage.getAsString();
+    }
+
+
+    @Override
+    public void formatLogEntry(Map<String, String> logData, ByteStorage out) {
+        boolean isFirst = true;
+        for (Map.Entry<String, String> entry : logData.entrySet()) {
+            //If this is not the first entry
+            if (!isFirst) {
+                out.add(mValueDelimiter);
+            }
+            isFirst = false;
+            if (mKeyToValueDelimiter != null) {
+                out.addUtf8(entry.getKey(), 0, entry.getKey().length());
+                out.add(mKeyToValueDelimiter);
+            }
+            out.add(mValueQualifier);
+            if (entry.getValue() == null) {
+                out.add(NULL);
+            } else {
+                this.addEscapedValue(entry.getValue(), out);
+            }
+            out.add(mValueQualifier);
+        }
+        out.add(mEntryDelimiter);
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.atexpose.dispatcher.logging.writer;
+
+import com.atexpose.dispatcher.logging.format.BinaryFormat;
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.state.IStateNode;
+import io.schinzel.basicutils.state.State;
+import lombok.Builder;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The purpose of this class is to write the binary records of the binary formatter to a file
+ * that is rolled and compressed as with the file log writer.
+ * <p>
+ * The writer keeps the dictionary definitions of the records it writes. Each time a file is
+ * opened, a scope record with the definitions is written first, so that every segment can be
+ * read on its own. Read the files with the binary log reader.
+ */
+public class BinaryLogWriter implements IByteLogWriter, IStateNode, Closeable {
+    /** The default file to log to, relative the working directory */
+    static final String DEFAULT_PATH = "logs/atexpose.axlog";
+    /** The definitions of the records written. Guarded by itself. */
+    private final Map<Integer, byte[]> mDictionary = new HashMap<>();
+    private final FileLogWriter mFileLogWriter;
+
+
+    /**
+     * Logs to the default file, rolled daily and at 100MB. Used when the writer is created by
+     * name.
+     */
+    public BinaryLogWriter() {
+        this(null, null, null, null, null);
+    }
+
+
+    /**
+     * @param path         The file to log to. Default logs/atexpose.axlog, or with a number added
+     *                     if used by another writer. See the file log writer.
+     * @param maxFileSize  See the file log writer
+     * @param rollInterval See the file log writer
+     * @param compress     See the file log writer
+     * @param clock        See the file log writer
+     */
+    @Builder
+    BinaryLogWriter(Path path, Long maxFileSize, Duration rollInterval, Boolean compress, Clock clock) {
+        mFileLogWriter = new FileLogWriter(path, DEFAULT_PATH, maxFileSize, rollInterval, compress, clock,
+                this::getScopeRecord);
+    }
+
+
+    /**
+     * Entries formatted to strings cannot be written as binary records.
+     */
+    @Override
+    public void log(String logEntry) {
+        throw new RuntimeException("The binary log writer writes entries formatted by the binary formatter only");
+    }
+
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+
+    @Override
+    public void log(ByteStorage logEntries) {
+        this.addDefinitions(logEntries);
+        mFileLogWriter.log(logEntries);
+    }
+
+
+    /**
+     * Adds the dictionary definitions of the argument records to the dictionary of this writer.
+     */
+    private void addDefinitions(ByteStorage logEntries) {
+        ByteBuffer records = ByteBuffer.wrap(logEntries.getArray(), 0, logEntries.getNoOfBytesStored());
+        try {
+            while (records.hasRemaining()) {
+                int recordEnd = (int) BinaryFormat.readVarint(records) + records.position();
+                if (records.get() != BinaryFormat.RECORD_ENTRY) {
+                    throw new RuntimeException("Not an entry record");
+                }
+                long noOfDefinitions = BinaryFormat.readVarint(records);
+                for (long i = 0; i < noOfDefinitions; i++) {
+                    int id = (int) BinaryFormat.readVarint(records);
+                    byte[] value = BinaryFormat.readStringBytes(records);
+                    synchronized (mDictionary) {
+                        mDictionary.put(id, value);
+                    }
+                }
+                records.position(recordEnd);
+            }
+        } catch (RuntimeException e) {
+            throw new RuntimeException("The binary log writer writes entries formatted by the binary formatter only. "
+                    + e.getMessage());
+        }
+    }
+
+
+    /**
+     * @return A scope record with the definitions of the records written
+     */
+    private byte[] getScopeRecord() {
+        ByteStorage scopeRecord = new ByteStorage();
+        try {
+            synchronized (mDictionary) {
+                int[] ids = new int[mDictionary.size()];
+                byte[][] values = new byte[mDictionary.size()][];
+                int i = 0;
+                for (Map.Entry<Integer, byte[]> definition : mDictionary.entrySet()) {
+                    ids[i] = definition.getKey();
+                    values[i] = definition.getValue();
+                    i++;
+                }
+                BinaryFormat.writeScopeRecord(ids, values, i, scopeRecord);
+            }
+            return scopeRecord.getBytes();
+        } finally {
+            scopeRecord.release();
+        }
+    }
+
+
+    /**
+     * @return The file logged to
+     */
+    public Path getPath() {
+        return mFileLogWriter.getPath();
+    }
+
+
+    @Override
+    public void close() {
+        mFileLogWriter.close();
+    }
+
+
+    @Override
+    public State getState() {
+        State.StateBuilder stateBuilder = State.getBuilder();
+        synchronized (mDictionary) {
+            stateBuilder.add("DictionarySize", mDictionary.size());
+        }
+        return stateBuilder
+                .addChild("File", mFileLogWriter)
+                .build();
+    }
+
+}
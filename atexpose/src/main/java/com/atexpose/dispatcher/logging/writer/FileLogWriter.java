@@ -0,0 +1,568 @@
+package com.atexpose.dispatcher.logging.writer;
+
+import com.atexpose.MyProperties;
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+import io.schinzel.basicutils.state.IStateNode;
+import io.schinzel.basicutils.state.State;
+import io.schinzel.basicutils.thrower.Thrower;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The purpose of this class is to write log entries to a file.
+ * <p>
+ * Entries are appended with a file channel. Threads that log while another thread writes add
+ * their entries to a pending buffer, and the writing thread writes all pending entries with
+ * its next write. As such, many threads logging at once share writes instead of waiting for
+ * one write each.
+ * <p>
+ * The file is rolled when it would grow larger than the max file size, and when the roll
+ * interval has passed. The rolled file is renamed with the time it was rolled and compressed
+ * with gzip in a background thread. If a roll fails, the writer keeps writing to the current
+ * file and tries again a minute later.
+ * <p>
+ * A file can be written by one writer at a time. Writers created without a path log to the
+ * default file, or if it is used by another writer to the default file with a number added,
+ * e.g. logs/atexpose-2.log.
+ */
+@Accessors(prefix = "m")
+public class FileLogWriter implements IByteLogWriter, IStateNode, Closeable {
+    /** The default file to log to, relative the working directory */
+    static final String DEFAULT_PATH = "logs/atexpose.log";
+    /** The default max number of bytes of a file before it is rolled */
+    static final long DEFAULT_MAX_FILE_SIZE = 100L * 1024 * 1024;
+    /** The default time between rolls */
+    static final Duration DEFAULT_ROLL_INTERVAL = Duration.ofDays(1);
+    /** If the pending buffer holds this many bytes, threads wait to write instead */
+    private static final int MAX_PENDING_BYTES = 4 * 1024 * 1024;
+    /** The time to wait before trying to roll again after a roll failed */
+    private static final long ROLL_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    /** The files written by the writers of this JVM. Guarded by itself. */
+    private static final Set<Path> PATHS_IN_USE = new HashSet<>();
+    private static final DateTimeFormatter ROLLED_FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final byte[] LINE_SEPARATOR = UTF8.getBytes(MyProperties.OS_LINE_SEPARATOR);
+    /** The file to log to */
+    @Getter private final Path mPath;
+    /** The max number of bytes of a file before it is rolled. 0 if not rolled by size. */
+    private final long mMaxFileSize;
+    /** The time between rolls. Null if not rolled by time. */
+    private final Duration mRollInterval;
+    /** If true, rolled files are compressed with gzip */
+    private final boolean mCompress;
+    private final Clock mClock;
+    /** Supplies the bytes written first each time a file is opened. Null if none. */
+    private final Supplier<byte[]> mOpeningBytes;
+    /** The number of opening bytes written as the file was opened */
+    private long mNoOfOpeningBytes;
+    /** Compresses rolled files */
+    private final ExecutorService mCompressor;
+    /** Held by the thread that writes to the file */
+    private final ReentrantLock mWriteLock = new ReentrantLock();
+    /** Guards the pending buffer */
+    private final Object mPendingLock = new Object();
+    /** Entries logged while another thread wrote. Swapped with the writing buffer. */
+    private ByteStorage mPending = new ByteStorage();
+    /** The entries being written */
+    private ByteStorage mWriting = new ByteStorage();
+    /** Null if closed */
+    private FileChannel mChannel;
+    /** The number of bytes in the file */
+    private long mFileSize;
+    /** The time in milliseconds at which the file is to be rolled. Long.MAX_VALUE if never. */
+    private long mRollTime;
+    /** The time in milliseconds before which no roll is tried, after a roll failed */
+    private long mRollRetryTime = 0;
+    /**
+     * The renamed file that the channel writes to, if a roll renamed the file but could
+     * neither open a new file nor rename the file back. Else null.
+     */
+    private Path mRenamedFile;
+    private final AtomicLong mNoOfWrites = new AtomicLong();
+    private final AtomicLong mNoOfRolls = new AtomicLong();
+    private final AtomicLong mNoOfRollErrors = new AtomicLong();
+    private final AtomicLong mNoOfRenameBackErrors = new AtomicLong();
+    private final AtomicLong mNoOfCompressionErrors = new AtomicLong();
+
+
+    /**
+     * Logs to the default file, rolled daily and at the default max file size. Used when the
+     * writer is created by name.
+     */
+    public FileLogWriter() {
+        this(null, null, null, null, null, null);
+    }
+
+
+    /**
+     * @param path         The file to log to. The directories are created if missing.
+     * @param maxFileSize  The max number of bytes of a file before it is rolled. 0 if not rolled
+     *                     by size. Default 100MB.
+     * @param rollInterval The time between rolls. Rolls happen at multiples of the interval since
+     *                     midnight UTC. Zero if not rolled by time. Default one day.
+     * @param compress     If true, rolled files are compressed with gzip. Default true.
+     * @param clock        The clock to roll by. Default UTC.
+     * @param openingBytes Supplies the bytes to write first each time a file is opened, e.g. a
+     *                     header. Is also written when an existing file is opened. Null if none.
+     */
+    @Builder
+    FileLogWriter(Path path, Long maxFileSize, Duration rollInterval, Boolean compress, Clock clock,
+                  Supplier<byte[]> openingBytes) {
+        this(path, DEFAULT_PATH, maxFileSize, rollInterval, compress, clock, openingBytes);
+    }
+
+
+    /**
+     * @param defaultPath The file to log to if the argument path is null
+     */
+    FileLogWriter(Path path, String defaultPath, Long maxFileSize, Duration rollInterval, Boolean compress,
+                  Clock clock, Supplier<byte[]> openingBytes) {
+        mMaxFileSize = (maxFileSize == null) ? DEFAULT_MAX_FILE_SIZE : maxFileSize;
+        Thrower.throwIfVarTooSmall(mMaxFileSize, "maxFileSize", 0);
+        mRollInterval = (rollInterval == null) ? DEFAULT_ROLL_INTERVAL
+                : (rollInterval.isZero() ? null : rollInterval);
+        Thrower.throwIfTrue(mRollInterval != null && mRollInterval.isNegative())
+                .message("Argument rollInterval cannot be negative");
+        mCompress = (compress == null) || compress;
+        mClock = (clock == null) ? Clock.systemUTC() : clock;
+        mOpeningBytes = openingBytes;
+        mPath = claimPath(path, defaultPath);
+        mCompressor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AtExpose-LogCompressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            this.open();
+        } catch (RuntimeException e) {
+            releasePath(mPath);
+            mCompressor.shutdown();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Claims a file for a writer.
+     *
+     * @param path        The file to claim. Null if the default file is to be claimed.
+     * @param defaultPath The default file
+     * @return The argument file, or the default file or, if the default file is claimed by
+     * another writer, the default file with the lowest number added that is not claimed.
+     */
+    static Path claimPath(Path path, String defaultPath) {
+        synchronized (PATHS_IN_USE) {
+            if (path != null) {
+                Thrower.throwIfTrue(!PATHS_IN_USE.add(path.toAbsolutePath().normalize()))
+                        .message("Cannot log to '" + path + "' as the file is written by another log writer");
+                return path;
+            }
+            Path candidate = Paths.get(defaultPath);
+            String fileName = candidate.getFileName().toString();
+            int dot = fileName.lastIndexOf('.');
+            String name = (dot > 0) ? fileName.substring(0, dot) : fileName;
+            String extension = (dot > 0) ? fileName.substring(dot) : "";
+            for (int i = 2; !PATHS_IN_USE.add(candidate.toAbsolutePath().normalize()); i++) {
+                candidate = candidate.resolveSibling(name + "-" + i + extension);
+            }
+            return candidate;
+        }
+    }
+
+
+    /**
+     * Releases a file claimed for a writer.
+     */
+    static void releasePath(Path path) {
+        synchronized (PATHS_IN_USE) {
+            PATHS_IN_USE.remove(path.toAbsolutePath().normalize());
+        }
+    }
+
+
+    @Override
+    public void log(String logEntry) {
+        ByteStorage logEntryAsBytes = new ByteStorage();
+        try {
+            logEntryAsBytes.add(logEntry);
+            logEntryAsBytes.add(LINE_SEPARATOR);
+            this.log(logEntryAsBytes);
+        } finally {
+            logEntryAsBytes.release();
+        }
+    }
+
+
+    @Override
+    public void log(ByteStorage logEntries) {
+        boolean isLocked = mWriteLock.tryLock();
+        //If another thread writes and the pending buffer is full, wait for the other thread
+        if (!isLocked && !this.addPending(logEntries)) {
+            mWriteLock.lock();
+            isLocked = true;
+        }
+        if (isLocked) {
+            try {
+                //Write the entries logged before these first
+                this.writePending();
+                this.write(logEntries.asByteBuffer());
+            } finally {
+                mWriteLock.unlock();
+            }
+        }
+        //While entries added by other threads as this thread wrote are not written
+        while (this.hasPending() && mWriteLock.tryLock()) {
+            try {
+                this.writePending();
+            } finally {
+                mWriteLock.unlock();
+            }
+        }
+    }
+
+
+    /**
+     * @return True if the entries were added. False if the pending buffer is full.
+     */
+    private boolean addPending(ByteStorage logEntries) {
+        synchronized (mPendingLock) {
+            if (mPending.getNoOfBytesStored() + logEntries.getNoOfBytesStored() > MAX_PENDING_BYTES) {
+                return false;
+            }
+            mPending.add(logEntries.getArray(), 0, logEntries.getNoOfBytesStored());
+            return true;
+        }
+    }
+
+
+    private boolean hasPending() {
+        synchronized (mPendingLock) {
+            return mPending.getNoOfBytesStored() > 0;
+        }
+    }
+
+
+    /**
+     * Writes the pending entries. Is invoked while holding the write lock.
+     */
+    private void writePending() {
+        synchronized (mPendingLock) {
+            if (mPending.getNoOfBytesStored() == 0) {
+                return;
+            }
+            ByteStorage pending = mPending;
+            mPending = mWriting;
+            mWriting = pending;
+        }
+        try {
+            this.write(mWriting.asByteBuffer());
+        } finally {
+            mWriting.clear();
+        }
+    }
+
+
+    /**
+     * Writes the argument bytes, after rolling the file if due. Is invoked while holding the
+     * write lock.
+     */
+    private void write(ByteBuffer bytes) {
+        Thrower.throwIfTrue(mChannel == null).message("Cannot log to '" + mPath + "' as the log writer is closed");
+        try {
+            if (this.isRollDue(bytes.remaining())) {
+                this.roll();
+            }
+            while (bytes.hasRemaining()) {
+                mFileSize += mChannel.write(bytes);
+            }
+            mNoOfWrites.incrementAndGet();
+        } catch (IOException e) {
+            throw new RuntimeException("Error when writing log to file '" + mPath + "'. " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * @return True if the file is to be rolled before the argument number of bytes is written.
+     * A file is not rolled by size if it holds no more than the opening bytes.
+     */
+    private boolean isRollDue(int noOfBytesToWrite) {
+        long now = mClock.millis();
+        //If a roll failed recently
+        if (now < mRollRetryTime) {
+            return false;
+        }
+        return now >= mRollTime
+                || (mMaxFileSize > 0 && mFileSize > mNoOfOpeningBytes && mFileSize + noOfBytesToWrite > mMaxFileSize);
+    }
+
+
+    /**
+     * Renames the file and opens a new one. The renamed file is compressed in the background.
+     * The channel is swapped once the new file is open. If the file cannot be renamed or the
+     * new file cannot be opened, the current file is kept and the roll is tried again later.
+     * If the file was renamed and cannot be renamed back, the channel writes to the renamed
+     * file until a later roll opens a new file.
+     */
+    private void roll() {
+        //If nothing has been written since the file was opened, keep it
+        if (mFileSize <= mNoOfOpeningBytes) {
+            this.setRollTime();
+            return;
+        }
+        Path rolledFile;
+        //If a previous roll renamed the file, only a new file is to be opened
+        if (mRenamedFile != null) {
+            rolledFile = mRenamedFile;
+        } else {
+            rolledFile = this.getRolledFile();
+            try {
+                Files.move(mPath, rolledFile);
+            } catch (IOException | RuntimeException e) {
+                this.onRollError();
+                return;
+            }
+        }
+        //The current channel writes to the renamed file until swapped
+        byte[] openingBytes;
+        FileChannel channel;
+        long fileSize;
+        try {
+            openingBytes = this.getOpeningBytes();
+            channel = this.openChannel(openingBytes);
+            fileSize = channel.size();
+        } catch (IOException | RuntimeException e) {
+            if (mRenamedFile == null) {
+                this.renameBack(rolledFile);
+            }
+            this.onRollError();
+            return;
+        }
+        mRenamedFile = null;
+        FileChannel rolledChannel = mChannel;
+        this.setChannel(channel, fileSize, openingBytes.length);
+        try {
+            rolledChannel.close();
+        } catch (IOException e) {
+            mNoOfRollErrors.incrementAndGet();
+        }
+        mNoOfRolls.incrementAndGet();
+        if (mCompress) {
+            mCompressor.execute(() -> this.compress(rolledFile));
+        }
+    }
+
+
+    /**
+     * Renames the argument rolled file back to the log file, so that the current file is kept
+     * as the log file. If it cannot be renamed back, the next roll opens a new log file.
+     */
+    private void renameBack(Path rolledFile) {
+        try {
+            Files.deleteIfExists(mPath);
+            Files.move(rolledFile, mPath);
+        } catch (IOException e) {
+            mNoOfRenameBackErrors.incrementAndGet();
+            mRenamedFile = rolledFile;
+        }
+    }
+
+
+    /**
+     * Keeps the current file and postpones the next roll.
+     */
+    private void onRollError() {
+        mNoOfRollErrors.incrementAndGet();
+        mRollRetryTime = mClock.millis() + ROLL_RETRY_MILLIS;
+        if (mRollTime < mRollRetryTime) {
+            mRollTime = mRollRetryTime;
+        }
+    }
+
+
+    /**
+     * @return A file that does not exist, named as the log file with the time of the roll added.
+     * E.g. atexpose-20170301-000000.log
+     */
+    private Path getRolledFile() {
+        String fileName = mPath.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String name = (dot > 0) ? fileName.substring(0, dot) : fileName;
+        String extension = (dot > 0) ? fileName.substring(dot) : "";
+        String time = LocalDateTime.ofEpochSecond(mClock.millis() / 1000, 0, ZoneOffset.UTC)
+                .format(ROLLED_FILE_TIME_FORMAT);
+        Path rolledFile = mPath.resolveSibling(name + "-" + time + extension);
+        //If a file rolled the same second exists, add a number
+        for (int i = 1; Files.exists(rolledFile) || Files.exists(getCompressedFile(rolledFile)); i++) {
+            rolledFile = mPath.resolveSibling(name + "-" + time + "-" + i + extension);
+        }
+        return rolledFile;
+    }
+
+
+    private static Path getCompressedFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".gz");
+    }
+
+
+    /**
+     * Compresses the argument file with gzip and deletes it. If the compression fails, the
+     * file is kept uncompressed.
+     */
+    private void compress(Path file) {
+        Path compressedFile = getCompressedFile(file);
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressedFile), 64 * 1024)) {
+            byte[] buffer = new byte[64 * 1024];
+            int noOfBytes;
+            while ((noOfBytes = in.read(buffer)) != -1) {
+                out.write(buffer, 0, noOfBytes);
+            }
+        } catch (IOException e) {
+            mNoOfCompressionErrors.incrementAndGet();
+            try {
+                Files.deleteIfExists(compressedFile);
+            } catch (IOException ignored) {
+            }
+            return;
+        }
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            mNoOfCompressionErrors.incrementAndGet();
+        }
+    }
+
+
+    /**
+     * Opens the log file as the writer is created.
+     */
+    private void open() {
+        try {
+            byte[] openingBytes = this.getOpeningBytes();
+            FileChannel channel = this.openChannel(openingBytes);
+            this.setChannel(channel, channel.size(), openingBytes.length);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open log file '" + mPath + "'. " + e.getMessage());
+        }
+    }
+
+
+    private byte[] getOpeningBytes() {
+        return (mOpeningBytes == null) ? new byte[0] : mOpeningBytes.get();
+    }
+
+
+    /**
+     * @return A channel that appends to the log file, with the argument opening bytes written
+     */
+    private FileChannel openChannel(byte[] openingBytes) throws IOException {
+        if (mPath.getParent() != null) {
+            Files.createDirectories(mPath.getParent());
+        }
+        FileChannel channel = FileChannel.open(mPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(openingBytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Sets the channel to write to and when the file is to be rolled.
+     */
+    private void setChannel(FileChannel channel, long fileSize, int noOfOpeningBytes) {
+        mChannel = channel;
+        mFileSize = fileSize;
+        mNoOfOpeningBytes = noOfOpeningBytes;
+        this.setRollTime();
+    }
+
+
+    private void setRollTime() {
+        if (mRollInterval == null) {
+            mRollTime = Long.MAX_VALUE;
+        } else {
+            long interval = mRollInterval.toMillis();
+            mRollTime = (mClock.millis() / interval + 1) * interval;
+        }
+    }
+
+
+    /**
+     * Writes the pending entries, closes the file and waits for rolled files to be compressed.
+     */
+    @Override
+    public void close() {
+        mWriteLock.lock();
+        try {
+            if (mChannel == null) {
+                return;
+            }
+            this.writePending();
+            mChannel.close();
+            mChannel = null;
+            releasePath(mPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Error when closing log file '" + mPath + "'. " + e.getMessage());
+        } finally {
+            mWriteLock.unlock();
+        }
+        mCompressor.shutdown();
+        try {
+            mCompressor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    @Override
+    public State getState() {
+        return State.getBuilder()
+                .add("Path", mPath.toString())
+                .add("MaxFileSize", mMaxFileSize)
+                .add("RollInterval", (mRollInterval == null) ? "-" : mRollInterval.toString())
+                .add("Compress", mCompress)
+                .add("Writes", mNoOfWrites.get())
+                .add("Rolls", mNoOfRolls.get())
+                .add("RollErrors", mNoOfRollErrors.get())
+                .add("RenameBackErrors", mNoOfRenameBackErrors.get())
+                .add("CompressionErrors", mNoOfCompressionErrors.get())
+                .build();
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.atexpose.dispatcher.logging.writer;
+
+import com.atexpose.util.ByteStorage;
+
+/**
+ * The purpose of this interface is to write log entries that are formatted straight to
+ * bytes, so that the entries are not built as strings and then encoded.
+ */
+public interface IByteLogWriter extends ILogWriter {
+
+    /**
+     * @param logEntries Log entries as UTF8 bytes, each followed by a line separator, or as
+     *                   binary records. Is only valid for the duration of the call.
+     */
+    void log(ByteStorage logEntries);
+
+
+    /**
+     * @return True if this writer writes the records of a binary formatter only
+     */
+    default boolean isBinary() {
+        return false;
+    }
+
+}
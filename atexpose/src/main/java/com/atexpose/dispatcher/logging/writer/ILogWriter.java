@@ -1,5 +1,7 @@
 package com.atexpose.dispatcher.logging.writer;
 
+import java.util.List;
+
 /**
  * The purpose of this interface is to write a log entry to a generic output.
  * The output could be a file, system out or similar.
@@ -16,4 +18,16 @@ public interface ILogWriter {
     void log(String logEntry);
 
 
+    /**
+     * Writes a batch of log entries. Writers that can write many entries at a lower cost
+     * than one at the time override this method.
+     *
+     * @param logEntries The log entries to log, in order.
+     */
+    default void log(List<String> logEntries) {
+        for (String logEntry : logEntries) {
+            this.log(logEntry);
+        }
+    }
+
 }
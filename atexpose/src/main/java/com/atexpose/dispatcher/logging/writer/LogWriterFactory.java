@@ -6,6 +6,10 @@ package com.atexpose.dispatcher.logging.writer;
  * @author schinzel
  */
 public enum LogWriterFactory {
+    /** Writes the records of the binary formatter to a rolled file. See BinaryLogWriter. **/
+    BINARY_FILE(BinaryLogWriter.class),
+    /** Writes to a file that is rolled daily or at 100MB. See FileLogWriter. **/
+    FILE(FileLogWriter.class),
     MAIL(MailLogWriter.class),
     SYSTEM_OUT(SystemOutLogWriter.class);
 
@@ -0,0 +1,328 @@
+package com.atexpose.dispatcher.logging.writer;
+
+import com.atexpose.dispatcher.logging.LogEntry;
+import com.atexpose.util.DateTimeStrings;
+import com.atexpose.util.mail.IEmailSender;
+import io.schinzel.basicutils.state.IStateNode;
+import io.schinzel.basicutils.state.State;
+import io.schinzel.basicutils.thrower.Thrower;
+import lombok.Builder;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The purpose of this class is to log data in mails.
+ * <p>
+ * Entries are put in a bounded queue and mailed by a background thread, so that the thread
+ * that logs does not wait for the mail server. The entries are mailed as digests. The first
+ * entry starts a digest that is sent after the digest interval, with the entries logged
+ * meanwhile grouped by method name and error message and counted. No more than the max
+ * number of mails per hour are sent. Until a mail can be sent, entries are added to the
+ * digest. Entries that do not fit in the queue are dropped and counted.
+ * <p>
+ * The last digest is sent as the writer is closed, which its logger does as it is closed or
+ * as the JVM exits.
+ *
+ * @author jorgen
+ */
+public class MailLogWriter implements ILogWriter, IStateNode, Closeable {
+    private static final String MAIL_SUBJECT = "Expose error report";
+    static final int DEFAULT_QUEUE_SIZE = 1000;
+    static final Duration DEFAULT_DIGEST_INTERVAL = Duration.ofMinutes(1);
+    static final int DEFAULT_MAX_MAILS_PER_HOUR = 20;
+    /** The max number of groups in a digest. Entries of further groups are counted only. */
+    static final int MAX_GROUPS = 100;
+    /** The max number of chars of a group key */
+    private static final int MAX_GROUP_KEY_LENGTH = 200;
+    private static final long HOUR_IN_MILLIS = TimeUnit.HOURS.toMillis(1);
+    /** Queued to wake the background thread as the writer is closed */
+    private static final QueuedEntry CLOSE = new QueuedEntry(0, "");
+    private static final String GROUP_DELIMITER = "\n------------------------------------------------------------\n";
+    private final String mRecipient;
+    private final IEmailSender mMailSender;
+    private final long mDigestIntervalMillis;
+    private final int mMaxMailsPerHour;
+    /** The entries waiting to be added to a digest */
+    private final BlockingQueue<QueuedEntry> mQueue;
+    /** The thread that sends the digests */
+    private final Thread mThread;
+    private volatile boolean mIsClosed = false;
+    /** The times mails were sent the last hour. Used by the background thread only. */
+    private final Deque<Long> mSendTimes = new ArrayDeque<>();
+    /** The digest being collected. Used by the background thread only. */
+    private final Map<String, Group> mDigest = new LinkedHashMap<>();
+    /** The time the first entry of the digest was logged. Used by the background thread only. */
+    private long mDigestStart;
+    /** The number of entries in the digest, including those of groups not in the digest */
+    private int mNoOfDigestEntries;
+    private final AtomicLong mNoOfDropped = new AtomicLong();
+    /** The number of entries dropped when the digest was last sent */
+    private long mNoOfDroppedReported = 0;
+    private final AtomicLong mNoOfMailsSent = new AtomicLong();
+    private final AtomicLong mNoOfSendErrors = new AtomicLong();
+
+
+    /**
+     * An entry and the time it was logged.
+     */
+    private static class QueuedEntry {
+        final long mTime;
+        final String mLogEntry;
+
+
+        QueuedEntry(long time, String logEntry) {
+            mTime = time;
+            mLogEntry = logEntry;
+        }
+    }
+
+
+    /**
+     * The entries of a digest with the same method name and error message.
+     */
+    private static class Group {
+        final String mFirstEntry;
+        final long mFirstTime;
+        long mLastTime;
+        int mCount = 0;
+
+
+        Group(QueuedEntry queuedEntry) {
+            mFirstEntry = queuedEntry.mLogEntry;
+            mFirstTime = queuedEntry.mTime;
+        }
+    }
+
+
+    MailLogWriter(String recipient, IEmailSender emailSender) {
+        this(recipient, emailSender, null, null, null);
+    }
+
+
+    /**
+     * @param recipient       The address to mail
+     * @param emailSender     Sends the mails
+     * @param queueSize       The max number of entries waiting to be added to a digest. Default 1000.
+     * @param digestInterval  The time from the first entry of a digest until it is sent. Default one
+     *                        minute.
+     * @param maxMailsPerHour The max number of mails sent per hour. Default 20.
+     */
+    @Builder
+    MailLogWriter(String recipient, IEmailSender emailSender, Integer queueSize, Duration digestInterval,
+                  Integer maxMailsPerHour) {
+        Thrower.throwIfVarNull(emailSender, "emailSender");
+        mRecipient = recipient;
+        mMailSender = emailSender;
+        mQueue = new ArrayBlockingQueue<>((queueSize == null) ? DEFAULT_QUEUE_SIZE : queueSize);
+        mDigestIntervalMillis = ((digestInterval == null) ? DEFAULT_DIGEST_INTERVAL : digestInterval).toMillis();
+        mMaxMailsPerHour = (maxMailsPerHour == null) ? DEFAULT_MAX_MAILS_PER_HOUR : maxMailsPerHour;
+        Thrower.throwIfVarTooSmall(mMaxMailsPerHour, "maxMailsPerHour", 1);
+        mThread = new Thread(this::run, "AtExpose-MailLogWriter");
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+
+    /**
+     * Queues the entry to be mailed in a digest. Does not wait for the mail to be sent.
+     */
+    @Override
+    public void log(String logEntry) {
+        if (mIsClosed || !mQueue.offer(new QueuedEntry(System.currentTimeMillis(), logEntry))) {
+            mNoOfDropped.incrementAndGet();
+        }
+    }
+
+
+    /**
+     * Collects the entries queued into digests and sends these. Is run by the background thread.
+     */
+    private void run() {
+        List<QueuedEntry> queuedEntries = new ArrayList<>();
+        while (!mIsClosed) {
+            try {
+                long waitMillis = (mNoOfDigestEntries == 0)
+                        ? mDigestIntervalMillis
+                        : Math.max(1, this.getSendTime() - System.currentTimeMillis());
+                QueuedEntry queuedEntry = mQueue.poll(waitMillis, TimeUnit.MILLISECONDS);
+                if (queuedEntry != null) {
+                    queuedEntries.add(queuedEntry);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            mQueue.drainTo(queuedEntries);
+            this.addToDigest(queuedEntries);
+            queuedEntries.clear();
+            if (mNoOfDigestEntries > 0 && System.currentTimeMillis() >= this.getSendTime()) {
+                this.sendDigest();
+            }
+        }
+        //Send the entries logged before the writer was closed
+        mQueue.drainTo(queuedEntries);
+        this.addToDigest(queuedEntries);
+        if (mNoOfDigestEntries > 0) {
+            this.sendDigest();
+        }
+    }
+
+
+    private void addToDigest(List<QueuedEntry> queuedEntries) {
+        for (QueuedEntry queuedEntry : queuedEntries) {
+            if (queuedEntry == CLOSE) {
+                continue;
+            }
+            if (mNoOfDigestEntries == 0) {
+                mDigestStart = queuedEntry.mTime;
+            }
+            mNoOfDigestEntries++;
+            String groupKey = getGroupKey(queuedEntry.mLogEntry);
+            Group group = mDigest.get(groupKey);
+            if (group == null) {
+                //If the digest is full, the entry is counted only
+                if (mDigest.size() >= MAX_GROUPS) {
+                    continue;
+                }
+                group = new Group(queuedEntry);
+                mDigest.put(groupKey, group);
+            }
+            group.mCount++;
+            group.mLastTime = queuedEntry.mTime;
+        }
+    }
+
+
+    /**
+     * @return The time at which the digest is to be sent. The digest interval after its first
+     * entry, or later if the max number of mails the last hour have been sent.
+     */
+    private long getSendTime() {
+        long sendTime = mDigestStart + mDigestIntervalMillis;
+        //If the max number of mails have been sent the last hour
+        if (mSendTimes.size() >= mMaxMailsPerHour) {
+            sendTime = Math.max(sendTime, mSendTimes.peekFirst() + HOUR_IN_MILLIS);
+        }
+        return sendTime;
+    }
+
+
+    private void sendDigest() {
+        String body = this.getDigestBody();
+        int noOfEntries = mNoOfDigestEntries;
+        mDigest.clear();
+        mNoOfDigestEntries = 0;
+        long now = System.currentTimeMillis();
+        mSendTimes.addLast(now);
+        while (mSendTimes.peekFirst() <= now - HOUR_IN_MILLIS) {
+            mSendTimes.removeFirst();
+        }
+        try {
+            mMailSender.send(mRecipient, MAIL_SUBJECT + ": " + noOfEntries + " entries", body, "@Expose Log");
+            mNoOfMailsSent.incrementAndGet();
+        } catch (RuntimeException e) {
+            mNoOfSendErrors.incrementAndGet();
+        }
+    }
+
+
+    /**
+     * @return The digest as text. The groups with their counts, first and last time and the
+     * first entry of each group.
+     */
+    String getDigestBody() {
+        StringBuilder sb = new StringBuilder()
+                .append(mNoOfDigestEntries).append(" entries in ").append(mDigest.size()).append(" groups")
+                .append(" since ").append(DateTimeStrings.getDateTimeUTC(Instant.ofEpochMilli(mDigestStart)))
+                .append(" UTC.\n");
+        int noOfEntriesInGroups = mDigest.values().stream().mapToInt(group -> group.mCount).sum();
+        if (noOfEntriesInGroups < mNoOfDigestEntries) {
+            sb.append(mNoOfDigestEntries - noOfEntriesInGroups)
+                    .append(" entries of further groups are not listed.\n");
+        }
+        long noOfDropped = mNoOfDropped.get();
+        if (noOfDropped > mNoOfDroppedReported) {
+            sb.append(noOfDropped - mNoOfDroppedReported)
+                    .append(" entries were dropped as the queue was full.\n");
+            mNoOfDroppedReported = noOfDropped;
+        }
+        for (Map.Entry<String, Group> entry : mDigest.entrySet()) {
+            Group group = entry.getValue();
+            sb.append(GROUP_DELIMITER)
+                    .append(group.mCount).append(" x ").append(entry.getKey()).append('\n')
+                    .append("First: ").append(DateTimeStrings.getDateTimeUTC(Instant.ofEpochMilli(group.mFirstTime)))
+                    .append(" Last: ").append(DateTimeStrings.getDateTimeUTC(Instant.ofEpochMilli(group.mLastTime)))
+                    .append('\n')
+                    .append(group.mFirstEntry).append('\n');
+        }
+        return sb.toString();
+    }
+
+
+    /**
+     * @param logEntry A log entry
+     * @return The key entries are grouped by. For entries formatted as JSON, the method or file
+     * name and the response, i.e. the error message. Other entries are grouped if identical.
+     */
+    static String getGroupKey(String logEntry) {
+        String groupKey = logEntry;
+        if (logEntry.startsWith("{")) {
+            try {
+                JSONObject jo = new JSONObject(logEntry);
+                String name = jo.optString(LogEntry.KEY_METHOD_NAME, jo.optString(LogEntry.KEY_FILENAME, ""));
+                groupKey = name + ": " + jo.optString(LogEntry.KEY_RESPONSE, "");
+            } catch (JSONException e) {
+                //Grouped by the entry
+            }
+        }
+        return (groupKey.length() > MAX_GROUP_KEY_LENGTH)
+                ? groupKey.substring(0, MAX_GROUP_KEY_LENGTH)
+                : groupKey;
+    }
+
+
+    /**
+     * Stops the background thread. The entries logged that have not been mailed are sent in a
+     * last digest, regardless of the max number of mails per hour.
+     */
+    @Override
+    public void close() {
+        mIsClosed = true;
+        //If the queue is full the background thread is not waiting and need not be woken
+        mQueue.offer(CLOSE);
+        try {
+            mThread.join(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    @Override
+    public State getState() {
+        return State.getBuilder()
+                .add("QueueSize", mQueue.size() + mQueue.remainingCapacity())
+                .add("QueueDepth", mQueue.size())
+                .add("DigestIntervalMillis", mDigestIntervalMillis)
+                .add("MaxMailsPerHour", mMaxMailsPerHour)
+                .add("MailsSent", mNoOfMailsSent.get())
+                .add("Dropped", mNoOfDropped.get())
+                .add("SendErrors", mNoOfSendErrors.get())
+                .build();
+    }
+
+}
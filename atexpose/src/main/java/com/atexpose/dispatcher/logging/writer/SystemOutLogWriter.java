@@ -0,0 +1,79 @@
+package com.atexpose.dispatcher.logging.writer;
+
+import com.atexpose.MyProperties;
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The purpose of this class is to write a log entry to system out.
+ *
+ * @author schinzel
+ */
+public class SystemOutLogWriter implements IByteLogWriter {
+    /**
+     * Makes sure that log outputs are not written over each other. A lock instead of a
+     * synchronized method, so that virtual threads are not pinned to their carrier thread
+     * while they wait to write.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    @Override
+    public void log(String logEntry) {
+        SystemOutLogWriter.syncedOutputWrite(UTF8.getBytes(logEntry + MyProperties.OS_LINE_SEPARATOR));
+    }
+
+
+    /**
+     * Writes the entries with one write and one flush.
+     */
+    @Override
+    public void log(List<String> logEntries) {
+        StringBuilder sb = new StringBuilder();
+        for (String logEntry : logEntries) {
+            sb.append(logEntry).append(MyProperties.OS_LINE_SEPARATOR);
+        }
+        SystemOutLogWriter.syncedOutputWrite(UTF8.getBytes(sb.toString()));
+    }
+
+
+    /**
+     * Writes the entries with one write and one flush, without copying them.
+     */
+    @Override
+    public void log(ByteStorage logEntries) {
+        LOCK.lock();
+        try {
+            logEntries.writeTo(System.out);
+            System.out.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException("There was an error when SystemOutLogger was trying to log. " + ex.getMessage());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+
+    /**
+     * Writes logs to system out. The writes are serialized by LOCK so that the log
+     * outputs are not written over each other.
+     *
+     * @param logEntryAsBytes The entries to add to log.
+     */
+    private static void syncedOutputWrite(byte[] logEntryAsBytes) {
+        LOCK.lock();
+        try {
+            System.out.write(logEntryAsBytes);
+            System.out.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException("There was an error when SystemOutLogger was trying to log. " + ex.getMessage());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    
+}
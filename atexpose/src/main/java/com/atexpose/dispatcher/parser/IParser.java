@@ -0,0 +1,28 @@
+package com.atexpose.dispatcher.parser;
+
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.state.IStateNode;
+
+/**
+ * The purpose of this interface is to parse a raw incoming request - for example an
+ * http request - and return a Request object.
+ * <p>
+ * Created by schinzel on 2017-04-25.
+ */
+public interface IParser extends IStateNode {
+
+    Request getRequest(String incomingRequest);
+
+
+    /**
+     * @param incomingRequest The raw incoming request
+     * @return The request parsed. Parsers that can parse bytes directly override this
+     * method to skip decoding the whole request to a string.
+     */
+    default Request getRequestFromBytes(ByteStorage incomingRequest) {
+        return this.getRequest(incomingRequest.getAsString());
+    }
+
+
+    IParser getClone();
+}
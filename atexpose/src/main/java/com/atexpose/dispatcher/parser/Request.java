@@ -7,6 +7,7 @@ import lombok.experimental.Accessors;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 /**
  * An instance of this object is an incoming request.
@@ -24,6 +25,18 @@ public class Request {
     @Getter @Builder.Default private List<String> mArgumentValues = Collections.emptyList();
     @Getter @Builder.Default private String mFileName = "";
     @Getter @Builder.Default private boolean mFileRequest = false;
+    /**
+     * Looks up the value of a request header by name, ignoring case. Returns an empty
+     * string if the request has no such header. The headers are only decoded if looked up.
+     */
+    @ToString.Exclude @Builder.Default private UnaryOperator<String> mHeaderLookup = headerName -> "";
 
 
+    /**
+     * @param headerName The name of a header. Case insensitive.
+     * @return The value of the argument header. Empty string if the request has no such header.
+     */
+    public String getHeaderValue(String headerName) {
+        return mHeaderLookup.apply(headerName);
+    }
 }
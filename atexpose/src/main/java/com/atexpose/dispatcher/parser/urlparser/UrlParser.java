@@ -4,9 +4,9 @@ import com.atexpose.dispatcher.PropertiesDispatcher;
 import com.atexpose.dispatcher.parser.IParser;
 import com.atexpose.dispatcher.parser.Request;
 import com.atexpose.dispatcher.parser.urlparser.httprequest.HttpRequest;
+import com.atexpose.util.ByteStorage;
 import io.schinzel.basicutils.Checker;
 import io.schinzel.basicutils.state.State;
-import io.schinzel.basicutils.substring.SubString;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.experimental.Accessors;
@@ -33,8 +33,24 @@ public class UrlParser implements IParser {
 
     @Override
     public Request getRequest(String incomingRequest) {
+        return this.parseHttpRequest(new HttpRequest(incomingRequest));
+    }
+
+
+    @Override
+    public Request getRequestFromBytes(ByteStorage incomingRequest) {
+        //The request is parsed from the storage without being copied
+        return this.parseHttpRequest(new HttpRequest(incomingRequest.getArray(), incomingRequest.getNoOfBytesStored()));
+    }
+
+
+    /**
+     * @param httpRequest A parsed http request
+     * @return The request as a method call or a file request
+     */
+    protected Request parseHttpRequest(HttpRequest httpRequest) {
         mCallType = CallType.UNKNOWN;
-        mHttpRequest = new HttpRequest(incomingRequest);
+        mHttpRequest = httpRequest;
         String url = mHttpRequest.getURL();
         //If is command call
         if (url.contains(PropertiesDispatcher.COMMAND_REQUEST_MARKER)) {
@@ -55,15 +71,15 @@ public class UrlParser implements IParser {
                     .argumentValues(argValues)
                     .argumentNames(argNames)
                     .fileRequest(false)
+                    .headerLookup(mHttpRequest::getHeaderValue)
                     .build();
         }//else, is request for file
         else {
             mCallType = CallType.FILE;
-            //Get the part of the url before ?, if any
-            url = SubString.create(url).endDelimiter("?").getString();
             return Request.builder()
                     .fileRequest(true)
-                    .fileName(url)
+                    .fileName(mHttpRequest.getPath())
+                    .headerLookup(mHttpRequest::getHeaderValue)
                     .build();
         }
     }
@@ -2,6 +2,7 @@ package com.atexpose.dispatcher.parser.urlparser;
 
 import com.atexpose.dispatcher.parser.IParser;
 import com.atexpose.dispatcher.parser.Request;
+import com.atexpose.dispatcher.parser.urlparser.httprequest.HttpRequest;
 import io.schinzel.basicutils.state.State;
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -47,8 +48,8 @@ public class UrlParserWithGSuiteAuth extends UrlParser {
 
 
     @Override
-    public Request getRequest(String incomingRequest) {
-        Request request = super.getRequest(incomingRequest);
+    protected Request parseHttpRequest(HttpRequest httpRequest) {
+        Request request = super.parseHttpRequest(httpRequest);
         //If the call was a command call
         if (this.getCallType() == CallType.COMMAND) {
             //Get the auth cookie value
@@ -0,0 +1,70 @@
+package com.atexpose.dispatcher.parser.urlparser.httprequest;
+
+import com.atexpose.errors.RuntimeError;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The purpose enum is to encapsulate the request methods.
+ * <p>
+ * Created by Schinzel on 2017-04-13.
+ */
+enum HttpMethod {
+    GET, POST;
+
+
+    /**
+     * @return The name of this request method as string followed by a slash. E.g. "GET/"
+     */
+    public String getAsString() {
+        return this.name() + " /";
+    }
+
+
+    /**
+     * @param httpRequest A whole http request
+     * @return The http method of the argument http request request
+     */
+    static HttpMethod getRequestMethod(String httpRequest) {
+        if (httpRequest.startsWith(GET.getAsString())) {
+            return GET;
+        } else if (httpRequest.startsWith(POST.getAsString())) {
+            return POST;
+        } else {
+            throw new RuntimeError("Request not allowed. Request has to start with GET or POST. Request: ' " + httpRequest + "'");
+        }
+    }
+
+
+    /**
+     * @param bytes  Holds a whole http request
+     * @param length The number of bytes of the request
+     * @return The http method of the argument http request request
+     */
+    static HttpMethod getRequestMethod(byte[] bytes, int length) {
+        if (GET.isStartOf(bytes, length)) {
+            return GET;
+        } else if (POST.isStartOf(bytes, length)) {
+            return POST;
+        } else {
+            return getRequestMethod(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+
+    /**
+     * @return True if the argument request starts with this request method followed by a slash.
+     */
+    private boolean isStartOf(byte[] bytes, int length) {
+        String start = this.getAsString();
+        if (length < start.length()) {
+            return false;
+        }
+        for (int i = 0; i < start.length(); i++) {
+            if (bytes[i] != start.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
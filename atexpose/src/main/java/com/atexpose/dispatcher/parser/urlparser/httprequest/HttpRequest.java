@@ -0,0 +1,311 @@
+package com.atexpose.dispatcher.parser.urlparser.httprequest;
+
+import com.google.common.base.Splitter;
+import io.schinzel.basicutils.Checker;
+import io.schinzel.basicutils.UTF8;
+import io.schinzel.basicutils.thrower.Thrower;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.experimental.Accessors;
+import org.apache.http.client.utils.URIBuilder;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The purpose of this class is to handle HttpRequests. Requests methods POST
+ * and GET are supported. The class handles the different type of request
+ * methods transparently.
+ * <p>
+ * The request is parsed in one pass over its bytes. The pass records where the url,
+ * the query, each header and the body start and end. A part is decoded to a string
+ * only when it is read.
+ *
+ * @author schinzel
+ */
+@Accessors(prefix = "m")
+public class HttpRequest {
+    /** The number of offsets stored per header: name start, name end, value start and value end. */
+    private static final int OFFSETS_PER_HEADER = 4;
+    private static final int INITIAL_NO_OF_HEADERS = 16;
+    /** Holds the http request. Is not copied and as such not to be changed. */
+    private final byte[] mBytes;
+    /** The number of bytes of the http request */
+    private final int mLength;
+    /** True if this is a ghost call, i.e. that the whole request is one byte. */
+    @Getter private final boolean mGhostCall;
+    /** The request method */
+    private final HttpMethod mHttpMethod;
+    /** Where the url starts, i.e. the position after the first slash of the request target */
+    private final int mUrlStart;
+    /** Where the url ends */
+    private final int mUrlEnd;
+    /** The position of the question mark in the url. Equal to url end if there is no question mark. */
+    private final int mQueryMarker;
+    /** Where the body starts. Equal to the length if there is no body. */
+    private final int mBodyStart;
+    /** The offsets of the headers. See OFFSETS_PER_HEADER. */
+    private int[] mHeaderOffsets = new int[INITIAL_NO_OF_HEADERS * OFFSETS_PER_HEADER];
+    /** The number of headers */
+    private int mNoOfHeaders = 0;
+    /** The body of the http request. Null until read. */
+    private String mBody;
+    /** The url part of a request. Including the query string variables. Null until read. */
+    private String mURL;
+    /** The part of the URL before query string. Null until read. */
+    private String mPath;
+    /** The variables of the request. If GET, query string, if POST body. As map. Null until read. */
+    private Map<String, String> mVariables;
+
+
+    /**
+     * @param httpRequest A whole http request
+     */
+    public HttpRequest(String httpRequest) {
+        this(getBytes(httpRequest));
+    }
+
+
+    private static byte[] getBytes(String httpRequest) {
+        Thrower.throwIfVarNull(httpRequest, "httpRequest");
+        return UTF8.getBytes(httpRequest);
+    }
+
+
+    /**
+     * @param bytes A whole http request. Is not copied and as such not to be changed
+     *              while this object is used.
+     */
+    public HttpRequest(byte[] bytes) {
+        this(bytes, (bytes == null) ? 0 : bytes.length);
+    }
+
+
+    /**
+     * @param bytes  Holds a whole http request. Is not copied and as such not to be changed
+     *               while this object is used.
+     * @param length The number of bytes of the request
+     */
+    public HttpRequest(byte[] bytes, int length) {
+        Thrower.throwIfVarNull(bytes, "bytes");
+        mBytes = bytes;
+        mLength = length;
+        mGhostCall = (length == 1);
+        //If ghost call, there is nothing more to parse
+        if (mGhostCall) {
+            mHttpMethod = HttpMethod.GET;
+            mUrlStart = mUrlEnd = mQueryMarker = 0;
+            mBodyStart = length;
+            return;
+        }
+        mHttpMethod = HttpMethod.getRequestMethod(bytes, length);
+        //Find the end of the url and any question mark in it
+        int pos = mHttpMethod.getAsString().length();
+        mUrlStart = pos;
+        int queryMarker = -1;
+        while (pos < length && bytes[pos] != ' ' && bytes[pos] != '\r') {
+            if (bytes[pos] == '?' && queryMarker == -1) {
+                queryMarker = pos;
+            }
+            pos++;
+        }
+        mUrlEnd = pos;
+        mQueryMarker = (queryMarker == -1) ? mUrlEnd : queryMarker;
+        //Skip the rest of the request line
+        pos = indexOfLineEnd(bytes, pos, length) + 2;
+        //Read the headers up to the empty line that precedes the body
+        while (pos < length && !isLineBreak(bytes, pos, length)) {
+            int lineEnd = indexOfLineEnd(bytes, pos, length);
+            this.addHeader(pos, lineEnd);
+            pos = lineEnd + 2;
+        }
+        mBodyStart = Math.min(pos + 2, length);
+    }
+
+
+    /**
+     * @return The position of the next line break, or the length if there is none.
+     */
+    private static int indexOfLineEnd(byte[] bytes, int pos, int length) {
+        while (pos < length && !isLineBreak(bytes, pos, length)) {
+            pos++;
+        }
+        return pos;
+    }
+
+
+    private static boolean isLineBreak(byte[] bytes, int pos, int length) {
+        return bytes[pos] == '\r' && pos + 1 < length && bytes[pos + 1] == '\n';
+    }
+
+
+    /**
+     * Adds the header on the line between the argument positions. Lines without
+     * a colon are ignored.
+     */
+    private void addHeader(int lineStart, int lineEnd) {
+        int colon = lineStart;
+        while (colon < lineEnd && mBytes[colon] != ':') {
+            colon++;
+        }
+        //If there was no colon
+        if (colon == lineEnd) {
+            return;
+        }
+        int valueStart = colon + 1;
+        while (valueStart < lineEnd && (mBytes[valueStart] == ' ' || mBytes[valueStart] == '\t')) {
+            valueStart++;
+        }
+        int valueEnd = lineEnd;
+        while (valueEnd > valueStart && (mBytes[valueEnd - 1] == ' ' || mBytes[valueEnd - 1] == '\t')) {
+            valueEnd--;
+        }
+        if ((mNoOfHeaders + 1) * OFFSETS_PER_HEADER > mHeaderOffsets.length) {
+            mHeaderOffsets = Arrays.copyOf(mHeaderOffsets, mHeaderOffsets.length * 2);
+        }
+        int offset = mNoOfHeaders * OFFSETS_PER_HEADER;
+        mHeaderOffsets[offset] = lineStart;
+        mHeaderOffsets[offset + 1] = colon;
+        mHeaderOffsets[offset + 2] = valueStart;
+        mHeaderOffsets[offset + 3] = valueEnd;
+        mNoOfHeaders++;
+    }
+
+
+    /**
+     * @return The body of the http request
+     */
+    public String getBody() {
+        if (mBody == null) {
+            mBody = this.decode(mBodyStart, mLength);
+        }
+        return mBody;
+    }
+
+
+    /**
+     * @return The url part of a request. Including the query string variables
+     */
+    public String getURL() {
+        if (mURL == null) {
+            mURL = this.decode(mUrlStart, mUrlEnd);
+        }
+        return mURL;
+    }
+
+
+    /**
+     * @return The part of the URL before query string
+     */
+    public String getPath() {
+        if (mPath == null) {
+            mPath = this.decode(mUrlStart, mQueryMarker);
+        }
+        return mPath;
+    }
+
+
+    /**
+     * @return The query string without the question mark. Null if there is no question mark.
+     */
+    private String getQuery() {
+        return (mQueryMarker == mUrlEnd)
+                ? null
+                : this.decode(mQueryMarker + 1, mUrlEnd);
+    }
+
+
+    /**
+     * @return The variables of the request. If GET, query string, if POST body. As map.
+     */
+    public Map<String, String> getVariables() {
+        if (mVariables == null) {
+            //Set variable string to
+            String variablesAsString = (mHttpMethod == HttpMethod.GET)
+                    //If get request, set query string
+                    ? this.getQuery()
+                    //else, i.e. is post request, set body
+                    : this.getBody();
+            //Set variables to
+            mVariables = Checker.isEmpty(variablesAsString)
+                    //If empty variable string, set to empty map
+                    ? Collections.emptyMap()
+                    //else, construct variable map
+                    : Splitter.on('&').trimResults().withKeyValueSeparator('=').split(variablesAsString);
+        }
+        return mVariables;
+    }
+
+
+    @SneakyThrows
+    public URI getURI() {
+        //Get protocol
+        String protocol = this.getHeaderValue("X-Forwarded-Proto");
+        if (Checker.isEmpty(protocol)) {
+            protocol = "http";
+        }
+        return new URIBuilder()
+                .setScheme(protocol)
+                .setHost(this.getHeaderValue("Host"))
+                .setPath("/" + this.getPath())
+                .setCustomQuery(this.getQuery())
+                .build();
+    }
+
+
+    /**
+     * @param headerName The name of the header to look up. Case insensitive.
+     * @return The value of the argument header. Empty string is returned if not
+     * found.
+     */
+    public String getHeaderValue(String headerName) {
+        Thrower.throwIfVarEmpty(headerName, "headerName");
+        for (int i = 0; i < mNoOfHeaders; i++) {
+            int offset = i * OFFSETS_PER_HEADER;
+            if (this.isHeaderName(mHeaderOffsets[offset], mHeaderOffsets[offset + 1], headerName)) {
+                return this.decode(mHeaderOffsets[offset + 2], mHeaderOffsets[offset + 3]);
+            }
+        }
+        return "";
+    }
+
+
+    /**
+     * @return True if the bytes between the argument positions equals the argument
+     * header name, ignoring case.
+     */
+    private boolean isHeaderName(int start, int end, String headerName) {
+        if (end - start != headerName.length()) {
+            return false;
+        }
+        for (int i = 0; i < headerName.length(); i++) {
+            char c = (char) (mBytes[start + i] & 0xFF);
+            if (Character.toLowerCase(c) != Character.toLowerCase(headerName.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * @return Get the cookies
+     */
+    public Map<String, String> getCookies() {
+        String cookieString = getHeaderValue("Cookie");
+        return Checker.isEmpty(cookieString)
+                ? Collections.emptyMap()
+                : Splitter.on("; ").withKeyValueSeparator("=").split(cookieString);
+    }
+
+
+    private String decode(int start, int end) {
+        return (end <= start)
+                ? ""
+                : new String(mBytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+}
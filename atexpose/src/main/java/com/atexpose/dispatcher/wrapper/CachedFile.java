@@ -0,0 +1,87 @@
+package com.atexpose.dispatcher.wrapper;
+
+import com.atexpose.dispatcher.parser.Request;
+import com.atexpose.util.BufferBody;
+import com.atexpose.util.httpresponse.ETag;
+import com.atexpose.util.httpresponse.HttpDate;
+import io.schinzel.basicutils.Checker;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * The purpose of this class is to hold a file response together with the validators that
+ * tell if a client already has the file.
+ */
+@Accessors(prefix = "m")
+class CachedFile {
+    /**
+     * The header and the content of the file. Only the header if the body is outside the
+     * heap. Null if the file is rendered per request.
+     */
+    @Getter private final byte[] mResponse;
+    /** The body of the file outside the heap. Null if the body is in the response. */
+    @Getter private final BufferBody mBody;
+    /**
+     * The template of a text file with variables set per request. Null if the response is
+     * the same for all requests.
+     */
+    @Getter private final SsiTemplate mTemplate;
+    /** The entity tag of the file. Null if the response has no tag, e.g. a 404 response. */
+    @Getter private final String mETag;
+    /** When the file was last modified in milliseconds since the epoch. 0 if unknown. */
+    @Getter private final long mLastModified;
+
+
+    @Builder
+    private CachedFile(byte[] response, BufferBody body, SsiTemplate template, String eTag, long lastModified) {
+        mResponse = response;
+        mBody = body;
+        mTemplate = template;
+        mETag = eTag;
+        mLastModified = lastModified;
+    }
+
+
+    /**
+     * @return The number of bytes held by this file
+     */
+    int getSize() {
+        if (mResponse == null) {
+            return mTemplate.getLiteralBytes();
+        }
+        return (mBody == null) ? mResponse.length : mResponse.length + mBody.getSize();
+    }
+
+
+    /**
+     * @param request A request for this file
+     * @return True if the client of the argument request already has this file
+     */
+    boolean isNotModified(Request request) {
+        return CachedFile.isNotModified(request, mETag, mLastModified);
+    }
+
+
+    /**
+     * The If-None-Match header takes precedence over the If-Modified-Since header.
+     *
+     * @param request      A request for a file
+     * @param eTag         The entity tag of the file. Null if the file has no tag.
+     * @param lastModified When the file was last modified. 0 if unknown.
+     * @return True if the client of the argument request already has the file
+     */
+    static boolean isNotModified(Request request, String eTag, long lastModified) {
+        if (eTag == null) {
+            return false;
+        }
+        String ifNoneMatch = request.getHeaderValue("If-None-Match");
+        if (!Checker.isEmpty(ifNoneMatch)) {
+            return ETag.matches(ifNoneMatch, eTag);
+        }
+        long ifModifiedSince = HttpDate.parse(request.getHeaderValue("If-Modified-Since"));
+        //Http dates have a resolution of seconds
+        return lastModified > 0 && ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+}
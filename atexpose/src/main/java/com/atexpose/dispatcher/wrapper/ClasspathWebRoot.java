@@ -0,0 +1,58 @@
+package com.atexpose.dispatcher.wrapper;
+
+import com.atexpose.util.FileRW;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The purpose of this class is to serve files from the class path, i.e. from resource
+ * directories on the file system or from a JAR.
+ */
+class ClasspathWebRoot implements IWebRoot {
+    static final ClasspathWebRoot INSTANCE = new ClasspathWebRoot();
+
+
+    private ClasspathWebRoot() {
+    }
+
+
+    @Override
+    public boolean fileExists(String fileName) {
+        return FileRW.fileExists(fileName);
+    }
+
+
+    @Override
+    public byte[] readFile(String fileName) {
+        return FileRW.readFileAsByteArray(fileName);
+    }
+
+
+    @Override
+    public long getLastModified(String fileName) {
+        return FileRW.getLastModified(fileName);
+    }
+
+
+    @Override
+    public Path getPath(String fileName) {
+        return FileRW.getPath(fileName);
+    }
+
+
+    @Override
+    public List<URL> getDirectoryUrls(String directory) {
+        //Class loader resource names do not start with a slash
+        String resourceName = directory.startsWith("/") ? directory.substring(1) : directory;
+        try {
+            return Collections.list(ClasspathWebRoot.class.getClassLoader().getResources(resourceName));
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+
+}
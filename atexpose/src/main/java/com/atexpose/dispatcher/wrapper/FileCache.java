@@ -0,0 +1,206 @@
+package com.atexpose.dispatcher.wrapper;
+
+import io.schinzel.basicutils.state.IStateNode;
+import io.schinzel.basicutils.state.State;
+import io.schinzel.basicutils.thrower.Thrower;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The purpose of this class is to hold files in RAM within a max number of bytes.
+ * <p>
+ * The cache is a segmented LRU. A new file is put in the probation segment. A file requested
+ * again is moved to the protected segment. If the protected segment is full, its least recently
+ * used file is moved back to probation. If the cache is full, the least recently used files in
+ * probation are evicted first. As such, files requested once, for example by a crawler, do not
+ * evict files that are requested often.
+ */
+class FileCache implements IStateNode {
+    /** The share of the max bytes that the protected segment can hold */
+    private static final int PROTECTED_PERCENT = 80;
+    /** The max number of bytes of the files in the cache */
+    private final long mMaxBytes;
+    /** The max number of bytes of the files in the protected segment */
+    private final long mMaxProtectedBytes;
+    /** Files requested once. In least recently used order. */
+    private final LinkedHashMap<String, CachedFile> mProbation = new LinkedHashMap<>(16, 0.75f, true);
+    /** Files requested more than once. In least recently used order. */
+    private final LinkedHashMap<String, CachedFile> mProtected = new LinkedHashMap<>(16, 0.75f, true);
+    private long mProbationBytes = 0;
+    private long mProtectedBytes = 0;
+    private long mHits = 0;
+    private long mMisses = 0;
+    private long mEvictions = 0;
+    /** Is told about files that are removed from, or not added to, the cache */
+    private final Consumer<CachedFile> mRemovalListener;
+
+
+    /**
+     * @param maxBytes The max number of bytes of the files in the cache
+     */
+    FileCache(long maxBytes) {
+        this(maxBytes, file -> {
+        });
+    }
+
+
+    /**
+     * @param maxBytes        The max number of bytes of the files in the cache
+     * @param removalListener Is told about files that are evicted, replaced or too large to be
+     *                        added. Is invoked while the cache is locked.
+     */
+    FileCache(long maxBytes, Consumer<CachedFile> removalListener) {
+        Thrower.throwIfVarTooSmall(maxBytes, "maxBytes", 1);
+        mRemovalListener = removalListener;
+        mMaxBytes = maxBytes;
+        mMaxProtectedBytes = maxBytes * PROTECTED_PERCENT / 100;
+    }
+
+
+    /**
+     * @param key The key of a file
+     * @return The file. Null if the file is not in the cache.
+     */
+    synchronized CachedFile get(String key) {
+        CachedFile value = mProtected.get(key);
+        if (value != null) {
+            mHits++;
+            return value;
+        }
+        value = mProbation.remove(key);
+        if (value == null) {
+            mMisses++;
+            return null;
+        }
+        mHits++;
+        mProbationBytes -= value.getSize();
+        //Move the file to the protected segment
+        mProtected.put(key, value);
+        mProtectedBytes += value.getSize();
+        //While the protected segment is full, move its least recently used file to probation
+        Iterator<Map.Entry<String, CachedFile>> iterator = mProtected.entrySet().iterator();
+        while (mProtectedBytes > mMaxProtectedBytes && mProtected.size() > 1) {
+            Map.Entry<String, CachedFile> eldest = iterator.next();
+            iterator.remove();
+            mProtectedBytes -= eldest.getValue().getSize();
+            mProbation.put(eldest.getKey(), eldest.getValue());
+            mProbationBytes += eldest.getValue().getSize();
+        }
+        return value;
+    }
+
+
+    /**
+     * Adds a file to the probation segment. A file larger than the max bytes of the cache is
+     * not added.
+     *
+     * @param key   The key of a file
+     * @param value The file
+     */
+    synchronized void put(String key, CachedFile value) {
+        Thrower.throwIfVarNull(value, "value");
+        if (value.getSize() > mMaxBytes) {
+            mRemovalListener.accept(value);
+            return;
+        }
+        this.remove(key);
+        mProbation.put(key, value);
+        mProbationBytes += value.getSize();
+        this.evict();
+    }
+
+
+    private void remove(String key) {
+        CachedFile value = mProbation.remove(key);
+        if (value != null) {
+            mProbationBytes -= value.getSize();
+            mRemovalListener.accept(value);
+        }
+        value = mProtected.remove(key);
+        if (value != null) {
+            mProtectedBytes -= value.getSize();
+            mRemovalListener.accept(value);
+        }
+    }
+
+
+    /**
+     * Evicts the least recently used files, first from probation and then from protected,
+     * until the cache holds no more than the max bytes.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, CachedFile>> probation = mProbation.entrySet().iterator();
+        while (this.getResidentBytes() > mMaxBytes && probation.hasNext()) {
+            CachedFile value = probation.next().getValue();
+            mProbationBytes -= value.getSize();
+            probation.remove();
+            mEvictions++;
+            mRemovalListener.accept(value);
+        }
+        Iterator<Map.Entry<String, CachedFile>> protectedFiles = mProtected.entrySet().iterator();
+        while (this.getResidentBytes() > mMaxBytes && protectedFiles.hasNext()) {
+            CachedFile value = protectedFiles.next().getValue();
+            mProtectedBytes -= value.getSize();
+            protectedFiles.remove();
+            mEvictions++;
+            mRemovalListener.accept(value);
+        }
+    }
+
+
+    /**
+     * @return The number of requests for files that were in the cache
+     */
+    synchronized long cacheHits() {
+        return mHits;
+    }
+
+
+    /**
+     * @return The number of requests for files that were not in the cache
+     */
+    synchronized long cacheMisses() {
+        return mMisses;
+    }
+
+
+    /**
+     * @return The number of files evicted to keep the cache within its max bytes
+     */
+    synchronized long evictions() {
+        return mEvictions;
+    }
+
+
+    /**
+     * @return The number of files in the cache
+     */
+    synchronized int cacheSize() {
+        return mProbation.size() + mProtected.size();
+    }
+
+
+    /**
+     * @return The number of bytes of the files in the cache
+     */
+    synchronized long getResidentBytes() {
+        return mProbationBytes + mProtectedBytes;
+    }
+
+
+    @Override
+    public synchronized State getState() {
+        return State.getBuilder()
+                .add("MaxBytes", mMaxBytes)
+                .add("ResidentBytes", this.getResidentBytes())
+                .add("Files", this.cacheSize())
+                .add("Hits", mHits)
+                .add("Misses", mMisses)
+                .add("Evictions", mEvictions)
+                .build();
+    }
+
+}
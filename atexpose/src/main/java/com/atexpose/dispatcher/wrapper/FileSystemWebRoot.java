@@ -0,0 +1,110 @@
+package com.atexpose.dispatcher.wrapper;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The purpose of this class is to serve files from a directory on the file system.
+ * <p>
+ * The directory is canonicalized once. Requested files are normalized and files outside the
+ * directory, e.g. requested with "../", are treated as not existing.
+ */
+class FileSystemWebRoot implements IWebRoot {
+    /** The canonical path of the directory to serve files from */
+    private final Path mRoot;
+
+
+    /**
+     * @param directory The directory to serve files from
+     */
+    FileSystemWebRoot(String directory) {
+        try {
+            mRoot = Paths.get(directory).toRealPath();
+        } catch (IOException | InvalidPathException e) {
+            throw new RuntimeException("Web server dir '" + directory + "' does not exist. " + e.getMessage());
+        }
+        if (!Files.isDirectory(mRoot)) {
+            throw new RuntimeException("Web server dir '" + directory + "' is not a directory");
+        }
+    }
+
+
+    /**
+     * @return The canonical path of the directory to serve files from
+     */
+    String getRootDirectory() {
+        return mRoot.toString();
+    }
+
+
+    /**
+     * @param fileName The name of a file
+     * @return The normalized path of the argument file. Null if the file is outside the
+     * directory served or if the name is not a valid path.
+     */
+    Path resolve(String fileName) {
+        try {
+            Path path = Paths.get(fileName).toAbsolutePath().normalize();
+            return path.startsWith(mRoot) ? path : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+
+    @Override
+    public boolean fileExists(String fileName) {
+        Path path = this.resolve(fileName);
+        return path != null && Files.isRegularFile(path) && Files.isReadable(path);
+    }
+
+
+    @Override
+    public byte[] readFile(String fileName) {
+        Path path = this.resolve(fileName);
+        if (path == null) {
+            throw new RuntimeException("No such file '" + fileName + "'");
+        }
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while reading file '" + fileName + "'. Java error message: " + e.getMessage());
+        }
+    }
+
+
+    @Override
+    public long getLastModified(String fileName) {
+        Path path = this.resolve(fileName);
+        return (path == null) ? 0 : path.toFile().lastModified();
+    }
+
+
+    @Override
+    public Path getPath(String fileName) {
+        Path path = this.resolve(fileName);
+        return (path != null && Files.isRegularFile(path)) ? path : null;
+    }
+
+
+    @Override
+    public List<URL> getDirectoryUrls(String directory) {
+        Path path = this.resolve(directory);
+        if (path == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return Collections.singletonList(path.toUri().toURL());
+        } catch (MalformedURLException e) {
+            return Collections.emptyList();
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.atexpose.dispatcher.wrapper;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The purpose of this interface is to find and read the files that a web server serves.
+ * The file names are the web server dir followed by the requested file.
+ */
+interface IWebRoot {
+
+    /**
+     * @param fileName The name of a file
+     * @return True if the argument file exists and can be served
+     */
+    boolean fileExists(String fileName);
+
+
+    /**
+     * @param fileName The name of a file
+     * @return The content of the argument file
+     */
+    byte[] readFile(String fileName);
+
+
+    /**
+     * @param fileName The name of a file
+     * @return When the argument file was last modified in milliseconds since the epoch. 0 if
+     * unknown.
+     */
+    long getLastModified(String fileName);
+
+
+    /**
+     * @param fileName The name of a file
+     * @return The path of the argument file on the file system. Null if there is no such file
+     * or if the file is not on the file system.
+     */
+    Path getPath(String fileName);
+
+
+    /**
+     * @param directory The name of a directory
+     * @return The locations of the argument directory. A directory on the class path can be
+     * in more than one location, e.g. in more than one JAR.
+     */
+    List<URL> getDirectoryUrls(String directory);
+
+
+    /**
+     * @param fileName The name of a file or directory
+     * @return True if the argument is known to be a directory. Is only known if the web root
+     * is indexed.
+     */
+    default boolean isDirectory(String fileName) {
+        return false;
+    }
+
+}
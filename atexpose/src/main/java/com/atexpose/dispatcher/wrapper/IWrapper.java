@@ -0,0 +1,72 @@
+package com.atexpose.dispatcher.wrapper;
+
+import com.atexpose.dispatcher.parser.Request;
+import com.atexpose.util.ByteStorage;
+import com.atexpose.util.IResponseBody;
+import io.schinzel.basicutils.state.IStateNode;
+import org.json.JSONObject;
+
+import java.util.Map;
+
+/**
+ * @author Schinzel
+ */
+public interface IWrapper extends IStateNode {
+
+    String wrapResponse(String response);
+
+
+    byte[] wrapFile(String fileName);
+
+
+    String wrapError(Map<String, String> properties);
+
+
+    String wrapJSON(JSONObject response);
+
+
+    /**
+     * Adds the wrapped response to the argument sink. Wrappers that can write bytes
+     * directly override this method. By default the wrapped string is added as UTF-8.
+     *
+     * @param response The response to wrap
+     * @param request  The request responded to. Can be used to negotiate the response.
+     * @param sink     The wrapped response is added to this argument
+     */
+    default void wrapResponse(String response, Request request, ByteStorage sink) {
+        sink.add(this.wrapResponse(response));
+    }
+
+
+    /**
+     * @param fileName The name of the file to wrap
+     * @param request  The request responded to
+     * @param sink     The wrapped file is added to this argument
+     * @return A body to write after the bytes added to the sink, e.g. a region of a file.
+     * Null if the whole response was added to the sink.
+     */
+    default IResponseBody wrapFile(String fileName, Request request, ByteStorage sink) {
+        sink.add(this.wrapFile(fileName));
+        return null;
+    }
+
+
+    /**
+     * @param properties The properties of the error to wrap
+     * @param sink       The wrapped error is added to this argument
+     */
+    default void wrapError(Map<String, String> properties, ByteStorage sink) {
+        sink.add(this.wrapError(properties));
+    }
+
+
+    /**
+     * @param response The response to wrap
+     * @param request  The request responded to
+     * @param sink     The wrapped response is added to this argument
+     */
+    default void wrapJSON(JSONObject response, Request request, ByteStorage sink) {
+        sink.add(this.wrapJSON(response));
+    }
+
+}
@@ -0,0 +1,260 @@
+package com.atexpose.dispatcher.wrapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * The purpose of this class is to hold an index of the files of a web root, so that checking
+ * if a file exists does not require reading from the file system or from a JAR. Requests for
+ * files that do not exist, e.g. from scanners, are then answered without I/O.
+ * <p>
+ * The directories on the file system are checked for changes at most once per refresh
+ * interval. If a file has been added or removed, the index is rebuilt. Files in JARs do not
+ * change and are indexed once.
+ * <p>
+ * One thread at a time checks and rebuilds the index. Meanwhile other threads use the current
+ * index rather than wait, and no lock is held during the I/O.
+ */
+class IndexedWebRoot implements IWebRoot {
+    /** The max time in milliseconds between two checks if the directories have changed */
+    private static final long REFRESH_INTERVAL = 1000;
+    /** The web root to read files from */
+    private final IWebRoot mWebRoot;
+    /** The directory that is indexed, ending with a file separator */
+    private final String mDirectory;
+    /** The locations of the directory */
+    private final List<URL> mDirectoryUrls;
+    /** The current index */
+    private volatile Index mIndex;
+    /** When the directories were last checked for changes. Long.MAX_VALUE while being checked. */
+    private final AtomicLong mLastRefreshCheck;
+
+
+    /**
+     * An index of the files and directories at one point in time.
+     */
+    private static class Index {
+        /** The names of the files, prefixed with the indexed directory */
+        final Set<String> mFileNames = new HashSet<>();
+        /** The names of the directories, prefixed with the indexed directory */
+        final Set<String> mDirectoryNames = new HashSet<>();
+        /** The directories on the file system and when they were last modified */
+        final Map<Path, Long> mDirectoryModificationTimes = new HashMap<>();
+    }
+
+
+    private IndexedWebRoot(IWebRoot webRoot, String directory, List<URL> directoryUrls, Index index) {
+        mWebRoot = webRoot;
+        mDirectory = directory;
+        mDirectoryUrls = directoryUrls;
+        mIndex = index;
+        mLastRefreshCheck = new AtomicLong(System.currentTimeMillis());
+    }
+
+
+    /**
+     * @param webRoot   The web root to index
+     * @param directory The directory to index, ending with a file separator
+     * @return The argument web root with an index. The argument web root if the directory
+     * cannot be indexed, e.g. if it is in a location that cannot be listed.
+     */
+    static IWebRoot create(IWebRoot webRoot, String directory) {
+        List<URL> directoryUrls = webRoot.getDirectoryUrls(directory);
+        Index index = createIndex(directory, directoryUrls);
+        return (index == null)
+                ? webRoot
+                : new IndexedWebRoot(webRoot, directory, directoryUrls, index);
+    }
+
+
+    /**
+     * @return An index of the argument locations. Null if a location cannot be indexed.
+     */
+    private static Index createIndex(String directory, List<URL> directoryUrls) {
+        if (directoryUrls.isEmpty()) {
+            return null;
+        }
+        Index index = new Index();
+        index.mDirectoryNames.add(directory);
+        try {
+            for (URL directoryUrl : directoryUrls) {
+                switch (directoryUrl.getProtocol()) {
+                    case "file":
+                        addDirectory(Paths.get(directoryUrl.toURI()), directory, index);
+                        break;
+                    case "jar":
+                        addJarDirectory(directoryUrl, directory, index);
+                        break;
+                    default:
+                        return null;
+                }
+            }
+        } catch (IOException | UncheckedIOException | URISyntaxException e) {
+            return null;
+        }
+        return index;
+    }
+
+
+    /**
+     * Adds the files and directories in and below the argument directory on the file system.
+     */
+    private static void addDirectory(Path root, String directory, Index index) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.forEach(path -> {
+                String name = directory + root.relativize(path).toString().replace(File.separatorChar, '/');
+                if (Files.isDirectory(path)) {
+                    index.mDirectoryNames.add(name);
+                    index.mDirectoryModificationTimes.put(path, path.toFile().lastModified());
+                } else {
+                    index.mFileNames.add(name);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * Adds the files and directories in and below the argument directory in a JAR.
+     */
+    private static void addJarDirectory(URL directoryUrl, String directory, Index index) throws IOException {
+        URLConnection connection = directoryUrl.openConnection();
+        //Do not share the JAR file with other readers as it is closed when done
+        connection.setUseCaches(false);
+        JarURLConnection jarConnection = (JarURLConnection) connection;
+        String prefix = jarConnection.getEntryName() == null ? "" : jarConnection.getEntryName();
+        if (!prefix.isEmpty() && !prefix.endsWith("/")) {
+            prefix += "/";
+        }
+        try (JarFile jarFile = jarConnection.getJarFile()) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!entry.getName().startsWith(prefix)) {
+                    continue;
+                }
+                String name = directory + entry.getName().substring(prefix.length());
+                if (entry.isDirectory()) {
+                    //Directory entries end with a slash
+                    index.mDirectoryNames.add(name.substring(0, name.length() - 1));
+                } else {
+                    index.mFileNames.add(name);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * @return The current index. The index is rebuilt first if a directory has changed since
+     * the last check, which is done at most once per refresh interval. While one thread checks
+     * and rebuilds, other threads get the current index.
+     */
+    private Index getIndex() {
+        long lastRefreshCheck = mLastRefreshCheck.get();
+        //If the index was checked within the interval, or if another thread is checking it.
+        //The first check is always true while another thread checks, as the value is max long.
+        if (System.currentTimeMillis() - lastRefreshCheck < REFRESH_INTERVAL
+                || !mLastRefreshCheck.compareAndSet(lastRefreshCheck, Long.MAX_VALUE)) {
+            return mIndex;
+        }
+        try {
+            if (isChanged(mIndex)) {
+                Index index = createIndex(mDirectory, mDirectoryUrls);
+                if (index != null) {
+                    mIndex = index;
+                }
+            }
+        } finally {
+            mLastRefreshCheck.set(System.currentTimeMillis());
+        }
+        return mIndex;
+    }
+
+
+    /**
+     * A file added to or removed from a directory changes the modification time of the
+     * directory.
+     *
+     * @return True if a directory of the argument index has changed
+     */
+    private static boolean isChanged(Index index) {
+        for (Map.Entry<Path, Long> entry : index.mDirectoryModificationTimes.entrySet()) {
+            if (entry.getKey().toFile().lastModified() != entry.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Makes the next lookup check if the directories have changed. Is for testing.
+     */
+    void expireRefreshInterval() {
+        mLastRefreshCheck.set(0);
+    }
+
+
+    @Override
+    public boolean fileExists(String fileName) {
+        return this.getIndex().mFileNames.contains(fileName);
+    }
+
+
+    @Override
+    public boolean isDirectory(String fileName) {
+        return this.getIndex().mDirectoryNames.contains(fileName);
+    }
+
+
+    @Override
+    public byte[] readFile(String fileName) {
+        return mWebRoot.readFile(fileName);
+    }
+
+
+    @Override
+    public long getLastModified(String fileName) {
+        return mWebRoot.getLastModified(fileName);
+    }
+
+
+    @Override
+    public Path getPath(String fileName) {
+        return this.fileExists(fileName) ? mWebRoot.getPath(fileName) : null;
+    }
+
+
+    @Override
+    public List<URL> getDirectoryUrls(String directory) {
+        return mWebRoot.getDirectoryUrls(directory);
+    }
+
+
+    /**
+     * @return The number of files in the index
+     */
+    int getNoOfFiles() {
+        return this.getIndex().mFileNames.size();
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.atexpose.dispatcher.wrapper;
+
+import com.atexpose.util.BufferBody;
+import io.schinzel.basicutils.state.IStateNode;
+import io.schinzel.basicutils.state.State;
+import io.schinzel.basicutils.thrower.Thrower;
+
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The purpose of this class is to hold response bodies outside the heap, so that cached
+ * files do not add to the old generation and to the garbage collection pauses.
+ * <p>
+ * Bodies are copied into slabs, which are direct buffers. A slab is filled from start to end
+ * and its space is not reused, as a body can be written to a client after it has been freed.
+ * A slab in which all bodies have been freed is released, and its memory is returned once no
+ * client is writing from it. Bodies larger than half a slab get a slab of their own.
+ */
+class OffHeapStore implements IStateNode {
+    /** The default number of bytes in a slab */
+    static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+    /** The number of bytes in a slab */
+    private final int mSlabSize;
+    /** The slab that new bodies are added to. Null if no body has been added. */
+    private Slab mCurrentSlab;
+    /** The bodies that have not been freed, and for each the slab that holds it */
+    private final Map<BufferBody, Slab> mBodies = new IdentityHashMap<>();
+    /** The number of slabs that have not been released */
+    private int mNoOfSlabs = 0;
+    /** The number of bytes in the slabs that have not been released */
+    private long mSlabBytes = 0;
+    /** The number of bytes in the bodies that have not been freed */
+    private long mBodyBytes = 0;
+
+
+    /**
+     * A direct buffer that holds bodies.
+     */
+    private static class Slab {
+        final ByteBuffer mBuffer;
+        /** The number of bodies in this slab that have not been freed */
+        int mNoOfBodies = 0;
+
+
+        Slab(int size) {
+            mBuffer = ByteBuffer.allocateDirect(size);
+        }
+    }
+
+
+    /**
+     * @param slabSize The number of bytes in a slab
+     */
+    OffHeapStore(int slabSize) {
+        Thrower.throwIfVarTooSmall(slabSize, "slabSize", 1);
+        mSlabSize = slabSize;
+    }
+
+
+    /**
+     * @param bytes A response body
+     * @return The argument body copied outside the heap
+     */
+    synchronized BufferBody store(byte[] bytes) {
+        Slab slab;
+        //If the body is large, it gets a slab of its own
+        if (bytes.length > mSlabSize / 2) {
+            slab = this.addSlab(bytes.length);
+        } else {
+            if (mCurrentSlab == null || mCurrentSlab.mBuffer.remaining() < bytes.length) {
+                this.releaseIfEmpty(mCurrentSlab);
+                mCurrentSlab = this.addSlab(mSlabSize);
+            }
+            slab = mCurrentSlab;
+        }
+        ByteBuffer buffer = slab.mBuffer;
+        int start = buffer.position();
+        buffer.put(bytes);
+        ByteBuffer bodyBuffer = buffer.duplicate();
+        bodyBuffer.position(start);
+        bodyBuffer.limit(start + bytes.length);
+        BufferBody body = BufferBody.create(bodyBuffer.slice());
+        slab.mNoOfBodies++;
+        mBodies.put(body, slab);
+        mBodyBytes += bytes.length;
+        return body;
+    }
+
+
+    /**
+     * Frees a body. The space of the body is not reused, but once all bodies in a slab have
+     * been freed the slab is released.
+     *
+     * @param body A body returned by this store
+     */
+    synchronized void free(BufferBody body) {
+        Slab slab = mBodies.remove(body);
+        if (slab == null) {
+            return;
+        }
+        mBodyBytes -= body.getSize();
+        slab.mNoOfBodies--;
+        if (slab != mCurrentSlab) {
+            this.releaseIfEmpty(slab);
+        }
+    }
+
+
+    private Slab addSlab(int size) {
+        mNoOfSlabs++;
+        mSlabBytes += size;
+        return new Slab(size);
+    }
+
+
+    /**
+     * Releases the argument slab if it holds no bodies. The memory is returned by the
+     * garbage collector once no client is writing from the slab.
+     */
+    private void releaseIfEmpty(Slab slab) {
+        if (slab != null && slab.mNoOfBodies == 0) {
+            mNoOfSlabs--;
+            mSlabBytes -= slab.mBuffer.capacity();
+        }
+    }
+
+
+    /**
+     * @return The number of bytes outside the heap held by this store
+     */
+    synchronized long getResidentBytes() {
+        return mSlabBytes;
+    }
+
+
+    /**
+     * @return The share, in percent, of the resident bytes that do not hold a body
+     */
+    synchronized int getFragmentationPercent() {
+        return (mSlabBytes == 0) ? 0 : (int) (100 * (mSlabBytes - mBodyBytes) / mSlabBytes);
+    }
+
+
+    @Override
+    public synchronized State getState() {
+        return State.getBuilder()
+                .add("ResidentBytes", mSlabBytes)
+                .add("BodyBytes", mBodyBytes)
+                .add("Bodies", mBodies.size())
+                .add("Slabs", mNoOfSlabs)
+                .add("FragmentationPercent", this.getFragmentationPercent())
+                .build();
+    }
+
+}
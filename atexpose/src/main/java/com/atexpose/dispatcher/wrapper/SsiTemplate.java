@@ -0,0 +1,187 @@
+package com.atexpose.dispatcher.wrapper;
+
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The purpose of this class is to hold a text file parsed once into segments for server side
+ * includes. A segment is a literal, an include file or a variable set per request.
+ * <p>
+ * Include files are templates of their own that can be shared by many templates. Server
+ * side variables are inserted in the literals as the template is compiled. Variables set per
+ * request are inserted as the template is rendered.
+ */
+class SsiTemplate {
+    /**
+     * Pattern for include files and variables. Examples: <!--#include file="header.html" -->
+     * and <!--#echo var="my_var" -->
+     */
+    private static final Pattern DIRECTIVE_PATTERN = Pattern.compile(
+            "<!--#(?:include file=\"([\\w,/]+\\.[A-Za-z]{2,4})\"|echo var=\"([a-zA-Z1-9_]{3,25})\") -->");
+    /** The bytes that start any directive */
+    private static final byte[] DIRECTIVE_START = UTF8.getBytes("<!--#");
+    /** The segments of the template in order */
+    private final List<ISegment> mSegments;
+    /** True if this template, or a template it includes, has variables set per request */
+    private final boolean mDynamic;
+    /** The number of bytes in the literals of this template */
+    private final int mLiteralBytes;
+
+
+    private SsiTemplate(List<ISegment> segments, boolean dynamic, int literalBytes) {
+        mSegments = segments;
+        mDynamic = dynamic;
+        mLiteralBytes = literalBytes;
+    }
+
+
+    @FunctionalInterface
+    private interface ISegment {
+        void render(ByteStorage sink, UnaryOperator<String> requestVariables);
+    }
+
+
+    /**
+     * @param text A text without directives
+     * @return A template of the argument text
+     */
+    static SsiTemplate literal(String text) {
+        byte[] bytes = UTF8.getBytes(text);
+        return new SsiTemplate(Collections.singletonList((sink, requestVariables) -> sink.add(bytes)), false, bytes.length);
+    }
+
+
+    /**
+     * @param content              The content of a text file
+     * @param serverSideVariables  Variables inserted as the template is compiled
+     * @param requestVariableNames The names of variables inserted as the template is rendered
+     * @param includeFiles         Returns the template of an include file name. Null if include
+     *                             directives are to be kept as they are.
+     * @return The argument content compiled to a template
+     */
+    static SsiTemplate compile(byte[] content, Map<String, String> serverSideVariables,
+                               Set<String> requestVariableNames, Function<String, SsiTemplate> includeFiles) {
+        //If there are no directives, the content is kept as is
+        if (indexOf(content, DIRECTIVE_START) == -1) {
+            return new SsiTemplate(Collections.singletonList((sink, requestVariables) -> sink.add(content)), false, content.length);
+        }
+        String text = UTF8.getString(content);
+        List<ISegment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean dynamic = false;
+        int literalBytes = 0;
+        Matcher matcher = DIRECTIVE_PATTERN.matcher(text);
+        int end = 0;
+        while (matcher.find()) {
+            literal.append(text, end, matcher.start());
+            end = matcher.end();
+            String includeFileName = matcher.group(1);
+            String variableName = matcher.group(2);
+            //If is an include file directive and include files are to be included
+            if (includeFileName != null && includeFiles != null) {
+                literalBytes += addLiteral(literal, segments);
+                SsiTemplate includeFile = includeFiles.apply(includeFileName);
+                segments.add(includeFile::render);
+                dynamic |= includeFile.mDynamic;
+            } else if (variableName != null && serverSideVariables.containsKey(variableName)) {
+                literal.append(serverSideVariables.get(variableName));
+            } else if (variableName != null && requestVariableNames.contains(variableName)) {
+                literalBytes += addLiteral(literal, segments);
+                segments.add((sink, requestVariables) -> sink.add(requestVariables.apply(variableName)));
+                dynamic = true;
+            } else {
+                //Unknown variables are kept as they are
+                literal.append(matcher.group());
+            }
+        }
+        literal.append(text, end, text.length());
+        literalBytes += addLiteral(literal, segments);
+        return new SsiTemplate(segments, dynamic, literalBytes);
+    }
+
+
+    /**
+     * Adds the argument literal as a segment, if not empty, and clears it.
+     *
+     * @return The number of bytes added
+     */
+    private static int addLiteral(StringBuilder literal, List<ISegment> segments) {
+        if (literal.length() == 0) {
+            return 0;
+        }
+        byte[] bytes = UTF8.getBytes(literal.toString());
+        segments.add((sink, requestVariables) -> sink.add(bytes));
+        literal.setLength(0);
+        return bytes.length;
+    }
+
+
+    /**
+     * @return The index of the first occurrence of the argument pattern in the argument bytes.
+     * -1 if not found.
+     */
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+
+    /**
+     * Writes the segments of the template to the argument sink.
+     *
+     * @param sink             The rendered template is added to this argument
+     * @param requestVariables Returns the value of a variable set per request
+     */
+    void render(ByteStorage sink, UnaryOperator<String> requestVariables) {
+        for (ISegment segment : mSegments) {
+            segment.render(sink, requestVariables);
+        }
+    }
+
+
+    /**
+     * @return The rendered template. Is for templates without variables set per request.
+     */
+    byte[] render() {
+        ByteStorage sink = new ByteStorage();
+        this.render(sink, variableName -> "");
+        return sink.getBytes();
+    }
+
+
+    /**
+     * @return True if the template has variables set per request and as such has to be
+     * rendered for each request
+     */
+    boolean isDynamic() {
+        return mDynamic;
+    }
+
+
+    /**
+     * @return The number of bytes in the literals of this template, not counting include
+     * files
+     */
+    int getLiteralBytes() {
+        return mLiteralBytes;
+    }
+
+}
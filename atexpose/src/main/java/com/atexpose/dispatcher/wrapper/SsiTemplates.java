@@ -0,0 +1,101 @@
+package com.atexpose.dispatcher.wrapper;
+
+import lombok.Builder;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The purpose of this class is to compile text files to server side include templates.
+ * <p>
+ * Each include file is compiled once to a template that is shared by all templates that
+ * include it. An include file that includes itself, directly or through other include
+ * files, is not included again.
+ */
+class SsiTemplates {
+    /** Finds and reads the include files */
+    private final IWebRoot mWebRoot;
+    /** The directory of the include files */
+    private final String mDirectory;
+    /** Variables inserted as the templates are compiled */
+    private final Map<String, String> mServerSideVariables;
+    /** The names of the variables inserted as the templates are rendered */
+    private final Set<String> mRequestVariableNames;
+    /** The compiled include files. Null if the include files are read each time. */
+    private final Map<String, SsiTemplate> mIncludeFiles;
+
+
+    /**
+     * @param cacheIncludeFiles If true, include files are compiled once. If false, include
+     *                          files are read each time a file that includes them is compiled.
+     */
+    @Builder
+    private SsiTemplates(IWebRoot webRoot, String directory, Map<String, String> serverSideVariables,
+                         Set<String> requestVariableNames, boolean cacheIncludeFiles) {
+        mWebRoot = webRoot;
+        mDirectory = directory;
+        mServerSideVariables = (serverSideVariables == null) ? Collections.emptyMap() : serverSideVariables;
+        mRequestVariableNames = (requestVariableNames == null) ? Collections.emptySet() : requestVariableNames;
+        mIncludeFiles = cacheIncludeFiles ? new ConcurrentHashMap<>() : null;
+    }
+
+
+    /**
+     * @param content The content of a text file
+     * @return The argument content compiled to a template
+     */
+    SsiTemplate compile(byte[] content) {
+        return this.compile(content, new ArrayDeque<>());
+    }
+
+
+    /**
+     * @param includeFileStack The names of the include files being compiled, the innermost
+     *                         first
+     */
+    private SsiTemplate compile(byte[] content, Deque<String> includeFileStack) {
+        return SsiTemplate.compile(content, mServerSideVariables, mRequestVariableNames,
+                includeFileName -> this.getIncludeFile(mDirectory + includeFileName, includeFileStack));
+    }
+
+
+    /**
+     * @return The template of the argument include file
+     */
+    private SsiTemplate getIncludeFile(String fileName, Deque<String> includeFileStack) {
+        if (includeFileStack.contains(fileName)) {
+            return SsiTemplate.literal("Include file '" + fileName + "' includes itself");
+        }
+        SsiTemplate includeFile = (mIncludeFiles == null) ? null : mIncludeFiles.get(fileName);
+        if (includeFile != null) {
+            return includeFile;
+        }
+        //Missing include files are not cached as they can be added
+        if (!mWebRoot.fileExists(fileName)) {
+            return SsiTemplate.literal("Include file '" + fileName + "' not found");
+        }
+        includeFileStack.push(fileName);
+        try {
+            includeFile = this.compile(mWebRoot.readFile(fileName), includeFileStack);
+        } finally {
+            includeFileStack.pop();
+        }
+        if (mIncludeFiles != null) {
+            mIncludeFiles.put(fileName, includeFile);
+        }
+        return includeFile;
+    }
+
+
+    /**
+     * @return The number of compiled include files held
+     */
+    int getNoOfIncludeFiles() {
+        return (mIncludeFiles == null) ? 0 : mIncludeFiles.size();
+    }
+
+}
@@ -0,0 +1,610 @@
+package com.atexpose.dispatcher.wrapper;
+
+import com.atexpose.MyProperties;
+import com.atexpose.dispatcher.parser.Request;
+import com.atexpose.util.ArrayUtil;
+import com.atexpose.util.ByteStorage;
+import com.atexpose.util.FileRegion;
+import com.atexpose.util.IResponseBody;
+import com.atexpose.util.httpresponse.*;
+import com.google.common.base.Charsets;
+import io.schinzel.basicutils.Checker;
+import io.schinzel.basicutils.thrower.Thrower;
+import io.schinzel.basicutils.state.State;
+import lombok.Builder;
+import lombok.experimental.Accessors;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * This wrapper handles two types of responses:
+ * 1) JSON responses
+ * 2) file responses (image, html, js and so on)
+ * <p>
+ * The file responses are divided into two groups:
+ * 1) Text files. Examples: html and text.
+ * 2) Static files. Examples: jpg and pdf.
+ * <p>
+ * Text files support two types of server side includes:
+ * 1) Files <!--#include file="header.html" -->
+ * 2) Variables <!--#echo var="my_var" -->
+ * Include files can contain other include files which in turn can contain other include files and
+ * so on.
+ * The format is according to SSI: https://en.wikipedia.org/wiki/Server_Side_Includes
+ * A text file is compiled once to a template, in which the include files are shared templates
+ * of their own and the server side variables are inserted. Variables set per request are
+ * inserted as the file is requested.
+ *
+ * @author Schinzel
+ */
+@Accessors(prefix = "m")
+public class WebWrapper implements IWrapper {
+    /** The default 404 page */
+    private static final byte[] DEFAULT_404_PAGE = "<html><body><center>File not found</center><body></html>".getBytes(Charsets.UTF_8);
+    /** The default max number of bytes of the files cached in RAM */
+    public static final long DEFAULT_FILE_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+    /** The default size in bytes above which files are not read into RAM */
+    public static final long DEFAULT_LARGE_FILE_THRESHOLD = 1024L * 1024;
+    /** The default to return if no page was specified */
+    private static final String DEFAULT_PAGE = "index.html";
+    /** Where the files to server resides on the hard drive **/
+    private final String mWebServerDir;
+    /** Finds and reads the files to serve */
+    private final IWebRoot mWebRoot;
+    /** If true, the web server dir is a directory on the file system. Else on the class path. */
+    private final boolean mWebServerDirOnFileSystem;
+    /** Browser cache age instruction. **/
+    private final int mBrowserCacheMaxAge;
+    /** Variables to inject to the page */
+    private final Map<String, String> mServerSideVariables;
+    /** Variables to inject to the page as it is requested. Returns the value for a request. */
+    private final Map<String, Function<Request, String>> mRequestVariables;
+    /** Compiles the text files to server side include templates */
+    private final SsiTemplates mSsiTemplates;
+    /** If true, files read will be cached in RAM */
+    private final boolean mFileCacheOn;
+    /**
+     * If true, text files and larger dynamic responses are compressed for clients that
+     * accept it
+     */
+    private final boolean mCompression;
+    /**
+     * If true, the responses of exposed methods are tagged with a hash of the body, so that
+     * a client that has the body gets a 304 response without body
+     */
+    private final boolean mMethodResponseETags;
+    /** Custom response headers to add to response header */
+    private final Map<String, String> mCustomResponseHeaders;
+    /** The custom response headers rendered once as header lines */
+    private final CustomHeaders mCustomHeaders;
+    /**
+     * Files, that are not text files, larger than this number of bytes are not read into RAM.
+     * Instead they are written from the file system and can be requested in ranges.
+     */
+    private final long mLargeFileThreshold;
+    /** Files read from drive stored in RAM */
+    final FileCache mFileCache;
+    /** Holds the bodies of the cached files outside the heap. Null if the bodies are on the heap. */
+    private final OffHeapStore mOffHeapStore;
+    /** 404 page to return of a requested file does not exist */
+    private final byte[] m404Page;
+
+
+    /**
+     * @param fileCacheMaxBytes   The max number of bytes of the files cached in RAM. If 0, the
+     *                            default is used.
+     * @param largeFileThreshold  The size in bytes above which files are not read into RAM. If
+     *                            0, the default is used.
+     * @param compression         If true, responses are compressed as negotiated with the client
+     * @param methodResponseETags If true, the responses of exposed methods are tagged
+     * @param webServerDirOnFileSystem If true, the web server dir is a directory on the file
+     *                                 system. If false, the dir is on the class path. Files
+     *                                 on the file system are sent without heap copies only
+     *                                 by the non-blocking web channel.
+     * @param requestVariables         Variables inserted in text files per request. Text files
+     *                                 with such variables are rendered for each request.
+     * @param offHeapFileCache         If true, the bodies of the cached files are held outside
+     *                                 the heap
+     */
+    @Builder
+    WebWrapper(String webServerDir, int browserCacheMaxAge, boolean cacheFilesInRam,
+               long fileCacheMaxBytes, long largeFileThreshold, Map<String, String> serverSideVariables,
+               Map<String, String> responseHeaders, String fileName404Page, boolean compression,
+               boolean methodResponseETags, boolean webServerDirOnFileSystem,
+               Map<String, Function<Request, String>> requestVariables, boolean offHeapFileCache) {
+        IWebRoot webRoot = ClasspathWebRoot.INSTANCE;
+        if (webServerDirOnFileSystem) {
+            FileSystemWebRoot fileSystemWebRoot = new FileSystemWebRoot(webServerDir);
+            //The canonical directory, so that the names of the files served are canonical
+            webServerDir = fileSystemWebRoot.getRootDirectory();
+            webRoot = fileSystemWebRoot;
+        }
+        mWebServerDirOnFileSystem = webServerDirOnFileSystem;
+        //If the last char is not a file separator, then add it
+        mWebServerDir = !webServerDir.endsWith(MyProperties.FILE_SEPARATOR)
+                ? webServerDir + MyProperties.FILE_SEPARATOR
+                : webServerDir;
+        //Index the files once, so that checking if a file exists is a lookup
+        mWebRoot = IndexedWebRoot.create(webRoot, mWebServerDir);
+        mBrowserCacheMaxAge = browserCacheMaxAge;
+        mServerSideVariables = Checker.isEmpty(serverSideVariables)
+                ? Collections.emptyMap()
+                : serverSideVariables;
+        Thrower.throwIfVarOutsideRange(browserCacheMaxAge, "browserCacheMaxAge", 0, 604800);
+        mCustomResponseHeaders = Checker.isEmpty(responseHeaders)
+                ? Collections.emptyMap()
+                : responseHeaders;
+        mCustomHeaders = CustomHeaders.create(mCustomResponseHeaders);
+        mFileCacheOn = cacheFilesInRam;
+        mRequestVariables = Checker.isEmpty(requestVariables)
+                ? Collections.emptyMap()
+                : requestVariables;
+        mSsiTemplates = SsiTemplates.builder()
+                .webRoot(mWebRoot)
+                .directory(mWebServerDir)
+                .serverSideVariables(mServerSideVariables)
+                .requestVariableNames(mRequestVariables.keySet())
+                //If files are not cached, include files are read each time so that changes are seen
+                .cacheIncludeFiles(cacheFilesInRam)
+                .build();
+        mCompression = compression;
+        mMethodResponseETags = methodResponseETags;
+        mLargeFileThreshold = (largeFileThreshold == 0) ? DEFAULT_LARGE_FILE_THRESHOLD : largeFileThreshold;
+        mOffHeapStore = offHeapFileCache ? new OffHeapStore(OffHeapStore.DEFAULT_SLAB_SIZE) : null;
+        //If a file leaves the cache, its body outside the heap is freed
+        mFileCache = new FileCache(fileCacheMaxBytes == 0 ? DEFAULT_FILE_CACHE_MAX_BYTES : fileCacheMaxBytes,
+                file -> {
+                    if (file.getBody() != null) {
+                        mOffHeapStore.free(file.getBody());
+                    }
+                });
+        m404Page = Checker.isEmpty(fileName404Page)
+                ? DEFAULT_404_PAGE
+                : mWebRoot.readFile(this.getFullFileName(fileName404Page));
+    }
+
+
+    @Override
+    public String wrapResponse(String methodReturn) {
+        return HttpResponseString.builder()
+                .body(methodReturn)
+                .customHeaders(mCustomResponseHeaders)
+                .build()
+                .getResponse();
+    }
+
+
+    @Override
+    public String wrapError(Map<String, String> properties) {
+        return HttpResponse500.builder()
+                .body(new JSONObject(properties))
+                .customHeaders(mCustomResponseHeaders)
+                .build()
+                .getResponse();
+    }
+
+
+    @Override
+    public String wrapJSON(JSONObject response) {
+        return HttpResponseJson.builder()
+                .body(response)
+                .customHeaders(mCustomResponseHeaders)
+                .build()
+                .getResponse();
+    }
+
+
+    @Override
+    public void wrapResponse(String methodReturn, Request request, ByteStorage sink) {
+        HttpResponseString.write(methodReturn, this.getAcceptedEncoding(request), this.getIfNoneMatch(request), mCustomHeaders, sink);
+    }
+
+
+    @Override
+    public void wrapError(Map<String, String> properties, ByteStorage sink) {
+        HttpResponse500.write(new JSONObject(properties), mCustomHeaders, sink);
+    }
+
+
+    @Override
+    public void wrapJSON(JSONObject response, Request request, ByteStorage sink) {
+        HttpResponseJson.write(response, this.getAcceptedEncoding(request), this.getIfNoneMatch(request), mCustomHeaders, sink);
+    }
+
+
+    @Override
+    public IResponseBody wrapFile(String requestedFile, Request request, ByteStorage sink) {
+        String fileName = this.getFullFileName(requestedFile);
+        boolean isTextFile = FileUtil.isTextFile(fileName);
+        //If compression is on and the file is a text file, the file is negotiated
+        ContentEncoding contentEncoding = isTextFile
+                ? this.getAcceptedEncoding(request)
+                : null;
+        CachedFile file = this.getCachedFile(fileName, contentEncoding);
+        //If the file is not in the cache and is not a text file, it can be too large to read into RAM
+        if (file == null && !isTextFile) {
+            Path path = mWebRoot.getPath(fileName);
+            //If the file is on the file system and is large
+            if (path != null && path.toFile().length() > mLargeFileThreshold) {
+                return this.wrapLargeFile(fileName, path, request, sink);
+            }
+        }
+        if (file == null) {
+            file = this.readFile(fileName, contentEncoding);
+        }
+        //If the file has variables set per request
+        if (file.getTemplate() != null) {
+            sink.add(this.renderFile(fileName, file.getTemplate(), request, contentEncoding));
+            return null;
+        }
+        //If the client already has the file
+        if (file.isNotModified(request)) {
+            String lastModified = file.getLastModified() > 0 ? HttpDate.format(file.getLastModified()) : null;
+            HttpResponse304.write(file.getETag(), lastModified, contentEncoding, mCustomHeaders, sink);
+            return null;
+        }
+        sink.add(file.getResponse());
+        //If the body is outside the heap, it is written from there after the header
+        return file.getBody();
+    }
+
+
+    /**
+     * Writes the header of a response for a file too large to read into RAM. The body, the
+     * whole file or the range requested, is returned as a region to be written from the file
+     * system.
+     *
+     * @return The region of the file to write after the header. Null if the response has no
+     * body.
+     */
+    private FileRegion wrapLargeFile(String fileName, Path path, Request request, ByteStorage sink) {
+        File file = path.toFile();
+        long fileSize = file.length();
+        long lastModified = file.lastModified();
+        String eTag = ETag.create(fileSize, lastModified);
+        String lastModifiedDate = lastModified > 0 ? HttpDate.format(lastModified) : null;
+        //If the client already has the file
+        if (CachedFile.isNotModified(request, eTag, lastModified)) {
+            HttpResponse304.write(eTag, lastModifiedDate, null, mCustomHeaders, sink);
+            return null;
+        }
+        ByteRange range = isRangeValid(request.getHeaderValue("If-Range"), eTag, lastModified)
+                ? ByteRange.parse(request.getHeaderValue("Range"), fileSize)
+                : null;
+        if (range == ByteRange.UNSATISFIABLE) {
+            HttpResponseFile.writeRangeNotSatisfiable(fileSize, mCustomHeaders, sink);
+            return null;
+        }
+        HttpResponseFile.writeHeader(fileName, fileSize, range, eTag, lastModifiedDate, mCustomHeaders, sink);
+        return (range == null)
+                ? FileRegion.create(path, 0, fileSize)
+                : FileRegion.create(path, range.getStart(), range.getLength());
+    }
+
+
+    /**
+     * @param ifRange      The If-Range header of a request. Is an entity tag or a http date.
+     * @param eTag         The entity tag of the requested file
+     * @param lastModified When the requested file was last modified
+     * @return True if the range of a request is to be returned. False if the file has changed
+     * since the client got the part it has, in which case the whole file is returned.
+     */
+    static boolean isRangeValid(String ifRange, String eTag, long lastModified) {
+        if (Checker.isEmpty(ifRange)) {
+            return true;
+        }
+        //If the header is an entity tag. Weak tags are never valid for ranges.
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag);
+        }
+        long ifRangeDate = HttpDate.parse(ifRange);
+        //Http dates have a resolution of seconds
+        return ifRangeDate >= 0 && lastModified / 1000 == ifRangeDate / 1000;
+    }
+
+
+    /**
+     * @return The encoding accepted by the client of the argument request. Null if compression
+     * is off.
+     */
+    private ContentEncoding getAcceptedEncoding(Request request) {
+        return mCompression
+                ? ContentEncoding.negotiate(request.getHeaderValue("Accept-Encoding"))
+                : null;
+    }
+
+
+    /**
+     * @return The If-None-Match header of the argument request. Null if method responses are
+     * not tagged.
+     */
+    private String getIfNoneMatch(Request request) {
+        return mMethodResponseETags
+                ? request.getHeaderValue("If-None-Match")
+                : null;
+    }
+
+
+    @Override
+    public byte[] wrapFile(String requestedFile) {
+        String fileName = this.getFullFileName(requestedFile);
+        ContentEncoding contentEncoding = mCompression && FileUtil.isTextFile(fileName) ? ContentEncoding.IDENTITY : null;
+        CachedFile file = this.getFile(fileName, contentEncoding);
+        if (file.getTemplate() != null) {
+            return this.renderFile(fileName, file.getTemplate(), Request.EMPTY, contentEncoding);
+        }
+        return (file.getBody() != null)
+                ? ArrayUtil.concat(file.getResponse(), file.getBody().getBytes())
+                : file.getResponse();
+    }
+
+
+    /**
+     * @param template        The template of a text file with variables set per request
+     * @param request         The request to render the file for
+     * @param contentEncoding The encoding to compress the file with. Null if the file is not
+     *                        negotiated.
+     * @return The header and the rendered content of the argument file
+     */
+    private byte[] renderFile(String fileName, SsiTemplate template, Request request, ContentEncoding contentEncoding) {
+        ByteStorage content = new ByteStorage();
+        template.render(content, variableName -> {
+            String value = mRequestVariables.get(variableName).apply(request);
+            return (value == null) ? "" : value;
+        });
+        byte[] body = content.getBytes();
+        //If the file is too small to gain from compression, send it as is
+        if (contentEncoding != null && body.length < Compression.MIN_SIZE_TO_COMPRESS) {
+            contentEncoding = ContentEncoding.IDENTITY;
+        }
+        return HttpResponseFile.builder()
+                .body(body)
+                .customHeaders(mCustomResponseHeaders)
+                .filename(fileName)
+                .contentEncoding(contentEncoding)
+                .build()
+                .getResponse();
+    }
+
+
+    /**
+     * @param fileName        The full name of the file
+     * @param contentEncoding The encoding to compress the file with. Null if the file is not
+     *                        negotiated.
+     * @return The header and content of the argument file
+     */
+    private CachedFile getFile(String fileName, ContentEncoding contentEncoding) {
+        CachedFile cachedFile = this.getCachedFile(fileName, contentEncoding);
+        return (cachedFile != null)
+                ? cachedFile
+                : this.readFile(fileName, contentEncoding);
+    }
+
+
+    /**
+     * @return The argument file from the cache. Null if the file is not cached or if the cache
+     * is off.
+     */
+    private CachedFile getCachedFile(String fileName, ContentEncoding contentEncoding) {
+        return mFileCacheOn
+                ? mFileCache.get(getCacheKey(fileName, contentEncoding))
+                : null;
+    }
+
+
+    /**
+     * Each encoding of a file is cached as a file of its own.
+     */
+    private static String getCacheKey(String fileName, ContentEncoding contentEncoding) {
+        return (contentEncoding == null || contentEncoding == ContentEncoding.IDENTITY)
+                ? fileName
+                : fileName + ":" + contentEncoding.name();
+    }
+
+
+    /**
+     * Reads the argument file and adds it to the cache if the cache is on.
+     *
+     * @return The header and content of the argument file
+     */
+    private CachedFile readFile(String fileName, ContentEncoding contentEncoding) {
+        //If the file does not exist. 404 responses are not cached as any number of file names can be requested.
+        if (!mWebRoot.fileExists(fileName)) {
+            return CachedFile.builder()
+                    .response(get404headerAndContent())
+                    .build();
+        }
+        CachedFile file = getFileHeaderAndContent(fileName, contentEncoding);
+        if (mFileCacheOn) {
+            //If the bodies are held outside the heap and the file is the same for all requests
+            if (mOffHeapStore != null && file.getResponse() != null) {
+                file = this.moveBodyOffHeap(file);
+            }
+            mFileCache.put(getCacheKey(fileName, contentEncoding), file);
+        }
+        return file;
+    }
+
+
+    /**
+     * The header is kept on the heap as header lines, e.g. for keep-alive, are inserted in
+     * it as it is written.
+     *
+     * @return The argument file with the body copied outside the heap
+     */
+    private CachedFile moveBodyOffHeap(CachedFile file) {
+        byte[] response = file.getResponse();
+        int headerLength = getHeaderLength(response);
+        return CachedFile.builder()
+                .response(Arrays.copyOf(response, headerLength))
+                .body(mOffHeapStore.store(Arrays.copyOfRange(response, headerLength, response.length)))
+                .eTag(file.getETag())
+                .lastModified(file.getLastModified())
+                .build();
+    }
+
+
+    /**
+     * @param response The header and the body of a response
+     * @return The number of bytes in the header, including the blank line that ends it
+     */
+    static int getHeaderLength(byte[] response) {
+        for (int i = 3; i < response.length; i++) {
+            if (response[i] == '\n' && response[i - 1] == '\r' && response[i - 2] == '\n' && response[i - 3] == '\r') {
+                return i + 1;
+            }
+        }
+        throw new RuntimeException("Response has no end of header");
+    }
+
+
+    private byte[] get404headerAndContent() {
+        return HttpResponse404.builder()
+                .body(m404Page)
+                .customHeaders(mCustomResponseHeaders)
+                .build()
+                .getResponse();
+    }
+
+
+    byte[] getFileHeaderAndContent(String fileName) {
+        return this.getFileHeaderAndContent(fileName, null).getResponse();
+    }
+
+
+    /**
+     * @return The response for the argument file, tagged with a hash of the file content
+     */
+    private CachedFile getFileHeaderAndContent(String fileName, ContentEncoding contentEncoding) {
+        byte[] abFileContent = mWebRoot.readFile(fileName);
+        if (FileUtil.isTextFile(fileName)) {
+            //Add server side include files and variables
+            SsiTemplate template = mSsiTemplates.compile(abFileContent);
+            //If the file has variables set per request, the file is rendered for each request
+            if (template.isDynamic()) {
+                return CachedFile.builder()
+                        .template(template)
+                        .build();
+            }
+            abFileContent = template.render();
+        }
+        //If the file is too small to gain from compression, send it as is
+        if (contentEncoding != null && abFileContent.length < Compression.MIN_SIZE_TO_COMPRESS) {
+            contentEncoding = ContentEncoding.IDENTITY;
+        }
+        String eTag = ETag.create(abFileContent, contentEncoding);
+        long lastModified = mWebRoot.getLastModified(fileName);
+        byte[] response = HttpResponseFile.builder()
+                .body(abFileContent)
+                .customHeaders(mCustomResponseHeaders)
+                .filename(fileName)
+                .contentEncoding(contentEncoding)
+                .eTag(eTag)
+                .lastModified(lastModified > 0 ? HttpDate.format(lastModified) : null)
+                .build()
+                .getResponse();
+        return CachedFile.builder()
+                .response(response)
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .build();
+    }
+
+
+    /**
+     * Derives the actual file name for the requested file.
+     * <p>
+     * If the request is a directory, the default file including the
+     * argument directory is returned. A request without a file extension is a directory, as
+     * is a request for a directory in the index of the web root.
+     * <p>
+     * If forced default page is enabled, this page in the in the web root is
+     * always returned.
+     * <p>
+     * The directory on the hard drive is added as a prefix to argument file
+     * name.
+     *
+     * @param requestedFile The requested file
+     * @return The name of the actual file to return
+     */
+    private String getFullFileName(String requestedFile) {
+        // if filename is empty
+        if (Checker.isEmpty(requestedFile)) {
+            requestedFile = DEFAULT_PAGE;
+        } // if the request if a folder path, we return the default file in this folder
+        else if (FileUtil.isDirPath(requestedFile) || mWebRoot.isDirectory(mWebServerDir + requestedFile)) {
+            // suffix with / if not there
+            if (!requestedFile.endsWith("/")) {
+                requestedFile += "/";
+            }
+            // suffix with default page
+            requestedFile += DEFAULT_PAGE;
+        }
+        //Prefix with path to directory where files resides
+        requestedFile = mWebServerDir + requestedFile;
+        return requestedFile;
+    }
+
+
+    /**
+     * Replaces all the server side variable placeholders <!--#echo var="MY_VAR" --> with
+     * the server side variable value.
+     *
+     * @param fileContent         The file content into which the argument variables are to be
+     *                            injected
+     * @param serverSideVariables The variables to inject.
+     * @return The argument with the placeholders replaced with server side
+     * variables.
+     */
+    static byte[] setServerSideVariables(byte[] fileContent, Map<String, String> serverSideVariables) {
+        return SsiTemplate.compile(fileContent, serverSideVariables, Collections.emptySet(), null)
+                .render();
+    }
+
+
+    /**
+     * Replaces all include file placeholders <!--#include file="header.html" --> with the
+     * content of the include file.
+     *
+     * @param fileContent The content of the file in which include files are to be injected
+     * @param directory   The directory to prepend to the name of the include files.
+     * @return The argument file content with the placeholders replaced with the content of the
+     * include files.
+     */
+    static byte[] setServerIncludeFiles(byte[] fileContent, String directory) {
+        return SsiTemplates.builder()
+                .webRoot(ClasspathWebRoot.INSTANCE)
+                .directory(directory)
+                .build()
+                .compile(fileContent)
+                .render();
+    }
+
+
+    @Override
+    public State getState() {
+        State.StateBuilder stateBuilder = State.getBuilder()
+                .add("Directory", mWebServerDir)
+                .add("DirectoryOnFileSystem", mWebServerDirOnFileSystem)
+                .add("Indexed", mWebRoot instanceof IndexedWebRoot)
+                .add("BrowserCacheMaxAge", mBrowserCacheMaxAge)
+                .add("FilesInRamCache", mFileCacheOn)
+                .add("IncludeFilesInRamCache", mSsiTemplates.getNoOfIncludeFiles())
+                .add("LargeFileThreshold", mLargeFileThreshold)
+                .add("Compression", mCompression)
+                .add("MethodResponseETags", mMethodResponseETags)
+                .add("OffHeapFileCache", mOffHeapStore != null)
+                .addChild("FileCache", mFileCache);
+        if (mOffHeapStore != null) {
+            stateBuilder.addChild("OffHeapStore", mOffHeapStore);
+        }
+        return stateBuilder.build();
+    }
+
+}
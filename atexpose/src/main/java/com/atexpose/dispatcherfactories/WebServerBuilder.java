@@ -2,10 +2,13 @@ package com.atexpose.dispatcherfactories;
 
 import com.atexpose.dispatcher.Dispatcher;
 import com.atexpose.dispatcher.IDispatcher;
+import com.atexpose.dispatcher.WorkerPool;
 import com.atexpose.dispatcher.channels.IChannel;
+import com.atexpose.dispatcher.channels.webchannel.NioWebChannel;
 import com.atexpose.dispatcher.channels.webchannel.WebChannel;
 import com.atexpose.dispatcher.channels.webchannel.redirect.Redirects;
 import com.atexpose.dispatcher.parser.IParser;
+import com.atexpose.dispatcher.parser.Request;
 import com.atexpose.dispatcher.parser.urlparser.UrlParser;
 import com.atexpose.dispatcher.parser.urlparser.UrlParserWithGSuiteAuth;
 import com.atexpose.dispatcher.wrapper.IWrapper;
@@ -16,6 +19,8 @@ import lombok.experimental.Accessors;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 
 /**
  * The purpose of this class is to offer a more readable
@@ -32,6 +37,14 @@ public class WebServerBuilder {
     @Setter int mNumberOfThreads = 10;
     /** The directory on drive in which the web server will look for static files to return */
     @Setter String mWebServerDir = "";
+    /**
+     * If true, the web server dir is a directory on the file system, instead of on the class
+     * path. Files are then read from the file system. With nonBlocking(true), large files are
+     * sent to the socket without being copied to the heap (sendfile). The blocking sockets of
+     * the default web channel have no channel, so there the files are copied through heap
+     * buffers.
+     */
+    @Setter boolean mWebServerDirOnFileSystem = false;
     /**
      * The access level this web server will have and as such which methods
      * this web server can call. Available values are 1-3.
@@ -48,7 +61,31 @@ public class WebServerBuilder {
     @Setter int mBrowserCacheMaxAge = 1200;
     /** If true files read from drive are cached in RAM for increased performance */
     @Setter boolean mCacheFilesInRAM = true;
+    /** The max number of bytes of the files cached in RAM. Least recently used files are evicted. */
+    @Setter long mFileCacheMaxBytes = WebWrapper.DEFAULT_FILE_CACHE_MAX_BYTES;
+    /**
+     * If true, the bodies of the files cached in RAM are held outside the heap and are
+     * written to the socket from there.
+     */
+    @Setter boolean mOffHeapFileCache = false;
+    /**
+     * Files larger than this number of bytes are not read into RAM. Instead they are memory
+     * mapped as written and can be requested in ranges. Does not apply to text files.
+     */
+    @Setter long mLargeFileThreshold = WebWrapper.DEFAULT_LARGE_FILE_THRESHOLD;
+    /**
+     * If true, text files and larger dynamic responses are gzip or deflate compressed for
+     * clients that accept it
+     */
+    @Setter boolean mCompression = true;
+    /**
+     * If true, the responses of exposed methods are tagged with a hash of the body. A polling
+     * client that sends the tag of an unchanged body gets a 304 response without body.
+     */
+    @Setter boolean mMethodResponseETags = false;
     Map<String, String> mServerSideVariables = new HashMap<>();
+    /** Variables inserted in text files as the files are requested */
+    Map<String, Function<Request, String>> mRequestVariables = new HashMap<>();
     /** Indicates if the default page should be forced an all requests */
     @Setter boolean mForceDefaultPage = false;
     private Map<String, String> mResponseHeaders = new HashMap<>();
@@ -57,6 +94,41 @@ public class WebServerBuilder {
     private String mAuthDomain;
     /** File name custom 404 page */
     @Setter private String mFileName404Page;
+    /**
+     * If true, the connections are multiplexed by a small number of selector threads
+     * and a web server thread is only used once a request has been completely read.
+     * If false, each web server thread reads from one connection at the time.
+     */
+    @Setter boolean mNonBlocking = false;
+    /** The number of threads that read and write connections if non-blocking */
+    @Setter int mNumberOfSelectorThreads = 1;
+    /** If true, client connections are kept open between requests as asked for by the client */
+    @Setter boolean mKeepAlive = false;
+    /** The max time in milliseconds a kept open connection can be idle between two requests */
+    @Setter int mKeepAliveTimeoutInMillis = 5000;
+    /** The max number of requests served on one kept open connection */
+    @Setter int mMaxRequestsPerConnection = 100;
+    /** The max size in bytes of a request header. Larger requests are rejected. */
+    @Setter int mMaxRequestHeaderSize = 16 * 1024;
+    /** The max size in bytes of a request body. Larger requests are rejected. */
+    @Setter int mMaxRequestBodySize = 10 * 1024 * 1024;
+    /**
+     * If true, one thread reads the requests and the number of threads set execute them
+     * in a worker pool. If false, each web server thread reads and executes its own requests.
+     */
+    @Setter boolean mUseWorkerPool = false;
+    /** The max number of requests waiting for a worker thread if a worker pool is used */
+    @Setter int mWorkerQueueCapacity = 1000;
+    /** What to do with requests that do not fit in the worker pool */
+    @Setter WorkerPool.RejectionPolicy mRejectionPolicy = WorkerPool.RejectionPolicy.CALLER_RUNS;
+    /** Executes the requests of the worker pool. If not set, a fixed pool of the number of threads is used. */
+    @Setter ExecutorService mWorkerExecutor;
+    /**
+     * If true, one thread reads the requests and each request is executed in a virtual thread.
+     * The number of threads set is then the max number of requests executed at the same time.
+     * Requires Java 21 or later.
+     */
+    @Setter boolean mVirtualThreads = false;
 
 
     private WebServerBuilder() {
@@ -154,6 +226,21 @@ public class WebServerBuilder {
     }
 
 
+    /**
+     * Adds a variable that is inserted in text files as the files are requested. Example:
+     * .addRequestVariable("user_agent", request -> request.getHeaderValue("User-Agent"))
+     * inserts the user agent of the request at <!--#echo var="user_agent" -->
+     *
+     * @param name  The name of the variable
+     * @param value Returns the value of the variable for a request
+     * @return This for chaining.
+     */
+    public WebServerBuilder addRequestVariable(String name, Function<Request, String> value) {
+        mRequestVariables.put(name, value);
+        return this;
+    }
+
+
     public WebServerBuilder addResponseHeader(String key, String value) {
         mResponseHeaders.put(key, value);
         return this;
@@ -170,11 +257,18 @@ public class WebServerBuilder {
     private IWrapper getWrapper() {
         return WebWrapper.builder()
                 .webServerDir(mWebServerDir)
+                .webServerDirOnFileSystem(mWebServerDirOnFileSystem)
                 .browserCacheMaxAge(mBrowserCacheMaxAge)
                 .cacheFilesInRam(mCacheFilesInRAM)
+                .fileCacheMaxBytes(mFileCacheMaxBytes)
+                .offHeapFileCache(mOffHeapFileCache)
+                .largeFileThreshold(mLargeFileThreshold)
                 .serverSideVariables(mServerSideVariables)
+                .requestVariables(mRequestVariables)
                 .responseHeaders(mResponseHeaders)
                 .fileName404Page(mFileName404Page)
+                .compression(mCompression)
+                .methodResponseETags(mMethodResponseETags)
                 .build();
     }
 
@@ -194,10 +288,28 @@ public class WebServerBuilder {
 
 
     private IChannel getChannel() {
+        if (mNonBlocking) {
+            return NioWebChannel.builder()
+                    .port(mPort)
+                    .timeout(mTimeoutInMillis)
+                    .noOfEventLoops(mNumberOfSelectorThreads)
+                    .redirects(mRedirectsBuilder.build())
+                    .keepAlive(mKeepAlive)
+                    .keepAliveTimeout(mKeepAliveTimeoutInMillis)
+                    .maxRequestsPerConnection(mMaxRequestsPerConnection)
+                    .maxHeaderSize(mMaxRequestHeaderSize)
+                    .maxBodySize(mMaxRequestBodySize)
+                    .build();
+        }
         return WebChannel.builder()
                 .port(mPort)
                 .timeout(mTimeoutInMillis)
                 .redirects(mRedirectsBuilder.build())
+                .keepAlive(mKeepAlive)
+                .keepAliveTimeout(mKeepAliveTimeoutInMillis)
+                .maxRequestsPerConnection(mMaxRequestsPerConnection)
+                .maxHeaderSize(mMaxRequestHeaderSize)
+                .maxBodySize(mMaxRequestBodySize)
                 .build();
     }
 
@@ -213,6 +325,15 @@ public class WebServerBuilder {
         IChannel webChannel = this.getChannel();
         IParser parser = this.getParser();
         IWrapper wrapper = this.getWrapper();
+        WorkerPool workerPool = mUseWorkerPool
+                ? WorkerPool.builder()
+                .name(webServerName)
+                .poolSize(mNumberOfThreads)
+                .queueCapacity(mWorkerQueueCapacity)
+                .rejectionPolicy(mRejectionPolicy)
+                .executor(mWorkerExecutor)
+                .build()
+                : null;
         return Dispatcher.builder()
                 .name(webServerName)
                 .channel(webChannel)
@@ -220,7 +341,10 @@ public class WebServerBuilder {
                 .parser(parser)
                 .wrapper(wrapper)
                 .accessLevel(mAccessLevel)
-                .noOfThreads(mNumberOfThreads)
+                //If worker pool, one thread reads and the pool executes
+                .noOfThreads(mUseWorkerPool ? 1 : mNumberOfThreads)
+                .workerPool(workerPool)
+                .virtualThreads(mVirtualThreads)
                 .build();
     }
 
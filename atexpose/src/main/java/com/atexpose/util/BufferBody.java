@@ -0,0 +1,86 @@
+package com.atexpose.util;
+
+import io.schinzel.basicutils.thrower.Thrower;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The purpose of this class is to represent a response body held in a buffer, typically a
+ * direct buffer outside the heap. The body is written to a socket channel without being
+ * copied to the heap.
+ */
+public class BufferBody implements IResponseBody {
+    /** The body. Is never read or written directly, only through duplicates. */
+    private final ByteBuffer mBuffer;
+
+
+    private BufferBody(ByteBuffer buffer) {
+        mBuffer = buffer;
+    }
+
+
+    /**
+     * @param buffer The body, from its position to its limit
+     * @return A new body
+     */
+    public static BufferBody create(ByteBuffer buffer) {
+        Thrower.throwIfVarNull(buffer, "buffer");
+        return new BufferBody(buffer.asReadOnlyBuffer());
+    }
+
+
+    /**
+     * @return The number of bytes in the body
+     */
+    public int getSize() {
+        return mBuffer.remaining();
+    }
+
+
+    @Override
+    public IBodyTransfer openTransfer() {
+        //Each transfer has a position of its own, so that a body can be written to many clients at the same time
+        ByteBuffer buffer = mBuffer.duplicate();
+        return new IBodyTransfer() {
+            @Override
+            public boolean transferTo(WritableByteChannel target) throws IOException {
+                while (buffer.hasRemaining()) {
+                    if (target.write(buffer) == 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+
+    @Override
+    public void addTo(ByteStorage storage) {
+        ByteBuffer buffer = mBuffer.duplicate();
+        byte[] chunk = new byte[8 * 1024];
+        while (buffer.hasRemaining()) {
+            int noOfBytes = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, noOfBytes);
+            storage.add(chunk, 0, noOfBytes);
+        }
+    }
+
+
+    /**
+     * @return A copy of the body on the heap
+     */
+    public byte[] getBytes() {
+        byte[] bytes = new byte[mBuffer.remaining()];
+        mBuffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+}
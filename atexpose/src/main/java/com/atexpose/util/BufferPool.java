@@ -0,0 +1,98 @@
+package com.atexpose.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The purpose of this class is to hold byte arrays for reuse, so that buffers that grow
+ * take their arrays from here instead of allocating a new array for each increase.
+ * <p>
+ * The pool is shared by all threads. The arrays are kept in size classes that are powers of
+ * two. The number of arrays kept in each class is bounded, and arrays larger than the
+ * largest class are not kept, so that a large request does not hold memory once handled.
+ */
+public class BufferPool {
+    /** The size of the arrays in the smallest class */
+    static final int MIN_SIZE = 512;
+    /** The size of the arrays in the largest class. Larger arrays are not kept. */
+    static final int MAX_POOLED_SIZE = 1024 * 1024;
+    /** The max number of bytes kept in each class */
+    private static final int MAX_BYTES_PER_CLASS = 2 * 1024 * 1024;
+    /** The max number of arrays kept in each class */
+    private static final int MAX_ARRAYS_PER_CLASS = 64;
+    /** Idle arrays. The first class holds arrays of the min size, the next twice that and so on. */
+    private static final List<BlockingQueue<byte[]>> POOLS = new ArrayList<>();
+
+    static {
+        for (int size = MIN_SIZE; size <= MAX_POOLED_SIZE; size *= 2) {
+            POOLS.add(new ArrayBlockingQueue<>(Math.min(MAX_ARRAYS_PER_CLASS, MAX_BYTES_PER_CLASS / size)));
+        }
+    }
+
+
+    private BufferPool() {
+    }
+
+
+    /**
+     * @param minSize The min number of bytes the array is to hold
+     * @return An array that holds at least the argument number of bytes. The content of the
+     * array is undefined.
+     */
+    public static byte[] acquire(int minSize) {
+        //If the array is too large to be kept, it is not rounded up to a size class
+        if (minSize > MAX_POOLED_SIZE) {
+            return new byte[minSize];
+        }
+        int size = getClassSize(minSize);
+        byte[] array = POOLS.get(getClassIndex(size)).poll();
+        return (array != null) ? array : new byte[size];
+    }
+
+
+    /**
+     * Returns an array to the pool. The array is not to be used by the caller after this.
+     * Arrays not acquired from the pool, or that do not fit in a class that has room, are
+     * left to the garbage collector.
+     *
+     * @param array An array acquired from the pool
+     */
+    public static void release(byte[] array) {
+        int size = array.length;
+        //If the size is not one of the size classes
+        if (size < MIN_SIZE || size > MAX_POOLED_SIZE || Integer.bitCount(size) != 1) {
+            return;
+        }
+        POOLS.get(getClassIndex(size)).offer(array);
+    }
+
+
+    /**
+     * @return The number of bytes in the arrays kept for reuse
+     */
+    static long getRetainedBytes() {
+        long retainedBytes = 0;
+        for (int i = 0; i < POOLS.size(); i++) {
+            retainedBytes += (long) POOLS.get(i).size() * (MIN_SIZE << i);
+        }
+        return retainedBytes;
+    }
+
+
+    /**
+     * @return The size of the smallest class that holds the argument number of bytes
+     */
+    private static int getClassSize(int minSize) {
+        return (minSize <= MIN_SIZE)
+                ? MIN_SIZE
+                : Integer.highestOneBit(minSize - 1) << 1;
+    }
+
+
+    private static int getClassIndex(int classSize) {
+        return Integer.numberOfTrailingZeros(classSize) - Integer.numberOfTrailingZeros(MIN_SIZE);
+    }
+
+}
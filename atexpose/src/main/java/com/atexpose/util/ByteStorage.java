@@ -0,0 +1,312 @@
+package com.atexpose.util;
+
+import com.google.common.base.Charsets;
+import io.schinzel.basicutils.UTF8;
+import io.schinzel.basicutils.thrower.Thrower;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The purpose of this class is to hold an arbitrary amount of bytes.
+ * The bytes are stored in a byte array for memory efficiency and for having
+ * the data as native as possible to avoid inadvertent automatic
+ * transformations as can happen with strings.
+ * <p>
+ * The storage array doubles in size as it grows, so that adding n bytes copies less than 2n
+ * bytes. The arrays are taken from, and returned to, the buffer pool shared by all threads.
+ *
+ * @author Schinzel
+ */
+public class ByteStorage {
+    /** The default max storage capacity. */
+    private static final int DEFAULT_SIZE = 512;
+    /** Storage arrays larger than this are returned to the pool when the storage is cleared. */
+    static final int MAX_RETAINED_SIZE = 64 * 1024;
+    /** The max size of an array */
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+    /** Holds the data stored. */
+    private byte[] mStorage;
+    /** Index of the last byte in the storage array. */
+    private int mUboundStorage = -1;
+
+
+    public ByteStorage() {
+        this(DEFAULT_SIZE);
+    }
+
+
+    /**
+     * @param initialCapacity The number of bytes the storage is to hold before it grows, e.g.
+     *                        the Content-Length of a request.
+     */
+    public ByteStorage(int initialCapacity) {
+        Thrower.throwIfVarTooSmall(initialCapacity, "initialCapacity", 0);
+        mStorage = BufferPool.acquire(initialCapacity);
+    }
+    //------------------------------------------------------------------------
+    // MISC
+    //------------------------------------------------------------------------
+
+
+    /**
+     * Clears the storage. If the storage has grown large, its array is returned to the pool
+     * so that one large message does not hold memory for as long as the storage is used.
+     */
+    public void clear() {
+        mUboundStorage = -1;
+        if (mStorage.length > MAX_RETAINED_SIZE) {
+            BufferPool.release(mStorage);
+            mStorage = BufferPool.acquire(DEFAULT_SIZE);
+        }
+    }
+
+
+    /**
+     * Clears the storage and returns its array to the pool. Is to be invoked when the storage
+     * is no longer used, after which any array or view got from it is not to be read.
+     */
+    public void release() {
+        mUboundStorage = -1;
+        BufferPool.release(mStorage);
+        mStorage = new byte[0];
+    }
+
+
+    /**
+     * Makes room for the argument number of bytes, so that the storage does not grow as
+     * they are added.
+     *
+     * @param capacity The number of bytes the storage is to hold
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > mStorage.length) {
+            this.increaseSize(capacity);
+        }
+    }
+
+
+    /**
+     * @return The number of bytes the storage holds before it grows
+     */
+    int getCapacity() {
+        return mStorage.length;
+    }
+
+
+    /**
+     * @return The number of bytes currently stored.
+     */
+    public int getNoOfBytesStored() {
+        return mUboundStorage + 1;
+    }
+    //------------------------------------------------------------------------
+    // ADD
+    //------------------------------------------------------------------------
+
+
+    /**
+     * Adds a byte to the storage.
+     *
+     * @param b Byte to add to the storage.
+     */
+    public void add(byte b) {
+        if (!this.doesNewBytesFit(1)) {
+            this.increaseSize(this.getNoOfBytesStored() + 1);
+        }
+        mUboundStorage++;
+        mStorage[mUboundStorage] = b;
+    }
+
+
+    /**
+     * @param ab A byte array to add to this storage.
+     */
+    public void add(byte[] ab) {
+        this.add(ab, 0, ab.length);
+    }
+
+
+    /**
+     * @param s A string to add to this storage as UTF8 bytes.
+     */
+    public void add(String s) {
+        this.add(UTF8.getBytes(s));
+    }
+
+
+    /**
+     * Adds a part of a string as UTF8 bytes, without encoding it to an array first.
+     * Unpaired surrogates are added as '?', as with String.getBytes.
+     *
+     * @param s     The string to add a part of.
+     * @param start The index of the first char to add.
+     * @param end   The index after the last char to add.
+     */
+    public void addUtf8(CharSequence s, int start, int end) {
+        //A char is at most three bytes, a surrogate pair is four
+        if (!this.doesNewBytesFit((end - start) * 3)) {
+            this.increaseSize(this.getNoOfBytesStored() + (end - start) * 3);
+        }
+        byte[] storage = mStorage;
+        int position = mUboundStorage + 1;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                storage[position++] = (byte) c;
+            } else if (c < 0x800) {
+                storage[position++] = (byte) (0xC0 | (c >> 6));
+                storage[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                //If this is the high surrogate of a pair
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                    storage[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    storage[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    storage[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    storage[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    storage[position++] = (byte) '?';
+                }
+            } else {
+                storage[position++] = (byte) (0xE0 | (c >> 12));
+                storage[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                storage[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        mUboundStorage = position - 1;
+    }
+
+
+    /**
+     * Appends a number of bytes to this object.
+     *
+     * @param ab     The source of the bytes.
+     * @param start  From where to start retrieving the bytes.
+     * @param length The number of bytes to retrieve from the argument array.
+     */
+    public void add(byte[] ab, int start, int length) {
+        //If the new batch of bytes does not fit
+        if (!this.doesNewBytesFit(length)) {
+            //Increase size
+            this.increaseSize(this.getNoOfBytesStored() + length);
+        }
+        if (length > 0) {
+            //Copy the byte from argument array to storage array
+            System.arraycopy(ab, start, mStorage, mUboundStorage + 1, length);
+            //Set the new position of the storage array
+            mUboundStorage += length;
+        }
+    }
+
+
+    /**
+     * Inserts bytes before the byte at the argument position. The bytes after the position
+     * are moved.
+     *
+     * @param position The position to insert at. The number of bytes stored to add last.
+     * @param ab       The bytes to insert.
+     */
+    public void insert(int position, byte[] ab) {
+        Thrower.throwIfVarOutsideRange(position, "position", 0, this.getNoOfBytesStored());
+        if (!this.doesNewBytesFit(ab.length)) {
+            this.increaseSize(this.getNoOfBytesStored() + ab.length);
+        }
+        System.arraycopy(mStorage, position, mStorage, position + ab.length, this.getNoOfBytesStored() - position);
+        System.arraycopy(ab, 0, mStorage, position, ab.length);
+        mUboundStorage += ab.length;
+    }
+    //------------------------------------------------------------------------
+    // GET
+    //------------------------------------------------------------------------
+
+
+    /**
+     * @param index The index of a stored byte.
+     * @return The byte at the argument index.
+     */
+    public byte getByte(int index) {
+        Thrower.throwIfVarOutsideRange(index, "index", 0, mUboundStorage);
+        return mStorage[index];
+    }
+
+
+    /**
+     * Converts the argument array to a string using the encoding in the BOM.
+     * If no BOM is present, then the argument default encoding is used.
+     *
+     * @return The argument byte array converted to String.
+     */
+    public String getAsString() {
+        return new String(mStorage, 0, mUboundStorage + 1, Charsets.UTF_8);
+    }
+
+
+    /**
+     * @return Returns the all bytes stored in the array.
+     */
+    public byte[] getBytes() {
+        return Arrays.copyOf(mStorage, mUboundStorage + 1);
+    }
+
+
+    /**
+     * @return The internal array. Is not copied, so is to be read only and only up to the
+     * number of bytes stored. Is valid until bytes are added or the storage is cleared.
+     */
+    public byte[] getArray() {
+        return mStorage;
+    }
+
+
+    /**
+     * @return A read only view of the bytes stored. Is not copied, so is valid until bytes
+     * are added or the storage is cleared.
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(mStorage, 0, mUboundStorage + 1).asReadOnlyBuffer();
+    }
+
+
+    /**
+     * Writes the bytes stored to the argument stream without copying them.
+     *
+     * @param outputStream The stream to write to.
+     * @throws IOException If the write failed.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(mStorage, 0, mUboundStorage + 1);
+    }
+    //------------------------------------------------------------------------
+    // PRIVATE
+    //------------------------------------------------------------------------
+
+    
+    /**
+     * @return Returns true if the argument number of byte will fit into the
+     * current array, else false.
+     */
+    private boolean doesNewBytesFit(int noOfNewBytes) {
+        // Return if the number of argument bytes fits in the storage array
+        return (noOfNewBytes + mUboundStorage + 1) <= mStorage.length;
+    }
+
+
+    /**
+     * Increases the size of the internal storage array to at least twice its size. The bytes
+     * stored are copied to an array from the pool and the old array is returned to the pool.
+     *
+     * @param minCapacity The number of bytes that needs to fit in the array.
+     */
+    private void increaseSize(int minCapacity) {
+        Thrower.throwIfVarOutsideRange(minCapacity, "minCapacity", 0, MAX_SIZE);
+        int newSize = (int) Math.min(MAX_SIZE, Math.max(2L * mStorage.length, minCapacity));
+        byte[] abNew = BufferPool.acquire(newSize);
+        System.arraycopy(mStorage, 0, abNew, 0, mUboundStorage + 1);
+        BufferPool.release(mStorage);
+        mStorage = abNew;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.atexpose.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The purpose of this class is to return time as various format as strings.
+ *
+ * @author Schinzel
+ */
+public class DateTimeStrings {
+    /**
+     * The format of the date time with milliseconds.
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMAT_WITH_MS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    /** The format of the date time down to the second, including the dot before the milliseconds */
+    private static final DateTimeFormatter DATE_TIME_FORMAT_TO_SECOND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.");
+    /**
+     * The second last formatted. As most instants formatted are close to now, the second is
+     * formatted once and the milliseconds appended.
+     */
+    private static final AtomicReference<FormattedSecond> FORMATTED_SECOND =
+            new AtomicReference<>(new FormattedSecond(Long.MIN_VALUE, ""));
+
+
+    /**
+     * A second since epoch and the second formatted.
+     */
+    private static class FormattedSecond {
+        final long mEpochSecond;
+        final String mFormatted;
+
+
+        FormattedSecond(long epochSecond, String formatted) {
+            mEpochSecond = epochSecond;
+            mFormatted = formatted;
+        }
+    }
+
+    //------------------------------------------------------------------------
+    // UTC
+    //------------------------------------------------------------------------
+
+
+    /**
+     * @return Now in UTC as a formatted string.
+     */
+    public static String getDateTimeUTC() {
+        return DateTimeStrings.getDateTimeUTC(Instant.now());
+    }
+
+
+    /**
+     * @param instant The instant to format to string.
+     * @return Get the argument instant as formatted string. , e.g. 2015-01-08
+     * 19:02:59.997
+     */
+    public static String getDateTimeUTC(Instant instant) {
+        FormattedSecond formattedSecond = FORMATTED_SECOND.get();
+        //If the second of the argument instant is not the second last formatted
+        if (formattedSecond.mEpochSecond != instant.getEpochSecond()) {
+            String formatted = LocalDateTime
+                    .ofEpochSecond(instant.getEpochSecond(), 0, ZoneOffset.UTC)
+                    .format(DATE_TIME_FORMAT_TO_SECOND);
+            formattedSecond = new FormattedSecond(instant.getEpochSecond(), formatted);
+            FORMATTED_SECOND.set(formattedSecond);
+        }
+        int millis = instant.getNano() / 1_000_000;
+        return new StringBuilder(formattedSecond.mFormatted.length() + 3)
+                .append(formattedSecond.mFormatted)
+                .append(millis < 100 ? (millis < 10 ? "00" : "0") : "")
+                .append(millis)
+                .toString();
+    }
+
+
+    /**
+     * Formats without the cached second. Kept as the reference the cached format is to match.
+     *
+     * @param instant The instant to format to string.
+     * @return Get the argument instant as formatted string.
+     */
+    static String getDateTimeUTCUncached(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC).format(DATE_TIME_FORMAT_WITH_MS);
+    }
+
+}
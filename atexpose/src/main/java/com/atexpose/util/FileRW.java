@@ -4,6 +4,10 @@ import io.schinzel.basicutils.UTF8;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * @author Schinzel
@@ -15,7 +19,11 @@ public class FileRW {
      * @return True if the argument file exits, else false.
      */
     public static boolean fileExists(String fileName) {
-        return FileRW.getInputStream(fileName) != null;
+        if (fileName.charAt(0) != '/') {
+            fileName = "/" + fileName;
+        }
+        //Looks the file up without opening it
+        return FileRW.class.getResource(fileName) != null;
     }
 
 
@@ -46,6 +54,48 @@ public class FileRW {
     }
 
 
+    /**
+     * @param fileName The name of a file on the file system or in a JAR
+     * @return When the argument file was last modified in milliseconds since the epoch.
+     * 0 if there is no such file or if the time is not known.
+     */
+    public static long getLastModified(String fileName) {
+        if (fileName.charAt(0) != '/') {
+            fileName = "/" + fileName;
+        }
+        URL url = FileRW.class.getResource(fileName);
+        if (url == null) {
+            return 0;
+        }
+        try {
+            return url.openConnection().getLastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+
+    /**
+     * @param fileName The name of a file on the file system or in a JAR
+     * @return The path of the argument file. Null if there is no such file or if the file is
+     * not on the file system, e.g. if the file is in a JAR.
+     */
+    public static Path getPath(String fileName) {
+        if (fileName.charAt(0) != '/') {
+            fileName = "/" + fileName;
+        }
+        URL url = FileRW.class.getResource(fileName);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+
     /**
      * Reads the argument file. Convert the file to the encoding indicated byte
      * the BOM in the file. If no BOM is present UTF-8 is used.
@@ -56,12 +106,14 @@ public class FileRW {
     public static byte[] readFileAsByteArray(String fileName) {
         //Intermediate storage of file read into RAM
         ByteStorage byteStorage = new ByteStorage();
+        //File will be read into this array
+        byte[] bytes_from_file = BufferPool.acquire(8 * 1024);
         try (InputStream is = FileRW.getInputStream(fileName)) {
             if (is == null) {
                 throw new RuntimeException("No such file '" + fileName + "'");
             }
-            //File will be read into this array
-            byte[] bytes_from_file = new byte[512];
+            //Make room for the bytes that can be read without blocking, for a file typically the whole file
+            byteStorage.ensureCapacity(is.available());
             //Indicates the number of bytes read
             int no_of_bytes_read;
             while ((no_of_bytes_read = is.read(bytes_from_file)) != -1) {
@@ -69,8 +121,12 @@ public class FileRW {
             }
         } catch (IOException e) {
             throw new RuntimeException("Error while reading file '" + fileName + "'. Java error message: " + e.getMessage());
+        } finally {
+            BufferPool.release(bytes_from_file);
         }
-        return byteStorage.getBytes();
+        byte[] fileContent = byteStorage.getBytes();
+        byteStorage.release();
+        return fileContent;
     }
 
 
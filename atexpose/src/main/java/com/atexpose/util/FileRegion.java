@@ -0,0 +1,94 @@
+package com.atexpose.util;
+
+import io.schinzel.basicutils.thrower.Thrower;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The purpose of this class is to represent a part of a file that is to be written as the
+ * body of a response.
+ * <p>
+ * The file is not read into the heap. Instead the region is transferred from the file to
+ * the socket when written, so that the bytes go from the page cache to the socket.
+ */
+@Accessors(prefix = "m")
+public class FileRegion implements IResponseBody {
+    /** The max number of bytes mapped at the time */
+    private static final long MAX_MAPPED_BYTES = 64L * 1024 * 1024;
+    /** The file */
+    @Getter private final Path mPath;
+    /** The position in the file of the first byte of the region */
+    @Getter private final long mPosition;
+    /** The number of bytes in the region */
+    @Getter private final long mCount;
+
+
+    private FileRegion(Path path, long position, long count) {
+        mPath = path;
+        mPosition = position;
+        mCount = count;
+    }
+
+
+    /**
+     * @param path     The file
+     * @param position The position in the file of the first byte of the region
+     * @param count    The number of bytes in the region
+     * @return A new region
+     */
+    public static FileRegion create(Path path, long position, long count) {
+        Thrower.throwIfVarNull(path, "path");
+        Thrower.throwIfVarTooSmall(position, "position", 0);
+        Thrower.throwIfVarTooSmall(count, "count", 0);
+        return new FileRegion(path, position, count);
+    }
+
+
+    @Override
+    public FileTransfer openTransfer() throws IOException {
+        return new FileTransfer(this);
+    }
+
+
+    /**
+     * @return The region mapped into memory, in one buffer per max number of mapped bytes
+     * @throws IOException If the file could not be mapped
+     */
+    public ByteBuffer[] map() throws IOException {
+        int noOfBuffers = (int) ((mCount + MAX_MAPPED_BYTES - 1) / MAX_MAPPED_BYTES);
+        ByteBuffer[] buffers = new ByteBuffer[noOfBuffers];
+        //The mappings stay valid after the file channel is closed
+        try (FileChannel fileChannel = FileChannel.open(mPath, StandardOpenOption.READ)) {
+            for (int i = 0; i < noOfBuffers; i++) {
+                long offset = i * MAX_MAPPED_BYTES;
+                buffers[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, mPosition + offset,
+                        Math.min(MAX_MAPPED_BYTES, mCount - offset));
+            }
+        }
+        return buffers;
+    }
+
+
+    @Override
+    public void addTo(ByteStorage storage) {
+        try {
+            byte[] chunk = new byte[8 * 1024];
+            for (ByteBuffer buffer : this.map()) {
+                while (buffer.hasRemaining()) {
+                    int noOfBytes = Math.min(chunk.length, buffer.remaining());
+                    buffer.get(chunk, 0, noOfBytes);
+                    storage.add(chunk, 0, noOfBytes);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error while reading file '" + mPath + "'. " + e.getMessage());
+        }
+    }
+
+}
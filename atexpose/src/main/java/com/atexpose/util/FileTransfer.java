@@ -0,0 +1,61 @@
+package com.atexpose.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The purpose of this class is to write a file region to a channel in one or more steps.
+ * <p>
+ * The bytes are transferred with FileChannel.transferTo. If the target is a socket channel,
+ * the operating system sends the file to the socket without copying it to the heap, e.g.
+ * with sendfile. A non-blocking target can accept a part of the region at the time.
+ */
+public class FileTransfer implements IBodyTransfer {
+    /** The file to transfer from */
+    private final FileChannel mFileChannel;
+    /** The position of the next byte to transfer */
+    private long mPosition;
+    /** The position after the last byte to transfer */
+    private final long mEnd;
+
+
+    FileTransfer(FileRegion fileRegion) throws IOException {
+        mFileChannel = FileChannel.open(fileRegion.getPath(), StandardOpenOption.READ);
+        mPosition = fileRegion.getPosition();
+        mEnd = fileRegion.getPosition() + fileRegion.getCount();
+    }
+
+
+    /**
+     * @throws IOException If the file could not be read, if it was truncated or if the channel
+     *                     could not be written
+     */
+    @Override
+    public boolean transferTo(WritableByteChannel target) throws IOException {
+        while (mPosition < mEnd) {
+            long noOfBytes = mFileChannel.transferTo(mPosition, mEnd - mPosition, target);
+            if (noOfBytes == 0) {
+                //If the file has become shorter than the region, the rest can never be transferred
+                if (mPosition >= mFileChannel.size()) {
+                    throw new IOException("File was truncated while it was written");
+                }
+                return false;
+            }
+            mPosition += noOfBytes;
+        }
+        return true;
+    }
+
+
+    @Override
+    public void close() {
+        try {
+            mFileChannel.close();
+        } catch (IOException e) {
+            //Nothing to do if the close failed
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.atexpose.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The purpose of this interface is to write a response body to a channel in one or more
+ * steps. A non-blocking channel can accept a part of the body at the time.
+ */
+public interface IBodyTransfer extends Closeable {
+
+    /**
+     * Transfers as many bytes as the argument channel accepts.
+     *
+     * @param target The channel to write to
+     * @return True if the whole body has been transferred
+     * @throws IOException If the body could not be read or the channel could not be written
+     */
+    boolean transferTo(WritableByteChannel target) throws IOException;
+
+
+    @Override
+    void close();
+
+}
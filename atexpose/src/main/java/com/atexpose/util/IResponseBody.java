@@ -0,0 +1,44 @@
+package com.atexpose.util;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The purpose of this interface is to represent the body of a response that is written to
+ * the client without first being copied to the heap. Examples: a region of a file and a
+ * buffer outside the heap.
+ */
+public interface IResponseBody {
+
+    /**
+     * @return A transfer of this body that is to be closed when done
+     * @throws IOException If the body could not be opened
+     */
+    IBodyTransfer openTransfer() throws IOException;
+
+
+    /**
+     * Writes the body to the argument channel. Blocks until the whole body is written.
+     * Is for blocking channels.
+     *
+     * @param target The channel to write to
+     * @throws IOException If the body could not be read or the channel could not be written
+     */
+    default void writeTo(WritableByteChannel target) throws IOException {
+        try (IBodyTransfer transfer = this.openTransfer()) {
+            //A blocking channel accepts bytes until the whole body is transferred
+            while (!transfer.transferTo(target)) {
+            }
+        }
+    }
+
+
+    /**
+     * Adds the bytes of the body to the argument storage. Is for channels that cannot write
+     * a body from outside the heap.
+     *
+     * @param storage The bytes of the body are added to this argument
+     */
+    void addTo(ByteStorage storage);
+
+}
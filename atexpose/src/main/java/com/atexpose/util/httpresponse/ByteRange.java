@@ -0,0 +1,97 @@
+package com.atexpose.util.httpresponse;
+
+import io.schinzel.basicutils.Checker;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * The purpose of this class is to represent the single byte range of a Range request header.
+ * <p>
+ * Requests for more than one range are answered with the whole file, which the http
+ * specification allows.
+ */
+@Accessors(prefix = "m")
+public class ByteRange {
+    /** A range that does not overlap the file */
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+    /** The position of the first byte of the range */
+    @Getter private final long mStart;
+    /** The position of the last byte of the range */
+    @Getter private final long mEnd;
+
+
+    private ByteRange(long start, long end) {
+        mStart = start;
+        mEnd = end;
+    }
+
+
+    /**
+     * @param rangeHeader The value of the Range header of a request. Example: bytes=0-499
+     * @param fileSize    The number of bytes in the requested file
+     * @return The requested range, limited to the size of the file. Null if the whole file is
+     * to be returned, i.e. if there is no range, the range is invalid or if there is more than
+     * one range. UNSATISFIABLE if the range starts after the end of the file.
+     */
+    public static ByteRange parse(String rangeHeader, long fileSize) {
+        if (Checker.isEmpty(rangeHeader)) {
+            return null;
+        }
+        String range = rangeHeader.trim();
+        if (!range.startsWith("bytes=") || range.indexOf(',') != -1) {
+            return null;
+        }
+        range = range.substring("bytes=".length()).trim();
+        int dash = range.indexOf('-');
+        if (dash == -1) {
+            return null;
+        }
+        long first = parseLong(range.substring(0, dash));
+        long last = parseLong(range.substring(dash + 1));
+        //If suffix range, i.e. the last n bytes. Example: bytes=-500
+        if (dash == 0) {
+            if (last <= 0) {
+                return (last == 0) ? UNSATISFIABLE : null;
+            }
+            return fileSize == 0
+                    ? UNSATISFIABLE
+                    : new ByteRange(Math.max(0, fileSize - last), fileSize - 1);
+        }
+        //If the first position is invalid or the last is before the first
+        if (first < 0 || (dash < range.length() - 1 && (last < 0 || last < first))) {
+            return null;
+        }
+        if (first >= fileSize) {
+            return UNSATISFIABLE;
+        }
+        //If there is no last position. Example: bytes=500-
+        long end = (dash == range.length() - 1) ? fileSize - 1 : Math.min(last, fileSize - 1);
+        return new ByteRange(first, end);
+    }
+
+
+    /**
+     * @return The argument as a number. -1 if the argument is not a non-negative number.
+     */
+    private static long parseLong(String number) {
+        String trimmed = number.trim();
+        if (trimmed.isEmpty() || trimmed.length() > 18) {
+            return -1;
+        }
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (!Character.isDigit(trimmed.charAt(i))) {
+                return -1;
+            }
+        }
+        return Long.parseLong(trimmed);
+    }
+
+
+    /**
+     * @return The number of bytes in the range
+     */
+    public long getLength() {
+        return mEnd - mStart + 1;
+    }
+
+}
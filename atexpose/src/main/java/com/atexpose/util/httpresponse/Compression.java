@@ -0,0 +1,93 @@
+package com.atexpose.util.httpresponse;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * The purpose of this class is to compress response bodies.
+ * <p>
+ * Deflaters hold native memory and are costly to create. As such they are kept in a pool and
+ * reused. A compression that finds the pool empty creates a deflater, and a deflater returned
+ * to a full pool is released.
+ */
+public class Compression {
+    /** Bodies smaller than this are not compressed as the saving does not make up for the cost */
+    public static final int MIN_SIZE_TO_COMPRESS = 1024;
+    /** The max number of idle deflaters kept for reuse */
+    private static final int POOL_SIZE = 16;
+    /** The gzip header: magic number, deflate, no flags, no time, no extra flags, unknown OS */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    /** Idle deflaters that produce raw deflate data */
+    private static final BlockingQueue<Deflater> RAW_DEFLATERS = new ArrayBlockingQueue<>(POOL_SIZE);
+    /** Idle deflaters that produce zlib wrapped deflate data */
+    private static final BlockingQueue<Deflater> ZLIB_DEFLATERS = new ArrayBlockingQueue<>(POOL_SIZE);
+
+
+    private Compression() {
+    }
+
+
+    /**
+     * @param body     The bytes to compress
+     * @param encoding How to compress the bytes
+     * @return The argument bytes compressed with the argument encoding. The argument bytes if
+     * the encoding is identity.
+     */
+    public static byte[] compress(byte[] body, ContentEncoding encoding) {
+        switch (encoding) {
+            case GZIP:
+                ByteArrayOutputStream gzip = new ByteArrayOutputStream(body.length / 3 + 32);
+                gzip.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+                deflate(body, RAW_DEFLATERS, true, gzip);
+                CRC32 crc = new CRC32();
+                crc.update(body, 0, body.length);
+                writeIntLittleEndian((int) crc.getValue(), gzip);
+                writeIntLittleEndian(body.length, gzip);
+                return gzip.toByteArray();
+            case DEFLATE:
+                ByteArrayOutputStream zlib = new ByteArrayOutputStream(body.length / 3 + 16);
+                deflate(body, ZLIB_DEFLATERS, false, zlib);
+                return zlib.toByteArray();
+            default:
+                return body;
+        }
+    }
+
+
+    /**
+     * Deflates the argument body with a deflater from the argument pool.
+     */
+    private static void deflate(byte[] body, BlockingQueue<Deflater> pool, boolean nowrap, ByteArrayOutputStream out) {
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+        }
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            byte[] buffer = new byte[8 * 1024];
+            while (!deflater.finished()) {
+                int noOfBytes = deflater.deflate(buffer);
+                out.write(buffer, 0, noOfBytes);
+            }
+        } finally {
+            deflater.reset();
+            //If the pool is full, release the native memory of the deflater
+            if (!pool.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+
+    private static void writeIntLittleEndian(int value, ByteArrayOutputStream out) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+}
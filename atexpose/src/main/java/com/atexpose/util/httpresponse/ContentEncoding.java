@@ -0,0 +1,101 @@
+package com.atexpose.util.httpresponse;
+
+import io.schinzel.basicutils.Checker;
+import io.schinzel.basicutils.UTF8;
+
+import java.util.Locale;
+
+/**
+ * The purpose of this enum is to represent the encodings with which a response body can be
+ * compressed and to choose one from the Accept-Encoding header of a request.
+ */
+public enum ContentEncoding {
+    IDENTITY(""),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    /** The value of the Content-Encoding header */
+    private final String mName;
+    /** The header lines to add to a response with this encoding */
+    private final byte[] mHeaderLines;
+
+
+    ContentEncoding(String name) {
+        mName = name;
+        //The vary header is also added to uncompressed variants of a negotiated response
+        mHeaderLines = name.isEmpty()
+                ? UTF8.getBytes("Vary: Accept-Encoding\r\n")
+                : UTF8.getBytes("Content-Encoding: " + name + "\r\n" + "Vary: Accept-Encoding\r\n");
+    }
+
+
+    /**
+     * @param acceptEncoding The value of the Accept-Encoding header of a request
+     * @return The encoding to compress a response with. Gzip is preferred over deflate.
+     * Identity if the request does not accept a compressed response.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (Checker.isEmpty(acceptEncoding)) {
+            return IDENTITY;
+        }
+        String lowerCase = acceptEncoding.toLowerCase(Locale.ROOT);
+        if (isAccepted(lowerCase, GZIP.mName)) {
+            return GZIP;
+        }
+        return isAccepted(lowerCase, DEFLATE.mName) ? DEFLATE : IDENTITY;
+    }
+
+
+    /**
+     * @return True if the argument encoding, or else the wildcard, is listed in the argument
+     * header value and does not have a quality value of zero.
+     */
+    private static boolean isAccepted(String acceptEncoding, String encoding) {
+        boolean isWildcardAccepted = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String name = tokens[0].trim();
+            if (name.equals(encoding)) {
+                return !hasZeroQuality(tokens);
+            }
+            if (name.equals("*")) {
+                isWildcardAccepted = !hasZeroQuality(tokens);
+            }
+        }
+        return isWildcardAccepted;
+    }
+
+
+    /**
+     * @param tokens An encoding name followed by its parameters
+     * @return True if the parameters has a quality value of zero
+     */
+    private static boolean hasZeroQuality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String parameter = tokens[i].trim();
+            if (parameter.startsWith("q=") && isZero(parameter.substring(2))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static boolean isZero(String qualityValue) {
+        try {
+            return Double.parseDouble(qualityValue) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+
+    /**
+     * @return The Content-Encoding and Vary header lines for this encoding. Only the Vary
+     * header line for identity.
+     */
+    byte[] getHeaderLines() {
+        return mHeaderLines;
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.atexpose.util.httpresponse;
+
+import io.schinzel.basicutils.Checker;
+import io.schinzel.basicutils.UTF8;
+import io.schinzel.basicutils.str.Str;
+
+import java.util.Map;
+
+/**
+ * The purpose of this class is to hold custom response headers rendered as the bytes
+ * of header lines. The headers are rendered once, when the wrapper is created, and not
+ * for every response.
+ */
+public class CustomHeaders {
+    /** No custom headers */
+    public static final CustomHeaders EMPTY = new CustomHeaders(new byte[0]);
+    /** The headers as lines, each ending with a line break */
+    private final byte[] mHeaderLines;
+
+
+    private CustomHeaders(byte[] headerLines) {
+        mHeaderLines = headerLines;
+    }
+
+
+    /**
+     * @param customHeaders Header names and values
+     * @return The argument headers rendered as header lines
+     */
+    public static CustomHeaders create(Map<String, String> customHeaders) {
+        if (Checker.isEmpty(customHeaders)) {
+            return EMPTY;
+        }
+        Str str = Str.create();
+        for (Map.Entry<String, String> header : customHeaders.entrySet()) {
+            str.a(header.getKey()).a(": ").acrlf(header.getValue());
+        }
+        return new CustomHeaders(UTF8.getBytes(str.asString()));
+    }
+
+
+    byte[] getHeaderLines() {
+        return mHeaderLines;
+    }
+}
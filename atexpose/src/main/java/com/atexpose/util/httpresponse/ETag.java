@@ -0,0 +1,87 @@
+package com.atexpose.util.httpresponse;
+
+import io.schinzel.basicutils.Checker;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The purpose of this class is to create strong entity tags from content and to match them
+ * against the If-None-Match header of a request.
+ */
+public class ETag {
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+    /** The number of bytes of the content hash used in a tag */
+    private static final int NO_OF_HASH_BYTES = 16;
+
+
+    private ETag() {
+    }
+
+
+    /**
+     * @param content         The content of a response before it is compressed
+     * @param contentEncoding The encoding with which the content is sent. As each encoding is
+     *                        a representation of its own, each encoding has a tag of its own.
+     *                        Null or identity if the content is sent as is.
+     * @return A quoted strong entity tag for the argument content
+     */
+    public static String create(byte[] content, ContentEncoding contentEncoding) {
+        byte[] hash = getMessageDigest().digest(content);
+        StringBuilder tag = new StringBuilder(2 * NO_OF_HASH_BYTES + 10).append('"');
+        for (int i = 0; i < NO_OF_HASH_BYTES; i++) {
+            tag.append(HEX_CHARS[(hash[i] >> 4) & 0xF]).append(HEX_CHARS[hash[i] & 0xF]);
+        }
+        if (contentEncoding != null && contentEncoding != ContentEncoding.IDENTITY) {
+            tag.append('-').append(contentEncoding.name().toLowerCase());
+        }
+        return tag.append('"').toString();
+    }
+
+
+    /**
+     * Is for files too large to hash for each change.
+     *
+     * @param fileSize     The number of bytes in a file
+     * @param lastModified When the file was last modified in milliseconds since the epoch
+     * @return A quoted entity tag for the argument file
+     */
+    public static String create(long fileSize, long lastModified) {
+        return '"' + Long.toHexString(lastModified) + "-" + Long.toHexString(fileSize) + '"';
+    }
+
+
+    /**
+     * The comparison is weak, as is to be used for If-None-Match. I.e. a weak tag in the
+     * header matches a strong tag with the same value.
+     *
+     * @param ifNoneMatch The value of the If-None-Match header of a request
+     * @param eTag        The tag of the current content
+     * @return True if the argument header value lists the argument tag or is a wildcard
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (Checker.isEmpty(ifNoneMatch) || Checker.isEmpty(eTag)) {
+            return false;
+        }
+        for (String listedTag : ifNoneMatch.split(",")) {
+            String tag = listedTag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static MessageDigest getMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available. " + e.getMessage());
+        }
+    }
+
+}
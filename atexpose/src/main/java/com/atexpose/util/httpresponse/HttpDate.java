@@ -0,0 +1,53 @@
+package com.atexpose.util.httpresponse;
+
+import io.schinzel.basicutils.Checker;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * The purpose of this class is to format and parse the dates of http headers such as
+ * Last-Modified and If-Modified-Since. Example: Sun, 06 Nov 1994 08:49:37 GMT
+ */
+public class HttpDate {
+    /** The preferred format of http dates, with a two digit day of month */
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter
+            .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+            .withZone(ZoneOffset.UTC);
+
+    private HttpDate() {
+    }
+
+
+    /**
+     * @param epochMillis A point in time in milliseconds since the epoch
+     * @return The argument time as a http date
+     */
+    public static String format(long epochMillis) {
+        return FORMATTER.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+
+    /**
+     * @param httpDate A http date
+     * @return The argument date in milliseconds since the epoch. -1 if the argument is empty
+     * or not a valid http date.
+     */
+    public static long parse(String httpDate) {
+        if (Checker.isEmpty(httpDate)) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(httpDate.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant()
+                    .toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+}
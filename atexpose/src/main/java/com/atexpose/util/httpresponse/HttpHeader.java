@@ -0,0 +1,121 @@
+package com.atexpose.util.httpresponse;
+
+import com.atexpose.dispatcher.PropertiesDispatcher;
+import com.atexpose.util.ByteStorage;
+import com.google.common.base.Joiner;
+import io.schinzel.basicutils.Checker;
+import io.schinzel.basicutils.UTF8;
+import io.schinzel.basicutils.str.Str;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The purpose of this class is to represent an header header.
+ * <p>
+ * Created by Schinzel on 2017-05-31.
+ */
+class HttpHeader {
+    @Getter
+    private final Str header;
+
+
+    @Builder
+    HttpHeader(HttpStatusCode httpStatusCode, Map<String, String> customHeaders,
+               ContentType contentType, int browserCacheMaxAgeInSeconds, int contentLength,
+               ContentEncoding contentEncoding, String eTag, String lastModified) {
+        if (customHeaders == null) {
+            customHeaders = Collections.emptyMap();
+        }
+        header = Str.create()
+                .a("HTTP/1.1 ").acrlf(httpStatusCode.getCode())
+                .a("Server: ").acrlf(PropertiesDispatcher.RESP_HEADER_SERVER_NAME)
+                .a("Content-Type: ").acrlf(contentType.getContentType())
+                .a("Cache-Control: ").a("max-age=").acrlf(String.valueOf(browserCacheMaxAgeInSeconds))
+                .a("Content-Length: ").acrlf(String.valueOf(contentLength))
+                //If the body is negotiated, add the encoding headers
+                .a(contentEncoding == null ? "" : UTF8.getString(contentEncoding.getHeaderLines()))
+                //If there is a tag, add it
+                .ifTrue(Checker.isNotEmpty(eTag))
+                .a("ETag: ").acrlf(eTag)
+                .endIf()
+                //If there is a modification date, add it
+                .ifTrue(Checker.isNotEmpty(lastModified))
+                .a("Last-Modified: ").acrlf(lastModified)
+                .endIf()
+                //If there are custom response headers
+                .ifTrue(Checker.isNotEmpty(customHeaders))
+                //Add the custom response headers
+                .acrlf(Joiner.on("\r\n").withKeyValueSeparator(": ").join(customHeaders))
+                .endIf()
+                .acrlf();
+    }
+
+
+    /**
+     * @return The lines of a header that precede the content length, ending with the name
+     * of the content length header. Used to render the start of a header once.
+     */
+    static byte[] getHeaderStart(HttpStatusCode httpStatusCode, ContentType contentType, int browserCacheMaxAgeInSeconds) {
+        return UTF8.getBytes(Str.create()
+                .a("HTTP/1.1 ").acrlf(httpStatusCode.getCode())
+                .a("Server: ").acrlf(PropertiesDispatcher.RESP_HEADER_SERVER_NAME)
+                .a("Content-Type: ").acrlf(contentType.getContentType())
+                .a("Cache-Control: ").a("max-age=").acrlf(String.valueOf(browserCacheMaxAgeInSeconds))
+                .a("Content-Length: ")
+                .asString());
+    }
+
+
+    /**
+     * Writes a header to the argument sink. Writes the same bytes as the builder renders.
+     *
+     * @param headerStart   The start of the header, as returned by getHeaderStart
+     * @param contentLength The number of bytes in the body
+     * @param customHeaders Custom response headers
+     * @param sink          The header is added to this argument
+     */
+    static void write(byte[] headerStart, int contentLength, CustomHeaders customHeaders, ByteStorage sink) {
+        write(headerStart, contentLength, null, null, customHeaders, sink);
+    }
+
+
+    /**
+     * @param contentEncoding The encoding of the body. Null if the body is not negotiated.
+     * @param eTag            The entity tag of the body. Null if the body has no tag.
+     */
+    static void write(byte[] headerStart, int contentLength, ContentEncoding contentEncoding,
+                      String eTag, CustomHeaders customHeaders, ByteStorage sink) {
+        sink.add(headerStart);
+        addDecimal(contentLength, sink);
+        sink.add((byte) '\r');
+        sink.add((byte) '\n');
+        if (contentEncoding != null) {
+            sink.add(contentEncoding.getHeaderLines());
+        }
+        if (eTag != null) {
+            sink.add("ETag: " + eTag + "\r\n");
+        }
+        sink.add(customHeaders.getHeaderLines());
+        sink.add((byte) '\r');
+        sink.add((byte) '\n');
+    }
+
+
+    /**
+     * Adds the decimal digits of a non-negative number to the argument sink.
+     */
+    private static void addDecimal(int number, ByteStorage sink) {
+        int divisor = 1;
+        while (number / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            sink.add((byte) ('0' + (number / divisor) % 10));
+        }
+    }
+
+
+}
@@ -0,0 +1,47 @@
+package com.atexpose.util.httpresponse;
+
+import com.atexpose.dispatcher.PropertiesDispatcher;
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.Checker;
+import io.schinzel.basicutils.UTF8;
+
+/**
+ * The purpose of this class is to compile a 304 response. The response tells the client
+ * that the content it has cached is still valid. As such the response has no body.
+ */
+public class HttpResponse304 {
+    /** The start of the header, rendered once */
+    private static final byte[] HEADER_START = UTF8.getBytes("HTTP/1.1 " + HttpStatusCode.NOT_MODIFIED.getCode() + "\r\n"
+            + "Server: " + PropertiesDispatcher.RESP_HEADER_SERVER_NAME + "\r\n");
+
+
+    private HttpResponse304() {
+    }
+
+
+    /**
+     * @param eTag            The entity tag of the unchanged content
+     * @param lastModified    When the content was last modified as a http date. Null if unknown.
+     * @param contentEncoding The encoding of the unchanged content. Null if the content is not
+     *                        negotiated.
+     * @param customHeaders   Custom response headers
+     * @param sink            The response is added to this argument
+     */
+    public static void write(String eTag, String lastModified, ContentEncoding contentEncoding,
+                             CustomHeaders customHeaders, ByteStorage sink) {
+        sink.add(HEADER_START);
+        if (Checker.isNotEmpty(eTag)) {
+            sink.add("ETag: " + eTag + "\r\n");
+        }
+        if (Checker.isNotEmpty(lastModified)) {
+            sink.add("Last-Modified: " + lastModified + "\r\n");
+        }
+        //A negotiated response varies on the accepted encodings, also when not modified
+        if (contentEncoding != null) {
+            sink.add(ContentEncoding.IDENTITY.getHeaderLines());
+        }
+        sink.add(customHeaders.getHeaderLines());
+        sink.add("\r\n");
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.atexpose.util.httpresponse;
+
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import org.json.JSONObject;
+
+import java.util.Map;
+
+/**
+ * The purpose of this file is to compile a internal server error response.
+ * <p>
+ * Created by schinzel on 2017-06-03.
+ */
+public class HttpResponse500 {
+    /** The start of the header, rendered once */
+    private static final byte[] HEADER_START = HttpHeader.getHeaderStart(HttpStatusCode.INTERNAL_SERVER_ERROR, ContentType.JSON, 0);
+    /** The two extra new-lines needs to be there for Safari to be able to parse the JSON. */
+    private static final byte[] BODY_SUFFIX = UTF8.getBytes("\n\n");
+    @Getter
+    private final String response;
+
+
+    @Builder
+    HttpResponse500(@NonNull JSONObject body, Map<String, String> customHeaders) {
+        //The two extra new-lines needs to be there for Safari to be able to parse the JSON.
+        String bodyAsString = body.toString() + "\n\n";
+        int contentLength = UTF8.getBytes(bodyAsString).length;
+        HttpHeader header = HttpHeader.builder()
+                .httpStatusCode(HttpStatusCode.INTERNAL_SERVER_ERROR)
+                .customHeaders(customHeaders)
+                .contentType(ContentType.JSON)
+                .contentLength(contentLength)
+                .build();
+        response = header.getHeader()
+                .a(bodyAsString)
+                .asString();
+    }
+
+
+    /**
+     * Writes the response to the argument sink. The body is encoded once and the bytes are the
+     * same as the builder returns.
+     *
+     * @param body          The body of the response
+     * @param customHeaders Custom response headers
+     * @param sink          The response is added to this argument
+     */
+    public static void write(@NonNull JSONObject body, CustomHeaders customHeaders, ByteStorage sink) {
+        byte[] bodyAsBytes = UTF8.getBytes(body.toString());
+        HttpHeader.write(HEADER_START, bodyAsBytes.length + BODY_SUFFIX.length, customHeaders, sink);
+        sink.add(bodyAsBytes);
+        sink.add(BODY_SUFFIX);
+    }
+}
@@ -0,0 +1,102 @@
+package com.atexpose.util.httpresponse;
+
+import com.atexpose.dispatcher.PropertiesDispatcher;
+import com.atexpose.util.ArrayUtil;
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.Checker;
+import io.schinzel.basicutils.UTF8;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * The purpose of this class is to represent a http response for a file.
+ * <p>
+ * Created by schinzel on 2017-06-03.
+ */
+public class HttpResponseFile {
+    @Getter
+    private final byte[] response;
+
+
+    /**
+     * @param contentEncoding The encoding to compress the body with. Null if the body is not
+     *                        negotiated.
+     * @param eTag            The entity tag of the file. Null if the file has no tag.
+     * @param lastModified    When the file was last modified as a http date. Null if unknown.
+     */
+    @Builder
+    HttpResponseFile(byte[] body, String filename, Map<String, String> customHeaders, ContentEncoding contentEncoding,
+                     String eTag, String lastModified) {
+        ContentType contentType = FileExtensions.getContentType(filename);
+        if (contentEncoding != null) {
+            body = Compression.compress(body, contentEncoding);
+        }
+        String header = HttpHeader.builder()
+                .httpStatusCode(HttpStatusCode.OK)
+                .customHeaders(customHeaders)
+                .contentType(contentType)
+                .contentLength(body.length)
+                .contentEncoding(contentEncoding)
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .build()
+                .getHeader()
+                .asString();
+        response = ArrayUtil.concat(UTF8.getBytes(header), body);
+    }
+
+
+    /**
+     * Writes the header of a response whose body is written from the file system after the
+     * header. Is used for files too large to be read into RAM. The response tells the client
+     * that it can request a range of the file.
+     *
+     * @param filename      The name of the file
+     * @param fileSize      The number of bytes in the file
+     * @param range         The range of the file in the body. Null if the body is the whole file.
+     * @param eTag          The entity tag of the file
+     * @param lastModified  When the file was last modified as a http date. Null if unknown.
+     * @param customHeaders Custom response headers
+     * @param sink          The header is added to this argument
+     */
+    public static void writeHeader(String filename, long fileSize, ByteRange range, String eTag,
+                                   String lastModified, CustomHeaders customHeaders, ByteStorage sink) {
+        HttpStatusCode httpStatusCode = (range == null) ? HttpStatusCode.OK : HttpStatusCode.PARTIAL_CONTENT;
+        long contentLength = (range == null) ? fileSize : range.getLength();
+        sink.add("HTTP/1.1 " + httpStatusCode.getCode() + "\r\n"
+                + "Server: " + PropertiesDispatcher.RESP_HEADER_SERVER_NAME + "\r\n"
+                + "Content-Type: " + FileExtensions.getContentType(filename).getContentType() + "\r\n"
+                + "Cache-Control: max-age=0\r\n"
+                + "Content-Length: " + contentLength + "\r\n"
+                + "Accept-Ranges: bytes\r\n");
+        if (range != null) {
+            sink.add("Content-Range: bytes " + range.getStart() + "-" + range.getEnd() + "/" + fileSize + "\r\n");
+        }
+        sink.add("ETag: " + eTag + "\r\n");
+        if (Checker.isNotEmpty(lastModified)) {
+            sink.add("Last-Modified: " + lastModified + "\r\n");
+        }
+        sink.add(customHeaders.getHeaderLines());
+        sink.add("\r\n");
+    }
+
+
+    /**
+     * Writes a response telling the client that the range it requested is outside the file.
+     *
+     * @param fileSize      The number of bytes in the file
+     * @param customHeaders Custom response headers
+     * @param sink          The response is added to this argument
+     */
+    public static void writeRangeNotSatisfiable(long fileSize, CustomHeaders customHeaders, ByteStorage sink) {
+        sink.add("HTTP/1.1 " + HttpStatusCode.RANGE_NOT_SATISFIABLE.getCode() + "\r\n"
+                + "Server: " + PropertiesDispatcher.RESP_HEADER_SERVER_NAME + "\r\n"
+                + "Content-Length: 0\r\n"
+                + "Content-Range: bytes */" + fileSize + "\r\n");
+        sink.add(customHeaders.getHeaderLines());
+        sink.add("\r\n");
+    }
+
+}
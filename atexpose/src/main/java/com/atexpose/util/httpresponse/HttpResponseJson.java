@@ -0,0 +1,88 @@
+package com.atexpose.util.httpresponse;
+
+import com.atexpose.util.ArrayUtil;
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import org.json.JSONObject;
+
+import java.util.Map;
+
+/**
+ * The purpose of this file is to compile a http json response.
+ * <p>
+ * Created by schinzel on 2017-06-03.
+ */
+public class HttpResponseJson {
+    /** The start of the header, rendered once */
+    private static final byte[] HEADER_START = HttpHeader.getHeaderStart(HttpStatusCode.OK, ContentType.JSON, 0);
+    /** The two extra new-lines needs to be there for Safari to be able to parse the JSON. */
+    private static final byte[] BODY_SUFFIX = UTF8.getBytes("\n\n");
+    @Getter
+    private final String response;
+
+
+    @Builder
+    HttpResponseJson(@NonNull JSONObject body, Map<String, String> customHeaders) {
+        //The two extra new-lines needs to be there for Safari to be able to parse the JSON.
+        String bodyAsString = body.toString() + "\n\n";
+        int contentLength = UTF8.getBytes(bodyAsString).length;
+        HttpHeader header = HttpHeader.builder()
+                .httpStatusCode(HttpStatusCode.OK)
+                .customHeaders(customHeaders)
+                .contentType(ContentType.JSON)
+                .contentLength(contentLength)
+                .build();
+        response = header.getHeader()
+                .a(bodyAsString)
+                .asString();
+    }
+
+
+    /**
+     * Writes the response to the argument sink. The body is encoded once and the bytes are the
+     * same as the builder returns.
+     *
+     * @param body          The body of the response
+     * @param customHeaders Custom response headers
+     * @param sink          The response is added to this argument
+     */
+    public static void write(@NonNull JSONObject body, CustomHeaders customHeaders, ByteStorage sink) {
+        write(body, null, customHeaders, sink);
+    }
+
+
+    /**
+     * Writes the response to the argument sink. A body of at least the min size to compress is
+     * compressed with the argument encoding.
+     *
+     * @param body            The body of the response
+     * @param contentEncoding The encoding accepted by the client. Null if not to compress.
+     * @param customHeaders   Custom response headers
+     * @param sink            The response is added to this argument
+     */
+    public static void write(@NonNull JSONObject body, ContentEncoding contentEncoding, CustomHeaders customHeaders, ByteStorage sink) {
+        write(body, contentEncoding, null, customHeaders, sink);
+    }
+
+
+    /**
+     * @param ifNoneMatch The If-None-Match header of the request. Null if the body is not to be
+     *                    tagged. If the header matches the tag of the body, a 304 response is
+     *                    written.
+     */
+    public static void write(@NonNull JSONObject body, ContentEncoding contentEncoding, String ifNoneMatch,
+                             CustomHeaders customHeaders, ByteStorage sink) {
+        byte[] bodyAsBytes = UTF8.getBytes(body.toString());
+        //If the body is neither negotiated nor tagged, skip the copy of the body
+        if (contentEncoding == null && ifNoneMatch == null) {
+            HttpHeader.write(HEADER_START, bodyAsBytes.length + BODY_SUFFIX.length, customHeaders, sink);
+            sink.add(bodyAsBytes);
+            sink.add(BODY_SUFFIX);
+            return;
+        }
+        NegotiatedBody.write(HEADER_START, ArrayUtil.concat(bodyAsBytes, BODY_SUFFIX), contentEncoding, ifNoneMatch, customHeaders, sink);
+    }
+}
@@ -0,0 +1,74 @@
+package com.atexpose.util.httpresponse;
+
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Map;
+
+/**
+ * The purpose of this file is to compile a http string response.
+ * <p>
+ * Created by schinzel on 2017-06-03.
+ */
+public class HttpResponseString {
+    /** The start of the header, rendered once */
+    private static final byte[] HEADER_START = HttpHeader.getHeaderStart(HttpStatusCode.OK, ContentType.TEXT, 0);
+    @Getter
+    private final String response;
+
+
+    @Builder
+    HttpResponseString(@NonNull String body, Map<String, String> customHeaders) {
+        int contentLength = UTF8.getBytes(body).length;
+        HttpHeader header = HttpHeader.builder()
+                .httpStatusCode(HttpStatusCode.OK)
+                .customHeaders(customHeaders)
+                .contentType(ContentType.TEXT)
+                .contentLength(contentLength)
+                .build();
+        response = header.getHeader()
+                .a(body)
+                .asString();
+    }
+
+
+    /**
+     * Writes the response to the argument sink. The body is encoded once and the bytes are the
+     * same as the builder returns.
+     *
+     * @param body          The body of the response
+     * @param customHeaders Custom response headers
+     * @param sink          The response is added to this argument
+     */
+    public static void write(@NonNull String body, CustomHeaders customHeaders, ByteStorage sink) {
+        write(body, null, customHeaders, sink);
+    }
+
+
+    /**
+     * Writes the response to the argument sink. A body of at least the min size to compress is
+     * compressed with the argument encoding.
+     *
+     * @param body            The body of the response
+     * @param contentEncoding The encoding accepted by the client. Null if not to compress.
+     * @param customHeaders   Custom response headers
+     * @param sink            The response is added to this argument
+     */
+    public static void write(@NonNull String body, ContentEncoding contentEncoding, CustomHeaders customHeaders, ByteStorage sink) {
+        write(body, contentEncoding, null, customHeaders, sink);
+    }
+
+
+    /**
+     * @param ifNoneMatch The If-None-Match header of the request. Null if the body is not to be
+     *                    tagged. If the header matches the tag of the body, a 304 response is
+     *                    written.
+     */
+    public static void write(@NonNull String body, ContentEncoding contentEncoding, String ifNoneMatch,
+                             CustomHeaders customHeaders, ByteStorage sink) {
+        NegotiatedBody.write(HEADER_START, UTF8.getBytes(body), contentEncoding, ifNoneMatch, customHeaders, sink);
+    }
+}
@@ -12,8 +12,11 @@ import lombok.Getter;
 @AllArgsConstructor
 public enum HttpStatusCode {
     OK("200 OK"),
+    PARTIAL_CONTENT("206 Partial Content"),
     REDIRECT("302"),
+    NOT_MODIFIED("304 Not Modified"),
     FILE_NOT_FOUND("404 Not Found"),
+    RANGE_NOT_SATISFIABLE("416 Range Not Satisfiable"),
     INTERNAL_SERVER_ERROR("500 Internal Server Error");
     @Getter private final String code;
 }
@@ -0,0 +1,47 @@
+package com.atexpose.util.httpresponse;
+
+import com.atexpose.util.ByteStorage;
+
+/**
+ * The purpose of this class is to write a dynamic 200 response with a body that can be
+ * compressed and tagged as negotiated with the client.
+ */
+class NegotiatedBody {
+
+    private NegotiatedBody() {
+    }
+
+
+    /**
+     * @param headerStart     The start of the header, as returned by HttpHeader.getHeaderStart
+     * @param body            The body of the response
+     * @param contentEncoding The encoding accepted by the client. Null if not to compress.
+     * @param ifNoneMatch     The If-None-Match header of the request. Null if the body is not
+     *                        to be tagged. If the header matches the tag of the body, a 304
+     *                        response is written.
+     * @param customHeaders   Custom response headers
+     * @param sink            The response is added to this argument
+     */
+    static void write(byte[] headerStart, byte[] body, ContentEncoding contentEncoding, String ifNoneMatch,
+                      CustomHeaders customHeaders, ByteStorage sink) {
+        //If the body is too small to gain from compression
+        if (body.length < Compression.MIN_SIZE_TO_COMPRESS) {
+            contentEncoding = null;
+        }
+        String eTag = null;
+        if (ifNoneMatch != null) {
+            eTag = ETag.create(body, contentEncoding);
+            //If the client has the current body
+            if (ETag.matches(ifNoneMatch, eTag)) {
+                HttpResponse304.write(eTag, null, contentEncoding, customHeaders, sink);
+                return;
+            }
+        }
+        if (contentEncoding != null) {
+            body = Compression.compress(body, contentEncoding);
+        }
+        HttpHeader.write(headerStart, body.length, contentEncoding, eTag, customHeaders, sink);
+        sink.add(body);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.atexpose.dispatcher.invocation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares invoking an exposed method with reflection and with an invoker.
+ * <p>
+ * Run with: mvn -P benchmark test-compile exec:java
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvokerBenchmark {
+
+    public static class Target {
+        public String concat(String s, int i) {
+            return s + i;
+        }
+    }
+
+    private final Target mTarget = new Target();
+    private final Object[] mArgumentValues = new Object[]{"a", 1};
+    private Method mMethod;
+    private Invoker mInvoker;
+
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        mMethod = Target.class.getMethod("concat", String.class, int.class);
+        mMethod.setAccessible(true);
+        mInvoker = Invoker.create(mMethod, mTarget);
+    }
+
+
+    @Benchmark
+    public Object reflection() throws Exception {
+        return Invocation.invoke(mMethod, mTarget, mArgumentValues);
+    }
+
+
+    @Benchmark
+    public Object invoker() throws Exception {
+        return mInvoker.invoke(mArgumentValues);
+    }
+
+
+    @Benchmark
+    public Object direct() {
+        return mTarget.concat((String) mArgumentValues[0], (Integer) mArgumentValues[1]);
+    }
+
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InvokerBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+
+}
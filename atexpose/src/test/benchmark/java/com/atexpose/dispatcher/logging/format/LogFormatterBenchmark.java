@@ -0,0 +1,140 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.atexpose.util.ByteStorage;
+import com.google.common.collect.ImmutableMap;
+import io.schinzel.basicutils.UTF8;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares formatting a log entry to a string and then encoding it, as the formatters used
+ * to, with formatting it straight to bytes in a reused buffer.
+ * <p>
+ * Run with: mvn -P benchmark test-compile exec:java
+ * -Dbenchmark.mainClass=com.atexpose.dispatcher.logging.format.LogFormatterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogFormatterBenchmark {
+    private final Map<String, String> mLogData = ImmutableMap.<String, String>builder()
+            .put("call_time_utc", "2017-03-01 12:34:56.789")
+            .put("thread", "4")
+            .put("read_time_in_ms", "0")
+            .put("exec_time_in_ms", "2")
+            .put("write_time_in_ms", "1")
+            .put("sender", "127.0.0.1:49818")
+            .put("request_string", "GET /api/ping HTTP/1.1\r\nHost: 127.0.0.1:5555\r\n"
+                    + "User-Agent: Mozilla/5.0 (Macintosh; Intel Mac OS X 10.10; rv:33.0)\r\n"
+                    + "Accept: text/html,application/xhtml+xml\r\nAccept-Language: en-US,en;q=0.5\r\n\r\n")
+            .put("response", "pong")
+            .put("method_name", "ping")
+            .put("arguments", "-")
+            .build();
+    private final JsonFormatter mJsonFormatter = new JsonFormatter();
+    private final SingleLineFormatter mSingleLineFormatter = new SingleLineFormatter();
+    private final MultiLineFormatter mMultiLineFormatter = new MultiLineFormatter();
+    private final BinaryFormatter mBinaryFormatter = new BinaryFormatter();
+    private final ByteStorage mBuffer = new ByteStorage();
+
+
+    @Benchmark
+    public byte[] jsonObjectToString() {
+        return UTF8.getBytes(new JSONObject((Map) mLogData).toString());
+    }
+
+
+    @Benchmark
+    public int jsonToBytes() {
+        return this.toBytes(mJsonFormatter);
+    }
+
+
+    @Benchmark
+    public byte[] singleLineToString() {
+        return UTF8.getBytes(toString(mLogData, ",", "", "\n", null));
+    }
+
+
+    @Benchmark
+    public int singleLineToBytes() {
+        return this.toBytes(mSingleLineFormatter);
+    }
+
+
+    @Benchmark
+    public byte[] multiLineToString() {
+        return UTF8.getBytes(toString(mLogData, "\n", "\"", mMultiLineFormatter.getEntryDelimiter(), ": "));
+    }
+
+
+    @Benchmark
+    public int multiLineToBytes() {
+        return this.toBytes(mMultiLineFormatter);
+    }
+
+
+    @Benchmark
+    public int binaryToBytes() {
+        return this.toBytes(mBinaryFormatter);
+    }
+
+
+    private int toBytes(ILogFormatter formatter) {
+        mBuffer.clear();
+        formatter.formatLogEntry(mLogData, mBuffer);
+        return mBuffer.getNoOfBytesStored();
+    }
+
+
+    /**
+     * The single and multi line formatting as it was before the formatters wrote bytes.
+     */
+    private static String toString(Map<String, String> logData, String valueDelimiter, String qualifier,
+                                   String entryDelimiter, String keyToValueDelimiter) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : logData.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(valueDelimiter);
+            }
+            String value = entry.getValue();
+            if (keyToValueDelimiter == null) {
+                value = value.replace(valueDelimiter, "[ValueDelimiter]");
+                value = value.replace(entryDelimiter, "[EntryDelimiter]");
+                value = value.replace("\r", "[CarriageReturn]");
+            } else {
+                value = value.replace("\r", "");
+                sb.append(entry.getKey()).append(keyToValueDelimiter);
+            }
+            sb.append(qualifier).append(value).append(qualifier);
+        }
+        sb.append(entryDelimiter);
+        return sb.toString();
+    }
+
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LogFormatterBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+
+}
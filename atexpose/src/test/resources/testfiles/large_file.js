@@ -0,0 +1,61 @@
+//A script large enough to be compressed
+function f0(a, b) { return a + b + 0; }
+function f1(a, b) { return a + b + 1; }
+function f2(a, b) { return a + b + 2; }
+function f3(a, b) { return a + b + 3; }
+function f4(a, b) { return a + b + 4; }
+function f5(a, b) { return a + b + 5; }
+function f6(a, b) { return a + b + 6; }
+function f7(a, b) { return a + b + 7; }
+function f8(a, b) { return a + b + 8; }
+function f9(a, b) { return a + b + 9; }
+function f10(a, b) { return a + b + 10; }
+function f11(a, b) { return a + b + 11; }
+function f12(a, b) { return a + b + 12; }
+function f13(a, b) { return a + b + 13; }
+function f14(a, b) { return a + b + 14; }
+function f15(a, b) { return a + b + 15; }
+function f16(a, b) { return a + b + 16; }
+function f17(a, b) { return a + b + 17; }
+function f18(a, b) { return a + b + 18; }
+function f19(a, b) { return a + b + 19; }
+function f20(a, b) { return a + b + 20; }
+function f21(a, b) { return a + b + 21; }
+function f22(a, b) { return a + b + 22; }
+function f23(a, b) { return a + b + 23; }
+function f24(a, b) { return a + b + 24; }
+function f25(a, b) { return a + b + 25; }
+function f26(a, b) { return a + b + 26; }
+function f27(a, b) { return a + b + 27; }
+function f28(a, b) { return a + b + 28; }
+function f29(a, b) { return a + b + 29; }
+function f30(a, b) { return a + b + 30; }
+function f31(a, b) { return a + b + 31; }
+function f32(a, b) { return a + b + 32; }
+function f33(a, b) { return a + b + 33; }
+function f34(a, b) { return a + b + 34; }
+function f35(a, b) { return a + b + 35; }
+function f36(a, b) { return a + b + 36; }
+function f37(a, b) { return a + b + 37; }
+function f38(a, b) { return a + b + 38; }
+function f39(a, b) { return a + b + 39; }
+function f40(a, b) { return a + b + 40; }
+function f41(a, b) { return a + b + 41; }
+function f42(a, b) { return a + b + 42; }
+function f43(a, b) { return a + b + 43; }
+function f44(a, b) { return a + b + 44; }
+function f45(a, b) { return a + b + 45; }
+function f46(a, b) { return a + b + 46; }
+function f47(a, b) { return a + b + 47; }
+function f48(a, b) { return a + b + 48; }
+function f49(a, b) { return a + b + 49; }
+function f50(a, b) { return a + b + 50; }
+function f51(a, b) { return a + b + 51; }
+function f52(a, b) { return a + b + 52; }
+function f53(a, b) { return a + b + 53; }
+function f54(a, b) { return a + b + 54; }
+function f55(a, b) { return a + b + 55; }
+function f56(a, b) { return a + b + 56; }
+function f57(a, b) { return a + b + 57; }
+function f58(a, b) { return a + b + 58; }
+function f59(a, b) { return a + b + 59; }
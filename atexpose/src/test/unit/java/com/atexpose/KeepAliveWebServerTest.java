@@ -0,0 +1,137 @@
+package com.atexpose;
+
+import com.atexpose.dispatcherfactories.WebServerBuilder;
+import io.schinzel.basicutils.Sandman;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests persistent connections and pipelining with both the blocking and the
+ * non-blocking web channel.
+ */
+public class KeepAliveWebServerTest {
+    private static final String PING_REQUEST = "GET /call/ping HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n";
+    private AtExpose mAtExpose;
+
+
+    private void startWebServer(boolean nonBlocking) {
+        Sandman.snoozeMillis(10);
+        mAtExpose = AtExpose.create()
+                .start(WebServerBuilder.create()
+                        .numberOfThreads(2)
+                        .nonBlocking(nonBlocking)
+                        .keepAlive(true)
+                        .keepAliveTimeoutInMillis(1000)
+                        .maxRequestsPerConnection(3)
+                        .build());
+    }
+
+
+    @After
+    public void after() {
+        mAtExpose.shutdown();
+        Sandman.snoozeMillis(10);
+    }
+
+
+    /**
+     * Reads from the argument socket until the argument number of "pong" has been read or
+     * the server closed the connection.
+     */
+    private static String readPongs(Socket socket, int noOfPongs) throws IOException {
+        socket.setSoTimeout(2000);
+        InputStream inputStream = socket.getInputStream();
+        StringBuilder sb = new StringBuilder();
+        byte[] buffer = new byte[1024];
+        int bytesRead;
+        try {
+            while (countPongs(sb.toString()) < noOfPongs && (bytesRead = inputStream.read(buffer)) != -1) {
+                sb.append(new String(buffer, 0, bytesRead, StandardCharsets.UTF_8));
+            }
+        } catch (SocketTimeoutException e) {
+            //Return what has been read
+        }
+        return sb.toString();
+    }
+
+
+    private static int countPongs(String s) {
+        return s.split("pong", -1).length - 1;
+    }
+
+
+    private static void write(Socket socket, String request) throws IOException {
+        socket.getOutputStream().write(request.getBytes(StandardCharsets.UTF_8));
+        socket.getOutputStream().flush();
+    }
+
+
+    private void twoRequestsOnSameConnection(boolean nonBlocking) throws IOException {
+        this.startWebServer(nonBlocking);
+        try (Socket socket = new Socket("127.0.0.1", 5555)) {
+            write(socket, PING_REQUEST);
+            assertThat(readPongs(socket, 1)).contains("Connection: keep-alive").endsWith("pong");
+            write(socket, PING_REQUEST);
+            assertThat(readPongs(socket, 1)).contains("Connection: keep-alive").endsWith("pong");
+        }
+    }
+
+
+    private void pipelinedRequests(boolean nonBlocking) throws IOException {
+        this.startWebServer(nonBlocking);
+        try (Socket socket = new Socket("127.0.0.1", 5555)) {
+            write(socket, PING_REQUEST + "GET /call/echo?String=monkey HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n" + PING_REQUEST);
+            String responses = readPongs(socket, 2);
+            assertThat(countPongs(responses)).isEqualTo(2);
+            //The responses should be in the order of the requests
+            assertThat(responses.indexOf("monkey")).isBetween(responses.indexOf("pong"), responses.lastIndexOf("pong"));
+            //The third request is the last one allowed on the connection
+            assertThat(responses.substring(responses.indexOf("monkey"))).contains("Connection: close");
+        }
+    }
+
+
+    @Test
+    public void keepAlive_TwoRequestsOnSameConnection_BothAnswered() throws IOException {
+        this.twoRequestsOnSameConnection(false);
+    }
+
+
+    @Test
+    public void keepAlive_NonBlockingTwoRequestsOnSameConnection_BothAnswered() throws IOException {
+        this.twoRequestsOnSameConnection(true);
+    }
+
+
+    @Test
+    public void keepAlive_PipelinedRequests_AnsweredInOrder() throws IOException {
+        this.pipelinedRequests(false);
+    }
+
+
+    @Test
+    public void keepAlive_NonBlockingPipelinedRequests_AnsweredInOrder() throws IOException {
+        this.pipelinedRequests(true);
+    }
+
+
+    @Test
+    public void keepAlive_ClientAsksForClose_ConnectionClosed() throws IOException {
+        this.startWebServer(false);
+        try (Socket socket = new Socket("127.0.0.1", 5555)) {
+            write(socket, "GET /call/ping HTTP/1.1\r\nConnection: close\r\n\r\n");
+            String response = readPongs(socket, 1);
+            assertThat(response).contains("Connection: close");
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.atexpose;
+
+import com.atexpose.dispatcher.IDispatcher;
+import com.atexpose.dispatcher.PropertiesDispatcher;
+import com.atexpose.dispatcherfactories.WebServerBuilder;
+import io.schinzel.basicutils.Sandman;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests a web server that multiplexes its connections with selector threads.
+ */
+public class NonBlockingWebServerTest {
+    private AtExpose mAtExpose;
+    private static final String LOCAL_HOST_IP = "127.0.0.1";
+    private static final String URL = "http://" + LOCAL_HOST_IP + ":5555/call/";
+
+
+    @Before
+    public void before() {
+        Sandman.snoozeMillis(10);
+        IDispatcher webServer = WebServerBuilder.create()
+                .numberOfThreads(2)
+                .nonBlocking(true)
+                .numberOfSelectorThreads(2)
+                .build();
+        mAtExpose = AtExpose.create()
+                .start(webServer);
+    }
+
+
+    @After
+    public void after() {
+        mAtExpose.shutdown();
+        Sandman.snoozeMillis(10);
+    }
+
+
+    @Test
+    public void ping_GetRequest_Pong() throws IOException {
+        String result = Jsoup
+                .connect(URL + "ping")
+                .method(Connection.Method.GET)
+                .execute()
+                .body();
+        assertThat(result).isEqualTo("pong");
+    }
+
+
+    @Test
+    public void echo_PostRequest_Echo() throws IOException {
+        String result = Jsoup
+                .connect(URL + "echo")
+                .method(Connection.Method.POST)
+                .data("String", "monkey")
+                .execute()
+                .body();
+        assertThat(result).isEqualTo("monkey");
+    }
+
+
+    @Test
+    public void ghostCall_OneByte_HiGhost() throws IOException {
+        Socket socket = new Socket(LOCAL_HOST_IP, 5555);
+        SocketRWUtil.write(socket, new byte[]{0});
+        String expected = "HTTP/1.1 200 OK\r\n"
+                + "Server: " + PropertiesDispatcher.RESP_HEADER_SERVER_NAME + "\r\n"
+                + "Content-Type: text/html; charset=UTF-8\r\n"
+                + "Cache-Control: max-age=0\r\n"
+                + "Content-Length: 9\r\n"
+                + "\r\n"
+                + "Hi Ghost!";
+        assertThat(SocketRWUtil.read(socket)).isEqualTo(expected);
+    }
+
+
+    @Test
+    public void noHeader_NotHttp_ErrorResponse() throws IOException {
+        Socket socket = new Socket(LOCAL_HOST_IP, 5555);
+        SocketRWUtil.write(socket, "no header call".getBytes(Charset.forName("UTF-8")));
+        assertThat(SocketRWUtil.read(socket))
+                .startsWith("HTTP/1.1 500 Internal Server Error\r\n")
+                .contains("Request has to start with GET or POST.");
+    }
+
+
+    @Test
+    public void ping_IdleConnectionsOpen_Pong() throws Exception {
+        //Open more idle connections than there are web server threads
+        List<Socket> idleSockets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            idleSockets.add(new Socket(LOCAL_HOST_IP, 5555));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(executor.submit(() -> Jsoup.connect(URL + "ping").execute().body()));
+        }
+        for (Future<String> future : futures) {
+            assertThat(future.get()).isEqualTo("pong");
+        }
+        executor.shutdown();
+        for (Socket socket : idleSockets) {
+            socket.close();
+        }
+    }
+
+}
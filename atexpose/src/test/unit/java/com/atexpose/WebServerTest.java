@@ -5,6 +5,7 @@ import com.atexpose.dispatcher.PropertiesDispatcher;
 import com.atexpose.dispatcherfactories.WebServerBuilder;
 import io.schinzel.basicutils.FunnyChars;
 import io.schinzel.basicutils.Sandman;
+import org.apache.commons.lang3.StringUtils;
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.junit.After;
@@ -16,6 +17,7 @@ import java.net.Socket;
 import java.nio.charset.Charset;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Schinzel
@@ -67,7 +69,7 @@ public class WebServerTest {
                 + "Server: " + PropertiesDispatcher.RESP_HEADER_SERVER_NAME + "\r\n"
                 + "Content-Type: application/json; charset=UTF-8\r\n"
                 + "Cache-Control: max-age=0\r\n"
-                + "Content-Length: 139\r\n"
+                + "Content-Length: 141\r\n"
                 + "\r\n"
                 + "{\"error_message\":\"Error while reading from socket. Request not allowed. Request has to start with GET or POST. Request: ' " + request + "'\"}\n\n";
         String response = SocketRWUtil.read(socket);
@@ -119,6 +121,37 @@ public class WebServerTest {
     }
 
 
+    @Test
+    public void test_WebServerCall_post_chunkedBody() throws IOException {
+        Socket socket = new Socket(LOCAL_HOST_IP, 5555);
+        String request = "POST /call/echo HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "Content-Type: application/x-www-form-urlencoded\r\n"
+                + "Transfer-Encoding: chunked\r\n"
+                + "\r\n"
+                + "7\r\nString=\r\n"
+                + "6\r\nmonkey\r\n"
+                + "0\r\n\r\n";
+        SocketRWUtil.write(socket, request);
+        String response = SocketRWUtil.read(socket);
+        assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+        assertTrue(response.endsWith("\r\n\r\nmonkey"));
+    }
+
+
+    @Test
+    public void test_WebServerCall_headerLargerThanMax_error() throws IOException {
+        Socket socket = new Socket(LOCAL_HOST_IP, 5555);
+        String request = "GET /call/ping HTTP/1.1\r\n"
+                + "X-Large: " + StringUtils.repeat("a", 20 * 1024) + "\r\n"
+                + "\r\n";
+        SocketRWUtil.write(socket, request);
+        String response = SocketRWUtil.read(socket);
+        assertTrue(response.startsWith("HTTP/1.1 500 Internal Server Error"));
+        assertTrue(response.contains("Request header is larger than the max 16384 bytes."));
+    }
+
+
     @Test
     public void test_WebServerCall_post_echo_encSSN() throws IOException {
         String expected = "v06_FvaZo6U0H52jqh3V/R/wTQ==";
@@ -0,0 +1,114 @@
+package com.atexpose;
+
+import com.atexpose.dispatcher.IDispatcher;
+import com.atexpose.dispatcherfactories.WebServerBuilder;
+import io.schinzel.basicutils.Sandman;
+import org.jsoup.Jsoup;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests web servers where one thread reads the requests and a worker pool executes them.
+ */
+public class WorkerPoolWebServerTest {
+    private static final String URL = "http://127.0.0.1:5555/call/";
+    private AtExpose mAtExpose;
+    private IDispatcher mWebServer;
+
+
+    private void startWebServer(boolean nonBlocking, ExecutorService executor) {
+        Sandman.snoozeMillis(10);
+        mWebServer = WebServerBuilder.create()
+                .numberOfThreads(4)
+                .nonBlocking(nonBlocking)
+                .useWorkerPool(true)
+                .workerQueueCapacity(100)
+                .workerExecutor(executor)
+                .build();
+        mAtExpose = AtExpose.create().start(mWebServer);
+    }
+
+
+    @After
+    public void after() {
+        mAtExpose.shutdown();
+        Sandman.snoozeMillis(10);
+    }
+
+
+    private static void assertConcurrentPings() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(executor.submit(() -> Jsoup.connect(URL + "ping").execute().body()));
+        }
+        for (Future<String> future : futures) {
+            assertThat(future.get()).isEqualTo("pong");
+        }
+        executor.shutdown();
+    }
+
+
+    @Test
+    public void ping_Blocking_Pong() throws IOException {
+        this.startWebServer(false, null);
+        assertThat(Jsoup.connect(URL + "ping").execute().body()).isEqualTo("pong");
+    }
+
+
+    @Test
+    public void ping_BlockingConcurrentRequests_AllPong() throws Exception {
+        this.startWebServer(false, null);
+        assertConcurrentPings();
+    }
+
+
+    @Test
+    public void ping_NonBlockingConcurrentRequests_AllPong() throws Exception {
+        this.startWebServer(true, null);
+        assertConcurrentPings();
+    }
+
+
+    @Test
+    public void ping_ForkJoinPoolExecutor_AllPong() throws Exception {
+        this.startWebServer(true, new ForkJoinPool(4));
+        assertConcurrentPings();
+    }
+
+
+    @Test
+    public void ping_IdleConnectionsOpen_Pong() throws Exception {
+        this.startWebServer(true, null);
+        List<Socket> idleSockets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            idleSockets.add(new Socket("127.0.0.1", 5555));
+        }
+        assertThat(Jsoup.connect(URL + "ping").execute().body()).isEqualTo("pong");
+        for (Socket socket : idleSockets) {
+            socket.close();
+        }
+    }
+
+
+    @Test
+    public void getState_WorkerPool_StateHasWorkerPool() {
+        this.startWebServer(true, null);
+        assertThat(mWebServer.getState().getString())
+                .contains("WorkerPool")
+                .contains("QueueDepth")
+                .contains("CALLER_RUNS");
+    }
+
+}
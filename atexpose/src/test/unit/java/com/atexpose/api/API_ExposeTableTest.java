@@ -0,0 +1,72 @@
+package com.atexpose.api;
+
+import com.atexpose.errors.ExposedInvocationException;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class API_ExposeTableTest {
+
+    private static API getApi() {
+        return new API()
+                .addLabel("TestLabel", "This label is for test")
+                .addLabel("Misc", "Misc methods")
+                .expose(new TableExposedClass());
+    }
+
+
+    @Test
+    public void getExposeTable_ClassWithTable_Table() {
+        assertThat(API.getExposeTable(TableExposedClass.class))
+                .isInstanceOf(TableExposedClass_ExposeTable.class);
+    }
+
+
+    @Test
+    public void getExposeTable_ClassWithoutTable_Null() {
+        assertThat(API.getExposeTable(ExposedClassUtil.class)).isNull();
+    }
+
+
+    @Test
+    public void expose_ClassWithTable_MethodHasNoReflectedMethod() {
+        MethodObject methodObject = getApi().getMethodObject("echo");
+        assertThat(methodObject.getMethod()).isNull();
+        assertThat(methodObject.getKey()).isEqualTo("echo");
+    }
+
+
+    @Test
+    public void expose_ClassWithTable_MethodInvoked() throws ExposedInvocationException {
+        MethodObject methodObject = getApi().getMethodObject("echo");
+        assertThat(methodObject.invoke(new Object[]{"hello"})).isEqualTo("hello");
+    }
+
+
+    @Test
+    public void expose_ClassWithTable_AliasAndSyntaxFromTable() {
+        API api = getApi();
+        assertThat(api.getMethodObject("echoAlias").getKey()).isEqualTo("echo");
+        assertThat(api.getMethodObject("echo").getSyntax()).isEqualTo("String echo([String String])");
+    }
+
+
+    @Test
+    public void expose_ClassWithTableMethodThrowsException_ExceptionTranslated() {
+        MethodObject methodObject = getApi().getMethodObject("throwException");
+        assertThatExceptionOfType(ExposedInvocationException.class)
+                .isThrownBy(() -> methodObject.invoke(new Object[]{}))
+                .withMessageContaining("ErrorMessage:Something went wrong!")
+                .withMessageContaining("Method:throwException")
+                .withMessageContaining("Class:com.atexpose.api.TableExposedClass");
+    }
+
+
+    @Test
+    public void expose_ClassWithoutTable_MethodHasReflectedMethod() {
+        API api = new API().expose(new ExposedClassUtil());
+        assertThat(api.getMethodObject("help").getMethod()).isNotNull();
+    }
+}
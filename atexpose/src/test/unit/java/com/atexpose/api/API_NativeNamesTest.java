@@ -0,0 +1,32 @@
+package com.atexpose.api;
+
+import com.atexpose.AtExpose;
+import com.atexpose.processor.ExposeProcessor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that the annotation processor knows the arguments and labels that @Expose adds, so
+ * that the processor does not report native names as unknown.
+ */
+public class API_NativeNamesTest {
+
+    @Test
+    public void nativeArguments_AtExposeCreated_SameAsProcessor() {
+        List<String> argumentNames = new ArrayList<>();
+        AtExpose.create().getAPI().getArguments().forEach(argument -> argumentNames.add(argument.getKey()));
+        assertThat(argumentNames).containsExactlyInAnyOrderElementsOf(ExposeProcessor.NATIVE_ARGUMENTS);
+    }
+
+
+    @Test
+    public void nativeLabels_AtExposeCreated_SameAsProcessor() {
+        List<String> labelNames = new ArrayList<>();
+        AtExpose.create().getAPI().getLabels().forEach(label -> labelNames.add(label.getKey()));
+        assertThat(labelNames).containsExactlyInAnyOrderElementsOf(ExposeProcessor.NATIVE_LABELS);
+    }
+}
@@ -0,0 +1,148 @@
+package com.atexpose.api;
+
+import com.atexpose.api.datatypes.DataType;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class ArgumentBindingPlanTest {
+
+    private static ArgumentBindingPlan getThreeArguments() {
+        return new ArgumentBindingPlan(ImmutableList.of(
+                Argument.builder()
+                        .name("arg1")
+                        .alias("arg1Alias")
+                        .dataType(DataType.STRING)
+                        .defaultValue("my_default_value")
+                        .build(),
+                Argument.builder()
+                        .name("arg2")
+                        .alias("arg2Alias")
+                        .dataType(DataType.INT)
+                        .defaultValue("12345")
+                        .build(),
+                Argument.builder()
+                        .name("arg3")
+                        .dataType(DataType.BOOLEAN)
+                        .defaultValue("true")
+                        .build()));
+    }
+
+
+    @Test
+    public void bind_NoValues_DefaultValues() {
+        Object[] values = getThreeArguments().bind(Collections.emptyList(), Collections.emptyList());
+        assertThat(values).containsExactly("my_default_value", 12345, true);
+    }
+
+
+    @Test
+    public void bind_PositionalValues_ValuesCastInOrder() {
+        Object[] values = getThreeArguments().bind(Arrays.asList("a", "1"), null);
+        assertThat(values).containsExactly("a", 1, true);
+    }
+
+
+    @Test
+    public void bind_NamedValuesInOtherOrder_ValuesAtArgumentPositions() {
+        Object[] values = getThreeArguments().bind(Arrays.asList("false", "a"), Arrays.asList("arg3", "arg1"));
+        assertThat(values).containsExactly("a", 12345, false);
+    }
+
+
+    @Test
+    public void bind_AliasName_ValueAtArgumentPosition() {
+        Object[] values = getThreeArguments().bind(Collections.singletonList("7"), Collections.singletonList("arg2Alias"));
+        assertThat(values).containsExactly("my_default_value", 7, true);
+    }
+
+
+    @Test
+    public void bind_TwoBindingsSameThread_SameArrayWithDefaultsReset() {
+        ArgumentBindingPlan plan = getThreeArguments();
+        Object[] first = plan.bind(Arrays.asList("a", "1", "false"), null);
+        Object[] second = plan.bind(Collections.emptyList(), null);
+        assertThat(second).isSameAs(first);
+        assertThat(second).containsExactly("my_default_value", 12345, true);
+    }
+
+
+    @Test
+    public void bind_TwoThreads_DifferentArrays() throws Exception {
+        ArgumentBindingPlan plan = getThreeArguments();
+        Object[] first = plan.bind(Collections.emptyList(), null);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Object[] second = executor.submit(() -> plan.bind(Collections.emptyList(), null)).get();
+        executor.shutdown();
+        assertThat(second).isNotSameAs(first);
+    }
+
+
+    @Test
+    public void bind_UnknownName_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> getThreeArguments().bind(Collections.singletonList("a"), Collections.singletonList("no_such_name")))
+                .withMessageContaining("No argument named 'no_such_name'");
+    }
+
+
+    @Test
+    public void bind_TooManyValues_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> getThreeArguments().bind(Arrays.asList("a", "1", "true", "x"), null))
+                .withMessageContaining("Too many arguments");
+    }
+
+
+    @Test
+    public void bind_MoreNamesThanValues_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> getThreeArguments().bind(Collections.singletonList("a"), Arrays.asList("arg1", "arg2")))
+                .withMessageContaining("same size");
+    }
+
+
+    @Test
+    public void bind_IncorrectValue_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> getThreeArguments().bind(Collections.singletonList("a"), Collections.singletonList("arg2")));
+    }
+
+
+    @Test
+    public void getPosition_ManyNamesWithEqualStringHashCodes_AllFound() {
+        //"Aa" and "BB" have the same String hash code, as do all combinations of them
+        List<Argument> arguments = new ArrayList<>();
+        String[] parts = {"Aa", "BB"};
+        for (int i = 0; i < 64; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int bit = 0; bit < 6; bit++) {
+                name.append(parts[(i >> bit) & 1]);
+            }
+            arguments.add(Argument.builder().name(name.toString()).dataType(DataType.STRING).build());
+        }
+        ArgumentBindingPlan plan = new ArgumentBindingPlan(arguments);
+        for (int i = 0; i < arguments.size(); i++) {
+            assertThat(plan.getPosition(arguments.get(i).getKey())).isEqualTo(i);
+        }
+        assertThat(plan.getPosition("AaAaAaAaAaAa")).isEqualTo(0);
+        assertThat(plan.getPosition("AaAaAaAaAaAb")).isEqualTo(-1);
+        assertThat(plan.getPosition(null)).isEqualTo(-1);
+    }
+
+
+    @Test
+    public void getPosition_NoArguments_NotFound() {
+        assertThat(new ArgumentBindingPlan(Collections.emptyList()).getPosition("arg1")).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,27 @@
+package com.atexpose.api;
+
+import com.atexpose.Expose;
+
+/**
+ * The purpose of this class is to be used for tests of classes exposed with a table
+ * generated by the @Expose annotation processor. The processor generates
+ * TableExposedClass_ExposeTable as the tests are compiled, see the expose-tables execution in
+ * the pom.
+ */
+public class TableExposedClass {
+
+    @Expose(
+            arguments = {"String"},
+            labels = {"TestLabel"},
+            aliases = {"echoAlias"}
+    )
+    public String echo(String s) {
+        return s;
+    }
+
+
+    @Expose
+    public String throwException() {
+        throw new RuntimeException("Something went wrong!");
+    }
+}
@@ -0,0 +1,51 @@
+package com.atexpose.dispatcher;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+
+public class VirtualThreadsTest {
+
+    private static int getJavaVersion() {
+        String version = System.getProperty("java.specification.version");
+        return version.startsWith("1.")
+                ? Integer.parseInt(version.substring(2))
+                : Integer.parseInt(version);
+    }
+
+
+    @Test
+    public void isSupported_RunningJava_TrueIfJava21OrLater() {
+        assertThat(VirtualThreads.isSupported()).isEqualTo(getJavaVersion() >= 21);
+    }
+
+
+    @Test
+    public void newExecutor_NotSupported_Exception() {
+        assumeFalse(VirtualThreads.isSupported());
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> VirtualThreads.newExecutor("Test"))
+                .withMessageContaining("Virtual threads require Java 21 or later");
+    }
+
+
+    @Test
+    public void newExecutor_Supported_TaskRunInNamedVirtualThread() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+        ExecutorService executor = VirtualThreads.newExecutor("Test");
+        Future<String> threadInfo = executor.submit(() -> {
+            Thread thread = Thread.currentThread();
+            return thread.getName() + " " + Thread.class.getMethod("isVirtual").invoke(thread);
+        });
+        assertThat(threadInfo.get()).isEqualTo("Test:virtual:1 true");
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.atexpose.dispatcher;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class WorkerPoolTest {
+    private WorkerPool mWorkerPool;
+    /** Holds the workers of a test until released */
+    private final CountDownLatch mRelease = new CountDownLatch(1);
+
+
+    @After
+    public void after() {
+        mRelease.countDown();
+        mWorkerPool.shutdown();
+    }
+
+
+    private WorkerPool getWorkerPool(int poolSize, int queueCapacity, WorkerPool.RejectionPolicy rejectionPolicy) {
+        mWorkerPool = WorkerPool.builder()
+                .name("Test")
+                .poolSize(poolSize)
+                .queueCapacity(queueCapacity)
+                .rejectionPolicy(rejectionPolicy)
+                .build();
+        return mWorkerPool;
+    }
+
+
+    /**
+     * Fills the argument number of places in the pool with tasks that wait for the release.
+     */
+    private void fill(int noOfTasks, CountDownLatch started) {
+        for (int i = 0; i < noOfTasks; i++) {
+            mWorkerPool.execute(() -> {
+                started.countDown();
+                awaitRelease();
+            }, () -> {
+            });
+        }
+    }
+
+
+    private void awaitRelease() {
+        try {
+            mRelease.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    @Test
+    public void execute_OneTask_ExecutedInWorkerThread() throws InterruptedException {
+        this.getWorkerPool(1, 1, null);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        mWorkerPool.execute(() -> {
+            threadName.set(Thread.currentThread().getName());
+            done.countDown();
+        }, () -> {
+        });
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(threadName.get()).isEqualTo("Test:worker:1");
+    }
+
+
+    @Test
+    public void getQueueDepth_PoolFull_NoOfTasksWaiting() throws InterruptedException {
+        this.getWorkerPool(2, 5, WorkerPool.RejectionPolicy.ABORT);
+        CountDownLatch started = new CountDownLatch(2);
+        this.fill(5, started);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(mWorkerPool.getQueueDepth()).isEqualTo(3);
+    }
+
+
+    @Test
+    public void execute_PoolAndQueueFullAbort_OnRejectedRun() throws InterruptedException {
+        this.getWorkerPool(1, 1, WorkerPool.RejectionPolicy.ABORT);
+        CountDownLatch started = new CountDownLatch(1);
+        this.fill(2, started);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        AtomicBoolean taskRun = new AtomicBoolean(false);
+        AtomicBoolean rejected = new AtomicBoolean(false);
+        mWorkerPool.execute(() -> taskRun.set(true), () -> rejected.set(true));
+        assertThat(rejected.get()).isTrue();
+        assertThat(taskRun.get()).isFalse();
+    }
+
+
+    @Test
+    public void execute_PoolAndQueueFullCallerRuns_RunInCallingThread() throws InterruptedException {
+        this.getWorkerPool(1, 0, WorkerPool.RejectionPolicy.CALLER_RUNS);
+        CountDownLatch started = new CountDownLatch(1);
+        this.fill(1, started);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        mWorkerPool.execute(() -> thread.set(Thread.currentThread()), () -> {
+        });
+        assertThat(thread.get()).isSameAs(Thread.currentThread());
+    }
+
+
+    @Test
+    public void getState_PoolFull_StateHasQueueDepthAndRejected() throws InterruptedException {
+        this.getWorkerPool(1, 1, WorkerPool.RejectionPolicy.ABORT);
+        CountDownLatch started = new CountDownLatch(1);
+        this.fill(3, started);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        String state = mWorkerPool.getState().getString();
+        assertThat(state)
+                .contains("PoolSize")
+                .contains("QueueDepth")
+                .contains("RejectionPolicy")
+                .contains("ABORT")
+                .contains("Rejected");
+    }
+
+
+    @Test
+    public void builder_PoolSizeZero_Exception() {
+        assertThatExceptionOfType(RuntimeException.class).isThrownBy(() ->
+                WorkerPool.builder().poolSize(0).build()
+        );
+        //So that after() has a pool to shut down
+        this.getWorkerPool(1, 0, null);
+    }
+
+}
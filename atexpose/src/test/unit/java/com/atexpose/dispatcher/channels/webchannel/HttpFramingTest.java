@@ -0,0 +1,126 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class HttpFramingTest {
+
+    private static int getRequestLength(String request) {
+        byte[] bytes = UTF8.getBytes(request);
+        return HttpFraming.getRequestLength(bytes, bytes.length);
+    }
+
+
+    @Test
+    public void getRequestLength_NoBytes_Incomplete() {
+        assertThat(getRequestLength("")).isEqualTo(HttpFraming.INCOMPLETE);
+    }
+
+
+    @Test
+    public void getRequestLength_PartOfRequestLine_Incomplete() {
+        assertThat(getRequestLength("PO")).isEqualTo(HttpFraming.INCOMPLETE);
+    }
+
+
+    @Test
+    public void getRequestLength_HeaderNotEnded_Incomplete() {
+        assertThat(getRequestLength("GET /index.html HTTP/1.1\r\nHost: 127.0.0.1\r\n")).isEqualTo(HttpFraming.INCOMPLETE);
+    }
+
+
+    @Test
+    public void getRequestLength_GetRequest_LengthOfHeader() {
+        String request = "GET /index.html HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n";
+        assertThat(getRequestLength(request)).isEqualTo(request.length());
+    }
+
+
+    @Test
+    public void getRequestLength_PostRequestWithPartOfBody_Incomplete() {
+        String request = "POST /call/echo HTTP/1.1\r\ncontent-length: 8\r\n\r\nString";
+        assertThat(getRequestLength(request)).isEqualTo(HttpFraming.INCOMPLETE);
+    }
+
+
+    @Test
+    public void getRequestLength_PostRequestWithWholeBody_LengthOfRequest() {
+        String request = "POST /call/echo HTTP/1.1\r\nContent-Length: 8\r\n\r\nString=a";
+        assertThat(getRequestLength(request)).isEqualTo(request.length());
+    }
+
+
+    @Test
+    public void getRequestLength_TwoRequests_LengthOfFirstRequest() {
+        String first = "POST /call/echo HTTP/1.1\r\nContent-Length: 8\r\n\r\nString=a";
+        String second = "GET /index.html HTTP/1.1\r\n\r\n";
+        assertThat(getRequestLength(first + second)).isEqualTo(first.length());
+    }
+
+
+    @Test
+    public void getRequestLength_NotHttp_AllBytes() {
+        assertThat(getRequestLength("no header call")).isEqualTo(14);
+    }
+
+
+    @Test
+    public void getRequestLength_GhostCall_OneByte() {
+        assertThat(HttpFraming.getRequestLength(new byte[]{0}, 1)).isEqualTo(1);
+    }
+
+
+    @Test
+    public void getRequestLength_ChunkedBodyNotEnded_Incomplete() {
+        String request = "POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n";
+        assertThat(getRequestLength(request)).isEqualTo(HttpFraming.INCOMPLETE);
+    }
+
+
+    @Test
+    public void getRequestLength_ChunkedBody_LengthOfWholeRequest() {
+        String request = "POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\nA\r\n0123456789\r\n0\r\n\r\n";
+        assertThat(getRequestLength(request)).isEqualTo(request.length());
+    }
+
+
+    @Test
+    public void getRequestLength_ChunkedBodyWithTrailer_LengthOfWholeRequest() {
+        String request = "POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n0\r\nX-Trailer: a\r\n\r\n";
+        assertThat(getRequestLength(request)).isEqualTo(request.length());
+    }
+
+
+    @Test
+    public void getRequestLength_ChunkedBodyAndPipelinedRequest_LengthOfFirstRequest() {
+        String first = "POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n0\r\n\r\n";
+        assertThat(getRequestLength(first + "GET /b HTTP/1.1\r\n\r\n")).isEqualTo(first.length());
+    }
+
+
+    @Test
+    public void getRequestLength_InvalidChunkSize_Exception() {
+        String request = "POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\nxyz\r\nhello\r\n";
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> getRequestLength(request))
+                .withMessageContaining("Invalid chunk size");
+    }
+
+
+    @Test
+    public void decodeChunkedRequest_TwoChunks_HeaderAndJoinedBody() {
+        String request = "POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n6\r\n world\r\n0\r\n\r\n";
+        byte[] bytes = UTF8.getBytes(request);
+        ByteStorage output = new ByteStorage();
+        HttpFraming.decodeChunkedRequest(bytes, bytes.length, output);
+        assertThat(output.getAsString())
+                .startsWith("POST /a HTTP/1.1\r\n")
+                .endsWith("\r\n\r\nhello world");
+    }
+
+}
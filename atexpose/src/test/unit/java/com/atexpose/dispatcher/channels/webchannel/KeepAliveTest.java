@@ -0,0 +1,96 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class KeepAliveTest {
+    private final KeepAlive mKeepAlive = KeepAlive.create(true, 5000, 3);
+
+
+    private boolean isToKeepAlive(String request, int noOfRequestsRead) {
+        byte[] bytes = UTF8.getBytes(request);
+        return mKeepAlive.isToKeepAlive(bytes, bytes.length, noOfRequestsRead);
+    }
+
+
+    @Test
+    public void isToKeepAlive_Http11_True() {
+        assertThat(isToKeepAlive("GET / HTTP/1.1\r\nHost: a\r\n\r\n", 1)).isTrue();
+    }
+
+
+    @Test
+    public void isToKeepAlive_Http11ConnectionClose_False() {
+        assertThat(isToKeepAlive("GET / HTTP/1.1\r\nConnection: close\r\n\r\n", 1)).isFalse();
+    }
+
+
+    @Test
+    public void isToKeepAlive_Http10_False() {
+        assertThat(isToKeepAlive("GET / HTTP/1.0\r\nHost: a\r\n\r\n", 1)).isFalse();
+    }
+
+
+    @Test
+    public void isToKeepAlive_Http10ConnectionKeepAlive_True() {
+        assertThat(isToKeepAlive("GET / HTTP/1.0\r\nconnection: Keep-Alive\r\n\r\n", 1)).isTrue();
+    }
+
+
+    @Test
+    public void isToKeepAlive_MaxRequestsRead_False() {
+        assertThat(isToKeepAlive("GET / HTTP/1.1\r\nHost: a\r\n\r\n", 3)).isFalse();
+    }
+
+
+    @Test
+    public void isToKeepAlive_Disabled_False() {
+        byte[] bytes = UTF8.getBytes("GET / HTTP/1.1\r\nHost: a\r\n\r\n");
+        assertThat(KeepAlive.DISABLED.isToKeepAlive(bytes, bytes.length, 1)).isFalse();
+    }
+
+
+    @Test
+    public void addConnectionHeader_KeepAlive_HeaderAfterStatusLine() {
+        byte[] response = UTF8.getBytes("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n");
+        String actual = UTF8.getString(mKeepAlive.addConnectionHeader(response, true));
+        assertThat(actual).isEqualTo("HTTP/1.1 200 OK\r\nConnection: keep-alive\r\nKeep-Alive: timeout=5\r\nContent-Length: 0\r\n\r\n");
+    }
+
+
+    @Test
+    public void addConnectionHeader_Close_HeaderAfterStatusLine() {
+        byte[] response = UTF8.getBytes("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n");
+        String actual = UTF8.getString(mKeepAlive.addConnectionHeader(response, false));
+        assertThat(actual).isEqualTo("HTTP/1.1 200 OK\r\nConnection: close\r\nContent-Length: 0\r\n\r\n");
+    }
+
+
+    @Test
+    public void addConnectionHeader_Disabled_SameResponse() {
+        byte[] response = UTF8.getBytes("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n");
+        assertThat(KeepAlive.DISABLED.addConnectionHeader(response, false)).isSameAs(response);
+    }
+
+
+    @Test
+    public void addConnectionHeader_ByteStorageKeepAlive_HeaderInsertedAfterStatusLine() {
+        ByteStorage response = new ByteStorage();
+        response.add("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n");
+        mKeepAlive.addConnectionHeader(response, true);
+        assertThat(response.getAsString()).isEqualTo("HTTP/1.1 200 OK\r\nConnection: keep-alive\r\nKeep-Alive: timeout=5\r\nContent-Length: 0\r\n\r\n");
+    }
+
+
+    @Test
+    public void addConnectionHeader_ByteStorageNotHttp_Unchanged() {
+        ByteStorage response = new ByteStorage();
+        response.add("Hello");
+        mKeepAlive.addConnectionHeader(response, false);
+        assertThat(response.getAsString()).isEqualTo("Hello");
+    }
+}
@@ -0,0 +1,146 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import com.atexpose.dispatcher.channels.webchannel.redirect.Redirects;
+import com.atexpose.util.ByteStorage;
+import com.atexpose.util.FileRegion;
+import io.schinzel.basicutils.Sandman;
+import io.schinzel.basicutils.UTF8;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class NioWebChannelTest {
+    private NioWebChannel mWebChannel;
+
+
+    @After
+    public void after() {
+        mWebChannel.shutdown(Thread.currentThread());
+        //Snooze for tests to work on Travis
+        Sandman.snoozeMillis(10);
+    }
+
+
+    @Test
+    public void getRequest_PageRequest_ShouldRedirect() throws Exception {
+        Redirects redirects = Redirects.getBuilder()
+                .addFileRedirect("apa.html", "bear.html")
+                .build();
+        mWebChannel = NioWebChannel.builder()
+                .port(5555)
+                .timeout(300)
+                .noOfEventLoops(1)
+                .redirects(redirects)
+                .build();
+        new Thread(() -> mWebChannel.getRequest(new ByteStorage())).start();
+        Connection.Response response = Jsoup
+                .connect("http://127.0.0.1:5555/apa.html")
+                .followRedirects(false)
+                .execute();
+        assertThat(response.statusCode()).isEqualTo(302);
+        assertThat(response.header("location")).isEqualTo("http://127.0.0.1:5555/bear.html");
+    }
+
+
+    @Test
+    public void getRequest_RequestSentInPieces_WholeRequest() throws Exception {
+        mWebChannel = NioWebChannel.builder()
+                .port(5555)
+                .timeout(1000)
+                .noOfEventLoops(2)
+                .redirects(Redirects.getBuilder().build())
+                .build();
+        String request = "POST /call/echo HTTP/1.1\r\nHost: 127.0.0.1\r\nContent-Length: 12\r\n\r\nString=monke";
+        new Thread(() -> {
+            try (Socket socket = new Socket("127.0.0.1", 5555)) {
+                OutputStream outputStream = socket.getOutputStream();
+                outputStream.write(UTF8.getBytes(request.substring(0, 20)));
+                outputStream.flush();
+                Sandman.snoozeMillis(50);
+                outputStream.write(UTF8.getBytes(request.substring(20)));
+                outputStream.flush();
+                InputStream inputStream = socket.getInputStream();
+                while (inputStream.read() != -1) {
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }).start();
+        ByteStorage byteStorage = new ByteStorage();
+        mWebChannel.getRequest(byteStorage);
+        mWebChannel.writeResponse(UTF8.getBytes("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n"));
+        assertThat(byteStorage.getAsString()).isEqualTo(request);
+    }
+
+
+    @Test
+    public void getState_NoConnections_ZeroConnections() {
+        mWebChannel = NioWebChannel.builder()
+                .port(5555)
+                .timeout(300)
+                .noOfEventLoops(1)
+                .redirects(Redirects.getBuilder().build())
+                .build();
+        assertThat(mWebChannel.getState().getJson().getInt("Connections")).isEqualTo(0);
+    }
+
+
+    @Test
+    public void writeStoredResponse_FileRegion_HeaderAndFileWritten() throws Exception {
+        mWebChannel = NioWebChannel.builder()
+                .port(5555)
+                .timeout(1000)
+                .noOfEventLoops(1)
+                .redirects(Redirects.getBuilder().build())
+                .build();
+        //Larger than a socket send buffer so that the file is written in more than one step
+        byte[] fileContent = new byte[4 * 1024 * 1024];
+        new Random(1).nextBytes(fileContent);
+        Path path = Files.createTempFile("region", ".bin");
+        Files.write(path, fileContent);
+        String header = "HTTP/1.1 200 OK\r\nContent-Length: " + fileContent.length + "\r\n\r\n";
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        Thread client = new Thread(() -> {
+            try (Socket socket = new Socket("127.0.0.1", 5555)) {
+                socket.getOutputStream().write(UTF8.getBytes("GET /file.bin HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n"));
+                socket.getOutputStream().flush();
+                //Read slowly at first so that the server cannot write all at once
+                Sandman.snoozeMillis(50);
+                InputStream inputStream = socket.getInputStream();
+                byte[] buffer = new byte[8 * 1024];
+                int noOfBytes;
+                while ((noOfBytes = inputStream.read(buffer)) != -1) {
+                    received.write(buffer, 0, noOfBytes);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        client.start();
+        mWebChannel.getRequest(new ByteStorage());
+        ByteStorage response = new ByteStorage();
+        response.add(header);
+        mWebChannel.writeStoredResponse(response, FileRegion.create(path, 0, fileContent.length));
+        client.join(5000);
+        Files.delete(path);
+        byte[] receivedBytes = received.toByteArray();
+        assertThat(receivedBytes.length).isGreaterThan(fileContent.length);
+        byte[] receivedFile = Arrays.copyOfRange(receivedBytes, receivedBytes.length - fileContent.length, receivedBytes.length);
+        assertThat(receivedFile).isEqualTo(fileContent);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.atexpose.dispatcher.channels.webchannel;
+
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class RequestBufferTest {
+
+    private static RequestBuffer getBuffer(int maxHeaderSize, int maxBodySize, String content) {
+        RequestBuffer requestBuffer = new RequestBuffer(maxHeaderSize, maxBodySize);
+        byte[] bytes = UTF8.getBytes(content);
+        requestBuffer.append(bytes, 0, bytes.length);
+        return requestBuffer;
+    }
+
+
+    @Test
+    public void isRequestComplete_PartOfRequest_False() {
+        RequestBuffer requestBuffer = getBuffer(0, 0, "GET /index.html HTTP/1.1\r\n");
+        assertThat(requestBuffer.isRequestComplete()).isFalse();
+    }
+
+
+    @Test
+    public void isRequestComplete_RequestAddedInParts_True() {
+        RequestBuffer requestBuffer = getBuffer(0, 0, "GET /index.html HTTP/1.1\r\n");
+        byte[] bytes = UTF8.getBytes("Host: a\r\n\r\n");
+        requestBuffer.append(bytes, 0, bytes.length);
+        assertThat(requestBuffer.isRequestComplete()).isTrue();
+    }
+
+
+    @Test
+    public void isRequestComplete_HeaderLargerThanMax_Exception() {
+        RequestBuffer requestBuffer = getBuffer(20, 0, "GET /index.html HTTP/1.1\r\nHost: a\r\n\r\n");
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(requestBuffer::isRequestComplete)
+                .withMessageContaining("Request header is larger than the max 20 bytes");
+    }
+
+
+    @Test
+    public void isRequestComplete_HeaderNotEndedAndLargerThanMax_Exception() {
+        RequestBuffer requestBuffer = getBuffer(20, 0, "GET /index.html HTTP/1.1\r\nHost: a");
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(requestBuffer::isRequestComplete)
+                .withMessageContaining("Request header is larger than the max 20 bytes");
+    }
+
+
+    @Test
+    public void isRequestComplete_ContentLengthLargerThanMax_ExceptionBeforeBodyIsRead() {
+        RequestBuffer requestBuffer = getBuffer(0, 10, "POST /a HTTP/1.1\r\nContent-Length: 11\r\n\r\n");
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(requestBuffer::isRequestComplete)
+                .withMessageContaining("Request body is larger than the max 10 bytes");
+    }
+
+
+    @Test
+    public void isRequestComplete_ChunkedBodyLargerThanMax_Exception() {
+        RequestBuffer requestBuffer = getBuffer(0, 10, "POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n"
+                + "5\r\nhello\r\n6\r\n world\r\n");
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(requestBuffer::isRequestComplete)
+                .withMessageContaining("Request body is larger than the max 10 bytes");
+    }
+
+
+    @Test
+    public void copyRequestTo_PipelinedRequests_FirstRequest() {
+        RequestBuffer requestBuffer = getBuffer(0, 0, "GET /a HTTP/1.1\r\n\r\nGET /b HTTP/1.1\r\n\r\n");
+        ByteStorage request = new ByteStorage();
+        requestBuffer.copyRequestTo(request);
+        assertThat(request.getAsString()).isEqualTo("GET /a HTTP/1.1\r\n\r\n");
+    }
+
+
+    @Test
+    public void removeRequest_PipelinedRequests_SecondRequestLeft() {
+        RequestBuffer requestBuffer = getBuffer(0, 0, "GET /a HTTP/1.1\r\n\r\nGET /b HTTP/1.1\r\n\r\n");
+        requestBuffer.removeRequest();
+        ByteStorage request = new ByteStorage();
+        requestBuffer.copyRequestTo(request);
+        assertThat(request.getAsString()).isEqualTo("GET /b HTTP/1.1\r\n\r\n");
+    }
+
+
+    @Test
+    public void getClone_BufferWithBytes_EmptyBufferWithSameLimits() {
+        RequestBuffer clone = getBuffer(20, 0, "GET /a HTTP/1.1\r\n").getClone();
+        assertThat(clone.getNoOfBytes()).isZero();
+        byte[] bytes = UTF8.getBytes("GET /index.html HTTP/1.1\r\nHost: a");
+        clone.append(bytes, 0, bytes.length);
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(clone::isRequestComplete);
+    }
+
+
+    @Test
+    public void isRequestComplete_HeaderWithContentLength_BufferHoldsWholeRequest() {
+        RequestBuffer requestBuffer = getBuffer(0, 0, "POST /a HTTP/1.1\r\nContent-Length: 100000\r\n\r\n");
+        assertThat(requestBuffer.isRequestComplete()).isFalse();
+        assertThat(requestBuffer.getBytes().length).isGreaterThanOrEqualTo(requestBuffer.getNoOfBytes() + 100000);
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.atexpose.dispatcher.invocation;
+
+import com.atexpose.api.ExposedClassUtil;
+import com.atexpose.errors.ExposedInvocationException;
+import com.atexpose.errors.IExceptionProperties;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class InvokerTest {
+
+    private static class PropertiesException extends RuntimeException implements IExceptionProperties {
+        @Override
+        public Map<String, String> getProperties() {
+            return ImmutableMap.of("MyKey", "MyValue");
+        }
+    }
+
+
+    public static class TestClass {
+        private int mCounter = 0;
+
+
+        public String concat(String s, int i, Boolean b) {
+            return s + i + b;
+        }
+
+
+        public int add(int a, long b) {
+            return (int) (a + b);
+        }
+
+
+        public void increment() {
+            mCounter++;
+        }
+
+
+        public static String staticMethod(String s) {
+            return s + s;
+        }
+
+
+        private String privateMethod() {
+            return "private";
+        }
+
+
+        public String throwWithProperties() {
+            throw new PropertiesException();
+        }
+
+
+        public String throwError() {
+            throw new StackOverflowError();
+        }
+    }
+
+
+    private static Invoker getInvoker(String methodName, Object targetObject, Class<?>... parameterTypes) throws Exception {
+        Method method = TestClass.class.getDeclaredMethod(methodName, parameterTypes);
+        method.setAccessible(true);
+        return Invoker.create(method, targetObject);
+    }
+
+
+    @Test
+    public void invoke_ObjectAndPrimitiveArguments_ReturnsResult() throws Exception {
+        Invoker invoker = getInvoker("concat", new TestClass(), String.class, int.class, Boolean.class);
+        assertThat(invoker.invoke(new Object[]{"a", 1, true})).isEqualTo("a1true");
+    }
+
+
+    @Test
+    public void invoke_PrimitiveReturn_ReturnsBoxedResult() throws Exception {
+        Invoker invoker = getInvoker("add", new TestClass(), int.class, long.class);
+        assertThat(invoker.invoke(new Object[]{1, 2L})).isEqualTo(3);
+    }
+
+
+    @Test
+    public void invoke_VoidMethod_ReturnsNullAndInvokesTargetObject() throws Exception {
+        TestClass testClass = new TestClass();
+        Invoker invoker = getInvoker("increment", testClass);
+        assertThat(invoker.invoke(new Object[]{})).isNull();
+        invoker.invoke(new Object[]{});
+        assertThat(testClass.mCounter).isEqualTo(2);
+    }
+
+
+    @Test
+    public void invoke_StaticMethodNoTargetObject_ReturnsResult() throws Exception {
+        Invoker invoker = getInvoker("staticMethod", null, String.class);
+        assertThat(invoker.invoke(new Object[]{"a"})).isEqualTo("aa");
+    }
+
+
+    @Test
+    public void invoke_PrivateMethodSetAccessible_ReturnsResult() throws Exception {
+        Invoker invoker = getInvoker("privateMethod", new TestClass());
+        assertThat(invoker.invoke(new Object[]{})).isEqualTo("private");
+    }
+
+
+    @Test
+    public void create_NonStaticMethodNoTargetObject_Exception() {
+        assertThatExceptionOfType(RuntimeException.class).isThrownBy(() ->
+                getInvoker("increment", null)
+        );
+    }
+
+
+    @Test
+    public void invoke_InvokedMethodThrowsException_SameMessageAsReflection() throws Exception {
+        Method method = ExposedClassUtil.class.getMethod("doIt");
+        Object object = new ExposedClassUtil();
+        String reflectionMessage = null;
+        try {
+            Invocation.invoke(method, object, new Object[]{});
+        } catch (ExposedInvocationException e) {
+            reflectionMessage = e.getMessage();
+        }
+        assertThatExceptionOfType(ExposedInvocationException.class).isThrownBy(() ->
+                Invoker.create(method, object).invoke(new Object[]{})
+        )
+                .withMessage(reflectionMessage)
+                .withMessageContaining("ErrorMessage:Something went wrong!")
+                .withMessageContaining("Method:doAnOperation")
+                .withMessageContaining("LineNumber:");
+    }
+
+
+    @Test
+    public void invoke_InvokedMethodThrowsExceptionWithProperties_PropertiesInException() throws Exception {
+        Invoker invoker = getInvoker("throwWithProperties", new TestClass());
+        assertThatExceptionOfType(ExposedInvocationException.class)
+                .isThrownBy(() -> invoker.invoke(new Object[]{}))
+                .withMessageContaining("MyKey:MyValue")
+                .withMessageContaining("Method:throwWithProperties");
+    }
+
+
+    @Test
+    public void invoke_ArgumentValueOfWrongType_IllegalArgumentException() throws Exception {
+        Invoker invoker = getInvoker("concat", new TestClass(), String.class, int.class, Boolean.class);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> invoker.invoke(new Object[]{"a", "notAnInt", true}))
+                .withMessageContaining("Argument values do not fit");
+    }
+
+
+    @Test
+    public void invoke_NullForPrimitive_IllegalArgumentException() throws Exception {
+        Invoker invoker = getInvoker("add", new TestClass(), int.class, long.class);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> invoker.invoke(new Object[]{null, 2L}));
+    }
+
+
+    @Test
+    public void invoke_WrongNumberOfArgumentValues_IllegalArgumentException() throws Exception {
+        Invoker invoker = getInvoker("add", new TestClass(), int.class, long.class);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> invoker.invoke(new Object[]{1}));
+    }
+
+
+    @Test
+    public void invoke_InvokedMethodThrowsError_ExposedInvocationException() throws Exception {
+        Invoker invoker = getInvoker("throwError", new TestClass());
+        assertThatExceptionOfType(ExposedInvocationException.class)
+                .isThrownBy(() -> invoker.invoke(new Object[]{}))
+                .withMessageContaining("Method:throwError")
+                .withCauseInstanceOf(StackOverflowError.class);
+    }
+
+
+    @Test
+    public void invoke_MethodCallThrowsInvocationTargetException_CauseReported() {
+        Invoker invoker = Invoker.create((target, args) -> {
+            throw new InvocationTargetException(new RuntimeException("Boom"));
+        }, null);
+        assertThatExceptionOfType(ExposedInvocationException.class)
+                .isThrownBy(() -> invoker.invoke(new Object[]{}))
+                .withMessageContaining("ErrorMessage:Boom");
+    }
+
+}
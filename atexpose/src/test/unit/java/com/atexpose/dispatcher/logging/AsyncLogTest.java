@@ -0,0 +1,128 @@
+package com.atexpose.dispatcher.logging;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class AsyncLogTest {
+
+    private static ILogEntry getLogEntry() {
+        return Mockito.mock(ILogEntry.class);
+    }
+
+
+    /**
+     * @return An async log whose writer waits for the argument latch before the first batch
+     */
+    private static AsyncLog getBlockedLog(int queueSize, OverflowPolicy overflowPolicy, CountDownLatch latch, List<ILogEntry> written) {
+        return new AsyncLog(queueSize, overflowPolicy, batch -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.addAll(batch);
+        });
+    }
+
+
+    @Test
+    public void log_ThreeEntries_AllWrittenInOrder() {
+        List<ILogEntry> written = Collections.synchronizedList(new ArrayList<>());
+        AsyncLog asyncLog = new AsyncLog(16, OverflowPolicy.BLOCK, written::addAll);
+        ILogEntry first = getLogEntry();
+        ILogEntry second = getLogEntry();
+        ILogEntry third = getLogEntry();
+        asyncLog.log(first);
+        asyncLog.log(second);
+        asyncLog.log(third);
+        assertThat(asyncLog.flush(5000)).isTrue();
+        assertThat(written).containsExactly(first, second, third);
+        assertThat(asyncLog.getQueueDepth()).isZero();
+    }
+
+
+    @Test
+    public void log_DropPolicyQueueFull_EntriesDropped() {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<ILogEntry> written = Collections.synchronizedList(new ArrayList<>());
+        AsyncLog asyncLog = getBlockedLog(4, OverflowPolicy.DROP, latch, written);
+        for (int i = 0; i < 20; i++) {
+            asyncLog.log(getLogEntry());
+        }
+        latch.countDown();
+        assertThat(asyncLog.flush(5000)).isTrue();
+        //The background thread can have taken the entries in the queue before it was blocked
+        assertThat(asyncLog.getNoOfDropped()).isGreaterThanOrEqualTo(20 - 2 * 4);
+        assertThat(asyncLog.getNoOfDropped() + written.size()).isEqualTo(20);
+    }
+
+
+    @Test
+    public void log_SamplePolicyQueueHalfFull_SomeEntriesQueued() {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<ILogEntry> written = Collections.synchronizedList(new ArrayList<>());
+        AsyncLog asyncLog = getBlockedLog(64, OverflowPolicy.SAMPLE, latch, written);
+        for (int i = 0; i < 200; i++) {
+            asyncLog.log(getLogEntry());
+        }
+        latch.countDown();
+        assertThat(asyncLog.flush(5000)).isTrue();
+        assertThat(asyncLog.getNoOfDropped()).isPositive();
+        assertThat(asyncLog.getNoOfDropped() + written.size()).isEqualTo(200);
+    }
+
+
+    @Test
+    public void log_BlockPolicyQueueFull_NoEntriesDropped() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<ILogEntry> written = Collections.synchronizedList(new ArrayList<>());
+        AsyncLog asyncLog = getBlockedLog(4, OverflowPolicy.BLOCK, latch, written);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                asyncLog.log(getLogEntry());
+            }
+        });
+        producer.start();
+        Thread.sleep(50);
+        //The producer waits for room in the queue
+        assertThat(producer.isAlive()).isTrue();
+        latch.countDown();
+        producer.join(5000);
+        assertThat(asyncLog.flush(5000)).isTrue();
+        assertThat(written).hasSize(20);
+        assertThat(asyncLog.getNoOfDropped()).isZero();
+    }
+
+
+    @Test
+    public void log_WriterThrows_ErrorCountedAndThreadKeptAlive() {
+        AsyncLog asyncLog = new AsyncLog(16, OverflowPolicy.BLOCK, batch -> {
+            throw new RuntimeException("Write failed");
+        });
+        asyncLog.log(getLogEntry());
+        assertThat(asyncLog.flush(5000)).isTrue();
+        asyncLog.log(getLogEntry());
+        assertThat(asyncLog.flush(5000)).isTrue();
+        assertThat(asyncLog.getState().getJson().getLong("Written")).isEqualTo(2);
+        assertThat(asyncLog.getState().getJson().getLong("WriteErrors")).isPositive();
+    }
+
+
+    @Test
+    public void getState_NewLog_QueueSizeAndPolicy() {
+        AsyncLog asyncLog = new AsyncLog(100, OverflowPolicy.DROP, batch -> {
+        });
+        assertThat(asyncLog.getState().getJson().getInt("QueueSize")).isEqualTo(128);
+        assertThat(asyncLog.getState().getJson().getString("OverflowPolicy")).isEqualTo("drop");
+        assertThat(asyncLog.getState().getJson().getInt("QueueDepth")).isZero();
+    }
+
+}
@@ -1,7 +1,10 @@
 package com.atexpose.dispatcher.logging;
 
+import com.atexpose.util.ByteStorage;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import io.schinzel.crypto.cipher.ICipher;
+import io.schinzel.crypto.cipher.NoCipher;
 import org.junit.Test;
 
 import java.time.Instant;
@@ -14,6 +17,7 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class LogEntryTest {
@@ -163,4 +167,45 @@ public class LogEntryTest {
         assertThat(argString).isEqualTo("name_1='val_1', name_2='val_2'");
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void getLogData_Keys_OnlyDataOfKeys() {
+        ICipher cipher = mock(ICipher.class);
+        Map<String, String> logData = this.getLogEntryBuilder().build()
+                .getLogData(cipher, ImmutableSet.of(LogEntry.KEY_METHOD_NAME, LogEntry.KEY_THREAD));
+        assertThat(logData).containsOnlyKeys(LogEntry.KEY_METHOD_NAME, LogEntry.KEY_THREAD);
+        //The arguments and the request are not encrypted as they are not asked for
+        verifyZeroInteractions(cipher);
+    }
+
+
+    @Test
+    public void getLogData_LoggedRequestAndResponse_Decoded() {
+        ByteStorage request = new ByteStorage();
+        request.add("GET /a HTTP/1.1");
+        ByteStorage response = new ByteStorage();
+        response.add("HTTP/1.1 200 OK");
+        Map<String, String> logData = this.getLogEntryBuilder()
+                .requestString(null)
+                .response(null)
+                .loggedRequest(LoggedBytes.capture(request, 0))
+                .loggedResponse(LoggedBytes.capture(response, 8))
+                .build()
+                .getLogData(new NoCipher());
+        assertThat(logData.get(LogEntry.KEY_REQUEST_STRING)).isEqualTo("GET /a HTTP/1.1");
+        assertThat(logData.get(LogEntry.KEY_RESPONSE)).isEqualTo("HTTP/1.1...[7 bytes truncated]");
+    }
+
+
+    @Test
+    public void getLogData_NoRequestOrResponse_EmptyStrings() {
+        Map<String, String> logData = this.getLogEntryBuilder()
+                .requestString(null)
+                .response(null)
+                .build()
+                .getLogData(new NoCipher());
+        assertThat(logData.get(LogEntry.KEY_REQUEST_STRING)).isEmpty();
+        assertThat(logData.get(LogEntry.KEY_RESPONSE)).isEmpty();
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.atexpose.dispatcher.logging;
+
+import com.atexpose.util.ByteStorage;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class LoggedBytesTest {
+
+    private static ByteStorage getStorage(String content) {
+        ByteStorage storage = new ByteStorage();
+        storage.add(content);
+        return storage;
+    }
+
+
+    @Test
+    public void capture_NoMax_AllBytes() {
+        assertThat(LoggedBytes.capture(getStorage("GET /a HTTP/1.1"), 0).toString())
+                .isEqualTo("GET /a HTTP/1.1");
+    }
+
+
+    @Test
+    public void capture_MaxLargerThanBytes_AllBytes() {
+        assertThat(LoggedBytes.capture(getStorage("GET /a"), 100).toString())
+                .isEqualTo("GET /a");
+    }
+
+
+    @Test
+    public void capture_MaxSmallerThanBytes_TruncatedWithNote() {
+        assertThat(LoggedBytes.capture(getStorage("0123456789"), 4).toString())
+                .isEqualTo("0123...[6 bytes truncated]");
+    }
+
+
+    @Test
+    public void capture_StorageChangedAfter_CapturedBytesUnchanged() {
+        ByteStorage storage = getStorage("abc");
+        LoggedBytes loggedBytes = LoggedBytes.capture(storage, 0);
+        storage.clear();
+        storage.add("xyz");
+        assertThat(loggedBytes.toString()).isEqualTo("abc");
+    }
+
+
+    @Test
+    public void capture_NegativeMax_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> LoggedBytes.capture(getStorage("abc"), -1));
+    }
+
+}
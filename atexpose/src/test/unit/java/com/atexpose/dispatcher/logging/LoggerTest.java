@@ -0,0 +1,369 @@
+package com.atexpose.dispatcher.logging;
+
+import com.atexpose.MyProperties;
+import com.atexpose.dispatcher.logging.format.BinaryFormat;
+import com.atexpose.dispatcher.logging.format.BinaryFormatter;
+import com.atexpose.dispatcher.logging.format.JsonFormatter;
+import com.atexpose.dispatcher.logging.writer.IByteLogWriter;
+import com.atexpose.dispatcher.logging.writer.SystemOutLogWriter;
+import com.atexpose.dispatcher.logging.writer.TestLogWriter;
+import com.atexpose.util.ByteStorage;
+import io.schinzel.crypto.cipher.NoCipher;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class LoggerTest {
+
+    private static class CloseableTestLogWriter extends TestLogWriter implements Closeable {
+        int mNoOfCloses = 0;
+        /** The number of entries written as the writer was closed */
+        int mNoOfEntriesAtClose = -1;
+
+
+        @Override
+        public void close() {
+            mNoOfCloses++;
+            mNoOfEntriesAtClose = mLogEntries.size();
+        }
+    }
+
+
+    @Test
+    public void constructor_NoArgs_EventLogger() {
+        Logger logger = Logger.builder().build();
+        assertThat(logger.mLoggerType).isEqualByComparingTo(LoggerType.EVENT);
+    }
+
+
+    @Test
+    public void constructor_NoArgs_LogWriterIsSystemOut() {
+        Logger logger = Logger.builder().build();
+        assertThat(logger.mLogWriter).isInstanceOf(SystemOutLogWriter.class);
+    }
+
+
+    @Test
+    public void constructor_NoArgs_FormatterIsJson() {
+        Logger logger = Logger.builder().build();
+        assertThat(logger.mLogFormatter).isInstanceOf(JsonFormatter.class);
+    }
+
+
+    @Test
+    public void constructor_NoArgs_CipherIsNoCipher() {
+        Logger logger = Logger.builder().build();
+        assertThat(logger.mCipher).isInstanceOf(NoCipher.class);
+    }
+
+
+    @Test
+    public void log_Log1EventAnd1ErrorInAnEventLogger_BothEntriesInLog() {
+        TestLogWriter logWriter = new TestLogWriter();
+        Logger logger = Logger.builder()
+                .loggerType(LoggerType.EVENT)
+                .logWriter(logWriter)
+                .build();
+        ILogEntry eventLogEntry = Mockito.mock(ILogEntry.class);
+        Mockito.when(eventLogEntry.isError()).thenReturn(true);
+        logger.log(eventLogEntry);
+        ILogEntry errorLogEntry = Mockito.mock(ILogEntry.class);
+        Mockito.when(errorLogEntry.isError()).thenReturn(false);
+        logger.log(errorLogEntry);
+        assertThat(logWriter.mLogEntries).hasSize(2);
+    }
+
+
+    @Test
+    public void log_Log1EventAnd1ErrorInAnErrorLogger_OnlyOneLogEntry() {
+        TestLogWriter logWriter = new TestLogWriter();
+        Logger logger = Logger.builder()
+                .loggerType(LoggerType.ERROR)
+                .logWriter(logWriter)
+                .build();
+        ILogEntry eventLogEntry = Mockito.mock(ILogEntry.class);
+        Mockito.when(eventLogEntry.isError()).thenReturn(true);
+        logger.log(eventLogEntry);
+        ILogEntry errorLogEntry = Mockito.mock(ILogEntry.class);
+        Mockito.when(errorLogEntry.isError()).thenReturn(false);
+        logger.log(errorLogEntry);
+        assertThat(logWriter.mLogEntries).hasSize(1);
+    }
+
+
+    @Test
+    public void log_AsyncLogger_EntriesWrittenByBackgroundThread() {
+        TestLogWriter logWriter = new TestLogWriter();
+        Logger logger = Logger.builder()
+                .logWriter(logWriter)
+                .async(true)
+                .build();
+        for (int i = 0; i < 10; i++) {
+            logger.log(Mockito.mock(ILogEntry.class));
+        }
+        assertThat(logger.flush(5000)).isTrue();
+        assertThat(logWriter.mLogEntries).hasSize(10);
+    }
+
+
+    @Test
+    public void getState_AsyncLoggerThatHasLogged_QueueState() {
+        Logger logger = Logger.builder()
+                .logWriter(new TestLogWriter())
+                .async(true)
+                .queueSize(16)
+                .overflowPolicy(OverflowPolicy.DROP)
+                .build();
+        logger.log(Mockito.mock(ILogEntry.class));
+        logger.flush(5000);
+        JSONObject queueState = logger.getState().getJson().getJSONObject("Queue");
+        assertThat(queueState.getInt("QueueDepth")).isZero();
+        assertThat(queueState.getLong("Dropped")).isZero();
+        assertThat(queueState.getString("OverflowPolicy")).isEqualTo("drop");
+    }
+
+
+    @Test
+    public void close_AsyncLogger_EntriesWrittenBeforeWriterClosed() {
+        CloseableTestLogWriter logWriter = new CloseableTestLogWriter();
+        Logger logger = Logger.builder()
+                .logWriter(logWriter)
+                .async(true)
+                .build();
+        for (int i = 0; i < 10; i++) {
+            logger.log(Mockito.mock(ILogEntry.class));
+        }
+        logger.close();
+        assertThat(logWriter.mNoOfCloses).isEqualTo(1);
+        assertThat(logWriter.mNoOfEntriesAtClose).isEqualTo(10);
+    }
+
+
+    @Test
+    public void close_ClosedTwice_WriterClosedOnce() {
+        CloseableTestLogWriter logWriter = new CloseableTestLogWriter();
+        Logger logger = Logger.builder()
+                .logWriter(logWriter)
+                .build();
+        logger.close();
+        logger.close();
+        assertThat(logWriter.mNoOfCloses).isEqualTo(1);
+    }
+
+
+    @Test
+    public void log_ClosedLogger_EntryNotWritten() {
+        TestLogWriter logWriter = new TestLogWriter();
+        Logger logger = Logger.builder()
+                .logWriter(logWriter)
+                .build();
+        logger.close();
+        logger.log(Mockito.mock(ILogEntry.class));
+        assertThat(logWriter.mLogEntries).isEmpty();
+    }
+
+
+    @Test
+    public void flush_SyncLogger_True() {
+        assertThat(Logger.builder().build().flush(0)).isTrue();
+    }
+
+
+    @Test
+    public void isToLog_ErrorLogger_OnlyErrors() {
+        Logger logger = Logger.builder()
+                .loggerType(LoggerType.ERROR)
+                .build();
+        assertThat(logger.isToLog(true)).isTrue();
+        assertThat(logger.isToLog(false)).isFalse();
+    }
+
+
+    @Test
+    public void isKeyLogged_FormatterWithKeys_OnlyKeysOfFormatter() {
+        Logger logger = Logger.builder()
+                .logFormatter(new JsonFormatter() {
+                    @Override
+                    public Set<String> getKeys() {
+                        return Collections.singleton(LogEntry.KEY_METHOD_NAME);
+                    }
+                })
+                .build();
+        assertThat(logger.isKeyLogged(LogEntry.KEY_METHOD_NAME)).isTrue();
+        assertThat(logger.isKeyLogged(LogEntry.KEY_RESPONSE)).isFalse();
+    }
+
+
+    @Test
+    public void isKeyLogged_DefaultFormatter_AllKeys() {
+        assertThat(Logger.builder().build().isKeyLogged(LogEntry.KEY_RESPONSE)).isTrue();
+    }
+
+
+    @Test
+    public void log_FormatterWithKeys_OnlyDataOfKeysAskedFor() {
+        ILogEntry logEntry = Mockito.mock(ILogEntry.class);
+        Set<String> keys = Collections.singleton(LogEntry.KEY_METHOD_NAME);
+        Mockito.when(logEntry.getLogData(Mockito.any(), Mockito.eq(keys)))
+                .thenReturn(Collections.singletonMap(LogEntry.KEY_METHOD_NAME, "ping"));
+        TestLogWriter logWriter = new TestLogWriter();
+        Logger logger = Logger.builder()
+                .logWriter(logWriter)
+                .logFormatter(new JsonFormatter() {
+                    @Override
+                    public Set<String> getKeys() {
+                        return keys;
+                    }
+                })
+                .build();
+        logger.log(logEntry);
+        assertThat(logWriter.mLogEntries).containsExactly("{\"method_name\":\"ping\"}");
+    }
+
+
+    @Test
+    public void log_ByteLogWriter_EntryFormattedToBytesWithLineSeparator() {
+        ILogEntry logEntry = Mockito.mock(ILogEntry.class);
+        Mockito.when(logEntry.getLogData(Mockito.any(), Mockito.any()))
+                .thenReturn(Collections.singletonMap("key", "value"));
+        List<String> written = new ArrayList<>();
+        IByteLogWriter logWriter = Mockito.mock(IByteLogWriter.class);
+        Mockito.doAnswer(invocation -> written.add(((ByteStorage) invocation.getArgument(0)).getAsString()))
+                .when(logWriter).log(Mockito.any(ByteStorage.class));
+        Logger logger = Logger.builder()
+                .logWriter(logWriter)
+                .build();
+        logger.log(logEntry);
+        logger.log(logEntry);
+        assertThat(written).containsExactly(
+                "{\"key\":\"value\"}" + MyProperties.OS_LINE_SEPARATOR,
+                "{\"key\":\"value\"}" + MyProperties.OS_LINE_SEPARATOR);
+    }
+
+
+    @Test
+    public void log_AsyncByteLogWriter_BatchWrittenWithOneWrite() {
+        ILogEntry logEntry = Mockito.mock(ILogEntry.class);
+        Mockito.when(logEntry.getLogData(Mockito.any(), Mockito.any()))
+                .thenReturn(Collections.singletonMap("key", "value"));
+        StringBuffer written = new StringBuffer();
+        IByteLogWriter logWriter = Mockito.mock(IByteLogWriter.class);
+        Mockito.doAnswer(invocation -> written.append(((ByteStorage) invocation.getArgument(0)).getAsString()))
+                .when(logWriter).log(Mockito.any(ByteStorage.class));
+        Logger logger = Logger.builder()
+                .logWriter(logWriter)
+                .async(true)
+                .build();
+        for (int i = 0; i < 10; i++) {
+            logger.log(logEntry);
+        }
+        assertThat(logger.flush(5000)).isTrue();
+        assertThat(written.toString().split(MyProperties.OS_LINE_SEPARATOR)).hasSize(10);
+    }
+
+
+    @Test
+    public void build_BinaryFormatterAndStringLogWriter_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> Logger.builder()
+                        .logFormatter(new BinaryFormatter())
+                        .logWriter(new TestLogWriter())
+                        .build())
+                .withMessageContaining("cannot write");
+    }
+
+
+    @Test
+    public void build_BinaryLogWriterAndJsonFormatter_Exception() {
+        IByteLogWriter logWriter = Mockito.mock(IByteLogWriter.class);
+        Mockito.when(logWriter.isBinary()).thenReturn(true);
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> Logger.builder()
+                        .logWriter(logWriter)
+                        .build())
+                .withMessageContaining("binary records only");
+    }
+
+
+    @Test
+    public void log_BinaryFormatter_WrittenHoldingWriteLockOfFormatter() {
+        BinaryFormatter formatter = new BinaryFormatter();
+        List<Boolean> isLockHeld = new ArrayList<>();
+        IByteLogWriter logWriter = Mockito.mock(IByteLogWriter.class);
+        Mockito.when(logWriter.isBinary()).thenReturn(true);
+        Mockito.doAnswer(invocation -> isLockHeld.add(((ReentrantLock) formatter.getWriteLock()).isHeldByCurrentThread()))
+                .when(logWriter).log(Mockito.any(ByteStorage.class));
+        ILogEntry logEntry = Mockito.mock(ILogEntry.class);
+        Mockito.when(logEntry.getLogData(Mockito.any(), Mockito.any()))
+                .thenReturn(Collections.singletonMap(LogEntry.KEY_METHOD_NAME, "ping"));
+        Logger.builder()
+                .logFormatter(formatter)
+                .logWriter(logWriter)
+                .build()
+                .log(logEntry);
+        assertThat(isLockHeld).containsExactly(true);
+        assertThat(formatter.getWriteLock().tryLock()).isTrue();
+    }
+
+
+    @Test
+    public void log_BinaryFormatterManyThreads_DefinitionsWrittenBeforeUse() throws InterruptedException {
+        BinaryFormatter formatter = new BinaryFormatter();
+        ByteStorage written = new ByteStorage();
+        IByteLogWriter logWriter = new IByteLogWriter() {
+            @Override
+            public synchronized void log(ByteStorage logEntries) {
+                written.add(logEntries.getBytes());
+            }
+
+
+            @Override
+            public void log(String logEntry) {
+            }
+
+
+            @Override
+            public boolean isBinary() {
+                return true;
+            }
+        };
+        Logger logger = Logger.builder()
+                .logFormatter(formatter)
+                .logWriter(logWriter)
+                .build();
+        ILogEntry logEntry = Mockito.mock(ILogEntry.class);
+        Mockito.when(logEntry.getLogData(Mockito.any(), Mockito.any()))
+                .thenReturn(Collections.singletonMap(LogEntry.KEY_METHOD_NAME, "ping"));
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    logger.log(logEntry);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        //The first record written holds the one definition
+        ByteBuffer records = ByteBuffer.wrap(written.getBytes());
+        BinaryFormat.readVarint(records);
+        assertThat(records.get()).isEqualTo(BinaryFormat.RECORD_ENTRY);
+        assertThat(BinaryFormat.readVarint(records)).isEqualTo(1);
+    }
+
+}
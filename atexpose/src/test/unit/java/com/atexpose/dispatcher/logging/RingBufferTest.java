@@ -0,0 +1,90 @@
+package com.atexpose.dispatcher.logging;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class RingBufferTest {
+
+    @Test
+    public void constructor_CapacityNotPowerOfTwo_RoundedUp() {
+        assertThat(new RingBuffer<String>(100).capacity()).isEqualTo(128);
+    }
+
+
+    @Test
+    public void drainTo_ThreeOffered_ThreeInOrder() {
+        RingBuffer<String> ringBuffer = new RingBuffer<>(4);
+        ringBuffer.offer("a");
+        ringBuffer.offer("b");
+        ringBuffer.offer("c");
+        List<String> target = new ArrayList<>();
+        assertThat(ringBuffer.drainTo(target, 10)).isEqualTo(3);
+        assertThat(target).containsExactly("a", "b", "c");
+        assertThat(ringBuffer.size()).isZero();
+    }
+
+
+    @Test
+    public void drainTo_MaxCount_OnlyMaxCountMoved() {
+        RingBuffer<String> ringBuffer = new RingBuffer<>(4);
+        ringBuffer.offer("a");
+        ringBuffer.offer("b");
+        List<String> target = new ArrayList<>();
+        assertThat(ringBuffer.drainTo(target, 1)).isEqualTo(1);
+        assertThat(ringBuffer.size()).isEqualTo(1);
+    }
+
+
+    @Test
+    public void offer_Full_False() {
+        RingBuffer<String> ringBuffer = new RingBuffer<>(2);
+        assertThat(ringBuffer.offer("a")).isTrue();
+        assertThat(ringBuffer.offer("b")).isTrue();
+        assertThat(ringBuffer.offer("c")).isFalse();
+        assertThat(ringBuffer.size()).isEqualTo(2);
+    }
+
+
+    @Test
+    public void offer_AfterDrain_SlotsReused() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(2);
+        List<Integer> target = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assertThat(ringBuffer.offer(i)).isTrue();
+            ringBuffer.drainTo(target, 10);
+        }
+        assertThat(target).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+
+    @Test
+    public void offer_ManyProducers_AllElementsDrainedOnce() throws InterruptedException {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(1024);
+        List<Thread> producers = IntStream.range(0, 4)
+                .mapToObj(producer -> new Thread(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        while (!ringBuffer.offer(producer * 10000 + i)) {
+                            Thread.yield();
+                        }
+                    }
+                }))
+                .collect(Collectors.toList());
+        producers.forEach(Thread::start);
+        List<Integer> target = new ArrayList<>();
+        while (target.size() < 40000) {
+            ringBuffer.drainTo(target, 256);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertThat(target).doesNotHaveDuplicates().hasSize(40000);
+    }
+
+}
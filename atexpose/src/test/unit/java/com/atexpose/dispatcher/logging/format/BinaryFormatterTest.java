@@ -0,0 +1,137 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.atexpose.dispatcher.logging.LogEntry;
+import com.atexpose.util.ByteStorage;
+import com.google.common.collect.ImmutableMap;
+import io.schinzel.basicutils.FunnyChars;
+import io.schinzel.basicutils.UTF8;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class BinaryFormatterTest {
+
+    static Map<String, String> getLogData(String methodName, String sender) {
+        return ImmutableMap.<String, String>builder()
+                .put(LogEntry.KEY_CALL_TIME, "2017-03-01 12:34:56.789")
+                .put(LogEntry.KEY_THREAD, "4")
+                .put(LogEntry.KEY_READ_TIME, "0")
+                .put(LogEntry.KEY_EXEC_TIME, "2")
+                .put(LogEntry.KEY_WRITE_TIME, "-1")
+                .put(LogEntry.KEY_SENDER, sender)
+                .put(LogEntry.KEY_REQUEST_STRING, "GET /api/" + methodName + " HTTP/1.1\r\nHost: 127.0.0.1:5555\r\n\r\n")
+                .put(LogEntry.KEY_RESPONSE, "pong")
+                .put(LogEntry.KEY_METHOD_NAME, methodName)
+                .put(LogEntry.KEY_ARGUMENTS, "-")
+                .build();
+    }
+
+
+    /**
+     * @return The argument log data formatted and read back
+     */
+    private static List<Map<String, String>> formatAndRead(BinaryFormatter formatter, List<Map<String, String>> logData) {
+        ByteStorage log = new ByteStorage();
+        BinaryFormat.writeScopeRecord(new int[0], new byte[0][], 0, log);
+        for (Map<String, String> entry : logData) {
+            formatter.formatLogEntry(entry, log);
+        }
+        List<Map<String, String>> result = new ArrayList<>();
+        BinaryLogReader.builder().build().read(ByteBuffer.wrap(log.getBytes()), result::add);
+        return result;
+    }
+
+
+    @Test
+    public void formatLogEntry_LogEntryData_SameDataReadBack() {
+        List<Map<String, String>> logData = new ArrayList<>();
+        logData.add(getLogData("ping", "127.0.0.1:49818"));
+        logData.add(getLogData("ping", "127.0.0.1:49819"));
+        logData.add(getLogData("getTime", "0:0:0:0:0:0:0:1:80"));
+        assertThat(formatAndRead(new BinaryFormatter(), logData)).containsExactlyElementsOf(logData);
+    }
+
+
+    @Test
+    public void formatLogEntry_ValuesNotFittingEncoding_SameDataReadBack() {
+        Map<String, String> logData = new LinkedHashMap<>();
+        logData.put(LogEntry.KEY_CALL_TIME, "yesterday");
+        logData.put(LogEntry.KEY_THREAD, "007");
+        logData.put(LogEntry.KEY_EXEC_TIME, "-0");
+        logData.put(LogEntry.KEY_SENDER, "ScriptFile:");
+        logData.put(LogEntry.KEY_FILENAME, FunnyChars.CYRILLIC_LETTERS.getString());
+        logData.put("custom_key", FunnyChars.ARABIC_LETTERS.getString());
+        List<Map<String, String>> result = formatAndRead(new BinaryFormatter(), Collections.singletonList(logData));
+        assertThat(result).containsExactly(logData);
+    }
+
+
+    @Test
+    public void formatLogEntry_SameMethodTwice_SecondRecordSmaller() {
+        BinaryFormatter formatter = new BinaryFormatter();
+        ByteStorage first = new ByteStorage();
+        formatter.formatLogEntry(getLogData("aLongMethodName", "127.0.0.1:1"), first);
+        ByteStorage second = new ByteStorage();
+        formatter.formatLogEntry(getLogData("aLongMethodName", "127.0.0.1:1"), second);
+        assertThat(second.getNoOfBytesStored()).isLessThan(first.getNoOfBytesStored() - "aLongMethodName".length());
+    }
+
+
+    @Test
+    public void formatLogEntry_TypicalEntry_SmallerThanJson() {
+        Map<String, String> logData = getLogData("ping", "127.0.0.1:49818");
+        BinaryFormatter formatter = new BinaryFormatter();
+        formatter.formatLogEntry(logData, new ByteStorage());
+        ByteStorage binary = new ByteStorage();
+        formatter.formatLogEntry(logData, binary);
+        int jsonLength = UTF8.getBytes(new JsonFormatter().formatLogEntry(logData)).length;
+        assertThat(binary.getNoOfBytesStored() * 2).isLessThan(jsonLength);
+    }
+
+
+    @Test
+    public void formatLogEntry_DictionaryFull_ValuesWrittenAsStrings() {
+        BinaryFormatter formatter = new BinaryFormatter();
+        List<Map<String, String>> logData = new ArrayList<>();
+        for (int i = 0; i < BinaryFormatter.MAX_DICTIONARY_SIZE + 10; i++) {
+            logData.add(ImmutableMap.of(LogEntry.KEY_METHOD_NAME, "method" + i));
+        }
+        assertThat(formatAndRead(formatter, logData)).containsExactlyElementsOf(logData);
+    }
+
+
+    @Test
+    public void formatLogEntry_ToString_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> new BinaryFormatter().formatLogEntry(getLogData("ping", "")));
+    }
+
+
+    @Test
+    public void parseCallTime_CallTime_EpochMillis() {
+        BinaryFormatter formatter = new BinaryFormatter();
+        assertThat(formatter.parseCallTime("1970-01-01 00:00:01.002")).isEqualTo(1002);
+        assertThat(formatter.parseCallTime("1970-01-01 00:00:01.003")).isEqualTo(1003);
+        assertThat(formatter.parseCallTime("1970-01-01 00:00:0x.003")).isNegative();
+    }
+
+
+    @Test
+    public void getPortIndex_Senders_IndexOfPort() {
+        assertThat(BinaryFormatter.getPortIndex("127.0.0.1:80")).isEqualTo(10);
+        assertThat(BinaryFormatter.getPortIndex("127.0.0.1:080")).isEqualTo(-1);
+        assertThat(BinaryFormatter.getPortIndex("ScriptFile")).isEqualTo(-1);
+        assertThat(BinaryFormatter.getPortIndex(":80")).isEqualTo(-1);
+        assertThat(BinaryFormatter.getPortIndex("host:123456")).isEqualTo(-1);
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.atexpose.dispatcher.logging.LogEntry;
+import com.atexpose.util.ByteStorage;
+import io.schinzel.basicutils.UTF8;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class BinaryLogReaderTest {
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+
+    private static byte[] getLog() {
+        BinaryFormatter formatter = new BinaryFormatter();
+        ByteStorage log = new ByteStorage();
+        BinaryFormat.writeScopeRecord(new int[0], new byte[0][], 0, log);
+        Map<String, String> ping = new HashMap<>(BinaryFormatterTest.getLogData("ping", "127.0.0.1:1"));
+        ping.put(LogEntry.KEY_CALL_TIME, "2017-03-01 12:00:00.000");
+        formatter.formatLogEntry(ping, log);
+        Map<String, String> getTime = new HashMap<>(BinaryFormatterTest.getLogData("getTime", "127.0.0.1:2"));
+        getTime.put(LogEntry.KEY_CALL_TIME, "2017-03-01 13:00:00.000");
+        formatter.formatLogEntry(getTime, log);
+        return log.getBytes();
+    }
+
+
+    private static List<Map<String, String>> read(BinaryLogReader reader, byte[] log) {
+        List<Map<String, String>> result = new ArrayList<>();
+        reader.read(ByteBuffer.wrap(log), result::add);
+        return result;
+    }
+
+
+    @Test
+    public void read_MethodFilter_OnlyEntriesOfMethod() {
+        List<Map<String, String>> result = read(BinaryLogReader.builder()
+                .filter(LogEntry.KEY_METHOD_NAME, "getTime")
+                .build(), getLog());
+        assertThat(result).extracting(logData -> logData.get(LogEntry.KEY_METHOD_NAME)).containsExactly("getTime");
+    }
+
+
+    @Test
+    public void read_SenderFilter_OnlyEntriesOfSender() {
+        List<Map<String, String>> result = read(BinaryLogReader.builder()
+                .filter(LogEntry.KEY_SENDER, "127.0.0.1:1")
+                .build(), getLog());
+        assertThat(result).extracting(logData -> logData.get(LogEntry.KEY_METHOD_NAME)).containsExactly("ping");
+    }
+
+
+    @Test
+    public void read_TimeFilter_OnlyEntriesWithinTime() {
+        List<Map<String, String>> result = read(BinaryLogReader.builder()
+                .from(Instant.parse("2017-03-01T12:30:00Z"))
+                .to(Instant.parse("2017-03-01T14:00:00Z"))
+                .build(), getLog());
+        assertThat(result).extracting(logData -> logData.get(LogEntry.KEY_METHOD_NAME)).containsExactly("getTime");
+    }
+
+
+    @Test
+    public void read_DefinitionAfterUse_Read() {
+        BinaryFormatter formatter = new BinaryFormatter();
+        ByteStorage first = new ByteStorage();
+        formatter.formatLogEntry(BinaryFormatterTest.getLogData("ping", "h:1"), first);
+        ByteStorage second = new ByteStorage();
+        formatter.formatLogEntry(BinaryFormatterTest.getLogData("ping", "h:1"), second);
+        //The entry that uses the definition is written before the entry that holds it
+        ByteStorage log = new ByteStorage();
+        BinaryFormat.writeScopeRecord(new int[0], new byte[0][], 0, log);
+        log.add(second.getBytes());
+        log.add(first.getBytes());
+        assertThat(read(BinaryLogReader.builder().build(), log.getBytes())).hasSize(2);
+    }
+
+
+    @Test
+    public void read_UndefinedDictionaryId_EntrySkippedAndOtherEntriesRead() {
+        BinaryFormatter formatter = new BinaryFormatter();
+        formatter.formatLogEntry(BinaryFormatterTest.getLogData("ping", "h:1"), new ByteStorage());
+        ByteStorage log = new ByteStorage();
+        BinaryFormat.writeScopeRecord(new int[0], new byte[0][], 0, log);
+        //Refers to the definitions of an entry that is not in the log
+        formatter.formatLogEntry(BinaryFormatterTest.getLogData("ping", "h:1"), log);
+        formatter.formatLogEntry(Collections.singletonMap(LogEntry.KEY_CALL_TIME, "2017-03-01 12:00:00.000"), log);
+        List<Map<String, String>> result = new ArrayList<>();
+        int noOfSkippedEntries = BinaryLogReader.builder().build().read(ByteBuffer.wrap(log.getBytes()), result::add);
+        assertThat(noOfSkippedEntries).isEqualTo(1);
+        assertThat(result).containsExactly(
+                Collections.singletonMap(LogEntry.KEY_CALL_TIME, "2017-03-01 12:00:00.000"));
+    }
+
+
+    @Test
+    public void read_NoScopeRecord_Exception() {
+        ByteStorage log = new ByteStorage();
+        new BinaryFormatter().formatLogEntry(BinaryFormatterTest.getLogData("ping", "h:1"), log);
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> read(BinaryLogReader.builder().build(), log.getBytes()));
+    }
+
+
+    @Test
+    public void toJson_GzippedFile_OneJsonObjectPerLine() throws IOException {
+        Path file = mTemporaryFolder.getRoot().toPath().resolve("test.axlog.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(getLog());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryLogReader.builder().build().toJson(file, out);
+        String[] lines = UTF8.getString(out.toByteArray()).split("\\R");
+        assertThat(lines).hasSize(2);
+        assertThat(new JSONObject(lines[1]).getString(LogEntry.KEY_CALL_TIME)).isEqualTo("2017-03-01 13:00:00.000");
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.atexpose.util.ByteStorage;
+import com.google.common.collect.ImmutableMap;
+import io.schinzel.basicutils.FunnyChars;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Schinzel
+ */
+public class JsonFormatterTest {
+
+
+    @Test
+    public void testFormatLogEntry() {
+        Map<String, String> logdata = ImmutableMap.<String, String>builder()
+                .put("key_1", "1234")
+                .put("key_2", FunnyChars.CYRILLIC_LETTERS.getString())
+                .put("key_3", FunnyChars.ARABIC_LETTERS.getString())
+                .put("key_4", FunnyChars.CYRILLIC_NUMERALS.getString())
+                .build();
+        String jsonString = new JsonFormatter().formatLogEntry(logdata);
+        JSONObject joFromString = new JSONObject(jsonString);
+        assertEquals(joFromString.getString("key_1"), "1234");
+        assertEquals(joFromString.getString("key_2"), FunnyChars.CYRILLIC_LETTERS.getString());
+        assertEquals(joFromString.getString("key_3"), FunnyChars.ARABIC_LETTERS.getString());
+        assertEquals(joFromString.getString("key_4"), FunnyChars.CYRILLIC_NUMERALS.getString());
+    }
+
+
+    @Test
+    public void formatLogEntry_CharsToEscape_ParsedBackToSameValue() {
+        String value = "a\"b\\c/d\ne\rf\tg\bh\fi\u0001j\u001fk€";
+        Map<String, String> logdata = ImmutableMap.of("key", value);
+        String jsonString = new JsonFormatter().formatLogEntry(logdata);
+        assertEquals(value, new JSONObject(jsonString).getString("key"));
+    }
+
+
+    @Test
+    public void formatLogEntry_TwoEntries_KeysInOrder() {
+        Map<String, String> logdata = ImmutableMap.of("b", "1", "a", "2");
+        assertEquals("{\"b\":\"1\",\"a\":\"2\"}", new JsonFormatter().formatLogEntry(logdata));
+    }
+
+
+    @Test
+    public void formatLogEntry_NullValue_EntryLeftOut() {
+        Map<String, String> logdata = new LinkedHashMap<>();
+        logdata.put("a", null);
+        logdata.put("b", "1");
+        assertEquals("{\"b\":\"1\"}", new JsonFormatter().formatLogEntry(logdata));
+    }
+
+
+    @Test
+    public void formatLogEntry_ToBytes_SameAsString() {
+        Map<String, String> logdata = ImmutableMap.of("key_1", FunnyChars.CYRILLIC_LETTERS.getString());
+        ByteStorage storage = new ByteStorage();
+        storage.add((byte) 'x');
+        new JsonFormatter().formatLogEntry(logdata, storage);
+        assertEquals("x" + new JsonFormatter().formatLogEntry(logdata), storage.getAsString());
+    }
+
+}
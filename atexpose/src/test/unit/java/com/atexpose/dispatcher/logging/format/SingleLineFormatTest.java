@@ -0,0 +1,84 @@
+package com.atexpose.dispatcher.logging.format;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author schinzel
+ */
+public class SingleLineFormatTest extends SingleLineFormatter {
+
+    @Test
+    public void testGetEntryKeyToValueDelimiter() {
+        SingleLineFormatter slf = new SingleLineFormatter();
+        assertEquals(null, slf.getEntryKeyToValueDelimiter());
+    }
+
+
+    @Test
+    public void testGetEntryValueDelimiter() {
+        SingleLineFormatter slf = new SingleLineFormatter();
+        assertEquals(",", slf.getEntryValueDelimiter());
+    }
+
+
+    @Test
+    public void testGetEntryDelimiter() {
+        SingleLineFormatter slf = new SingleLineFormatter();
+        assertEquals("\n", slf.getEntryDelimiter());
+    }
+
+
+    @Test
+    public void testGetEntryValueQualifier() {
+        SingleLineFormatter slf = new SingleLineFormatter();
+        assertEquals("", slf.getEntryValueQualifier());
+    }
+
+
+    @Test
+    public void testEscapeValue() {
+        SingleLineFormatter slf = new SingleLineFormatter();
+        assertEquals(null, slf.escapeValue(null));
+        //
+
+    }
+
+
+    @Test
+    public void escapeValue_Delimiters_Replaced() {
+        SingleLineFormatter slf = new SingleLineFormatter();
+        assertEquals("a[ValueDelimiter]b[EntryDelimiter]c[CarriageReturn]d",
+                slf.escapeValue("a,b\nc\rd"));
+    }
+
+
+    @Test
+    public void formatLogEntry_TwoEntries_ValuesDelimited() {
+        Map<String, String> logData = ImmutableMap.of("k1", "a,b", "k2", "åäö");
+        assertEquals("a[ValueDelimiter]b,åäö\n", new SingleLineFormatter().formatLogEntry(logData));
+    }
+
+
+    @Test
+    public void formatLogEntry_NullValue_Null() {
+        Map<String, String> logData = new LinkedHashMap<>();
+        logData.put("k1", null);
+        assertEquals("null\n", new SingleLineFormatter().formatLogEntry(logData));
+    }
+
+
+    @Test
+    public void formatLogEntry_MultiLine_KeysQualifiersAndCarriageReturnsRemoved() {
+        Map<String, String> logData = ImmutableMap.of("k1", "a\r\nb", "k2", "c");
+        assertEquals("k1: \"a\nb\"\nk2: \"c\"" + new MultiLineFormatter().getEntryDelimiter(),
+                new MultiLineFormatter().formatLogEntry(logData));
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.atexpose.dispatcher.logging.writer;
+
+import com.atexpose.dispatcher.logging.ILogEntry;
+import com.atexpose.dispatcher.logging.LogEntry;
+import com.atexpose.dispatcher.logging.Logger;
+import com.atexpose.dispatcher.logging.format.BinaryFormatter;
+import com.atexpose.dispatcher.logging.format.BinaryLogReader;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class BinaryLogWriterTest {
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+
+    private Path getPath() {
+        return mTemporaryFolder.getRoot().toPath().resolve("test.axlog");
+    }
+
+
+    private static ILogEntry getLogEntry(String methodName) {
+        ILogEntry logEntry = Mockito.mock(ILogEntry.class);
+        Mockito.when(logEntry.getLogData(Mockito.any(), Mockito.any()))
+                .thenReturn(ImmutableMap.of(LogEntry.KEY_METHOD_NAME, methodName));
+        return logEntry;
+    }
+
+
+    private static List<Map<String, String>> read(Path file) throws IOException {
+        List<Map<String, String>> result = new ArrayList<>();
+        BinaryLogReader.builder().build().read(file, result::add);
+        return result;
+    }
+
+
+    @Test
+    public void log_Logger_EntriesReadBack() throws IOException {
+        BinaryLogWriter logWriter = BinaryLogWriter.builder().path(this.getPath()).build();
+        Logger logger = Logger.builder()
+                .logFormatter(new BinaryFormatter())
+                .logWriter(logWriter)
+                .build();
+        logger.log(getLogEntry("ping"));
+        logger.log(getLogEntry("ping"));
+        logWriter.close();
+        assertThat(read(this.getPath())).containsExactly(
+                ImmutableMap.of(LogEntry.KEY_METHOD_NAME, "ping"),
+                ImmutableMap.of(LogEntry.KEY_METHOD_NAME, "ping"));
+    }
+
+
+    @Test
+    public void log_Rolled_EachSegmentReadOnItsOwn() throws IOException {
+        BinaryLogWriter logWriter = BinaryLogWriter.builder()
+                .path(this.getPath())
+                .maxFileSize(1L)
+                .build();
+        Logger logger = Logger.builder()
+                .logFormatter(new BinaryFormatter())
+                .logWriter(logWriter)
+                .build();
+        logger.log(getLogEntry("ping"));
+        //Refers to the definition in the rolled segment
+        logger.log(getLogEntry("ping"));
+        logWriter.close();
+        List<Path> rolledFiles;
+        try (Stream<Path> files = Files.list(this.getPath().getParent())) {
+            rolledFiles = files.filter(file -> file.toString().endsWith(".gz")).collect(Collectors.toList());
+        }
+        assertThat(rolledFiles).hasSize(1);
+        assertThat(read(rolledFiles.get(0))).containsExactly(ImmutableMap.of(LogEntry.KEY_METHOD_NAME, "ping"));
+        assertThat(read(this.getPath())).containsExactly(ImmutableMap.of(LogEntry.KEY_METHOD_NAME, "ping"));
+    }
+
+
+    @Test
+    public void log_Reopened_EntriesOfBothRunsReadBack() throws IOException {
+        for (String methodName : new String[]{"ping", "getTime"}) {
+            BinaryLogWriter logWriter = BinaryLogWriter.builder().path(this.getPath()).build();
+            Logger.builder()
+                    .logFormatter(new BinaryFormatter())
+                    .logWriter(logWriter)
+                    .build()
+                    .log(getLogEntry(methodName));
+            logWriter.close();
+        }
+        assertThat(read(this.getPath())).containsExactly(
+                ImmutableMap.of(LogEntry.KEY_METHOD_NAME, "ping"),
+                ImmutableMap.of(LogEntry.KEY_METHOD_NAME, "getTime"));
+    }
+
+
+    @Test
+    public void build_JsonFormatter_Exception() {
+        BinaryLogWriter logWriter = BinaryLogWriter.builder().path(this.getPath()).build();
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> Logger.builder()
+                        .logWriter(logWriter)
+                        .build());
+        logWriter.close();
+    }
+
+
+    @Test
+    public void log_String_Exception() {
+        BinaryLogWriter logWriter = BinaryLogWriter.builder().path(this.getPath()).build();
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> logWriter.log("ping"));
+        logWriter.close();
+    }
+
+}
@@ -0,0 +1,385 @@
+package com.atexpose.dispatcher.logging.writer;
+
+import com.atexpose.MyProperties;
+import io.schinzel.basicutils.UTF8;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class FileLogWriterTest {
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+
+    /**
+     * A clock that is moved by the test.
+     */
+    private static class TestClock extends Clock {
+        final AtomicLong mMillis = new AtomicLong(Instant.parse("2017-03-01T12:00:00Z").toEpochMilli());
+
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(mMillis.get());
+        }
+    }
+
+
+    private Path getPath() {
+        return mTemporaryFolder.getRoot().toPath().resolve("logs").resolve("test.log");
+    }
+
+
+    private List<Path> getRolledFiles() throws IOException {
+        try (Stream<Path> files = Files.list(this.getPath().getParent())) {
+            return files
+                    .filter(file -> !file.equals(this.getPath()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+
+    private static String read(Path file) throws IOException {
+        return UTF8.getString(Files.readAllBytes(file));
+    }
+
+
+    private static String readCompressed(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            StringBuilder sb = new StringBuilder();
+            byte[] buffer = new byte[1024];
+            int noOfBytes;
+            while ((noOfBytes = in.read(buffer)) != -1) {
+                sb.append(UTF8.getString(Arrays.copyOf(buffer, noOfBytes)));
+            }
+            return sb.toString();
+        }
+    }
+
+
+    @Test
+    public void log_TwoEntries_EntriesInFile() throws IOException {
+        FileLogWriter logWriter = FileLogWriter.builder().path(this.getPath()).build();
+        logWriter.log("a");
+        logWriter.log("b");
+        logWriter.close();
+        String nl = MyProperties.OS_LINE_SEPARATOR;
+        assertThat(read(this.getPath())).isEqualTo("a" + nl + "b" + nl);
+    }
+
+
+    @Test
+    public void log_ExistingFile_EntriesAppended() throws IOException {
+        FileLogWriter logWriter = FileLogWriter.builder().path(this.getPath()).build();
+        logWriter.log("a");
+        logWriter.close();
+        logWriter = FileLogWriter.builder().path(this.getPath()).build();
+        logWriter.log("b");
+        logWriter.close();
+        String nl = MyProperties.OS_LINE_SEPARATOR;
+        assertThat(read(this.getPath())).isEqualTo("a" + nl + "b" + nl);
+    }
+
+
+    @Test
+    public void log_MoreThanMaxFileSize_FileRolled() throws IOException {
+        String nl = MyProperties.OS_LINE_SEPARATOR;
+        long entrySize = UTF8.getBytes("12345" + nl).length;
+        FileLogWriter logWriter = FileLogWriter.builder()
+                .path(this.getPath())
+                .maxFileSize(2 * entrySize)
+                .compress(false)
+                .build();
+        logWriter.log("12345");
+        logWriter.log("12345");
+        logWriter.log("abcde");
+        logWriter.close();
+        assertThat(read(this.getPath())).isEqualTo("abcde" + nl);
+        List<Path> rolledFiles = this.getRolledFiles();
+        assertThat(rolledFiles).hasSize(1);
+        assertThat(rolledFiles.get(0).getFileName().toString()).matches("test-\\d{8}-\\d{6}\\.log");
+        assertThat(read(rolledFiles.get(0))).isEqualTo("12345" + nl + "12345" + nl);
+    }
+
+
+    @Test
+    public void log_EntryLargerThanMaxFileSize_WrittenToEmptyFile() throws IOException {
+        FileLogWriter logWriter = FileLogWriter.builder()
+                .path(this.getPath())
+                .maxFileSize(2L)
+                .compress(false)
+                .build();
+        logWriter.log("12345");
+        logWriter.close();
+        assertThat(this.getRolledFiles()).isEmpty();
+        assertThat(read(this.getPath())).startsWith("12345");
+    }
+
+
+    @Test
+    public void log_RolledTwiceSameSecond_NamesUnique() throws IOException {
+        FileLogWriter logWriter = FileLogWriter.builder()
+                .path(this.getPath())
+                .maxFileSize(1L)
+                .compress(false)
+                .clock(new TestClock())
+                .build();
+        logWriter.log("a");
+        logWriter.log("b");
+        logWriter.log("c");
+        logWriter.close();
+        assertThat(this.getRolledFiles()).extracting(file -> file.getFileName().toString())
+                .containsExactly("test-20170301-120000-1.log", "test-20170301-120000.log");
+    }
+
+
+    @Test
+    public void log_RollIntervalPassed_FileRolled() throws IOException {
+        TestClock clock = new TestClock();
+        FileLogWriter logWriter = FileLogWriter.builder()
+                .path(this.getPath())
+                .rollInterval(Duration.ofHours(1))
+                .compress(false)
+                .clock(clock)
+                .build();
+        logWriter.log("a");
+        clock.mMillis.addAndGet(Duration.ofMinutes(59).toMillis());
+        logWriter.log("b");
+        assertThat(this.getRolledFiles()).isEmpty();
+        clock.mMillis.addAndGet(Duration.ofMinutes(1).toMillis());
+        logWriter.log("c");
+        logWriter.close();
+        String nl = MyProperties.OS_LINE_SEPARATOR;
+        assertThat(this.getRolledFiles()).hasSize(1);
+        assertThat(read(this.getRolledFiles().get(0))).isEqualTo("a" + nl + "b" + nl);
+        assertThat(read(this.getPath())).isEqualTo("c" + nl);
+    }
+
+
+    @Test
+    public void log_Compress_RolledFileCompressed() throws IOException {
+        FileLogWriter logWriter = FileLogWriter.builder()
+                .path(this.getPath())
+                .maxFileSize(1L)
+                .build();
+        logWriter.log("a");
+        logWriter.log("b");
+        //Waits for the compression
+        logWriter.close();
+        List<Path> rolledFiles = this.getRolledFiles();
+        assertThat(rolledFiles).hasSize(1);
+        assertThat(rolledFiles.get(0).getFileName().toString()).endsWith(".log.gz");
+        assertThat(readCompressed(rolledFiles.get(0))).isEqualTo("a" + MyProperties.OS_LINE_SEPARATOR);
+    }
+
+
+    @Test
+    public void log_NewFileCannotBeOpened_CurrentFileKeptAndRollRetried() throws IOException {
+        TestClock clock = new TestClock();
+        AtomicInteger noOfOpens = new AtomicInteger();
+        FileLogWriter logWriter = FileLogWriter.builder()
+                .path(this.getPath())
+                .maxFileSize(1L)
+                .compress(false)
+                .clock(clock)
+                .openingBytes(() -> {
+                    if (noOfOpens.incrementAndGet() == 2) {
+                        throw new RuntimeException("Disk full");
+                    }
+                    return new byte[0];
+                })
+                .build();
+        logWriter.log("a");
+        logWriter.log("b");
+        String nl = MyProperties.OS_LINE_SEPARATOR;
+        assertThat(this.getRolledFiles()).isEmpty();
+        assertThat(read(this.getPath())).isEqualTo("a" + nl + "b" + nl);
+        assertThat(logWriter.getState().getJson().getLong("RollErrors")).isEqualTo(1);
+        clock.mMillis.addAndGet(Duration.ofMinutes(1).toMillis());
+        logWriter.log("c");
+        logWriter.close();
+        assertThat(this.getRolledFiles()).hasSize(1);
+        assertThat(read(this.getRolledFiles().get(0))).isEqualTo("a" + nl + "b" + nl);
+        assertThat(read(this.getPath())).isEqualTo("c" + nl);
+    }
+
+
+    @Test
+    public void log_NewFileCannotBeOpenedNorRenamedBack_NewFileOpenedAtRetry() throws IOException {
+        TestClock clock = new TestClock();
+        AtomicInteger noOfOpens = new AtomicInteger();
+        //A directory with a file in place of the log file stops the log file from being opened
+        //and the rolled file from being renamed back
+        Path blocker = this.getPath().resolve("blocker");
+        FileLogWriter logWriter = FileLogWriter.builder()
+                .path(this.getPath())
+                .maxFileSize(1L)
+                .compress(false)
+                .clock(clock)
+                .openingBytes(() -> {
+                    try {
+                        int noOfOpen = noOfOpens.incrementAndGet();
+                        if (noOfOpen == 2) {
+                            Files.createDirectories(blocker);
+                            throw new RuntimeException("Disk full");
+                        } else if (noOfOpen == 3) {
+                            Files.delete(blocker);
+                            Files.delete(this.getPath());
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return new byte[0];
+                })
+                .build();
+        logWriter.log("a");
+        logWriter.log("b");
+        String nl = MyProperties.OS_LINE_SEPARATOR;
+        assertThat(logWriter.getState().getJson().getLong("RollErrors")).isEqualTo(1);
+        assertThat(logWriter.getState().getJson().getLong("RenameBackErrors")).isEqualTo(1);
+        clock.mMillis.addAndGet(Duration.ofMinutes(1).toMillis());
+        logWriter.log("c");
+        logWriter.close();
+        assertThat(this.getRolledFiles()).hasSize(1);
+        assertThat(read(this.getRolledFiles().get(0))).isEqualTo("a" + nl + "b" + nl);
+        assertThat(read(this.getPath())).isEqualTo("c" + nl);
+        assertThat(logWriter.getState().getJson().getLong("Rolls")).isEqualTo(1);
+    }
+
+
+    @Test
+    public void log_FileCannotBeRenamed_WriterKeepsLogging() throws IOException {
+        FileLogWriter logWriter = FileLogWriter.builder()
+                .path(this.getPath())
+                .maxFileSize(1L)
+                .compress(false)
+                .build();
+        logWriter.log("a");
+        //The rename fails as the file is gone
+        Files.delete(this.getPath());
+        logWriter.log("b");
+        logWriter.log("c");
+        logWriter.close();
+        assertThat(logWriter.getState().getJson().getLong("RollErrors")).isEqualTo(1);
+        assertThat(logWriter.getState().getJson().getLong("Writes")).isEqualTo(3);
+    }
+
+
+    @Test
+    public void constructor_PathUsedByOtherWriter_Exception() {
+        FileLogWriter logWriter = FileLogWriter.builder().path(this.getPath()).build();
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> FileLogWriter.builder().path(this.getPath()).build())
+                .withMessageContaining("written by another log writer");
+        logWriter.close();
+        FileLogWriter.builder().path(this.getPath()).build().close();
+    }
+
+
+    @Test
+    public void claimPath_DefaultPathInUse_NumberAdded() {
+        String defaultPath = this.getPath().toString();
+        Path first = FileLogWriter.claimPath(null, defaultPath);
+        Path second = FileLogWriter.claimPath(null, defaultPath);
+        FileLogWriter.releasePath(first);
+        Path third = FileLogWriter.claimPath(null, defaultPath);
+        FileLogWriter.releasePath(second);
+        FileLogWriter.releasePath(third);
+        assertThat(first).isEqualTo(this.getPath());
+        assertThat(second).isEqualTo(this.getPath().resolveSibling("test-2.log"));
+        assertThat(third).isEqualTo(this.getPath());
+    }
+
+
+    @Test
+    public void log_ManyThreads_AllEntriesWritten() throws Exception {
+        FileLogWriter logWriter = FileLogWriter.builder().path(this.getPath()).build();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String entry = "thread" + i;
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    logWriter.log(entry);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        logWriter.close();
+        List<String> lines = Files.readAllLines(this.getPath());
+        assertThat(lines).hasSize(8000);
+        assertThat(lines).allMatch(line -> line.matches("thread\\d"));
+    }
+
+
+    @Test
+    public void log_Closed_Exception() {
+        FileLogWriter logWriter = FileLogWriter.builder().path(this.getPath()).build();
+        logWriter.close();
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> logWriter.log("a"));
+    }
+
+
+    @Test
+    public void constructor_NegativeMaxFileSize_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> FileLogWriter.builder().path(this.getPath()).maxFileSize(-1L).build());
+    }
+
+
+    @Test
+    public void getState_TwoEntries_Writes() {
+        FileLogWriter logWriter = FileLogWriter.builder().path(this.getPath()).build();
+        logWriter.log("a");
+        logWriter.log("b");
+        logWriter.close();
+        assertThat(logWriter.getState().getJson().getLong("Writes")).isEqualTo(2);
+    }
+
+
+    @Test
+    public void get_File_FileFactory() {
+        assertThat(LogWriterFactory.get("file")).isEqualTo(LogWriterFactory.FILE);
+    }
+
+}
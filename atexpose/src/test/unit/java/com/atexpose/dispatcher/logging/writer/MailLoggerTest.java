@@ -0,0 +1,275 @@
+package com.atexpose.dispatcher.logging.writer;
+
+import com.atexpose.dispatcher.logging.ILogEntry;
+import com.atexpose.dispatcher.logging.Logger;
+import com.atexpose.util.mail.GmailEmailSender;
+import com.atexpose.util.mail.IEmailSender;
+import com.atexpose.util.mail.MockMailSender;
+import com.icegreen.greenmail.util.DummySSLSocketFactory;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.mail.internet.MimeMessage;
+import java.security.Security;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author jorgen
+ */
+public class MailLoggerTest {
+
+
+    private static String getLogEntry(String methodName, String response) {
+        return new JSONObject()
+                .put("call_time", "2017-03-01 12:34:56.789")
+                .put("method_name", methodName)
+                .put("response", response)
+                .toString();
+    }
+
+
+    @Test
+    public void testSend() {
+        String recipient = "monkey@example.com";
+        MockMailSender sender = new MockMailSender();
+        MailLogWriter logger = new MailLogWriter(recipient, sender);
+        logger.log("This is the message");
+        //The digest interval has not passed, so the digest is sent as the writer is closed
+        logger.close();
+        assertTrue(sender.getRecipient().contains("monkey@example.com"));
+    }
+
+
+    @Test
+    public void close_AsyncLogger_EntriesQueuedSentInLastDigest() {
+        IEmailSender sender = mock(IEmailSender.class);
+        Logger logger = Logger.builder()
+                .logWriter(new MailLogWriter("monkey@example.com", sender))
+                .async(true)
+                .build();
+        ILogEntry logEntry = mock(ILogEntry.class);
+        when(logEntry.getLogData(any(), any())).thenReturn(Collections.singletonMap("method_name", "ping"));
+        for (int i = 0; i < 3; i++) {
+            logger.log(logEntry);
+        }
+        logger.close();
+        verify(sender).send(eq("monkey@example.com"), eq("Expose error report: 3 entries"), anyString(),
+                anyString());
+    }
+
+
+    @Test
+    public void getGroupKey_JsonEntry_MethodNameAndResponse() {
+        assertThat(MailLogWriter.getGroupKey(getLogEntry("ping", "Error: Boom")))
+                .isEqualTo("ping: Error: Boom");
+    }
+
+
+    @Test
+    public void getGroupKey_JsonEntryWithFilename_FilenameAndResponse() {
+        String logEntry = new JSONObject()
+                .put("filename", "index.html")
+                .put("response", "File not found")
+                .toString();
+        assertThat(MailLogWriter.getGroupKey(logEntry)).isEqualTo("index.html: File not found");
+    }
+
+
+    @Test
+    public void getGroupKey_NotJson_Entry() {
+        assertThat(MailLogWriter.getGroupKey("ping failed")).isEqualTo("ping failed");
+        assertThat(MailLogWriter.getGroupKey("{not json")).isEqualTo("{not json");
+    }
+
+
+    @Test
+    public void getGroupKey_LongEntry_Truncated() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            sb.append('a');
+        }
+        assertThat(MailLogWriter.getGroupKey(sb.toString())).hasSize(200);
+    }
+
+
+    @Test
+    public void log_ManyEntries_OneDigestGroupedWithCounts() {
+        IEmailSender sender = mock(IEmailSender.class);
+        MailLogWriter writer = MailLogWriter.builder()
+                .recipient("monkey@example.com")
+                .emailSender(sender)
+                .digestInterval(Duration.ofMillis(200))
+                .build();
+        for (int i = 0; i < 30; i++) {
+            writer.log(getLogEntry("ping", "Error: Boom"));
+        }
+        for (int i = 0; i < 5; i++) {
+            writer.log(getLogEntry("pong", "Error: Bang"));
+        }
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(sender, timeout(5000)).send(eq("monkey@example.com"), eq("Expose error report: 35 entries"),
+                body.capture(), eq("@Expose Log"));
+        assertThat(body.getValue())
+                .startsWith("35 entries in 2 groups")
+                .contains("30 x ping: Error: Boom")
+                .contains("5 x pong: Error: Bang")
+                .contains(getLogEntry("ping", "Error: Boom"));
+        writer.close();
+        verify(sender, times(1)).send(anyString(), anyString(), anyString(), anyString());
+        assertThat(writer.getState().getString()).contains("MailsSent=1");
+    }
+
+
+    @Test
+    public void log_DoesNotWaitForMailServer() throws InterruptedException {
+        IEmailSender sender = mock(IEmailSender.class);
+        CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(invocation -> latch.await(10, TimeUnit.SECONDS)).when(sender)
+                .send(anyString(), anyString(), anyString(), anyString());
+        MailLogWriter writer = MailLogWriter.builder()
+                .recipient("monkey@example.com")
+                .emailSender(sender)
+                .digestInterval(Duration.ofMillis(1))
+                .build();
+        writer.log("first");
+        verify(sender, timeout(5000)).send(anyString(), anyString(), anyString(), anyString());
+        //The sender is blocked, but logging returns at once
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            writer.log("more");
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        latch.countDown();
+        writer.close();
+    }
+
+
+    @Test
+    public void log_QueueFull_EntriesDroppedAndReported() throws InterruptedException {
+        IEmailSender sender = mock(IEmailSender.class);
+        CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(invocation -> latch.await(10, TimeUnit.SECONDS)).when(sender)
+                .send(anyString(), eq("Expose error report: 1 entries"), anyString(), anyString());
+        MailLogWriter writer = MailLogWriter.builder()
+                .recipient("monkey@example.com")
+                .emailSender(sender)
+                .queueSize(10)
+                .digestInterval(Duration.ofMillis(1))
+                .build();
+        writer.log("first");
+        verify(sender, timeout(5000)).send(anyString(), anyString(), anyString(), anyString());
+        //The background thread is blocked so the queue fills up
+        for (int i = 0; i < 15; i++) {
+            writer.log("more");
+        }
+        assertThat(writer.getState().getString()).contains("Dropped=5");
+        latch.countDown();
+        writer.close();
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(sender).send(anyString(), eq("Expose error report: 10 entries"), body.capture(), anyString());
+        assertThat(body.getValue())
+                .contains("5 entries were dropped as the queue was full.")
+                .contains("10 x more");
+    }
+
+
+    @Test
+    public void log_MaxMailsPerHourSent_EntriesHeldUntilClose() {
+        IEmailSender sender = mock(IEmailSender.class);
+        MailLogWriter writer = MailLogWriter.builder()
+                .recipient("monkey@example.com")
+                .emailSender(sender)
+                .digestInterval(Duration.ofMillis(1))
+                .maxMailsPerHour(1)
+                .build();
+        writer.log("first");
+        verify(sender, timeout(5000)).send(anyString(), anyString(), anyString(), anyString());
+        writer.log("second");
+        writer.log("third");
+        verify(sender, after(300).times(1)).send(anyString(), anyString(), anyString(), anyString());
+        writer.close();
+        verify(sender).send(anyString(), eq("Expose error report: 2 entries"), anyString(), anyString());
+    }
+
+
+    @Test
+    public void log_SendFails_ErrorCounted() {
+        IEmailSender sender = mock(IEmailSender.class);
+        doThrow(new RuntimeException("No server")).when(sender)
+                .send(anyString(), anyString(), anyString(), anyString());
+        MailLogWriter writer = MailLogWriter.builder()
+                .recipient("monkey@example.com")
+                .emailSender(sender)
+                .digestInterval(Duration.ofMillis(1))
+                .build();
+        writer.log("first");
+        verify(sender, timeout(5000)).send(anyString(), anyString(), anyString(), anyString());
+        writer.close();
+        assertThat(writer.getState().getString())
+                .contains("SendErrors=1")
+                .contains("MailsSent=0");
+    }
+
+
+    @Test
+    public void log_AfterClose_Dropped() {
+        IEmailSender sender = mock(IEmailSender.class);
+        MailLogWriter writer = new MailLogWriter("monkey@example.com", sender);
+        writer.close();
+        writer.log("late");
+        verify(sender, never()).send(anyString(), anyString(), anyString(), anyString());
+        assertThat(writer.getState().getString()).contains("Dropped=1");
+    }
+
+
+    @Test
+    public void log_GreenMail_DigestReceived() throws Exception {
+        //Set up dummy cert so that the gmail sender will trust greenmail recipient
+        Security.setProperty("ssl.SocketFactory.provider", DummySSLSocketFactory.class.getName());
+        GreenMail greenMail = new GreenMail(ServerSetupTest.SMTPS);
+        greenMail.start();
+        try {
+            IEmailSender sender = new GmailEmailSender("sender@example.com", "thePassword",
+                    "localhost", ServerSetupTest.SMTPS.getPort())
+                    .disableSSLCheckServerIdentityForTest();
+            MailLogWriter writer = MailLogWriter.builder()
+                    .recipient("monkey@example.com")
+                    .emailSender(sender)
+                    .digestInterval(Duration.ofMillis(100))
+                    .build();
+            for (int i = 0; i < 20; i++) {
+                writer.log(getLogEntry("ping", "Error: Boom"));
+            }
+            assertThat(greenMail.waitForIncomingEmail(10000, 1)).isTrue();
+            writer.close();
+            MimeMessage[] messages = greenMail.getReceivedMessages();
+            assertThat(messages).hasSize(1);
+            assertThat(messages[0].getSubject()).isEqualTo("Expose error report: 20 entries");
+            assertThat(GreenMailUtil.getBody(messages[0])).contains("20 x ping: Error: Boom");
+        } finally {
+            greenMail.stop();
+        }
+    }
+}
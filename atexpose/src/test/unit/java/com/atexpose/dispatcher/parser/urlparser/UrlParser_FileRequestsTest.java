@@ -126,4 +126,18 @@ public class UrlParser_FileRequestsTest {
         List<String> argumentValues = new UrlParser().getRequest(HTTP_HEADER_HEROKU_HTTP_NO_QUERY).getArgumentValues();
         assertThat(argumentValues).isEmpty();
     }
+
+
+    @Test
+    public void getHeaderValue_AcceptEncoding_Value() {
+        String acceptEncoding = new UrlParser().getRequest(HTTP_HEADER_HEROKU_HTTPS).getHeaderValue("accept-encoding");
+        assertEquals("gzip, deflate, sdch", acceptEncoding);
+    }
+
+
+    @Test
+    public void getHeaderValue_NoSuchHeader_EmptyString() {
+        String value = new UrlParser().getRequest(HTTP_HEADER_HEROKU_HTTPS).getHeaderValue("If-None-Match");
+        assertEquals("", value);
+    }
 }
@@ -1,5 +1,7 @@
 package com.atexpose.dispatcher.parser.urlparser;
 
+import com.atexpose.dispatcher.parser.Request;
+import com.atexpose.util.ByteStorage;
 import org.junit.Test;
 
 import java.util.List;
@@ -150,4 +152,14 @@ public class UrlParser_GetRequestsTest {
     }
 
 
+    @Test
+    public void getRequestFromBytes_GetRequest_SameAsString() {
+        ByteStorage incomingRequest = new ByteStorage();
+        incomingRequest.add(GET_REQUEST_NORMAL);
+        Request request = new UrlParser().getRequestFromBytes(incomingRequest);
+        assertThat(request.getMethodName()).isEqualTo("getDataFromPM");
+        assertThat(request.getArgumentNames()).containsExactly("SSN", "Pin");
+        assertThat(request.getArgumentValues()).containsExactly("197107282222", "88889");
+    }
+
 }
@@ -57,4 +57,34 @@ public class HttpRequest_GetHeaderValueTest {
         String headerValue = new HttpRequest(HttpRequestsUtil.FILE_REQUEST_NO_QUERY).getHeaderValue("Host");
         assertThat(headerValue).isEqualTo("127.0.0.1:5555");
     }
+
+
+    @Test
+    public void getHeaderValue_OtherCase_HeaderValue() {
+        String headerValue = new HttpRequest(HttpRequestsUtil.FILE_REQUEST_NO_QUERY).getHeaderValue("cache-CONTROL");
+        assertThat(headerValue).isEqualTo("no-cache");
+    }
+
+
+    @Test
+    public void getHeaderValue_PrefixOfOtherHeaderName_EmptyString() {
+        String headerValue = new HttpRequest(HttpRequestsUtil.FILE_REQUEST_NO_QUERY).getHeaderValue("Cache");
+        assertThat(headerValue).isEqualTo("");
+    }
+
+
+    @Test
+    public void getHeaderValue_ValueWithColons_HeaderValue() {
+        String headerValue = new HttpRequest(HttpRequestsUtil.FILE_REQUEST_NO_QUERY).getHeaderValue("Pragma3");
+        assertThat(headerValue).isEqualTo("This:is:the:value");
+    }
+
+
+    @Test
+    public void getHeaderValue_HeaderValueInBody_EmptyString() {
+        String request = "POST /call/a HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\nX-In-Body: a";
+        String headerValue = new HttpRequest(request).getHeaderValue("X-In-Body");
+        assertThat(headerValue).isEqualTo("");
+    }
+
 }
@@ -63,4 +63,18 @@ public class HttpRequest_GetUriTest {
         assertThat(toString).isEqualTo("http://127.0.0.1:5555/index.html");
     }
 
+
+    @Test
+    public void getUri_PostRequest_Path() {
+        HttpRequest request = new HttpRequest(HttpRequestsUtil.POST_REQUEST_NORMAL);
+        assertThat(request.getURI().toString()).isEqualTo("http://127.0.0.1:5555/call/getDataFromPM");
+    }
+
+
+    @Test
+    public void getUri_ForwardedProto_Scheme() {
+        HttpRequest request = new HttpRequest("GET /a HTTP/1.1\r\nHost: x.com\r\nx-forwarded-proto: https\r\n\r\n");
+        assertThat(request.getURI().toString()).isEqualTo("https://x.com/a");
+    }
+
 }
@@ -2,6 +2,8 @@ package com.atexpose.dispatcher.parser.urlparser.httprequest;
 
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class HttpRequest_GetUrlTest {
@@ -54,4 +56,27 @@ public class HttpRequest_GetUrlTest {
         String url = new HttpRequest(HttpRequestsUtil.GET_REQUEST_LONG_METHODNAME).getURL();
         assertThat(url).isEqualTo("call/abcdefghijklmonpqrstuvxyz_abcdefghijklmonpqrstuvxyz_abcdefghijklmonpqrstuvxyz_abcdefghijklmonpqrstuvxyz_abcdefghijklmonpqrstuvxyz_abcdefghijklmonpqrstuvxyz?SSN=197107282222");
     }
+
+
+    @Test
+    public void getUrl_Http10Request_Url() {
+        String url = new HttpRequest("GET /call/a?b=1 HTTP/1.0\r\n\r\n").getURL();
+        assertThat(url).isEqualTo("call/a?b=1");
+    }
+
+
+    @Test
+    public void getUrl_BytesWithLength_OnlyArgumentLengthRead() {
+        byte[] bytes = "GET /call/a HTTP/1.1\r\n\r\nGET /call/b HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.UTF_8);
+        HttpRequest request = new HttpRequest(bytes, 24);
+        assertThat(request.getURL()).isEqualTo("call/a");
+        assertThat(request.getBody()).isEqualTo("");
+    }
+
+
+    @Test
+    public void isGhostCall_OneByte_True() {
+        assertThat(new HttpRequest(new byte[]{0}).isGhostCall()).isTrue();
+    }
+
 }
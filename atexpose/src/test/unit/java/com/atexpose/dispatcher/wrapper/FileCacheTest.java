@@ -0,0 +1,150 @@
+package com.atexpose.dispatcher.wrapper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class FileCacheTest {
+
+    private static CachedFile file(int size) {
+        return CachedFile.builder()
+                .response(new byte[size])
+                .build();
+    }
+
+
+    @Test
+    public void get_NotPut_NullAndMiss() {
+        FileCache cache = new FileCache(100);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.cacheMisses()).isEqualTo(1);
+        assertThat(cache.cacheHits()).isZero();
+    }
+
+
+    @Test
+    public void get_Put_FileAndHit() {
+        FileCache cache = new FileCache(100);
+        CachedFile file = file(10);
+        cache.put("a", file);
+        assertThat(cache.get("a")).isSameAs(file);
+        assertThat(cache.get("a")).isSameAs(file);
+        assertThat(cache.cacheHits()).isEqualTo(2);
+    }
+
+
+    @Test
+    public void put_SameKeyTwice_BytesOfLastFile() {
+        FileCache cache = new FileCache(100);
+        cache.put("a", file(10));
+        cache.put("a", file(20));
+        assertThat(cache.cacheSize()).isEqualTo(1);
+        assertThat(cache.getResidentBytes()).isEqualTo(20);
+    }
+
+
+    @Test
+    public void put_LargerThanMaxBytes_NotAdded() {
+        FileCache cache = new FileCache(100);
+        cache.put("a", file(101));
+        assertThat(cache.cacheSize()).isZero();
+        assertThat(cache.getResidentBytes()).isZero();
+    }
+
+
+    @Test
+    public void put_MoreThanMaxBytes_LeastRecentlyUsedEvicted() {
+        FileCache cache = new FileCache(100);
+        cache.put("a", file(40));
+        cache.put("b", file(40));
+        cache.put("c", file(40));
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isNotNull();
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.getResidentBytes()).isEqualTo(80);
+    }
+
+
+    @Test
+    public void put_ManyFilesRequestedOnce_FileRequestedTwiceKept() {
+        FileCache cache = new FileCache(100);
+        cache.put("often", file(30));
+        //Moves the file to the protected segment
+        cache.get("often");
+        for (int i = 0; i < 100; i++) {
+            cache.put("once" + i, file(30));
+        }
+        assertThat(cache.get("often")).isNotNull();
+        assertThat(cache.getResidentBytes()).isLessThanOrEqualTo(100);
+    }
+
+
+    @Test
+    public void get_ProtectedFull_LeastRecentlyUsedMovedToProbation() {
+        FileCache cache = new FileCache(100);
+        cache.put("a", file(50));
+        cache.get("a");
+        cache.put("b", file(40));
+        //Protected holds max 80 bytes, so "a" is moved to probation
+        cache.get("b");
+        assertThat(cache.cacheSize()).isEqualTo(2);
+        //"a" is in probation and is the first to be evicted
+        cache.put("c", file(20));
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+
+    @Test
+    public void constructor_ZeroMaxBytes_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> new FileCache(0));
+    }
+
+
+    @Test
+    public void getState_OneFile_ResidentBytes() {
+        FileCache cache = new FileCache(100);
+        cache.put("a", file(10));
+        assertThat(cache.getState().getJson().getLong("ResidentBytes")).isEqualTo(10);
+    }
+
+
+    @Test
+    public void put_Evicted_RemovalListenerTold() {
+        List<CachedFile> removed = new ArrayList<>();
+        FileCache cache = new FileCache(100, removed::add);
+        CachedFile first = file(60);
+        cache.put("a", first);
+        cache.put("b", file(60));
+        assertThat(removed).containsExactly(first);
+    }
+
+
+    @Test
+    public void put_Replaced_RemovalListenerTold() {
+        List<CachedFile> removed = new ArrayList<>();
+        FileCache cache = new FileCache(100, removed::add);
+        CachedFile first = file(10);
+        cache.put("a", first);
+        cache.put("a", file(10));
+        assertThat(removed).containsExactly(first);
+    }
+
+
+    @Test
+    public void put_LargerThanMaxBytes_RemovalListenerTold() {
+        List<CachedFile> removed = new ArrayList<>();
+        FileCache cache = new FileCache(100, removed::add);
+        CachedFile file = file(101);
+        cache.put("a", file);
+        assertThat(removed).containsExactly(file);
+    }
+
+}
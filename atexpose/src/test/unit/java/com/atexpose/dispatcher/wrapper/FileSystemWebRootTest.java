@@ -0,0 +1,91 @@
+package com.atexpose.dispatcher.wrapper;
+
+import io.schinzel.basicutils.UTF8;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class FileSystemWebRootTest {
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+    private FileSystemWebRoot mWebRoot;
+    private String mRootDir;
+
+
+    @Before
+    public void before() throws IOException {
+        File root = mTemporaryFolder.newFolder("web");
+        Files.write(new File(root, "index.html").toPath(), UTF8.getBytes("<html></html>"));
+        Files.write(mTemporaryFolder.newFile("secret.txt").toPath(), UTF8.getBytes("secret"));
+        mWebRoot = new FileSystemWebRoot(root.getPath());
+        mRootDir = mWebRoot.getRootDirectory() + File.separator;
+    }
+
+
+    @Test
+    public void constructor_NoSuchDirectory_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> new FileSystemWebRoot(mRootDir + "no_such_dir"));
+    }
+
+
+    @Test
+    public void fileExists_FileInRoot_True() {
+        assertThat(mWebRoot.fileExists(mRootDir + "index.html")).isTrue();
+    }
+
+
+    @Test
+    public void fileExists_Directory_False() {
+        assertThat(mWebRoot.fileExists(mRootDir)).isFalse();
+    }
+
+
+    @Test
+    public void fileExists_FileOutsideRoot_False() {
+        assertThat(new File(mRootDir + "../secret.txt").exists()).isTrue();
+        assertThat(mWebRoot.fileExists(mRootDir + "../secret.txt")).isFalse();
+    }
+
+
+    @Test
+    public void resolve_DotDotInsideRoot_Path() {
+        assertThat(mWebRoot.resolve(mRootDir + "a/../index.html"))
+                .isEqualTo(new File(mRootDir + "index.html").toPath());
+    }
+
+
+    @Test
+    public void readFile_FileInRoot_Content() {
+        assertThat(UTF8.getString(mWebRoot.readFile(mRootDir + "index.html"))).isEqualTo("<html></html>");
+    }
+
+
+    @Test
+    public void readFile_FileOutsideRoot_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> mWebRoot.readFile(mRootDir + "../secret.txt"));
+    }
+
+
+    @Test
+    public void getPath_FileInRoot_Path() {
+        assertThat(mWebRoot.getPath(mRootDir + "index.html")).isNotNull();
+    }
+
+
+    @Test
+    public void getLastModified_FileInRoot_NotZero() {
+        assertThat(mWebRoot.getLastModified(mRootDir + "index.html")).isGreaterThan(0);
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.atexpose.dispatcher.wrapper;
+
+import io.schinzel.basicutils.UTF8;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class IndexedWebRootTest {
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+    private Path mRoot;
+    private String mDirectory;
+    private IndexedWebRoot mWebRoot;
+
+
+    @Before
+    public void before() throws IOException {
+        mRoot = mTemporaryFolder.newFolder("web").toPath();
+        Files.write(mRoot.resolve("index.html"), UTF8.getBytes("<html></html>"));
+        Files.createDirectory(mRoot.resolve("sub.dir"));
+        Files.write(mRoot.resolve("sub.dir").resolve("page.html"), UTF8.getBytes("<html></html>"));
+        FileSystemWebRoot fileSystemWebRoot = new FileSystemWebRoot(mRoot.toString());
+        mDirectory = fileSystemWebRoot.getRootDirectory() + File.separator;
+        mWebRoot = (IndexedWebRoot) IndexedWebRoot.create(fileSystemWebRoot, mDirectory);
+    }
+
+
+    @Test
+    public void fileExists_FileInRoot_True() {
+        assertThat(mWebRoot.fileExists(mDirectory + "index.html")).isTrue();
+    }
+
+
+    @Test
+    public void fileExists_FileInSubDirectory_True() {
+        assertThat(mWebRoot.fileExists(mDirectory + "sub.dir/page.html")).isTrue();
+    }
+
+
+    @Test
+    public void fileExists_NoSuchFile_False() {
+        assertThat(mWebRoot.fileExists(mDirectory + "wp-login.php")).isFalse();
+    }
+
+
+    @Test
+    public void fileExists_Directory_False() {
+        assertThat(mWebRoot.fileExists(mDirectory + "sub.dir")).isFalse();
+    }
+
+
+    @Test
+    public void isDirectory_DirectoryWithDotInName_True() {
+        assertThat(mWebRoot.isDirectory(mDirectory + "sub.dir")).isTrue();
+    }
+
+
+    @Test
+    public void getPath_NoSuchFile_Null() {
+        assertThat(mWebRoot.getPath(mDirectory + "wp-login.php")).isNull();
+    }
+
+
+    @Test
+    public void fileExists_FileAddedAfterIndexed_TrueAfterRefresh() throws IOException {
+        Files.write(mRoot.resolve("new.html"), UTF8.getBytes("<html></html>"));
+        //Make sure that the change is seen on file systems with a coarse time resolution
+        mRoot.toFile().setLastModified(mRoot.toFile().lastModified() + 2000);
+        mWebRoot.expireRefreshInterval();
+        assertThat(mWebRoot.fileExists(mDirectory + "new.html")).isTrue();
+        assertThat(mWebRoot.getNoOfFiles()).isEqualTo(3);
+    }
+
+
+    @Test
+    public void create_Jar_FilesInJarDirectoryIndexed() throws IOException {
+        File jar = mTemporaryFolder.newFile("web.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("web/"));
+            out.putNextEntry(new JarEntry("web/index.html"));
+            out.write(UTF8.getBytes("<html></html>"));
+            out.putNextEntry(new JarEntry("other/file.html"));
+        }
+        URL directoryUrl = new URL("jar:" + jar.toURI().toURL() + "!/web/");
+        IWebRoot jarWebRoot = new IWebRoot() {
+            public boolean fileExists(String fileName) {
+                return false;
+            }
+
+
+            public byte[] readFile(String fileName) {
+                return new byte[0];
+            }
+
+
+            public long getLastModified(String fileName) {
+                return 0;
+            }
+
+
+            public Path getPath(String fileName) {
+                return null;
+            }
+
+
+            public List<URL> getDirectoryUrls(String directory) {
+                return Collections.singletonList(directoryUrl);
+            }
+        };
+        IWebRoot webRoot = IndexedWebRoot.create(jarWebRoot, "web/");
+        assertThat(webRoot.fileExists("web/index.html")).isTrue();
+        assertThat(webRoot.fileExists("web/other/file.html")).isFalse();
+        assertThat(webRoot.fileExists("other/file.html")).isFalse();
+    }
+
+
+    @Test
+    public void create_NoDirectoryUrls_NotIndexed() {
+        FileSystemWebRoot fileSystemWebRoot = new FileSystemWebRoot(mRoot.toString());
+        assertThat(IndexedWebRoot.create(fileSystemWebRoot, "/no/such/dir/")).isSameAs(fileSystemWebRoot);
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.atexpose.dispatcher.wrapper;
+
+import com.atexpose.util.BufferBody;
+import io.schinzel.basicutils.UTF8;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class OffHeapStoreTest {
+
+    @Test
+    public void store_Bytes_BodyWithBytes() {
+        OffHeapStore store = new OffHeapStore(100);
+        BufferBody first = store.store(UTF8.getBytes("first"));
+        BufferBody second = store.store(UTF8.getBytes("second"));
+        assertThat(UTF8.getString(first.getBytes())).isEqualTo("first");
+        assertThat(UTF8.getString(second.getBytes())).isEqualTo("second");
+        assertThat(store.getResidentBytes()).isEqualTo(100);
+    }
+
+
+    @Test
+    public void store_SlabFull_NewSlab() {
+        OffHeapStore store = new OffHeapStore(100);
+        store.store(new byte[40]);
+        store.store(new byte[40]);
+        store.store(new byte[40]);
+        assertThat(store.getResidentBytes()).isEqualTo(200);
+        assertThat(store.getState().getJson().getInt("Slabs")).isEqualTo(2);
+    }
+
+
+    @Test
+    public void store_LargerThanHalfSlab_SlabOfItsOwn() {
+        OffHeapStore store = new OffHeapStore(100);
+        store.store(new byte[10]);
+        store.store(new byte[300]);
+        assertThat(store.getResidentBytes()).isEqualTo(400);
+    }
+
+
+    @Test
+    public void free_AllBodiesInFullSlab_SlabReleased() {
+        OffHeapStore store = new OffHeapStore(100);
+        BufferBody first = store.store(new byte[40]);
+        BufferBody second = store.store(new byte[40]);
+        store.store(new byte[40]);
+        store.free(first);
+        assertThat(store.getResidentBytes()).isEqualTo(200);
+        store.free(second);
+        assertThat(store.getResidentBytes()).isEqualTo(100);
+    }
+
+
+    @Test
+    public void free_AllBodiesInCurrentSlab_SlabKept() {
+        OffHeapStore store = new OffHeapStore(100);
+        store.free(store.store(new byte[40]));
+        assertThat(store.getResidentBytes()).isEqualTo(100);
+        assertThat(store.getState().getJson().getInt("Bodies")).isZero();
+    }
+
+
+    @Test
+    public void free_Twice_FreedOnce() {
+        OffHeapStore store = new OffHeapStore(100);
+        BufferBody body = store.store(new byte[40]);
+        store.store(new byte[10]);
+        store.free(body);
+        store.free(body);
+        assertThat(store.getState().getJson().getLong("BodyBytes")).isEqualTo(10);
+    }
+
+
+    @Test
+    public void getFragmentationPercent_FreedBody_ShareNotHoldingBodies() {
+        OffHeapStore store = new OffHeapStore(100);
+        assertThat(store.getFragmentationPercent()).isZero();
+        BufferBody body = store.store(new byte[50]);
+        store.store(new byte[25]);
+        assertThat(store.getFragmentationPercent()).isEqualTo(25);
+        store.free(body);
+        assertThat(store.getFragmentationPercent()).isEqualTo(75);
+    }
+
+
+    @Test
+    public void constructor_ZeroSlabSize_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> new OffHeapStore(0));
+    }
+
+}
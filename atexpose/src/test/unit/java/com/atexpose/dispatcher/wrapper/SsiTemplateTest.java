@@ -0,0 +1,94 @@
+package com.atexpose.dispatcher.wrapper;
+
+import com.atexpose.util.ByteStorage;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.schinzel.basicutils.UTF8;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class SsiTemplateTest {
+
+    private static SsiTemplate compile(String content) {
+        return SsiTemplate.compile(UTF8.getBytes(content),
+                ImmutableMap.of("static_var", "static"),
+                ImmutableSet.of("request_var"),
+                includeFileName -> SsiTemplate.literal("[" + includeFileName + "]"));
+    }
+
+
+    private static String render(SsiTemplate template) {
+        ByteStorage sink = new ByteStorage();
+        template.render(sink, variableName -> variableName + "_value");
+        return sink.getAsString();
+    }
+
+
+    @Test
+    public void compile_NoDirectives_SameBytes() {
+        byte[] content = UTF8.getBytes("<html>åäö</html>");
+        SsiTemplate template = SsiTemplate.compile(content, Collections.emptyMap(), Collections.emptySet(), null);
+        assertThat(template.render()).isEqualTo(content);
+        assertThat(template.isDynamic()).isFalse();
+    }
+
+
+    @Test
+    public void compile_ServerSideVariable_InsertedAndNotDynamic() {
+        SsiTemplate template = compile("a<!--#echo var=\"static_var\" -->b");
+        assertThat(template.isDynamic()).isFalse();
+        assertThat(UTF8.getString(template.render())).isEqualTo("astaticb");
+    }
+
+
+    @Test
+    public void compile_RequestVariable_InsertedAsRenderedAndDynamic() {
+        SsiTemplate template = compile("a<!--#echo var=\"request_var\" -->b");
+        assertThat(template.isDynamic()).isTrue();
+        assertThat(render(template)).isEqualTo("arequest_var_valueb");
+    }
+
+
+    @Test
+    public void compile_UnknownVariable_Kept() {
+        SsiTemplate template = compile("a<!--#echo var=\"unknown\" -->b");
+        assertThat(UTF8.getString(template.render())).isEqualTo("a<!--#echo var=\"unknown\" -->b");
+    }
+
+
+    @Test
+    public void compile_IncludeFile_Included() {
+        SsiTemplate template = compile("a<!--#include file=\"inc.inc\" -->b");
+        assertThat(UTF8.getString(template.render())).isEqualTo("a[inc.inc]b");
+    }
+
+
+    @Test
+    public void compile_IncludeFilesOff_IncludeKept() {
+        String content = "a<!--#include file=\"inc.inc\" -->b";
+        SsiTemplate template = SsiTemplate.compile(UTF8.getBytes(content), Collections.emptyMap(), Collections.emptySet(), null);
+        assertThat(UTF8.getString(template.render())).isEqualTo(content);
+    }
+
+
+    @Test
+    public void compile_DynamicIncludeFile_Dynamic() {
+        SsiTemplate includeFile = compile("<!--#echo var=\"request_var\" -->");
+        SsiTemplate template = SsiTemplate.compile(UTF8.getBytes("a<!--#include file=\"inc.inc\" -->b"),
+                Collections.emptyMap(), Collections.emptySet(), includeFileName -> includeFile);
+        assertThat(template.isDynamic()).isTrue();
+        assertThat(render(template)).isEqualTo("arequest_var_valueb");
+    }
+
+
+    @Test
+    public void getLiteralBytes_LiteralsAndVariable_BytesOfLiterals() {
+        SsiTemplate template = compile("ab<!--#echo var=\"request_var\" -->cd");
+        assertThat(template.getLiteralBytes()).isEqualTo(4);
+    }
+
+}
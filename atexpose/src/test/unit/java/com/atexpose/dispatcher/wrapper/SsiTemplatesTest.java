@@ -0,0 +1,65 @@
+package com.atexpose.dispatcher.wrapper;
+
+import io.schinzel.basicutils.UTF8;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class SsiTemplatesTest {
+
+    private static SsiTemplates getSsiTemplates(boolean cacheIncludeFiles) {
+        return SsiTemplates.builder()
+                .webRoot(ClasspathWebRoot.INSTANCE)
+                .directory("includefiles/")
+                .cacheIncludeFiles(cacheIncludeFiles)
+                .build();
+    }
+
+
+    @Test
+    public void compile_IncludesWithIncludes_IncludesAdded() {
+        String content = "111 <!--#include file=\"include_with_includes.inc\" --> 111";
+        byte[] result = getSsiTemplates(true).compile(UTF8.getBytes(content)).render();
+        assertThat(UTF8.getString(result))
+                .isEqualTo("111 222 ThisIsIncludeFile1 ThisIsIncludeFile2 333 ThisIsIncludeFile2 333 222 111");
+    }
+
+
+    @Test
+    public void compile_CacheIncludeFiles_EachIncludeFileCompiledOnce() {
+        SsiTemplates ssiTemplates = getSsiTemplates(true);
+        String content = "<!--#include file=\"inc1.inc\" --><!--#include file=\"inc1.inc\" -->";
+        ssiTemplates.compile(UTF8.getBytes(content));
+        ssiTemplates.compile(UTF8.getBytes(content));
+        assertThat(ssiTemplates.getNoOfIncludeFiles()).isEqualTo(1);
+    }
+
+
+    @Test
+    public void compile_CacheIncludeFilesOff_NoIncludeFilesHeld() {
+        SsiTemplates ssiTemplates = getSsiTemplates(false);
+        ssiTemplates.compile(UTF8.getBytes("<!--#include file=\"inc1.inc\" -->"));
+        assertThat(ssiTemplates.getNoOfIncludeFiles()).isZero();
+    }
+
+
+    @Test
+    public void compile_IncludeFileIncludesItself_NotIncludedAgain() {
+        byte[] result = getSsiTemplates(true)
+                .compile(UTF8.getBytes("<!--#include file=\"cycle_a.inc\" -->"))
+                .render();
+        assertThat(UTF8.getString(result))
+                .isEqualTo("A B Include file 'includefiles/cycle_a.inc' includes itself B A");
+    }
+
+
+    @Test
+    public void compile_MissingIncludeFile_NotFoundText() {
+        byte[] result = getSsiTemplates(true)
+                .compile(UTF8.getBytes("<!--#include file=\"no_such_file.inc\" -->"))
+                .render();
+        assertThat(UTF8.getString(result)).isEqualTo("Include file 'includefiles/no_such_file.inc' not found");
+    }
+
+}
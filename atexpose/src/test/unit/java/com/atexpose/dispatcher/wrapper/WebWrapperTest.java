@@ -0,0 +1,812 @@
+package com.atexpose.dispatcher.wrapper;
+
+import com.atexpose.dispatcher.parser.Request;
+import com.atexpose.util.BufferBody;
+import com.atexpose.util.ByteStorage;
+import com.atexpose.util.FileRegion;
+import com.atexpose.util.IResponseBody;
+import com.atexpose.util.httpresponse.HttpDate;
+import com.google.common.collect.ImmutableMap;
+import io.schinzel.basicutils.UTF8;
+import io.schinzel.basicutils.substring.SubString;
+import org.apache.commons.io.IOUtils;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+/**
+ * @author schinzel
+ */
+public class WebWrapperTest {
+
+    @Test
+    public void testSetServerSideVariables() {
+        String htmlPage = "<html><head><!--#echo var=\"VaRiAbLe\" --></head><body><!--#echo var=\"variable\" --><br><!--#echo var=\"VARIABLE\" --></body></html>";
+        byte[] htmlPageAsByteArr = UTF8.getBytes(htmlPage);
+        Map<String, String> ssv = ImmutableMap.<String, String>builder()
+                .put("VaRiAbLe", "var1")
+                .put("variable", "var2")
+                .put("VARIABLE", "var3")
+                .build();
+        byte[] resultAsByteArr = WebWrapper.setServerSideVariables(htmlPageAsByteArr, ssv);
+        String result = UTF8.getString(resultAsByteArr);
+        assertThat(result).isEqualTo("<html><head>var1</head><body>var2<br>var3</body></html>");
+    }
+
+
+    @Test
+    public void testSetServerSideVariables2() {
+        String htmlPage = "<!--#echo var=\"first\" --><html><head></head><body><!--#echo var=\"middle\" --></body></html><!--#echo var=\"last\" -->";
+        String expected = "var1<html><head></head><body>var3</body></html>var2";
+        byte[] htmlPageAsByteArr = UTF8.getBytes(htmlPage);
+        Map<String, String> ssv = ImmutableMap.<String, String>builder()
+                .put("first", "var1")
+                .put("last", "var2")
+                .put("middle", "var3")
+                .build();
+        byte[] resultAsByteArr = WebWrapper.setServerSideVariables(htmlPageAsByteArr, ssv);
+        String result = UTF8.getString(resultAsByteArr);
+        assertThat(result).isEqualTo(expected);
+    }
+
+
+    @Test
+    public void setServerIncludeFiles_TwoIncludes_IncludesAdded() {
+        String htmlPage = "<html><head><!--#include file=\"inc1.inc\" --></head><body><!--#include file=\"inc2.inc\" --><br></body></html>";
+        String expected = "<html><head>ThisIsIncludeFile1</head><body>ThisIsIncludeFile2<br></body></html>";
+        byte[] htmlPageAsByteArr = UTF8.getBytes(htmlPage);
+        byte[] resultAsByteArr = WebWrapper.setServerIncludeFiles(htmlPageAsByteArr, "includefiles/");
+        String result = UTF8.getString(resultAsByteArr);
+        assertThat(result).isEqualTo(expected);
+    }
+
+
+    @Test
+    public void setServerIncludeFiles_NoIncludes_IncludesAdded() {
+        String htmlPage = "<html><head></head><body><h1>Header</h1><br></body></html>";
+        byte[] htmlPageAsByteArr = UTF8.getBytes(htmlPage);
+        byte[] resultAsByteArr = WebWrapper.setServerIncludeFiles(htmlPageAsByteArr, "includefiles/");
+        String result = UTF8.getString(resultAsByteArr);
+        assertThat(result).isEqualTo(htmlPage);
+    }
+
+
+    @Test
+    public void setServerIncludeFiles_IncludesWithIncludes_IncludesAdded() {
+        String htmlPage = "111 <!--#include file=\"include_with_includes.inc\" --> 111";
+        String expected = "111 222 ThisIsIncludeFile1 ThisIsIncludeFile2 333 ThisIsIncludeFile2 333 222 111";
+        byte[] htmlPageAsByteArr = UTF8.getBytes(htmlPage);
+        byte[] resultAsByteArr = WebWrapper.setServerIncludeFiles(htmlPageAsByteArr, "includefiles/");
+        String result = UTF8.getString(resultAsByteArr);
+        assertThat(result).isEqualTo(expected);
+    }
+
+
+    @Test
+    public void readFile_FileHasIncludeFiles_IncludeStringShouldBeReplacedWithFile() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .browserCacheMaxAge(10)
+                .cacheFilesInRam(false)
+                .build();
+        byte[] file = webWrapper.wrapFile("with_include_file.html");
+        String fileAsString = UTF8.getString(file);
+        //The include file command should not be in read file
+        assertThat(fileAsString).doesNotContain("<!--#include file=\"inc_file.inc\" -->");
+        //The content of the include file should be in the read file
+        assertThat(fileAsString).contains("<b>This is an include file</b>");
+    }
+
+
+    @Test
+    public void readFile_FileHasServerSideVar_VaribleShouldBeReplacedWithValue() {
+        Map<String, String> serverSideVars = ImmutableMap.<String, String>builder()
+                .put("MY_VAR", "this_is_an_inserted_value")
+                .build();
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .browserCacheMaxAge(10)
+                .serverSideVariables(serverSideVars)
+                .cacheFilesInRam(false)
+                .build();
+        byte[] file = webWrapper.wrapFile("with_server_side_var.html");
+        String fileAsString = UTF8.getString(file);
+        //The server side variable reference should not be inte the file
+        assertThat(fileAsString).doesNotContain("MY_VAR");
+        //The value of the server side value should be in the file
+        assertThat(fileAsString).contains("this_is_an_inserted_value");
+    }
+
+
+    @Test
+    public void readFile_FileHasIncludeFileWhichHasServerSideVars_TheServerSideVarsShouldBePresent() {
+        Map<String, String> serverSideVars = ImmutableMap.<String, String>builder()
+                .put("var1", "111")
+                .put("var2", "222")
+                .put("var3", "333")
+                .build();
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .browserCacheMaxAge(10)
+                .serverSideVariables(serverSideVars)
+                .cacheFilesInRam(false)
+                .build();
+        byte[] file = webWrapper.wrapFile("with_inc_file_which_has_vars.html");
+        String fileAsString = UTF8.getString(file);
+        //The server side variable reference should not be inte the file
+        assertThat(fileAsString).doesNotContain("<!--#include file=\"inc_with_include_vars.inc\" -->");
+        //The value of the server side value should be in the file
+        assertThat(fileAsString).contains("#START#111222333#END#");
+    }
+
+
+    @Test
+    public void wrapFile__CacheEnabledRequestDefaultFile3Times_CacheHas2Hits() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .build();
+        webWrapper.wrapFile("");
+        webWrapper.wrapFile("");
+        webWrapper.wrapFile("");
+        long cacheHits = webWrapper.mFileCache.cacheHits();
+        assertThat(cacheHits).isEqualTo(2);
+    }
+
+
+    @Test
+    public void wrapFile__CacheEnabledRequestSameFile3Times_CacheHas2Hits() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .build();
+        webWrapper.wrapFile("somefile.html");
+        webWrapper.wrapFile("somefile.html");
+        webWrapper.wrapFile("somefile.html");
+        long cacheHits = webWrapper.mFileCache.cacheHits();
+        assertThat(cacheHits).isEqualTo(2);
+    }
+
+
+    @Test
+    public void wrapFile__CacheEnabledRequest3DifferentFiles_CacheHas3Files() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .build();
+        webWrapper.wrapFile("somefile.html");
+        webWrapper.wrapFile("somefile.html");
+        webWrapper.wrapFile("somefile.js");
+        webWrapper.wrapFile("monkey.jpg");
+        int cacheSize = webWrapper.mFileCache.cacheSize();
+        assertThat(cacheSize).isEqualTo(3);
+    }
+
+
+    @Test
+    public void wrapFile__CacheDisabled_CacheEmpty() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(false)
+                .build();
+        webWrapper.wrapFile("somefile.html");
+        webWrapper.wrapFile("somefile.js");
+        webWrapper.wrapFile("monkey.jpg");
+        int cacheSize = webWrapper.mFileCache.cacheSize();
+        assertThat(cacheSize).isZero();
+    }
+
+
+    @Test
+    public void wrapFile_CacheEnabledRequestMissingFile_NotCached() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .build();
+        String response = UTF8.getString(webWrapper.wrapFile("no_such_file.html"));
+        assertThat(response).startsWith("HTTP/1.1 404");
+        assertThat(webWrapper.mFileCache.cacheSize()).isZero();
+    }
+
+
+    @Test
+    public void wrapFile_FileCacheMaxBytesSmallerThanFile_NotCached() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .fileCacheMaxBytes(10)
+                .build();
+        webWrapper.wrapFile("somefile.html");
+        webWrapper.wrapFile("somefile.html");
+        assertThat(webWrapper.mFileCache.cacheSize()).isZero();
+        assertThat(webWrapper.mFileCache.cacheMisses()).isEqualTo(2);
+    }
+
+
+    @Test
+    public void getState_CacheEnabled_ContainsFileCache() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .build();
+        webWrapper.wrapFile("somefile.html");
+        assertThat(webWrapper.getState().getString()).contains("ResidentBytes");
+    }
+
+
+    @Test
+    public void wrapJson_Json_BodyIsJson() {
+        JSONObject json = new JSONObject()
+                .put("k1", "v1")
+                .put("k2", "v2");
+        String response = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(false)
+                .build()
+                .wrapJSON(json);
+        String body = SubString.create(response)
+                .startDelimiter("\r\n\r\n")
+                .toString();
+        assertThat(body).startsWith(json.toString());
+    }
+
+
+    @Test
+    public void wrapJSON_CustomHeader_HeaderContainsCustomHeader() {
+        JSONObject jo = new JSONObject()
+                .put("k1", "v1");
+        Map<String, String> customHeaders = ImmutableMap.<String, String>builder()
+                .put("bear", "kodiak")
+                .build();
+        String response = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .responseHeaders(customHeaders)
+                .build()
+                .wrapJSON(jo);
+        String header = SubString.create(response)
+                .endDelimiter("\r\n\r\n")
+                .toString();
+        assertThat(header).contains("bear: kodiak");
+    }
+
+
+    @Test
+    public void getFileHeaderAndContent_NonExistingFile_Expcetion() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build();
+        assertThatExceptionOfType(RuntimeException.class).isThrownBy(() ->
+                webWrapper.getFileHeaderAndContent("nonexistingfile.html")
+        );
+    }
+
+
+    @Test
+    public void wrapFile_HtmlFile_HtmlFile() {
+        byte[] file = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build()
+                .wrapFile("somefile.html");
+        assertThat(UTF8.getString(file))
+                .contains("<div>This is somefile.html</div>");
+    }
+
+
+    @Test
+    public void wrapFile_JsFile_JsFile() {
+        byte[] file = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build()
+                .wrapFile("somefile.js");
+        assertThat(UTF8.getString(file))
+                .contains("function monkey()");
+    }
+
+
+    @Test
+    public void wrapFile_IndexFile_IndexFile() {
+        byte[] file = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build()
+                .wrapFile("index.html");
+        assertThat(UTF8.getString(file))
+                .contains("<div>Success</div>");
+    }
+
+
+    @Test
+    public void wrapFile_EmptyFileName_IndexFile() {
+        byte[] file = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build()
+                .wrapFile("");
+        assertThat(UTF8.getString(file))
+                .contains("<div>Success</div>");
+    }
+
+
+    @Test
+    public void wrapFile_DirNameWithEndSlash_IndexFileInDir() {
+        byte[] file = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build()
+                .wrapFile("somefolder");
+        assertThat(UTF8.getString(file))
+                .contains("<div>Index.html in somefolder dir</div>");
+    }
+
+
+    @Test
+    public void wrapFile_DirNameWithNoEndSlash_IndexFileInDir() {
+        byte[] file = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build()
+                .wrapFile("somefolder");
+        assertThat(UTF8.getString(file))
+                .contains("<div>Index.html in somefolder dir</div>");
+    }
+
+
+    @Test
+    public void wrapFile_NonExistingFile_404Page() {
+        byte[] html404PageAsBytes = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build()
+                .wrapFile("nonexistingfile.html");
+        String html404Page = UTF8.getString(html404PageAsBytes);
+        assertThat(html404Page)
+                .contains("<html><body><center>File not found</center><body></html>");
+    }
+
+
+    @Test
+    public void wrapFile_Jpg_ReturnsFile() {
+        byte[] ab = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build()
+                .wrapFile("monkey.jpg");
+        String httpResponse = UTF8.getString(ab);
+        String contentLength = SubString.create(httpResponse)
+                .startDelimiter("Content-Length: ")
+                .endDelimiter("\r\n")
+                .getString();
+        assertThat(contentLength).isEqualTo("416176");
+    }
+
+
+    @Test
+    public void wrapFile_CompressionAndClientAcceptsGzip_GzipResponseCached() throws IOException {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .compression(true)
+                .build();
+        Request request = Request.builder()
+                .headerLookup(headerName -> headerName.equals("Accept-Encoding") ? "gzip, deflate" : "")
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("large_file.js", request, sink);
+        byte[] response = sink.getBytes();
+        String header = SubString.create(sink.getAsString()).endDelimiter("\r\n\r\n").getString();
+        assertThat(header).contains("Content-Encoding: gzip\r\n", "Vary: Accept-Encoding");
+        byte[] body = Arrays.copyOfRange(response, header.length() + 4, response.length);
+        byte[] inflated = IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(body)));
+        assertThat(UTF8.getString(inflated)).startsWith("//A script large enough to be compressed");
+        sink.clear();
+        webWrapper.wrapFile("large_file.js", request, sink);
+        assertThat(sink.getBytes()).isEqualTo(response);
+        assertThat(webWrapper.mFileCache.cacheHits()).isEqualTo(1);
+    }
+
+
+    @Test
+    public void wrapFile_CompressionAndClientAcceptsNoEncoding_IdentityWithVary() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .compression(true)
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("large_file.js", Request.EMPTY, sink);
+        assertThat(sink.getAsString())
+                .contains("Vary: Accept-Encoding\r\n", "//A script large enough to be compressed")
+                .doesNotContain("Content-Encoding");
+    }
+
+
+    @Test
+    public void wrapFile_CompressionAndImage_NotCompressed() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .compression(true)
+                .build();
+        Request request = Request.builder()
+                .headerLookup(headerName -> "gzip")
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("monkey.jpg", request, sink);
+        assertThat(sink.getAsString()).doesNotContain("Content-Encoding", "Vary");
+    }
+
+
+    @Test
+    public void wrapJSON_CompressionOff_NotCompressed() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build();
+        Request request = Request.builder()
+                .headerLookup(headerName -> "gzip")
+                .build();
+        JSONObject json = new JSONObject().put("key", new String(new char[2000]).replace("\0", "a"));
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapJSON(json, request, sink);
+        assertThat(sink.getAsString()).doesNotContain("Content-Encoding");
+    }
+
+
+    private static Request getRequestWithHeader(String headerName, String headerValue) {
+        return Request.builder()
+                .headerLookup(name -> name.equalsIgnoreCase(headerName) ? headerValue : "")
+                .build();
+    }
+
+
+    @Test
+    public void wrapFile_IfNoneMatchSameTag_304() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("somefile.html", Request.EMPTY, sink);
+        String eTag = SubString.create(sink.getAsString()).startDelimiter("ETag: ").endDelimiter("\r\n").getString();
+        assertThat(eTag).isNotEmpty();
+        sink.clear();
+        webWrapper.wrapFile("somefile.html", getRequestWithHeader("If-None-Match", eTag), sink);
+        assertThat(sink.getAsString())
+                .startsWith("HTTP/1.1 304 Not Modified\r\n")
+                .contains("ETag: " + eTag + "\r\n")
+                .endsWith("\r\n\r\n")
+                .doesNotContain("Content-Length");
+    }
+
+
+    @Test
+    public void wrapFile_IfNoneMatchOtherTag_200() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("somefile.html", getRequestWithHeader("If-None-Match", "\"abc\""), sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 200 OK");
+    }
+
+
+    @Test
+    public void wrapFile_IfModifiedSinceAfterLastModified_304() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build();
+        String ifModifiedSince = HttpDate.format(System.currentTimeMillis());
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("somefile.html", getRequestWithHeader("If-Modified-Since", ifModifiedSince), sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 304 Not Modified");
+    }
+
+
+    @Test
+    public void wrapFile_IfModifiedSinceBeforeLastModified_200() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("somefile.html", getRequestWithHeader("If-Modified-Since", HttpDate.format(0)), sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 200 OK").contains("Last-Modified: ");
+    }
+
+
+    @Test
+    public void wrapFile_MissingFileAndIfNoneMatchWildcard_404() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("no_such_file.html", getRequestWithHeader("If-None-Match", "*"), sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 404");
+    }
+
+
+    @Test
+    public void wrapJSON_MethodResponseETagsAndSameTag_304() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .methodResponseETags(true)
+                .build();
+        JSONObject json = new JSONObject().put("key", "value");
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapJSON(json, Request.EMPTY, sink);
+        String eTag = SubString.create(sink.getAsString()).startDelimiter("ETag: ").endDelimiter("\r\n").getString();
+        sink.clear();
+        webWrapper.wrapJSON(json, getRequestWithHeader("If-None-Match", eTag), sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 304 Not Modified");
+        sink.clear();
+        webWrapper.wrapJSON(json.put("key", "new value"), getRequestWithHeader("If-None-Match", eTag), sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 200 OK").contains("new value");
+    }
+
+
+    @Test
+    public void wrapResponse_MethodResponseETagsOff_NoTag() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapResponse("The response", getRequestWithHeader("If-None-Match", "*"), sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 200 OK").doesNotContain("ETag");
+    }
+
+
+    private static WebWrapper getLargeFileWebWrapper() {
+        return WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .largeFileThreshold(1000)
+                .build();
+    }
+
+
+    @Test
+    public void wrapFile_LargeFile_HeaderAndWholeFileRegion() {
+        WebWrapper webWrapper = getLargeFileWebWrapper();
+        ByteStorage sink = new ByteStorage();
+        FileRegion region = (FileRegion) webWrapper.wrapFile("monkey.jpg", Request.EMPTY, sink);
+        assertThat(sink.getAsString())
+                .startsWith("HTTP/1.1 200 OK\r\n")
+                .contains("Content-Length: 416176\r\n", "Accept-Ranges: bytes\r\n", "ETag: ")
+                .endsWith("\r\n\r\n");
+        assertThat(region.getPosition()).isEqualTo(0);
+        assertThat(region.getCount()).isEqualTo(416176);
+        assertThat(webWrapper.mFileCache.cacheSize()).isZero();
+    }
+
+
+    @Test
+    public void wrapFile_LargeFileAndRange_206AndRangeRegion() {
+        WebWrapper webWrapper = getLargeFileWebWrapper();
+        ByteStorage sink = new ByteStorage();
+        FileRegion region = (FileRegion) webWrapper.wrapFile("monkey.jpg", getRequestWithHeader("Range", "bytes=100-199"), sink);
+        assertThat(sink.getAsString())
+                .startsWith("HTTP/1.1 206 Partial Content\r\n")
+                .contains("Content-Length: 100\r\n", "Content-Range: bytes 100-199/416176\r\n");
+        assertThat(region.getPosition()).isEqualTo(100);
+        assertThat(region.getCount()).isEqualTo(100);
+    }
+
+
+    @Test
+    public void wrapFile_LargeFileAndRangeAfterEnd_416() {
+        WebWrapper webWrapper = getLargeFileWebWrapper();
+        ByteStorage sink = new ByteStorage();
+        FileRegion region = (FileRegion) webWrapper.wrapFile("monkey.jpg", getRequestWithHeader("Range", "bytes=500000-"), sink);
+        assertThat(sink.getAsString())
+                .startsWith("HTTP/1.1 416 Range Not Satisfiable\r\n")
+                .contains("Content-Range: bytes */416176\r\n");
+        assertThat(region).isNull();
+    }
+
+
+    @Test
+    public void wrapFile_LargeFileAndSameTag_304() {
+        WebWrapper webWrapper = getLargeFileWebWrapper();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("monkey.jpg", Request.EMPTY, sink);
+        String eTag = SubString.create(sink.getAsString()).startDelimiter("ETag: ").endDelimiter("\r\n").getString();
+        sink.clear();
+        FileRegion region = (FileRegion) webWrapper.wrapFile("monkey.jpg", getRequestWithHeader("If-None-Match", eTag), sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 304 Not Modified");
+        assertThat(region).isNull();
+    }
+
+
+    @Test
+    public void wrapFile_SmallFile_NoRegion() {
+        WebWrapper webWrapper = getLargeFileWebWrapper();
+        ByteStorage sink = new ByteStorage();
+        FileRegion region = (FileRegion) webWrapper.wrapFile("somefile.html", Request.EMPTY, sink);
+        assertThat(region).isNull();
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 200 OK");
+    }
+
+
+    @Test
+    public void isRangeValid_NoIfRange_True() {
+        assertThat(WebWrapper.isRangeValid("", "\"abc\"", 1000)).isTrue();
+    }
+
+
+    @Test
+    public void isRangeValid_OtherTag_False() {
+        assertThat(WebWrapper.isRangeValid("\"def\"", "\"abc\"", 1000)).isFalse();
+    }
+
+
+    @Test
+    public void isRangeValid_SameTag_True() {
+        assertThat(WebWrapper.isRangeValid("\"abc\"", "\"abc\"", 1000)).isTrue();
+    }
+
+
+    @Test
+    public void isRangeValid_SameDate_True() {
+        assertThat(WebWrapper.isRangeValid(HttpDate.format(5000), "\"abc\"", 5000)).isTrue();
+    }
+
+
+    @Test
+    public void isRangeValid_OtherDate_False() {
+        assertThat(WebWrapper.isRangeValid(HttpDate.format(1000), "\"abc\"", 5000)).isFalse();
+    }
+
+
+    @Test
+    public void wrapFile_WebServerDirOnFileSystem_FileFromFileSystem() throws IOException {
+        Path root = Files.createTempDirectory("web");
+        Files.write(root.resolve("page.html"), UTF8.getBytes("<html>from disk</html>"));
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir(root.toString())
+                .webServerDirOnFileSystem(true)
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("page.html", Request.EMPTY, sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 200 OK").endsWith("<html>from disk</html>");
+    }
+
+
+    @Test
+    public void wrapFile_WebServerDirOnFileSystemAndTraversal_404() throws IOException {
+        Path parent = Files.createTempDirectory("parent");
+        Path root = Files.createDirectory(parent.resolve("web"));
+        Files.write(parent.resolve("secret.txt"), UTF8.getBytes("secret"));
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir(root.toString())
+                .webServerDirOnFileSystem(true)
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("../secret.txt", Request.EMPTY, sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 404").doesNotContain("secret");
+    }
+
+
+    @Test
+    public void wrapFile_WebServerDirOnFileSystemAndLargeFile_FileRegion() throws IOException {
+        Path root = Files.createTempDirectory("web");
+        Files.write(root.resolve("large.pdf"), new byte[2000]);
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir(root.toString())
+                .webServerDirOnFileSystem(true)
+                .largeFileThreshold(1000)
+                .build();
+        FileRegion region = (FileRegion) webWrapper.wrapFile("large.pdf", Request.EMPTY, new ByteStorage());
+        assertThat(region.getCount()).isEqualTo(2000);
+        assertThat(region.getPath().startsWith(root.toRealPath())).isTrue();
+    }
+
+
+    @Test
+    public void wrapFile_RequestVariable_RenderedPerRequest() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .requestVariables(ImmutableMap.of("user_agent", request -> request.getHeaderValue("User-Agent")))
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("with_request_var.html", getRequestWithHeader("User-Agent", "agent1"), sink);
+        assertThat(sink.getAsString())
+                .startsWith("HTTP/1.1 200 OK")
+                .contains("<b>This is an include file</b> agent1")
+                .doesNotContain("ETag");
+        sink.clear();
+        webWrapper.wrapFile("with_request_var.html", getRequestWithHeader("User-Agent", "agent2"), sink);
+        assertThat(sink.getAsString()).contains("<b>This is an include file</b> agent2");
+        assertThat(webWrapper.mFileCache.cacheSize()).isEqualTo(1);
+    }
+
+
+    @Test
+    public void wrapFile_DirectoryWithDotInName_DefaultPageOfDirectory() throws IOException {
+        Path root = Files.createTempDirectory("web");
+        Path directory = Files.createDirectory(root.resolve("v1.2"));
+        Files.write(directory.resolve("index.html"), UTF8.getBytes("<html>v1.2</html>"));
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir(root.toString())
+                .webServerDirOnFileSystem(true)
+                .build();
+        ByteStorage sink = new ByteStorage();
+        webWrapper.wrapFile("v1.2", Request.EMPTY, sink);
+        assertThat(sink.getAsString()).startsWith("HTTP/1.1 200 OK").endsWith("<html>v1.2</html>");
+    }
+
+
+    @Test
+    public void getState_ClasspathWebServerDir_Indexed() {
+        WebWrapper webWrapper = WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build();
+        assertThat(webWrapper.getState().getJson().getBoolean("Indexed")).isTrue();
+    }
+
+
+    private static WebWrapper getOffHeapWebWrapper() {
+        return WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .cacheFilesInRam(true)
+                .offHeapFileCache(true)
+                .build();
+    }
+
+
+    @Test
+    public void wrapFile_OffHeapFileCache_HeaderInSinkAndBodyOffHeap() {
+        WebWrapper webWrapper = getOffHeapWebWrapper();
+        String expected = UTF8.getString(WebWrapper.builder()
+                .webServerDir("testfiles/")
+                .build()
+                .wrapFile("somefile.html"));
+        webWrapper.wrapFile("somefile.html", Request.EMPTY, new ByteStorage());
+        //The second request is served from the cache
+        ByteStorage sink = new ByteStorage();
+        IResponseBody body = webWrapper.wrapFile("somefile.html", Request.EMPTY, sink);
+        assertThat(body).isInstanceOf(BufferBody.class);
+        assertThat(sink.getAsString())
+                .startsWith("HTTP/1.1 200 OK\r\n")
+                .endsWith("\r\n\r\n");
+        assertThat(sink.getAsString() + UTF8.getString(((BufferBody) body).getBytes())).isEqualTo(expected);
+    }
+
+
+    @Test
+    public void wrapFile_OffHeapFileCacheLegacy_HeaderAndBody() {
+        WebWrapper webWrapper = getOffHeapWebWrapper();
+        webWrapper.wrapFile("somefile.html");
+        String response = UTF8.getString(webWrapper.wrapFile("somefile.html"));
+        assertThat(response)
+                .startsWith("HTTP/1.1 200 OK\r\n")
+                .contains("\r\n\r\n")
+                .doesNotEndWith("\r\n\r\n");
+    }
+
+
+    @Test
+    public void getState_OffHeapFileCache_OffHeapStoreState() {
+        WebWrapper webWrapper = getOffHeapWebWrapper();
+        webWrapper.wrapFile("somefile.html", Request.EMPTY, new ByteStorage());
+        JSONObject state = webWrapper.getState().getJson();
+        assertThat(state.getBoolean("OffHeapFileCache")).isTrue();
+        assertThat(state.toString()).contains("OffHeapStore", "FragmentationPercent");
+    }
+
+
+    @Test
+    public void getHeaderLength_HeaderAndBody_LengthOfHeader() {
+        byte[] response = UTF8.getBytes("HTTP/1.1 200 OK\r\nA: b\r\n\r\nbody\r\n\r\n");
+        assertThat(WebWrapper.getHeaderLength(response)).isEqualTo(25);
+    }
+
+
+    @Test
+    public void getHeaderLength_NoEndOfHeader_Exception() {
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> WebWrapper.getHeaderLength(UTF8.getBytes("HTTP/1.1 200 OK\r\n")));
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.atexpose.dispatcherfactories;
 
+import com.atexpose.dispatcher.WorkerPool;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -85,6 +86,38 @@ public class WebServerBuilderTest {
     }
 
 
+    @Test
+    public void fileCacheMaxBytes_1000_1000() {
+        assertEquals(64L * 1024 * 1024, mWsb.mFileCacheMaxBytes);
+        mWsb.fileCacheMaxBytes(1000);
+        assertEquals(1000, mWsb.mFileCacheMaxBytes);
+    }
+
+
+    @Test
+    public void largeFileThreshold_1000_1000() {
+        assertEquals(1024L * 1024, mWsb.mLargeFileThreshold);
+        mWsb.largeFileThreshold(1000);
+        assertEquals(1000, mWsb.mLargeFileThreshold);
+    }
+
+
+    @Test
+    public void offHeapFileCache_True_True() {
+        assertEquals(false, mWsb.mOffHeapFileCache);
+        mWsb.offHeapFileCache(true);
+        assertEquals(true, mWsb.mOffHeapFileCache);
+    }
+
+
+    @Test
+    public void webServerDirOnFileSystem_True_True() {
+        assertEquals(false, mWsb.mWebServerDirOnFileSystem);
+        mWsb.webServerDirOnFileSystem(true);
+        assertEquals(true, mWsb.mWebServerDirOnFileSystem);
+    }
+
+
     @Test
     public void testServerSideVariables() {
         mWsb.addServerSideVar("a_key", "a_value");
@@ -96,6 +129,13 @@ public class WebServerBuilderTest {
     }
 
 
+    @Test
+    public void addRequestVariable_OneVariable_VariableAdded() {
+        mWsb.addRequestVariable("user_agent", request -> request.getHeaderValue("User-Agent"));
+        assertEquals(1, mWsb.mRequestVariables.size());
+    }
+
+
     @Test
     public void testForceDefaultPage() {
         mWsb.forceDefaultPage(true);
@@ -106,4 +146,42 @@ public class WebServerBuilderTest {
         assertTrue(mWsb.mForceDefaultPage);
     }
 
+
+    @Test
+    public void testNonBlocking() {
+        assertFalse(mWsb.mNonBlocking);
+        mWsb.nonBlocking(true).numberOfSelectorThreads(3);
+        assertTrue(mWsb.mNonBlocking);
+        assertEquals(3, mWsb.mNumberOfSelectorThreads);
+    }
+
+
+    @Test
+    public void testKeepAlive() {
+        assertFalse(mWsb.mKeepAlive);
+        mWsb.keepAlive(true).keepAliveTimeoutInMillis(2000).maxRequestsPerConnection(7);
+        assertTrue(mWsb.mKeepAlive);
+        assertEquals(2000, mWsb.mKeepAliveTimeoutInMillis);
+        assertEquals(7, mWsb.mMaxRequestsPerConnection);
+    }
+
+
+    @Test
+    public void testWorkerPool() {
+        assertFalse(mWsb.mUseWorkerPool);
+        assertEquals(WorkerPool.RejectionPolicy.CALLER_RUNS, mWsb.mRejectionPolicy);
+        mWsb.useWorkerPool(true).workerQueueCapacity(20).rejectionPolicy(WorkerPool.RejectionPolicy.ABORT);
+        assertTrue(mWsb.mUseWorkerPool);
+        assertEquals(20, mWsb.mWorkerQueueCapacity);
+        assertEquals(WorkerPool.RejectionPolicy.ABORT, mWsb.mRejectionPolicy);
+    }
+
+
+    @Test
+    public void testVirtualThreads() {
+        assertFalse(mWsb.mVirtualThreads);
+        mWsb.virtualThreads(true);
+        assertTrue(mWsb.mVirtualThreads);
+    }
+
 }
@@ -0,0 +1,60 @@
+package com.atexpose.util;
+
+import io.schinzel.basicutils.UTF8;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class BufferBodyTest {
+
+    private static BufferBody createDirect(String content) {
+        byte[] bytes = UTF8.getBytes(content);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return BufferBody.create(buffer);
+    }
+
+
+    @Test
+    public void writeTo_DirectBuffer_Content() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createDirect("0123456789").writeTo(Channels.newChannel(out));
+        assertThat(UTF8.getString(out.toByteArray())).isEqualTo("0123456789");
+    }
+
+
+    @Test
+    public void writeTo_Twice_ContentTwice() throws IOException {
+        BufferBody body = createDirect("0123456789");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(Channels.newChannel(out));
+        body.writeTo(Channels.newChannel(out));
+        assertThat(UTF8.getString(out.toByteArray())).isEqualTo("01234567890123456789");
+    }
+
+
+    @Test
+    public void addTo_DirectBuffer_ContentAdded() {
+        ByteStorage storage = new ByteStorage();
+        storage.add(UTF8.getBytes("header "));
+        createDirect("body").addTo(storage);
+        assertThat(storage.getAsString()).isEqualTo("header body");
+    }
+
+
+    @Test
+    public void getSize_BufferWithPosition_RemainingBytes() {
+        ByteBuffer buffer = ByteBuffer.wrap(UTF8.getBytes("0123456789"));
+        buffer.position(4);
+        BufferBody body = BufferBody.create(buffer);
+        assertThat(body.getSize()).isEqualTo(6);
+        assertThat(UTF8.getString(body.getBytes())).isEqualTo("456789");
+    }
+
+}
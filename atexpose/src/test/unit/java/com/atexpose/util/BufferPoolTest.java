@@ -0,0 +1,64 @@
+package com.atexpose.util;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class BufferPoolTest {
+
+    @Test
+    public void acquire_SmallSize_MinSize() {
+        assertThat(BufferPool.acquire(10).length).isEqualTo(BufferPool.MIN_SIZE);
+    }
+
+
+    @Test
+    public void acquire_SizeBetweenClasses_NextClass() {
+        assertThat(BufferPool.acquire(3000).length).isEqualTo(4096);
+    }
+
+
+    @Test
+    public void acquire_SizeOfClass_SizeOfClass() {
+        assertThat(BufferPool.acquire(8192).length).isEqualTo(8192);
+    }
+
+
+    @Test
+    public void acquire_LargerThanMaxPooledSize_ExactSize() {
+        assertThat(BufferPool.acquire(BufferPool.MAX_POOLED_SIZE + 1).length).isEqualTo(BufferPool.MAX_POOLED_SIZE + 1);
+    }
+
+
+    @Test
+    public void acquire_Released_ArrayReused() {
+        int size = 64 * 1024;
+        //Makes room in the size class
+        BufferPool.acquire(size);
+        long retainedBytes = BufferPool.getRetainedBytes();
+        BufferPool.release(new byte[size]);
+        assertThat(BufferPool.getRetainedBytes()).isEqualTo(retainedBytes + size);
+        assertThat(BufferPool.acquire(size - 1).length).isEqualTo(size);
+        assertThat(BufferPool.getRetainedBytes()).isEqualTo(retainedBytes);
+    }
+
+
+    @Test
+    public void release_NotSizeOfClass_NotKept() {
+        long retainedBytes = BufferPool.getRetainedBytes();
+        BufferPool.release(new byte[1000]);
+        BufferPool.release(new byte[BufferPool.MAX_POOLED_SIZE * 2]);
+        assertThat(BufferPool.getRetainedBytes()).isEqualTo(retainedBytes);
+    }
+
+
+    @Test
+    public void release_ManyArrays_RetainedBytesBounded() {
+        for (int i = 0; i < 100; i++) {
+            BufferPool.release(new byte[BufferPool.MAX_POOLED_SIZE]);
+        }
+        assertThat(BufferPool.getRetainedBytes()).isLessThanOrEqualTo(24L * 1024 * 1024);
+    }
+
+}
@@ -1,10 +1,19 @@
 package com.atexpose.util;
 
+import io.schinzel.basicutils.FunnyChars;
+import io.schinzel.basicutils.UTF8;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  *
@@ -160,4 +169,178 @@ public class ByteStorageTest {
         assertEquals(str, bs.getAsString());
     }
 
+
+    @Test
+    public void insert_Middle_BytesShifted() {
+        ByteStorage bs = new ByteStorage();
+        bs.add("ADE");
+        bs.insert(1, new byte[]{66, 67});
+        assertEquals("ABCDE", bs.getAsString());
+        assertEquals(5, bs.getNoOfBytesStored());
+    }
+
+
+    @Test
+    public void insert_End_BytesAppended() {
+        ByteStorage bs = new ByteStorage();
+        bs.add("AB");
+        bs.insert(2, new byte[]{67});
+        assertEquals("ABC", bs.getAsString());
+    }
+
+
+    @Test
+    public void insert_BeyondStorageSize_StorageGrows() {
+        ByteStorage bs = new ByteStorage();
+        byte[] ab = new byte[600];
+        bs.add("AB");
+        bs.insert(1, ab);
+        assertEquals(602, bs.getNoOfBytesStored());
+        assertEquals('A', bs.getByte(0));
+        assertEquals('B', bs.getByte(601));
+    }
+
+
+    @Test(expected = RuntimeException.class)
+    public void insert_PositionAfterEnd_Exception() {
+        ByteStorage bs = new ByteStorage();
+        bs.add("AB");
+        bs.insert(3, new byte[]{67});
+    }
+
+
+    @Test
+    public void writeTo_ThreeBytes_ThreeBytesWritten() throws IOException {
+        ByteStorage bs = new ByteStorage();
+        bs.add("ABC");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bs.writeTo(outputStream);
+        assertArrayEquals(new byte[]{65, 66, 67}, outputStream.toByteArray());
+    }
+
+
+    @Test
+    public void add_ManySmallBatches_CapacityDoubles() {
+        ByteStorage bs = new ByteStorage();
+        for (int i = 0; i < 10000; i++) {
+            bs.add(new byte[100]);
+        }
+        assertEquals(1000000, bs.getNoOfBytesStored());
+        assertEquals(1024 * 1024, bs.getCapacity());
+    }
+
+
+    @Test
+    public void add_BytesFillingCapacity_NoGrowth() {
+        ByteStorage bs = new ByteStorage();
+        bs.add(new byte[512]);
+        assertEquals(512, bs.getCapacity());
+    }
+
+
+    @Test
+    public void ensureCapacity_ContentLength_NoGrowthWhenAdded() {
+        ByteStorage bs = new ByteStorage();
+        bs.ensureCapacity(5000);
+        int capacity = bs.getCapacity();
+        bs.add(new byte[5000]);
+        assertEquals(capacity, bs.getCapacity());
+    }
+
+
+    @Test
+    public void constructor_InitialCapacity_CapacityAtLeastInitial() {
+        assertEquals(4096, new ByteStorage(3000).getCapacity());
+    }
+
+
+    @Test
+    public void clear_LargeStorage_CapacityReset() {
+        ByteStorage bs = new ByteStorage();
+        bs.add(new byte[ByteStorage.MAX_RETAINED_SIZE + 1]);
+        bs.clear();
+        assertEquals(512, bs.getCapacity());
+        assertEquals(0, bs.getNoOfBytesStored());
+    }
+
+
+    @Test
+    public void clear_SmallStorage_CapacityKept() {
+        ByteStorage bs = new ByteStorage();
+        bs.add(new byte[2000]);
+        int capacity = bs.getCapacity();
+        bs.clear();
+        assertEquals(capacity, bs.getCapacity());
+    }
+
+
+    @Test
+    public void release_ThenAdd_BytesStored() {
+        ByteStorage bs = new ByteStorage();
+        bs.add("ABC");
+        bs.release();
+        assertEquals(0, bs.getNoOfBytesStored());
+        bs.add("DE");
+        assertEquals("DE", bs.getAsString());
+    }
+
+
+    @Test
+    public void asByteBuffer_ThreeBytes_ReadOnlyViewOfBytes() {
+        ByteStorage bs = new ByteStorage();
+        bs.add("ABC");
+        ByteBuffer buffer = bs.asByteBuffer();
+        assertEquals(3, buffer.remaining());
+        assertEquals('A', buffer.get(0));
+        assertEquals('C', buffer.get(2));
+        assertTrue(buffer.isReadOnly());
+    }
+
+
+    @Test
+    public void getArray_ThreeBytes_InternalArrayNotCopied() {
+        ByteStorage bs = new ByteStorage();
+        bs.add("ABC");
+        assertSame(bs.getArray(), bs.getArray());
+        assertEquals('B', bs.getArray()[1]);
+    }
+
+
+    @Test
+    public void addUtf8_FunnyChars_SameBytesAsStringGetBytes() {
+        for (FunnyChars funnyChars : FunnyChars.values()) {
+            String s = funnyChars.getString();
+            ByteStorage bs = new ByteStorage();
+            bs.addUtf8(s, 0, s.length());
+            assertArrayEquals(UTF8.getBytes(s), bs.getBytes());
+        }
+    }
+
+
+    @Test
+    public void addUtf8_PartOfString_OnlyPartAdded() {
+        ByteStorage bs = new ByteStorage();
+        bs.add((byte) 'x');
+        bs.addUtf8("abcåäö", 2, 5);
+        assertEquals("xcåä", bs.getAsString());
+    }
+
+
+    @Test
+    public void addUtf8_UnpairedSurrogate_SameBytesAsStringGetBytes() {
+        String s = "a\uD83Db\uDE00";
+        ByteStorage bs = new ByteStorage();
+        bs.addUtf8(s, 0, s.length());
+        assertArrayEquals(UTF8.getBytes(s), bs.getBytes());
+    }
+
+
+    @Test
+    public void addUtf8_MoreThanCapacity_StorageGrows() {
+        String s = StringUtils.repeat("€", 1000);
+        ByteStorage bs = new ByteStorage();
+        bs.addUtf8(s, 0, s.length());
+        assertEquals(s, bs.getAsString());
+    }
+
 }
@@ -34,4 +34,23 @@ public class DateTimeStringsTest extends DateTimeStrings {
     }
 
 
+    @Test
+    public void getDateTimeUTC_ManyInstants_SameAsUncached() {
+        Instant instant = Instant.parse("2016-12-31T23:59:58.000Z");
+        for (int i = 0; i < 3000; i += 7) {
+            Instant plus = instant.plusMillis(i);
+            assertEquals(DateTimeStrings.getDateTimeUTCUncached(plus), DateTimeStrings.getDateTimeUTC(plus));
+        }
+    }
+
+
+    @Test
+    public void getDateTimeUTC_EarlierSecond_SameAsUncached() {
+        Instant later = Instant.parse("2020-01-01T00:00:01.005Z");
+        Instant earlier = Instant.parse("1970-01-01T00:00:00.999Z");
+        assertEquals("2020-01-01 00:00:01.005", DateTimeStrings.getDateTimeUTC(later));
+        assertEquals("1970-01-01 00:00:00.999", DateTimeStrings.getDateTimeUTC(earlier));
+        assertEquals("2020-01-01 00:00:01.005", DateTimeStrings.getDateTimeUTC(later));
+    }
+
 }
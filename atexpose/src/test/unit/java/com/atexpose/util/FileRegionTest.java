@@ -0,0 +1,72 @@
+package com.atexpose.util;
+
+import io.schinzel.basicutils.UTF8;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+public class FileRegionTest {
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+
+    private Path createFile(String content) throws IOException {
+        Path path = mTemporaryFolder.newFile().toPath();
+        Files.write(path, UTF8.getBytes(content));
+        return path;
+    }
+
+
+    @Test
+    public void writeTo_WholeFile_FileContent() throws IOException {
+        Path path = this.createFile("0123456789");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FileRegion.create(path, 0, 10).writeTo(Channels.newChannel(out));
+        assertThat(UTF8.getString(out.toByteArray())).isEqualTo("0123456789");
+    }
+
+
+    @Test
+    public void writeTo_Region_RegionContent() throws IOException {
+        Path path = this.createFile("0123456789");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FileRegion.create(path, 3, 4).writeTo(Channels.newChannel(out));
+        assertThat(UTF8.getString(out.toByteArray())).isEqualTo("3456");
+    }
+
+
+    @Test
+    public void addTo_Region_AddedAfterExistingBytes() throws IOException {
+        Path path = this.createFile("0123456789");
+        ByteStorage storage = new ByteStorage();
+        storage.add("header");
+        FileRegion.create(path, 5, 5).addTo(storage);
+        assertThat(storage.getAsString()).isEqualTo("header56789");
+    }
+
+
+    @Test
+    public void map_EmptyRegion_NoBuffers() throws IOException {
+        Path path = this.createFile("0123456789");
+        assertThat(FileRegion.create(path, 0, 0).map()).isEmpty();
+    }
+
+
+    @Test
+    public void create_NegativePosition_Exception() throws IOException {
+        Path path = this.createFile("0123456789");
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> FileRegion.create(path, -1, 5));
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.atexpose.util.httpresponse;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class ByteRangeTest {
+
+    @Test
+    public void parse_Empty_Null() {
+        assertThat(ByteRange.parse("", 1000)).isNull();
+    }
+
+
+    @Test
+    public void parse_FirstAndLast_Range() {
+        ByteRange range = ByteRange.parse("bytes=0-499", 1000);
+        assertThat(range.getStart()).isEqualTo(0);
+        assertThat(range.getEnd()).isEqualTo(499);
+        assertThat(range.getLength()).isEqualTo(500);
+    }
+
+
+    @Test
+    public void parse_LastAfterEndOfFile_RangeToEndOfFile() {
+        ByteRange range = ByteRange.parse("bytes=500-5000", 1000);
+        assertThat(range.getStart()).isEqualTo(500);
+        assertThat(range.getEnd()).isEqualTo(999);
+    }
+
+
+    @Test
+    public void parse_NoLast_RangeToEndOfFile() {
+        ByteRange range = ByteRange.parse("bytes=900-", 1000);
+        assertThat(range.getStart()).isEqualTo(900);
+        assertThat(range.getEnd()).isEqualTo(999);
+    }
+
+
+    @Test
+    public void parse_Suffix_LastBytes() {
+        ByteRange range = ByteRange.parse("bytes=-100", 1000);
+        assertThat(range.getStart()).isEqualTo(900);
+        assertThat(range.getEnd()).isEqualTo(999);
+    }
+
+
+    @Test
+    public void parse_SuffixLargerThanFile_WholeFile() {
+        ByteRange range = ByteRange.parse("bytes=-5000", 1000);
+        assertThat(range.getStart()).isEqualTo(0);
+        assertThat(range.getEnd()).isEqualTo(999);
+    }
+
+
+    @Test
+    public void parse_FirstAfterEndOfFile_Unsatisfiable() {
+        assertThat(ByteRange.parse("bytes=1000-", 1000)).isSameAs(ByteRange.UNSATISFIABLE);
+    }
+
+
+    @Test
+    public void parse_MultipleRanges_Null() {
+        assertThat(ByteRange.parse("bytes=0-1,5-6", 1000)).isNull();
+    }
+
+
+    @Test
+    public void parse_LastBeforeFirst_Null() {
+        assertThat(ByteRange.parse("bytes=500-100", 1000)).isNull();
+    }
+
+
+    @Test
+    public void parse_OtherUnit_Null() {
+        assertThat(ByteRange.parse("items=0-1", 1000)).isNull();
+    }
+
+
+    @Test
+    public void parse_NotNumbers_Null() {
+        assertThat(ByteRange.parse("bytes=a-b", 1000)).isNull();
+    }
+
+}
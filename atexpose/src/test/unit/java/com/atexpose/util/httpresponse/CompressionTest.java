@@ -0,0 +1,50 @@
+package com.atexpose.util.httpresponse;
+
+import io.schinzel.basicutils.UTF8;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class CompressionTest {
+    private static final byte[] BODY = UTF8.getBytes(new String(new char[200]).replace("\0", "Hello åäö! "));
+
+
+    @Test
+    public void compress_Gzip_InflatesToBody() throws IOException {
+        byte[] compressed = Compression.compress(BODY, ContentEncoding.GZIP);
+        byte[] inflated = IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+        assertThat(inflated).isEqualTo(BODY);
+        assertThat(compressed.length).isLessThan(BODY.length);
+    }
+
+
+    @Test
+    public void compress_Deflate_InflatesToBody() throws IOException {
+        byte[] compressed = Compression.compress(BODY, ContentEncoding.DEFLATE);
+        byte[] inflated = IOUtils.toByteArray(new InflaterInputStream(new ByteArrayInputStream(compressed)));
+        assertThat(inflated).isEqualTo(BODY);
+    }
+
+
+    @Test
+    public void compress_GzipManyTimes_SameBytes() {
+        byte[] first = Compression.compress(BODY, ContentEncoding.GZIP);
+        for (int i = 0; i < 50; i++) {
+            assertThat(Compression.compress(BODY, ContentEncoding.GZIP)).isEqualTo(first);
+        }
+    }
+
+
+    @Test
+    public void compress_Identity_SameArray() {
+        assertThat(Compression.compress(BODY, ContentEncoding.IDENTITY)).isSameAs(BODY);
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.atexpose.util.httpresponse;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class ContentEncodingTest {
+
+    @Test
+    public void negotiate_Empty_Identity() {
+        assertThat(ContentEncoding.negotiate("")).isEqualTo(ContentEncoding.IDENTITY);
+        assertThat(ContentEncoding.negotiate(null)).isEqualTo(ContentEncoding.IDENTITY);
+    }
+
+
+    @Test
+    public void negotiate_GzipAndDeflate_Gzip() {
+        assertThat(ContentEncoding.negotiate("deflate, gzip, br")).isEqualTo(ContentEncoding.GZIP);
+    }
+
+
+    @Test
+    public void negotiate_DeflateOnly_Deflate() {
+        assertThat(ContentEncoding.negotiate("DEFLATE")).isEqualTo(ContentEncoding.DEFLATE);
+    }
+
+
+    @Test
+    public void negotiate_GzipQualityZero_Deflate() {
+        assertThat(ContentEncoding.negotiate("gzip;q=0, deflate;q=0.5")).isEqualTo(ContentEncoding.DEFLATE);
+    }
+
+
+    @Test
+    public void negotiate_Wildcard_Gzip() {
+        assertThat(ContentEncoding.negotiate("*")).isEqualTo(ContentEncoding.GZIP);
+    }
+
+
+    @Test
+    public void negotiate_WildcardQualityZeroAndGzip_Gzip() {
+        assertThat(ContentEncoding.negotiate("*;q=0, gzip")).isEqualTo(ContentEncoding.GZIP);
+    }
+
+
+    @Test
+    public void negotiate_UnsupportedOnly_Identity() {
+        assertThat(ContentEncoding.negotiate("br, identity")).isEqualTo(ContentEncoding.IDENTITY);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.atexpose.util.httpresponse;
+
+import io.schinzel.basicutils.UTF8;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class ETagTest {
+    private static final byte[] CONTENT = UTF8.getBytes("The content");
+
+
+    @Test
+    public void create_SameContent_SameTag() {
+        assertThat(ETag.create(CONTENT, null)).isEqualTo(ETag.create(UTF8.getBytes("The content"), ContentEncoding.IDENTITY));
+    }
+
+
+    @Test
+    public void create_OtherContent_OtherTag() {
+        assertThat(ETag.create(CONTENT, null)).isNotEqualTo(ETag.create(UTF8.getBytes("Other content"), null));
+    }
+
+
+    @Test
+    public void create_Gzip_QuotedTagWithEncoding() {
+        assertThat(ETag.create(CONTENT, ContentEncoding.GZIP)).matches("\"[0-9a-f]{32}-gzip\"");
+    }
+
+
+    @Test
+    public void matches_SameTag_True() {
+        String eTag = ETag.create(CONTENT, null);
+        assertThat(ETag.matches(eTag, eTag)).isTrue();
+    }
+
+
+    @Test
+    public void matches_ListWithWeakTag_True() {
+        String eTag = ETag.create(CONTENT, null);
+        assertThat(ETag.matches("\"abc\", W/" + eTag, eTag)).isTrue();
+    }
+
+
+    @Test
+    public void matches_Wildcard_True() {
+        assertThat(ETag.matches("*", ETag.create(CONTENT, null))).isTrue();
+    }
+
+
+    @Test
+    public void matches_OtherTag_False() {
+        assertThat(ETag.matches("\"abc\"", ETag.create(CONTENT, null))).isFalse();
+    }
+
+
+    @Test
+    public void matches_EmptyHeader_False() {
+        assertThat(ETag.matches("", ETag.create(CONTENT, null))).isFalse();
+    }
+
+}
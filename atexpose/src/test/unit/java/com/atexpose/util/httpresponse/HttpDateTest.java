@@ -0,0 +1,28 @@
+package com.atexpose.util.httpresponse;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class HttpDateTest {
+
+    @Test
+    public void format_Epoch_HttpDate() {
+        assertThat(HttpDate.format(784111777000L)).isEqualTo("Sun, 06 Nov 1994 08:49:37 GMT");
+    }
+
+
+    @Test
+    public void parse_HttpDate_EpochMillis() {
+        assertThat(HttpDate.parse("Sun, 06 Nov 1994 08:49:37 GMT")).isEqualTo(784111777000L);
+    }
+
+
+    @Test
+    public void parse_NotADate_MinusOne() {
+        assertThat(HttpDate.parse("yesterday")).isEqualTo(-1);
+        assertThat(HttpDate.parse("")).isEqualTo(-1);
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.atexpose.util.httpresponse;
 
+import com.atexpose.util.ByteStorage;
 import io.schinzel.basicutils.substring.SubString;
 import org.json.JSONObject;
 import org.junit.Test;
@@ -35,4 +36,17 @@ public class HttpResponse500Test {
                 .toString();
         assertEquals(exceptionProperties.toString() + "\n\n", actual);
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void write_Default_SameAsGetResponse() {
+        JSONObject exceptionProperties = new JSONObject().put("message", "Something is rotten");
+        ByteStorage sink = new ByteStorage();
+        HttpResponse500.write(exceptionProperties, CustomHeaders.EMPTY, sink);
+        String expected = HttpResponse500.builder()
+                .body(exceptionProperties)
+                .build()
+                .getResponse();
+        assertEquals(expected, sink.getAsString());
+    }
+}
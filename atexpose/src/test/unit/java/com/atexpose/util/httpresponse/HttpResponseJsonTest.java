@@ -1,13 +1,20 @@
 package com.atexpose.util.httpresponse;
 
+import org.apache.commons.io.IOUtils;
+import io.schinzel.basicutils.UTF8;
+import com.atexpose.util.ByteStorage;
 import com.google.common.collect.ImmutableMap;
 import io.schinzel.basicutils.substring.SubString;
 import org.json.JSONObject;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 public class HttpResponseJsonTest {
     @Test
@@ -77,4 +84,61 @@ public class HttpResponseJsonTest {
         String expected = "val";
         Assert.assertEquals(expected, actual);
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void write_CustomHeader_SameAsGetResponse() {
+        Map<String, String> customHeaders = ImmutableMap.of("key", "val", "key2", "val2");
+        JSONObject json = new JSONObject().put("key1", "val1");
+        ByteStorage sink = new ByteStorage();
+        HttpResponseJson.write(json, CustomHeaders.create(customHeaders), sink);
+        String expected = HttpResponseJson.builder()
+                .body(json)
+                .customHeaders(customHeaders)
+                .build()
+                .getResponse();
+        Assert.assertEquals(expected, sink.getAsString());
+    }
+
+
+    @Test
+    public void write_NoCustomHeaders_SameAsGetResponse() {
+        JSONObject json = new JSONObject().put("key1", "åäö");
+        ByteStorage sink = new ByteStorage();
+        HttpResponseJson.write(json, CustomHeaders.EMPTY, sink);
+        String expected = HttpResponseJson.builder()
+                .body(json)
+                .build()
+                .getResponse();
+        Assert.assertEquals(expected, sink.getAsString());
+    }
+
+
+    @Test
+    public void write_GzipLargeBody_CompressedWithHeaders() throws IOException {
+        JSONObject json = new JSONObject().put("key", new String(new char[2000]).replace("\0", "a"));
+        ByteStorage sink = new ByteStorage();
+        HttpResponseJson.write(json, ContentEncoding.GZIP, CustomHeaders.EMPTY, sink);
+        byte[] response = sink.getBytes();
+        String header = SubString.create(sink.getAsString()).endDelimiter("\r\n\r\n").getString();
+        Assert.assertTrue(header.contains("Content-Encoding: gzip\r\nVary: Accept-Encoding"));
+        int bodyStart = header.length() + 4;
+        byte[] body = Arrays.copyOfRange(response, bodyStart, response.length);
+        Assert.assertTrue(header.contains("Content-Length: " + body.length + "\r\n"));
+        byte[] inflated = IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(body)));
+        Assert.assertEquals(json.toString() + "\n\n", UTF8.getString(inflated));
+    }
+
+
+    @Test
+    public void write_GzipSmallBody_NotCompressed() {
+        JSONObject json = new JSONObject().put("key1", "val1");
+        ByteStorage sink = new ByteStorage();
+        HttpResponseJson.write(json, ContentEncoding.GZIP, CustomHeaders.EMPTY, sink);
+        String expected = HttpResponseJson.builder()
+                .body(json)
+                .build()
+                .getResponse();
+        Assert.assertEquals(expected, sink.getAsString());
+    }
+}
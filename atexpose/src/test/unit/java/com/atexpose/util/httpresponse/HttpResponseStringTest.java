@@ -1,5 +1,6 @@
 package com.atexpose.util.httpresponse;
 
+import com.atexpose.util.ByteStorage;
 import com.google.common.collect.ImmutableMap;
 import io.schinzel.basicutils.substring.SubString;
 import org.junit.Test;
@@ -78,4 +79,17 @@ public class HttpResponseStringTest {
         assertEquals(expected, actual);
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void write_CustomHeader_SameAsGetResponse() {
+        Map<String, String> customHeaders = ImmutableMap.of("key", "val");
+        ByteStorage sink = new ByteStorage();
+        HttpResponseString.write("Smörgåsbord", CustomHeaders.create(customHeaders), sink);
+        String expected = HttpResponseString.builder()
+                .body("Smörgåsbord")
+                .customHeaders(customHeaders)
+                .build()
+                .getResponse();
+        assertEquals(expected, sink.getAsString());
+    }
+}